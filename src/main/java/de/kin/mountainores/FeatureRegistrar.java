@@ -1,20 +1,56 @@
 package de.kin.mountainores;
 
+import de.kin.mountainores.budget.OreBudget;
+import de.kin.mountainores.engine.VeinTemplates;
+import de.kin.mountainores.feature.BandedOreFeature;
 import de.kin.mountainores.feature.LodeSelectorFeature;
 import de.kin.mountainores.feature.VariableOreFeature;
 import net.minecraft.registry.Registries;
 import net.minecraft.registry.Registry;
 import net.minecraft.util.Identifier;
+import net.minecraft.world.gen.feature.Feature;
 import net.minecraft.world.gen.feature.OreFeatureConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @SuppressWarnings("null")
 public class FeatureRegistrar {
 
     private static final Logger LOGGER = LoggerFactory.getLogger("mountainores");
 
+    // Shapes per vein size when veinTemplates is enabled
+    private static final int VEIN_TEMPLATE_VARIANTS = 2048;
+
+    // Largest vein size of the registered features, the upper end of the template library
+    private static int maxVeinSize = 1;
+
+    // Features by ID, created by features() and registered by registerFeatures()
+    private static Map<Identifier, Feature<?>> features;
+
     public static void registerFeatures() {
+        features().forEach((id, feature) -> Registry.register(Registries.FEATURE, id, feature));
+        LOGGER.info("[mountainores] Registered ore features");
+
+        if (MountainOres.CONFIG != null && MountainOres.CONFIG.veinTemplates) {
+            buildVeinTemplates();
+        }
+    }
+
+    /**
+     * All MountainOres features by ID, created on the first call. Only
+     * {@link #registerFeatures()} registers them; tests, where mod
+     * entrypoints do not run, decode the configured features with them.
+     */
+    public static synchronized Map<Identifier, Feature<?>> features() {
+        if (features != null) {
+            return features;
+        }
+        Map<Identifier, Feature<?>> created = new LinkedHashMap<>();
+
         // Tuning guide: docs/worldgen-tuning.md
         // Height bands: docs/height-bands.md (Y>=64 only)
         //
@@ -25,82 +61,112 @@ public class FeatureRegistrar {
         // - the feature registration names ("*_ore" / "lode__selector")
 
         // Coal (Y>63 custom distribution; capped/extended via placement)
-        registerFeature("coal__main__ore", 13, 21);
-        registerFeature("coal__mid_altitude__ore", 11, 20);
-        registerFeature("coal__high__ore", 10, 17);
+        addFeature(created, "coal__main__ore", 13, 21);
+        addFeature(created, "coal__mid_altitude__ore", 11, 20);
+        addFeature(created, "coal__high__ore", 10, 17);
 
         // Underground replacements (used when overrideVanillaOres=true)
         // Keep these reasonably vanilla-like; the exact per-height distribution is defined in placed_feature JSON.
         // Vanilla coal size: 17
-        registerFeature("coal__underground__ore", 12, 17);
+        addFeature(created, "coal__underground__ore", 12, 17);
 
         // Iron (Y>63)
-        registerFeature("iron__main__ore", 10, 18);
-        registerFeature("iron__mid_altitude__ore", 10, 18);
-        registerFeature("iron__high__ore", 12, 20);
-        registerFeature("iron__mountain_tail__ore", 10, 18);
+        addFeature(created, "iron__main__ore", 10, 18);
+        addFeature(created, "iron__mid_altitude__ore", 10, 18);
+        addFeature(created, "iron__high__ore", 12, 20);
+        addFeature(created, "iron__mountain_tail__ore", 10, 18);
 
         // Underground iron (normal + small)
-        registerFeature("iron__underground__ore", 7, 12);
-        registerFeature("iron__underground_small__ore", 4, 7);
+        addFeature(created, "iron__underground__ore", 7, 12);
+        addFeature(created, "iron__underground_small__ore", 4, 7);
 
         // Copper (Y>63; weak tail in mountain tail placement)
-        registerFeature("copper__main__ore", 12, 22);
-        registerFeature("copper__mid_altitude__ore", 12, 22);
-        registerFeature("copper__high__ore", 10, 20);
-        registerFeature("copper__mountain_tail__ore", 8, 16);
+        addFeature(created, "copper__main__ore", 12, 22);
+        addFeature(created, "copper__mid_altitude__ore", 12, 22);
+        addFeature(created, "copper__high__ore", 10, 20);
+        addFeature(created, "copper__mountain_tail__ore", 8, 16);
 
         // Underground copper
-        registerFeature("copper__underground__ore", 8, 14);
+        addFeature(created, "copper__underground__ore", 8, 14);
 
         // Vanilla-like dripstone caves copper (matches vanilla ore_copper_large vein size ~20)
-        registerFeature("copper__dripstone_caves__large__ore", 20, 20);
+        addFeature(created, "copper__dripstone_caves__large__ore", 20, 20);
 
         // Gold (mountain main + mountain tail)
-        registerFeature("gold__mountain_main__ore", 6, 12);
-        registerFeature("gold__mountain_tail__ore", 5, 10);
+        addFeature(created, "gold__mountain_main__ore", 6, 12);
+        addFeature(created, "gold__mountain_tail__ore", 5, 10);
 
         // Underground gold / redstone / lapis / diamond (vanilla-like vein sizes)
         // Vanilla sizes: gold=9, redstone=8, lapis=7, diamond=4/8/12
-        registerFeature("gold__underground__ore", 7, 11);
+        addFeature(created, "gold__underground__ore", 7, 11);
 
         // Badlands extra gold (vanilla-like: ore_gold_extra spawns Y 32-256 with 50 attempts)
-        registerFeature("gold__badlands_extra__ore", 7, 11);
-        registerFeature("redstone__underground__ore", 6, 10);
-        registerFeature("lapis__underground__ore", 5, 9);
-        registerFeature("diamond__underground__ore", 3, 5);
-        registerFeature("diamond__underground_large__ore", 8, 12);
+        addFeature(created, "gold__badlands_extra__ore", 7, 11);
+        addFeature(created, "redstone__underground__ore", 6, 10);
+        addFeature(created, "lapis__underground__ore", 5, 9);
+        addFeature(created, "diamond__underground__ore", 3, 5);
+        addFeature(created, "diamond__underground_large__ore", 8, 12);
 
         // Emerald (mountain main + mountain tail)
-        registerFeature("emerald__mountain_main__ore", 2, 5);
-        registerFeature("emerald__mountain_tail__ore", 2, 5);
+        addFeature(created, "emerald__mountain_main__ore", 2, 5);
+        addFeature(created, "emerald__mountain_tail__ore", 2, 5);
 
         // Rare large deposits ("lodes")
-        // Implemented as a single weighted selector feature with exactly one roll per chunk (via placement rarity).
+        // Implemented as a single weighted selector feature with at most one roll per chunk (rarity or lode grid).
         // Entries and weights are configured in the lode selector configured_feature JSON.
-        registerLodeSelectorFeature();
+        addLodeSelectorFeature(created);
 
-        LOGGER.info("[mountainores] Registered ore features");
+        // All bands of one ore in a single feature (used when bandedPlacement=true).
+        // Band weights, windows and vein sizes are configured in the *__banded__cfg JSONs.
+        addBandedOreFeature(created);
+
+        features = Collections.unmodifiableMap(created);
+        return features;
+    }
+
+    /**
+     * Builds a vein template library covering every registered vein size,
+     * as {@code veinTemplates} uses.
+     */
+    public static VeinTemplates newVeinTemplates() {
+        features();
+        return VeinTemplates.build(maxVeinSize, VEIN_TEMPLATE_VARIANTS);
+    }
+
+    private static void buildVeinTemplates() {
+        long start = System.nanoTime();
+        VeinTemplates library = newVeinTemplates();
+        VariableOreFeature.useTemplates(library);
+        LOGGER.info("[mountainores] Built vein templates: sizes 1-{}, {} shapes each, {} KiB in {} ms",
+                library.maxSize(), library.variants(), library.sizeInBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
     }
 
-    private static void registerFeature(String name, int minSize, int maxSize) {
+    private static void addFeature(Map<Identifier, Feature<?>> features, String name, int minSize, int maxSize) {
         // Note: the registered ID is "mountainores:<name>".
         // Worldgen JSONs reference these IDs via configured_feature "type".
         LOGGER.info("[mountainores] Register Feature '{}' (vein blocks: {}-{})", name, minSize, maxSize);
-        Registry.register(
-                Registries.FEATURE,
+        maxVeinSize = Math.max(maxVeinSize, maxSize);
+        features.put(
                 Identifier.of("mountainores", name),
-                new VariableOreFeature(OreFeatureConfig.CODEC, minSize, maxSize)
+                new VariableOreFeature(OreFeatureConfig.CODEC, minSize, maxSize, OreBudget.Priority.forFeature(name))
         );
     }
 
-    private static void registerLodeSelectorFeature() {
+    private static void addLodeSelectorFeature(Map<Identifier, Feature<?>> features) {
         String name = "lode__selector";
         LOGGER.info("[mountainores] Register Feature '{}' (weighted lode selector)", name);
-        Registry.register(
-                Registries.FEATURE,
+        features.put(
                 Identifier.of("mountainores", name),
                 new LodeSelectorFeature(LodeSelectorFeature.Config.CODEC)
         );
     }
+
+    private static void addBandedOreFeature(Map<Identifier, Feature<?>> features) {
+        String name = "banded__ore";
+        LOGGER.info("[mountainores] Register Feature '{}' (banded ore)", name);
+        features.put(
+                Identifier.of("mountainores", name),
+                new BandedOreFeature(BandedOreFeature.Config.CODEC)
+        );
+    }
 }
@@ -1,5 +1,7 @@
 package de.kin.mountainores;
 
+import net.minecraft.util.math.random.Random;
+
 /**
  * Central height-scaling utility for MountainOres.
  *
@@ -127,4 +129,34 @@ public final class HeightScaler {
         if (factor == 1.0) return count;
         return Math.max(1, (int) Math.round(count * factor));
     }
+
+    /**
+     * Scale a count with stochastic rounding: {@code floor(count * factor + u)}.
+     * For {@code u} uniform in [0, 1) the expected result is exactly
+     * {@code count * factor}, including values below 1 (which then
+     * sometimes yield 0).
+     *
+     * @param count          the original count (designed for {@link #REFERENCE_HEIGHT})
+     * @param maxWorldHeight the effective maximum world height
+     * @param u              a uniform random value in [0, 1)
+     * @return the scaled count, at least 0
+     */
+    public static int scaleCountFractional(int count, int maxWorldHeight, double u) {
+        double factor = getFactor(maxWorldHeight);
+        if (factor == 1.0) return count;
+        return Math.max(0, (int) Math.floor(count * factor + u));
+    }
+
+    /**
+     * Scale a count the way the {@code fractionalCounts} option asks for:
+     * stochastic rounding with one draw from {@code random}, or
+     * {@link #scaleCount} when the option is off (no draw).
+     */
+    public static int scaleCount(int count, int maxWorldHeight, Random random) {
+        MountainOresConfig cfg = MountainOres.CONFIG;
+        if (cfg == null || !cfg.fractionalCounts || getFactor(maxWorldHeight) == 1.0) {
+            return scaleCount(count, maxWorldHeight);
+        }
+        return scaleCountFractional(count, maxWorldHeight, random.nextDouble());
+    }
 }
@@ -1,7 +1,20 @@
 package de.kin.mountainores;
 
+import de.kin.mountainores.command.MountainOresCommand;
+import de.kin.mountainores.ledger.OreLedger;
+import de.kin.mountainores.placement.BandedHeightPlacementModifier;
+import de.kin.mountainores.placement.BiomePresencePlacementModifier;
+import de.kin.mountainores.placement.LodeGridPlacementModifier;
+import de.kin.mountainores.placement.ProvinceDensityPlacementModifier;
 import de.kin.mountainores.placement.ScaledCountPlacementModifier;
 import de.kin.mountainores.placement.ScaledHeightRangePlacementModifier;
+import de.kin.mountainores.retrogen.RetrogenMarker;
+import de.kin.mountainores.retrogen.RetrogenScheduler;
+import de.kin.mountainores.trace.TraceCapture;
+import de.kin.mountainores.warmup.JitWarmup;
+import de.kin.mountainores.worldgen.DeferredBands;
+import de.kin.mountainores.worldgen.PlacedFeaturePruner;
+import de.kin.mountainores.worldgen.RegionContext;
 import net.fabricmc.api.ModInitializer;
 
 import org.slf4j.Logger;
@@ -27,10 +40,33 @@ public class MountainOres implements ModInitializer {
 		// (must happen before worldgen JSONs are deserialized)
 		ScaledHeightRangePlacementModifier.register();
 		ScaledCountPlacementModifier.register();
+		ProvinceDensityPlacementModifier.register();
+		BandedHeightPlacementModifier.register();
+		BiomePresencePlacementModifier.register();
+		LodeGridPlacementModifier.register();
 
 		FeatureRegistrar.registerFeatures();
 		WorldGenRegistrar.registerAll();
 
+		// Skip placed features that cannot generate at the Overworld's height
+		PlacedFeaturePruner.register();
+		DeferredBands.register();
+
+		// Per-region cache of derived worldgen data (biome tables)
+		RegionContext.register();
+
+		// Retrogen of pre-existing chunks (/mountainores retrogen)
+		RetrogenMarker.register();
+		RetrogenScheduler.register();
+		MountainOresCommand.register();
+		TraceCapture.register();
+
+		// Generation-time ore ledger (/mountainores ledger)
+		OreLedger.register();
+
+		// Optional JIT warm-up of the ore code after server start (jitWarmup)
+		JitWarmup.register();
+
 		if (HeightScaler.isAutoDetect()) {
 			LOGGER.info("[mountainores] Height scaling: auto-detect enabled (reference={})",
 					HeightScaler.REFERENCE_HEIGHT);
@@ -47,16 +47,228 @@ public final class MountainOresConfig {
 	 */
 	public int maxWorldHeight = 2032;
 
+	// ── Placement ───────────────────────────────────────────────────────
+
+	/**
+	 * When enabled, each ore's height bands are merged into one placed feature
+	 * ({@code *__banded__placed}) that picks the band per vein with an alias
+	 * table, instead of running one placed feature per band. Fewer feature
+	 * passes per chunk; changes the exact layout of new chunks. At the
+	 * reference height, or with {@link #fractionalCounts}, the expected ore
+	 * per Y level is the same. Otherwise worlds below the reference height
+	 * differ: the merged count is rounded once, not per band with a minimum
+	 * of 1 each, so short worlds get fewer veins, and fewer in the low-weight
+	 * bands.
+	 */
+	public boolean bandedPlacement = false;
+
+	/**
+	 * When enabled, {@code scaled_count} and {@code province_density} scale
+	 * counts with stochastic rounding (one extra draw from the placement
+	 * random) instead of rounding to the nearest integer with a minimum of 1.
+	 * The expected count per chunk is then exactly {@code count × factor},
+	 * so short worlds run proportionally fewer veins. Changes the exact layout
+	 * of new chunks on worlds below the reference height.
+	 */
+	public boolean fractionalCounts = false;
+
+	/**
+	 * When enabled, lode sites come from a seed-derived jittered grid (one
+	 * candidate chunk per cell, see {@code mountainores:lode_grid} in the lode
+	 * placed feature) instead of an independent rarity roll per chunk. Same
+	 * expected number of lodes, spread more evenly; changes which chunks of
+	 * new terrain get a lode.
+	 */
+	public boolean lodeGrid = false;
+
+	/**
+	 * When enabled (default), MountainOres placed features whose scaled height
+	 * range lies completely outside the Overworld are skipped in every chunk
+	 * and listed in the log at startup. Such features cannot place ore, so
+	 * the layout is unchanged.
+	 */
+	public boolean pruneFeatures = true;
+
+	/**
+	 * Additionally skip placed features with less than this fraction of their
+	 * positions inside the world (e.g. {@code 0.01} = 1%). {@code 0} prunes
+	 * only features that cannot place anything. Values above 0 change the
+	 * exact layout of new chunks.
+	 */
+	public double pruneYieldThreshold = 0.0;
+
+	/**
+	 * When enabled, placed features that only place ore at or above
+	 * {@link #deferBandsAboveY} are not run during worldgen. They are recorded
+	 * in the chunk and run with the same seeds the first time the chunk is
+	 * sent to a player, which saves their cost in chunks nobody visits
+	 * (pregeneration). Ignored while {@link #neighbourWrites} is enabled.
+	 */
+	public boolean deferHighBands = false;
+
+	/** Reference Y (scaled with the world height) from which band features are deferred. */
+	public int deferBandsAboveY = 975;
+
+	/**
+	 * When enabled, veins and lodes stop growing after a run of failed
+	 * attempts that is unlikely at the feature's observed success rate
+	 * (tracked per worker thread), instead of always exhausting their fixed
+	 * attempt cap. Faster in cave- and water-heavy terrain; the layout then
+	 * depends on generation order and is no longer reproducible per seed.
+	 */
+	public boolean adaptiveAttempts = false;
+
+	/**
+	 * Cap on the ore volume {@link #adaptiveAttempts} may give up, as a fraction
+	 * of each feature's target volume. Early stops are estimated to lose what
+	 * the remaining attempts would have placed at the feature's success rate;
+	 * above the cap, veins run to their full attempt budget again.
+	 */
+	public double adaptiveAttemptsMaxLoss = 0.05;
+
+	/**
+	 * When enabled, a library of pre-grown vein shapes is built at startup and
+	 * veins are stamped from it (random shape and rotation, non-replaceable
+	 * blocks skipped) instead of being grown block by block. Same look, less
+	 * work per vein; changes the exact layout of new chunks.
+	 */
+	public boolean veinTemplates = false;
+
+	/**
+	 * When enabled, veins and lodes may extend into the neighbouring chunks
+	 * of the chunk being generated (the 3×3 window vanilla's ore feature
+	 * writes into) instead of being cut off at the chunk border. Removes the
+	 * bias towards smaller veins near chunk edges; changes the exact layout
+	 * of new chunks. Ore ledger totals count such blocks for the generating
+	 * chunk.
+	 */
+	public boolean neighbourWrites = false;
+
+	/**
+	 * When enabled, each vein and lode runs its inner loop on a small local
+	 * Xoroshiro generator seeded with one draw from the feature's random,
+	 * instead of calling the shared world-generation random for every
+	 * attempt. Still deterministic per seed; changes the exact layout of new
+	 * chunks.
+	 */
+	public boolean fastVeinRandom = false;
+
+	/**
+	 * When enabled, veins are only planned while a chunk's features run and
+	 * are grown afterwards on a thread pool, in parallel for slabs of sections
+	 * far enough apart that no two veins running at the same time can touch
+	 * the same section. Each vein gets its own seed, so the result does not
+	 * depend on scheduling. Cuts the time of one chunk on many-core hosts;
+	 * changes the exact layout of new chunks. Off while a chunk budget is set.
+	 */
+	public boolean parallelVeins = false;
+
+	/** Threads for {@link #parallelVeins} (0 = one per available processor). */
+	public int parallelVeinThreads = 0;
+
+	/**
+	 * Ore work budget per chunk, in blocks examined by all MountainOres veins
+	 * and lodes of the chunk; 0 disables it. Over budget, high and tail band
+	 * veins are skipped first, then mid-altitude ones, then the rest; lodes
+	 * always generate. Deterministic per seed.
+	 */
+	public int chunkBudgetBlocks = 0;
+
+	/**
+	 * Ore work budget per chunk in microseconds spent in MountainOres features;
+	 * 0 disables it. Trims like {@link #chunkBudgetBlocks}, but the
+	 * result depends on machine load and is not reproducible per seed.
+	 */
+	public int chunkBudgetMicros = 0;
+
+	/**
+	 * When enabled, a low-priority background thread runs the vein and lode
+	 * features and the scaled placement modifiers against in-memory copies
+	 * of the chunks around 0, 0 after the server has started, so the JIT has
+	 * compiled them before players generate terrain. Never writes to the
+	 * world; logs the time until chunks reached their steady speed.
+	 */
+	public boolean jitWarmup = false;
+
+	/** Stand-in chunks generated by {@link #jitWarmup}. */
+	public int jitWarmupIterations = 300;
+
+	/**
+	 * Regions of 32×32 chunks whose derived worldgen data (biome palette,
+	 * per-feature biome masks, chunk biome summaries) is kept between chunks.
+	 * Regions pinned by retrogen or a pregeneration tool come on top.
+	 */
+	public int regionCacheSize = 4;
+
+	// ── Ore provinces ───────────────────────────────────────────────────
+
+	/**
+	 * When enabled, every band feature using {@code mountainores:province_density}
+	 * scales its count by a shared, coherent per-chunk noise field, producing
+	 * correlated rich and poor regions. When disabled, those features behave
+	 * exactly like {@code mountainores:scaled_count}.
+	 */
+	public boolean provinceDensity = false;
+
+	/** Strength of the province field: multiplier range is 1 ± amplitude. */
+	public double provinceAmplitude = 0.5;
+
+	/** Size of a province noise cell, in chunks. */
+	public int provinceScaleChunks = 24;
+
+	// ── Commands ────────────────────────────────────────────────────────
+
+	/** Default search radius (in chunks) for {@code /mountainores locate lode}. */
+	public int lodeLocateRadius = 2048;
+
+	/**
+	 * Record per-chunk ore totals (per ore and height band) and lodes at
+	 * generation time in {@code <world>/data/mountainores_ledger/}, for
+	 * {@code /mountainores ledger}.
+	 */
+	public boolean oreLedger = false;
+
+	// ── Retrogen ────────────────────────────────────────────────────────
+
+	/**
+	 * Server-thread time (milliseconds per tick) that {@code /mountainores retrogen}
+	 * may spend loading and retro-generating chunks.
+	 */
+	public int retrogenTickBudgetMs = 10;
+
+	/**
+	 * Default for {@code /mountainores retrogen start} without argument:
+	 * strip vanilla ore from each chunk before adding MountainOres ore
+	 * (including the underground replacements). Stripping only touches the
+	 * Y ranges of the vanilla ore features and skips structures, but also
+	 * removes noise ore vein copper/iron and player-placed ore in those
+	 * ranges; only enable it if that loss is acceptable.
+	 */
+	public boolean retrogenRemoveVanillaOres = false;
+
+	/** How often retrogen progress is checkpointed to disk, in seconds. */
+	public int retrogenCheckpointSeconds = 30;
+
 	// ── Load / Save ─────────────────────────────────────────────────────
 
 	public static MountainOresConfig load(Logger logger) {
 		Path configDir = FabricLoader.getInstance().getConfigDir();
 		Path configPath = configDir.resolve(FILE_NAME);
 		MountainOresConfig config = readOrDefault(configPath, logger);
+		config.validate(logger);
 		writeIfMissing(configPath, config, logger);
 		return config;
 	}
 
+	/** Turns off combinations that would damage worlds. */
+	private void validate(Logger logger) {
+		if (retrogenRemoveVanillaOres && !overrideVanillaOres) {
+			// Stripping without the underground replacements would leave the chunks without any ore below Y 64
+			logger.warn("[mountainores] retrogenRemoveVanillaOres requires overrideVanillaOres = true; disabled");
+			retrogenRemoveVanillaOres = false;
+		}
+	}
+
 	private static MountainOresConfig readOrDefault(Path path, Logger logger) {
 		if (!Files.exists(path)) {
 			return new MountainOresConfig();
@@ -75,6 +287,38 @@ public final class MountainOresConfig {
 				config.maxWorldHeight = maxHeight.intValue();
 			}
 
+			config.bandedPlacement = toml.getBoolean("bandedPlacement", config.bandedPlacement);
+			config.fractionalCounts = toml.getBoolean("fractionalCounts", config.fractionalCounts);
+			config.lodeGrid = toml.getBoolean("lodeGrid", config.lodeGrid);
+			config.pruneFeatures = toml.getBoolean("pruneFeatures", config.pruneFeatures);
+			config.pruneYieldThreshold = toml.getDouble("pruneYieldThreshold", config.pruneYieldThreshold);
+			config.deferHighBands = toml.getBoolean("deferHighBands", config.deferHighBands);
+			config.deferBandsAboveY = toml.getLong("deferBandsAboveY", (long) config.deferBandsAboveY).intValue();
+
+			config.adaptiveAttempts = toml.getBoolean("adaptiveAttempts", config.adaptiveAttempts);
+			config.adaptiveAttemptsMaxLoss = toml.getDouble("adaptiveAttemptsMaxLoss", config.adaptiveAttemptsMaxLoss);
+			config.veinTemplates = toml.getBoolean("veinTemplates", config.veinTemplates);
+			config.neighbourWrites = toml.getBoolean("neighbourWrites", config.neighbourWrites);
+			config.fastVeinRandom = toml.getBoolean("fastVeinRandom", config.fastVeinRandom);
+			config.parallelVeins = toml.getBoolean("parallelVeins", config.parallelVeins);
+			config.parallelVeinThreads = toml.getLong("parallelVeinThreads", (long) config.parallelVeinThreads).intValue();
+			config.chunkBudgetBlocks = toml.getLong("chunkBudgetBlocks", (long) config.chunkBudgetBlocks).intValue();
+			config.chunkBudgetMicros = toml.getLong("chunkBudgetMicros", (long) config.chunkBudgetMicros).intValue();
+			config.jitWarmup = toml.getBoolean("jitWarmup", config.jitWarmup);
+			config.jitWarmupIterations = toml.getLong("jitWarmupIterations", (long) config.jitWarmupIterations).intValue();
+			config.regionCacheSize = toml.getLong("regionCacheSize", (long) config.regionCacheSize).intValue();
+
+			config.provinceDensity = toml.getBoolean("provinceDensity", config.provinceDensity);
+			config.provinceAmplitude = toml.getDouble("provinceAmplitude", config.provinceAmplitude);
+			config.provinceScaleChunks = toml.getLong("provinceScaleChunks", (long) config.provinceScaleChunks).intValue();
+
+			config.lodeLocateRadius = toml.getLong("lodeLocateRadius", (long) config.lodeLocateRadius).intValue();
+			config.oreLedger = toml.getBoolean("oreLedger", config.oreLedger);
+
+			config.retrogenTickBudgetMs = toml.getLong("retrogenTickBudgetMs", (long) config.retrogenTickBudgetMs).intValue();
+			config.retrogenRemoveVanillaOres = toml.getBoolean("retrogenRemoveVanillaOres", config.retrogenRemoveVanillaOres);
+			config.retrogenCheckpointSeconds = toml.getLong("retrogenCheckpointSeconds", (long) config.retrogenCheckpointSeconds).intValue();
+
 			return config;
 		} catch (Exception e) {
 			logger.warn("[mountainores] Failed to read config {} (using defaults): {}", path, e.toString());
@@ -137,6 +381,176 @@ public final class MountainOresConfig {
 		sb.append("# value and all ore Y-ranges + counts will be scaled proportionally.\n");
 		sb.append("# Underground ores (Y < 64) are never scaled.\n");
 		sb.append("maxWorldHeight = ").append(cfg.maxWorldHeight).append("\n");
+		sb.append("\n");
+
+		sb.append("# ── Placement ───────────────────────────────────────\n");
+		sb.append("\n");
+
+		sb.append("# Generate all height bands of an ore from one placed feature instead of\n");
+		sb.append("# one per band. Fewer feature passes per chunk. Changes the exact ore layout\n");
+		sb.append("# of new chunks when enabled. Same amount of ore per height at Y 2032 or with\n");
+		sb.append("# fractionalCounts; on shorter worlds otherwise fewer veins (see README).\n");
+		sb.append("bandedPlacement = ").append(cfg.bandedPlacement).append("\n");
+		sb.append("\n");
+
+		sb.append("# Scale ore counts with random rounding instead of rounding to at least 1,\n");
+		sb.append("# so the average per chunk is exactly count x height factor (short worlds\n");
+		sb.append("# no longer over-generate small counts). Changes the exact ore layout of\n");
+		sb.append("# new chunks on worlds lower than 2032 when enabled.\n");
+		sb.append("fractionalCounts = ").append(cfg.fractionalCounts).append("\n");
+		sb.append("\n");
+
+		sb.append("# Place lodes on a seed-derived jittered grid (one candidate chunk per\n");
+		sb.append("# 29x29-chunk cell) instead of a 1-in-850 roll per chunk. Same number of\n");
+		sb.append("# lodes on average, spread more evenly. Changes lode positions in new chunks.\n");
+		sb.append("lodeGrid = ").append(cfg.lodeGrid).append("\n");
+		sb.append("\n");
+
+		sb.append("# Skip placed features whose scaled height range lies completely outside\n");
+		sb.append("# the world (listed in the log at startup). They cannot place ore, so the\n");
+		sb.append("# ore layout is unchanged.\n");
+		sb.append("pruneFeatures = ").append(cfg.pruneFeatures).append("\n");
+		sb.append("\n");
+
+		sb.append("# Also skip placed features with less than this fraction of positions\n");
+		sb.append("# inside the world (0.01 = 1%). 0 = only features that place nothing.\n");
+		sb.append("# Values above 0 change the exact ore layout of new chunks.\n");
+		sb.append("pruneYieldThreshold = ").append(cfg.pruneYieldThreshold).append("\n");
+		sb.append("\n");
+
+		sb.append("# Don't place the high bands (entirely at or above deferBandsAboveY) during\n");
+		sb.append("# worldgen; record them in the chunk and place them with the same seeds\n");
+		sb.append("# when a player first receives the chunk. Speeds up pregeneration of tall\n");
+		sb.append("# worlds. Ignored while neighbourWrites is enabled.\n");
+		sb.append("deferHighBands = ").append(cfg.deferHighBands).append("\n");
+		sb.append("\n");
+
+		sb.append("# Reference Y (on the 2032 scale) from which bands are deferred.\n");
+		sb.append("deferBandsAboveY = ").append(cfg.deferBandsAboveY).append("\n");
+		sb.append("\n");
+
+		sb.append("# Stop growing a vein after a run of failed attempts that is unlikely at\n");
+		sb.append("# the feature's usual success rate (e.g. the vein ran into a cave).\n");
+		sb.append("# Faster in cave- and water-heavy terrain. The ore layout then depends on\n");
+		sb.append("# generation order and is no longer reproducible from the seed.\n");
+		sb.append("adaptiveAttempts = ").append(cfg.adaptiveAttempts).append("\n");
+		sb.append("\n");
+
+		sb.append("# Cap on the ore given up by adaptiveAttempts, as a fraction of each feature's\n");
+		sb.append("# volume (estimated per worker thread). Above it, veins run to their full\n");
+		sb.append("# attempt budget again.\n");
+		sb.append("adaptiveAttemptsMaxLoss = ").append(cfg.adaptiveAttemptsMaxLoss).append("\n");
+		sb.append("\n");
+
+		sb.append("# Stamp veins from a library of pre-grown shapes (built at startup, ~1.5 MB)\n");
+		sb.append("# instead of growing each one block by block. Veins look the same and cost\n");
+		sb.append("# less to place. Changes the exact ore layout of new chunks when enabled.\n");
+		sb.append("veinTemplates = ").append(cfg.veinTemplates).append("\n");
+		sb.append("\n");
+
+		sb.append("# Let veins and lodes grow into the neighbouring chunks (like vanilla ore)\n");
+		sb.append("# instead of cutting them off at the chunk border. Only applies to newly\n");
+		sb.append("# generated chunks, not retrogen. Changes the exact ore layout when enabled.\n");
+		sb.append("neighbourWrites = ").append(cfg.neighbourWrites).append("\n");
+		sb.append("\n");
+
+		sb.append("# Grow each vein with a small local random generator seeded from the\n");
+		sb.append("# feature's random instead of the shared one. Faster, still reproducible\n");
+		sb.append("# from the seed. Changes the exact ore layout of new chunks when enabled.\n");
+		sb.append("fastVeinRandom = ").append(cfg.fastVeinRandom).append("\n");
+		sb.append("\n");
+
+		sb.append("# Plan the veins of a chunk first and grow them afterwards on a thread\n");
+		sb.append("# pool, in parallel for sections far enough apart. Faster chunks for\n");
+		sb.append("# exploring players on many-core hosts; still reproducible from the seed.\n");
+		sb.append("# Changes the exact ore layout of new chunks. Off while a chunk budget is set.\n");
+		sb.append("parallelVeins = ").append(cfg.parallelVeins).append("\n");
+		sb.append("\n");
+
+		sb.append("# Threads for parallelVeins (0 = one per processor).\n");
+		sb.append("parallelVeinThreads = ").append(cfg.parallelVeinThreads).append("\n");
+		sb.append("\n");
+
+		sb.append("# Per-chunk ore work budget in blocks examined (0 = off). Over budget,\n");
+		sb.append("# high/tail band veins are skipped first, then mid-altitude ones; lodes are\n");
+		sb.append("# never cut. Caps worst-case chunk time; reproducible from the seed.\n");
+		sb.append("chunkBudgetBlocks = ").append(cfg.chunkBudgetBlocks).append("\n");
+		sb.append("\n");
+
+		sb.append("# Per-chunk budget in microseconds spent in MountainOres features (0 = off).\n");
+		sb.append("# Same trimming, but depends on machine load, so the ore layout is no longer\n");
+		sb.append("# reproducible.\n");
+		sb.append("# Check '/mountainores budget' for how often either budget is hit.\n");
+		sb.append("chunkBudgetMicros = ").append(cfg.chunkBudgetMicros).append("\n");
+		sb.append("\n");
+
+		sb.append("# Warm up the ore code in a background thread at server start, against an\n");
+		sb.append("# in-memory copy of the chunks around 0, 0, so the first chunks players generate are not\n");
+		sb.append("# slowed down by JIT compilation. Logs the time to steady speed.\n");
+		sb.append("jitWarmup = ").append(cfg.jitWarmup).append("\n");
+		sb.append("\n");
+
+		sb.append("# Stand-in chunks generated by jitWarmup.\n");
+		sb.append("jitWarmupIterations = ").append(cfg.jitWarmupIterations).append("\n");
+		sb.append("\n");
+
+		sb.append("# Regions (32x32 chunks) whose biome tables are kept while their chunks\n");
+		sb.append("# generate, so neighbouring chunks do not read the same biomes again.\n");
+		sb.append("# Raise for pregeneration orders that jump between many regions.\n");
+		sb.append("regionCacheSize = ").append(cfg.regionCacheSize).append("\n");
+		sb.append("\n");
+
+		sb.append("# ── Ore Provinces ──────────────────────────────────\n");
+		sb.append("\n");
+
+		sb.append("# Correlate ore richness across all band ores (Y >= 64) with one shared\n");
+		sb.append("# noise field: some regions become rich, others poor, while the average\n");
+		sb.append("# stays the same. Changes generation of new chunks when enabled.\n");
+		sb.append("provinceDensity = ").append(cfg.provinceDensity).append("\n");
+		sb.append("\n");
+
+		sb.append("# Richness range: a chunk gets between (1 - amplitude) and (1 + amplitude)\n");
+		sb.append("# times the normal attempt count.\n");
+		sb.append("provinceAmplitude = ").append(cfg.provinceAmplitude).append("\n");
+		sb.append("\n");
+
+		sb.append("# Approximate province size in chunks.\n");
+		sb.append("provinceScaleChunks = ").append(cfg.provinceScaleChunks).append("\n");
+		sb.append("\n");
+
+		sb.append("# ── Commands ────────────────────────────────────────\n");
+		sb.append("\n");
+
+		sb.append("# Default search radius in chunks for '/mountainores locate lode'.\n");
+		sb.append("lodeLocateRadius = ").append(cfg.lodeLocateRadius).append("\n");
+		sb.append("\n");
+
+		sb.append("# Record how much ore (per ore type and height band) and which lode each\n");
+		sb.append("# new chunk received, in <world>/data/mountainores_ledger/ (~44 bytes per\n");
+		sb.append("# chunk). Query with '/mountainores ledger summary' and '... ledger lodes'.\n");
+		sb.append("oreLedger = ").append(cfg.oreLedger).append("\n");
+		sb.append("\n");
+
+		sb.append("# ── Retrogen ────────────────────────────────────────\n");
+		sb.append("\n");
+
+		sb.append("# '/mountainores retrogen start' adds MountainOres ore to chunks that\n");
+		sb.append("# were generated before the mod was installed. It runs on the server\n");
+		sb.append("# thread and may use at most this many milliseconds per tick.\n");
+		sb.append("retrogenTickBudgetMs = ").append(cfg.retrogenTickBudgetMs).append("\n");
+		sb.append("\n");
+
+		sb.append("# Default for 'retrogen start' without argument: replace existing vanilla\n");
+		sb.append("# ore with stone/deepslate first and also add the underground (Y <= 63)\n");
+		sb.append("# replacements. When false, only the Y >= 64 bands and lodes are added.\n");
+		sb.append("# Stripping also removes noise ore vein copper/iron and player-placed ore\n");
+		sb.append("# outside structures within the vanilla ore Y ranges (see README).\n");
+		sb.append("retrogenRemoveVanillaOres = ").append(cfg.retrogenRemoveVanillaOres).append("\n");
+		sb.append("\n");
+
+		sb.append("# How often retrogen progress is saved, in seconds. An interrupted run\n");
+		sb.append("# resumes from the last checkpoint on the next server start.\n");
+		sb.append("retrogenCheckpointSeconds = ").append(cfg.retrogenCheckpointSeconds).append("\n");
 
 		return sb.toString();
 	}
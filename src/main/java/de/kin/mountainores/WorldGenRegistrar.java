@@ -13,6 +13,8 @@ import net.minecraft.world.gen.feature.PlacedFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashSet;
+import java.util.Set;
 import java.util.function.Predicate;
 
 @SuppressWarnings("null")
@@ -20,12 +22,14 @@ public class WorldGenRegistrar {
 
     private static final Logger LOGGER = LoggerFactory.getLogger("mountainores");
 
+    private static final Set<String> UNDERGROUND_REPLACEMENTS = new HashSet<>();
+
     public static void registerAll() {
 
         MountainOresConfig config = MountainOres.CONFIG != null ? MountainOres.CONFIG : new MountainOresConfig();
         if (config.overrideVanillaOres) {
             overrideVanillaOresInOverworld(config.logVanillaOreOverride);
-            addVanillaLikeUndergroundOres();
+            addVanillaLikeUndergroundOres(config.bandedPlacement);
             LOGGER.info("[mountainores] Vanilla ore override enabled (remove minecraft:ore_* + add underground replacements)");
         }
 
@@ -42,6 +46,25 @@ public class WorldGenRegistrar {
 
         // Band-based placed features (see docs/height-bands.md)
 
+        if (config.bandedPlacement) {
+            // One placed feature per ore; the band is picked per vein (mountainores:banded__ore)
+            addOreFeatureToBiomes("coal__banded__placed");
+            addOreFeatureToBiomes("iron__banded__placed");
+            addOreFeatureToBiomes("copper__banded__placed");
+            addOreFeatureToBiomes("gold__banded__placed");
+            addOreFeatureToBiomes("emerald__banded__placed");
+        } else {
+            addBandOres();
+        }
+
+        // Rare large deposits ("lodes") across all heights.
+        // At most one roll per chunk (rarity or lode grid), then weighted ore selection inside the feature.
+        addOreFeatureToBiomes("lode__selector__placed");
+
+        LOGGER.info("[mountainores] Registered biome modifications for placed features (Y>63)");
+    }
+
+    private static void addBandOres() {
         // Coal (bands 1-3 only; extended high tail via placement)
         addOreFeatureToBiomes("coal__main__placed");
         addOreFeatureToBiomes("coal__mid_altitude__placed");
@@ -66,12 +89,6 @@ public class WorldGenRegistrar {
         addOreFeatureToBiomes("emerald__mountain_main__placed");
         addOreFeatureToBiomes("gold__mountain_tail__placed");
         addOreFeatureToBiomes("emerald__mountain_tail__placed");
-
-        // Rare large deposits ("lodes") across all heights.
-        // Exactly one roll per chunk (via rarity), then weighted ore selection inside the feature.
-        addOreFeatureToBiomes("lode__selector__placed");
-
-        LOGGER.info("[mountainores] Registered biome modifications for placed features (Y>63)");
     }
 
     private static void overrideVanillaOresInOverworld(boolean logEach) {
@@ -127,54 +144,87 @@ public class WorldGenRegistrar {
         }
     }
 
-    private static void addVanillaLikeUndergroundOres() {
+    private static void addVanillaLikeUndergroundOres(boolean banded) {
         // Use simple BiomeSelectors.foundInOverworld() for maximum compatibility with C2ME and other mods
         // Dripstone caves will get both normal copper AND large copper - slightly more copper, but more reliable
         
         // Underground replacements (Y<=63, vanilla-like; emerald intentionally excluded)
-        addOreFeatureToBiomes("coal__underground__deep__placed");
-        addOreFeatureToBiomes("coal__underground__upper__placed");
-
-        addOreFeatureToBiomes("iron__underground__deep__placed");
-        addOreFeatureToBiomes("iron__underground__main__placed");
-        addOreFeatureToBiomes("iron__underground__low__placed");
-        addOreFeatureToBiomes("iron__underground__tail__placed");
-
-        // Vanilla-like "small iron" extra hits
-        addOreFeatureToBiomes("iron__underground_small__deep__placed");
-        addOreFeatureToBiomes("iron__underground_small__upper__placed");
-
-        addOreFeatureToBiomes("copper__underground__deep__placed");
-        addOreFeatureToBiomes("copper__underground__low__placed");
-        addOreFeatureToBiomes("copper__underground__peak__placed");
+        if (banded) {
+            // Same windows as below, one placed feature per configured feature (mountainores:banded_height)
+            addUndergroundReplacement("coal__underground__banded__placed");
+            addUndergroundReplacement("iron__underground__banded__placed");
+            addUndergroundReplacement("iron__underground_small__banded__placed");
+            addUndergroundReplacement("copper__underground__banded__placed");
+        } else {
+            addUndergroundReplacement("coal__underground__deep__placed");
+            addUndergroundReplacement("coal__underground__upper__placed");
+
+            addUndergroundReplacement("iron__underground__deep__placed");
+            addUndergroundReplacement("iron__underground__main__placed");
+            addUndergroundReplacement("iron__underground__low__placed");
+            addUndergroundReplacement("iron__underground__tail__placed");
+
+            // Vanilla-like "small iron" extra hits
+            addUndergroundReplacement("iron__underground_small__deep__placed");
+            addUndergroundReplacement("iron__underground_small__upper__placed");
+
+            addUndergroundReplacement("copper__underground__deep__placed");
+            addUndergroundReplacement("copper__underground__low__placed");
+            addUndergroundReplacement("copper__underground__peak__placed");
+        }
 
         // Special-case: dripstone caves get extra-large copper in addition to normal copper placements.
-        addOreFeatureToBiomes(
+        addUndergroundReplacement(
             "copper__dripstone_caves__large__placed",
             BiomeSelectors.includeByKey(BiomeKeys.DRIPSTONE_CAVES)
         );
 
-        addOreFeatureToBiomes("gold__underground__main__placed");
-        addOreFeatureToBiomes("gold__underground__deep__placed");
+        if (banded) {
+            addUndergroundReplacement("gold__underground__banded__placed");
+        } else {
+            addUndergroundReplacement("gold__underground__main__placed");
+            addUndergroundReplacement("gold__underground__deep__placed");
+        }
 
         // Badlands extra gold (vanilla-like ore_gold_extra replacement)
         // Uses all heights (below_top: 0) to support packs like JJ Thunder where Badlands can spawn at extreme heights.
-        addOreFeatureToBiomes(
+        addUndergroundReplacement(
             "gold__badlands_extra__placed",
             BiomeSelectors.includeByKey(BiomeKeys.BADLANDS, BiomeKeys.ERODED_BADLANDS, BiomeKeys.WOODED_BADLANDS)
         );
 
-        addOreFeatureToBiomes("redstone__underground__best__placed");
-        addOreFeatureToBiomes("redstone__underground__tail__placed");
+        if (banded) {
+            addUndergroundReplacement("redstone__underground__banded__placed");
+        } else {
+            addUndergroundReplacement("redstone__underground__best__placed");
+            addUndergroundReplacement("redstone__underground__tail__placed");
+        }
 
-        addOreFeatureToBiomes("lapis__underground__open__placed");
-        addOreFeatureToBiomes("lapis__underground__buried__placed");
+        addUndergroundReplacement("lapis__underground__open__placed");
+        addUndergroundReplacement("lapis__underground__buried__placed");
 
-        addOreFeatureToBiomes("diamond__underground__best__placed");
-        addOreFeatureToBiomes("diamond__underground__tail__placed");
+        addUndergroundReplacement("diamond__underground__best__placed");
+        addUndergroundReplacement("diamond__underground__tail__placed");
 
         // Vanilla-like large diamond veins (ore_diamond_large equivalent, rarity 1/9)
-        addOreFeatureToBiomes("diamond__underground_large__placed");
+        addUndergroundReplacement("diamond__underground_large__placed");
+    }
+
+    /**
+     * Whether the given placed feature (path under {@code mountainores:}) is one of the
+     * Y<=63 replacements that only exist to stand in for removed vanilla ores.
+     */
+    public static boolean isUndergroundReplacement(String featureName) {
+        return UNDERGROUND_REPLACEMENTS.contains(featureName);
+    }
+
+    private static void addUndergroundReplacement(String featureName) {
+        addUndergroundReplacement(featureName, BiomeSelectors.foundInOverworld());
+    }
+
+    private static void addUndergroundReplacement(String featureName, Predicate<BiomeSelectionContext> selector) {
+        UNDERGROUND_REPLACEMENTS.add(featureName);
+        addOreFeatureToBiomes(featureName, selector);
     }
 
     private static void addOreFeatureToBiomes(String featureName) {
@@ -0,0 +1,139 @@
+package de.kin.mountainores.alloc;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Allocation report for the world generation path ({@code /mountainores allocations}).
+ *
+ * <p>While recording, the ore features and the {@code scaled_count} /
+ * {@code scaled_height_range} modifiers measure the bytes their thread
+ * allocates per call ({@code ThreadMXBean#getCurrentThreadAllocatedBytes}).
+ * The totals are divided by the chunks whose feature step finished in the
+ * meantime, so runs before and after a change can be compared in a pregen.
+ * The report enforces nothing: budgets for the same code are committed in
+ * {@code /mountainores/allocation-budgets.properties} and checked at build
+ * time by {@code EngineAllocationTest} and {@code GenerationAllocationTest}.
+ *
+ * <p>When not recording, the probes cost one volatile read.
+ */
+public final class AllocationProbe {
+
+    /** Measured call sites. */
+    public enum Site {
+        VEIN,
+        BANDED,
+        LODE,
+        SCALED_COUNT,
+        SCALED_HEIGHT_RANGE;
+
+        public String key() {
+            return name().toLowerCase();
+        }
+    }
+
+    /** Bytes per chunk of one site. */
+    public record Line(Site site, long calls, double bytesPerChunk) {
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private static volatile boolean recording;
+
+    private static final Map<Site, LongAdder> BYTES = new EnumMap<>(Site.class);
+    private static final Map<Site, LongAdder> CALLS = new EnumMap<>(Site.class);
+    private static final AtomicLong CHUNKS = new AtomicLong();
+
+    static {
+        for (Site site : Site.values()) {
+            BYTES.put(site, new LongAdder());
+            CALLS.put(site, new LongAdder());
+        }
+    }
+
+    private AllocationProbe() {}
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            return bean;
+        }
+        return null;
+    }
+
+    // ── Probes ──────────────────────────────────────────────────────────
+
+    /** @return the calling thread's allocated bytes, or {@code -1} when not recording */
+    public static long begin() {
+        if (!recording) {
+            return -1L;
+        }
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /** Adds what the calling thread allocated since {@link #begin()} to {@code site}. */
+    public static void end(Site site, long start) {
+        if (start < 0) {
+            return;
+        }
+        BYTES.get(site).add(THREADS.getCurrentThreadAllocatedBytes() - start);
+        CALLS.get(site).increment();
+    }
+
+    /** Called when a chunk's feature step has finished. */
+    public static void chunkDone() {
+        if (recording) {
+            CHUNKS.incrementAndGet();
+        }
+    }
+
+    // ── Control ─────────────────────────────────────────────────────────
+
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    public static boolean isRecording() {
+        return recording;
+    }
+
+    /** Clears the totals and starts measuring. */
+    public static void start() {
+        if (THREADS == null) {
+            throw new IllegalStateException("Thread allocation counters are not supported by this JVM");
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        for (Site site : Site.values()) {
+            BYTES.get(site).reset();
+            CALLS.get(site).reset();
+        }
+        CHUNKS.set(0);
+        recording = true;
+    }
+
+    public static void stop() {
+        recording = false;
+    }
+
+    public static long chunks() {
+        return CHUNKS.get();
+    }
+
+    /** Bytes per chunk for every site that was called. */
+    public static List<Line> report() {
+        long chunks = Math.max(1, CHUNKS.get());
+        List<Line> lines = new ArrayList<>();
+        for (Site site : Site.values()) {
+            long calls = CALLS.get(site).sum();
+            if (calls > 0) {
+                lines.add(new Line(site, calls, (double) BYTES.get(site).sum() / chunks));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,60 @@
+package de.kin.mountainores.bench;
+
+/**
+ * Allocation-free latency histogram: exact below 16 ns, then 16 buckets per
+ * power of two, so a percentile is off by at most about 6%.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 16;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long total;
+
+    void record(long nanos) {
+        counts[index(Math.max(0L, nanos))]++;
+        total++;
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    long count() {
+        return total;
+    }
+
+    /** The latency at {@code quantile} (0 to 1), rounded down to its bucket; 0 if empty. */
+    long percentile(double quantile) {
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return value(i);
+            }
+        }
+        return 0L;
+    }
+
+    private static int index(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - 4)) & (SUB_BUCKETS - 1);
+        return (exponent - 3) * SUB_BUCKETS + sub;
+    }
+
+    /** Lower bound of bucket {@code index}. */
+    private static long value(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + 3;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - 4);
+    }
+}
@@ -0,0 +1,284 @@
+package de.kin.mountainores.bench;
+
+import de.kin.mountainores.FeatureRegistrar;
+import de.kin.mountainores.engine.GrowthStats;
+import de.kin.mountainores.feature.EngineSettings;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.random.ChunkRandom;
+import net.minecraft.util.math.random.Xoroshiro128PlusPlusRandom;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.WorldChunk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-game benchmark of the ore generation path ({@code /mountainores benchmark}),
+ * on the server's own JVM, flags and CPU.
+ *
+ * <p>On the server thread, the block state containers of up to
+ * {@value #CHUNKS} loaded chunks around the caller are copied. A daemon
+ * thread then runs the {@link OreWorkload} of all ore features on fresh
+ * copies of them, chunk after chunk, for a fixed time per engine setting:
+ * the first quarter unmeasured, so the JIT settles, the rest measured. The
+ * world is never written, and nothing is recorded in the ledger, budgets,
+ * traces, allocation check or JFR.
+ *
+ * <p>Per setting it reports stand-in chunks and veins per second of ore
+ * work, p50 and p99 latency of a single vein or lode (one feature call), and
+ * bytes allocated per chunk and per second. With {@code compare}, the
+ * active settings are followed by one run per alternative that flips
+ * {@code fastVeinRandom}, {@code adaptiveAttempts} or {@code veinTemplates};
+ * the alternatives only apply to the benchmark thread, so world generation
+ * keeps using the config meanwhile.
+ */
+public final class OreBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("mountainores");
+
+    public static final int MAX_SECONDS = 120;
+
+    /** Loaded chunks copied for the workload. */
+    private static final int CHUNKS = 16;
+
+    /** How far around the caller to look for loaded chunks. */
+    private static final int SEARCH_RADIUS = 8;
+
+    /** Slowest features listed per setting. */
+    private static final int SLOWEST = 5;
+
+    private static final AtomicBoolean RUNNING = new AtomicBoolean();
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private record Snapshot(int chunkX, int chunkZ, PalettedContainer<BlockState>[] sections) {
+    }
+
+    private record Setting(String name, EngineSettings settings) {
+    }
+
+    /** A started benchmark; {@code report} completes on the benchmark thread. */
+    public record Run(int chunks, int features, int settings, CompletableFuture<Report> report) {
+    }
+
+    public record Report(int chunks, int features, boolean allocationsMeasured, List<Result> results) {
+    }
+
+    /** Measurements of one setting. {@code nanos} is the ore work only, without copying chunks. */
+    public record Result(String setting, long chunks, long veins, long nanos, long bytes, long p50, long p99,
+                         List<FeatureLatency> slowest) {
+
+        public double chunksPerSecond() {
+            return chunks * 1.0e9 / Math.max(1L, nanos);
+        }
+
+        public double veinsPerSecond() {
+            return veins * 1.0e9 / Math.max(1L, nanos);
+        }
+
+        public double bytesPerChunk() {
+            return (double) bytes / Math.max(1L, chunks);
+        }
+
+        public double bytesPerSecond() {
+            return bytes * 1.0e9 / Math.max(1L, nanos);
+        }
+    }
+
+    public record FeatureLatency(String feature, long calls, long p50, long p99) {
+    }
+
+    private OreBenchmark() {}
+
+    /**
+     * Copies loaded chunks around {@code center} and starts the benchmark.
+     * Must be called on the server thread.
+     *
+     * @param seconds run time per setting
+     * @param compare also run the alternative settings
+     * @throws IllegalStateException if a benchmark is already running or there is nothing to run
+     */
+    public static Run start(ServerWorld world, ChunkPos center, int seconds, boolean compare) {
+        OreWorkload workload = OreWorkload.of(world.getServer(), world);
+        if (workload.jobs().isEmpty()) {
+            throw new IllegalStateException("No ore features registered");
+        }
+        List<Snapshot> snapshots = snapshot(world, center);
+        if (snapshots.isEmpty()) {
+            throw new IllegalStateException("No loaded chunks within " + SEARCH_RADIUS + " chunks");
+        }
+        if (!RUNNING.compareAndSet(false, true)) {
+            throw new IllegalStateException("A benchmark is already running");
+        }
+
+        MinecraftServer server = world.getServer();
+        EngineSettings active = EngineSettings.current();
+        int settings = compare ? 4 : 1;
+        CompletableFuture<Report> report = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                List<Result> results = new ArrayList<>();
+                for (Setting setting : settings(active, compare)) {
+                    results.add(measure(server, workload, snapshots, setting, seconds * 1_000_000_000L));
+                }
+                report.complete(new Report(snapshots.size(), workload.jobs().size(), THREADS != null, results));
+            } catch (RuntimeException e) {
+                report.completeExceptionally(e);
+            } finally {
+                RUNNING.set(false);
+            }
+        }, "mountainores-benchmark");
+        thread.setDaemon(true);
+        thread.start();
+        LOGGER.info("[mountainores] Benchmark started: {} loaded chunks near [{}, {}], {} ore features, {} setting(s) of {} s",
+                snapshots.size(), center.x, center.z, workload.jobs().size(), settings, seconds);
+        return new Run(snapshots.size(), workload.jobs().size(), settings, report);
+    }
+
+    /** Nearest loaded chunks first, ring by ring. */
+    @SuppressWarnings("unchecked")
+    private static List<Snapshot> snapshot(ServerWorld world, ChunkPos center) {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (int ring = 0; ring <= SEARCH_RADIUS && snapshots.size() < CHUNKS; ring++) {
+            for (int dx = -ring; dx <= ring && snapshots.size() < CHUNKS; dx++) {
+                for (int dz = -ring; dz <= ring && snapshots.size() < CHUNKS; dz++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dz)) != ring) {
+                        continue;
+                    }
+                    WorldChunk chunk = world.getChunkManager().getWorldChunk(center.x + dx, center.z + dz);
+                    if (chunk == null) {
+                        continue;
+                    }
+                    ChunkSection[] sections = chunk.getSectionArray();
+                    PalettedContainer<BlockState>[] copies = new PalettedContainer[sections.length];
+                    for (int i = 0; i < sections.length; i++) {
+                        copies[i] = sections[i].getBlockStateContainer().copy();
+                    }
+                    snapshots.add(new Snapshot(center.x + dx, center.z + dz, copies));
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    private static List<Setting> settings(EngineSettings active, boolean compare) {
+        List<Setting> settings = new ArrayList<>();
+        settings.add(new Setting("active", active));
+        if (compare) {
+            settings.add(new Setting("fastVeinRandom=" + !active.fastVeinRandom(),
+                    active.withFastVeinRandom(!active.fastVeinRandom())));
+            settings.add(new Setting("adaptiveAttempts=" + !active.adaptiveAttempts(),
+                    active.withAdaptiveAttempts(!active.adaptiveAttempts())));
+            settings.add(active.templates() != null
+                    ? new Setting("veinTemplates=false", active.withTemplates(null))
+                    : new Setting("veinTemplates=true", active.withTemplates(FeatureRegistrar.newVeinTemplates())));
+        }
+        return settings;
+    }
+
+    // ── Measurement ─────────────────────────────────────────────────────
+
+    private static Result measure(MinecraftServer server, OreWorkload workload, List<Snapshot> snapshots, Setting setting,
+                                  long duration) {
+        List<OreWorkload.Job> jobs = workload.jobs();
+        LatencyHistogram[] latencies = new LatencyHistogram[jobs.size()];
+        for (int j = 0; j < latencies.length; j++) {
+            latencies[j] = new LatencyHistogram();
+        }
+        ChunkRandom random = new ChunkRandom(new Xoroshiro128PlusPlusRandom(workload.seed()));
+        GrowthStats stats = new GrowthStats();
+
+        long chunks = 0;
+        long nanos = 0;
+        long bytes = 0;
+        long started = System.nanoTime();
+        long measureFrom = started + duration / 4;
+        long end = started + duration;
+        for (int i = 0; ; i++) {
+            long now = System.nanoTime();
+            if (now >= end) {
+                break;
+            }
+            if (!server.isRunning()) {
+                throw new CancellationException("Server stopping");
+            }
+            boolean measured = now >= measureFrom;
+
+            // Same chunks and seeds in the same order for every setting
+            Snapshot snapshot = snapshots.get(i % snapshots.size());
+            SectionVoxels voxels = new SectionVoxels(snapshot.chunkX(), snapshot.chunkZ(), workload.bottomY(),
+                    snapshot.sections());
+            random.setSeed(workload.seed() + i);
+
+            long allocated = THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0L;
+            long start = System.nanoTime();
+            for (int j = 0; j < jobs.size(); j++) {
+                OreWorkload.Job job = jobs.get(j);
+                int count = workload.count(job, random, snapshot.chunkX(), snapshot.chunkZ());
+                for (int n = 0; n < count; n++) {
+                    BlockPos origin = workload.origin(job, random, snapshot.chunkX(), snapshot.chunkZ());
+                    long veinStart = System.nanoTime();
+                    workload.grow(job, voxels, random, origin, setting.settings(), stats);
+                    if (measured) {
+                        latencies[j].record(System.nanoTime() - veinStart);
+                    }
+                }
+            }
+            if (measured) {
+                nanos += System.nanoTime() - start;
+                if (THREADS != null) {
+                    bytes += THREADS.getCurrentThreadAllocatedBytes() - allocated;
+                }
+                chunks++;
+            }
+        }
+
+        LatencyHistogram all = new LatencyHistogram();
+        List<FeatureLatency> features = new ArrayList<>();
+        for (int j = 0; j < latencies.length; j++) {
+            all.add(latencies[j]);
+            if (latencies[j].count() > 0) {
+                features.add(new FeatureLatency(jobs.get(j).id(), latencies[j].count(),
+                        latencies[j].percentile(0.5), latencies[j].percentile(0.99)));
+            }
+        }
+        features.sort(Comparator.comparingLong(FeatureLatency::p99).reversed());
+
+        Result result = new Result(setting.name(), chunks, all.count(), nanos, bytes, all.percentile(0.5), all.percentile(0.99),
+                List.copyOf(features.subList(0, Math.min(SLOWEST, features.size()))));
+        log(result, features);
+        return result;
+    }
+
+    /** The full per-feature table goes to the log only. */
+    private static void log(Result result, List<FeatureLatency> features) {
+        StringBuilder table = new StringBuilder();
+        for (FeatureLatency feature : features) {
+            table.append(String.format("%n  %-48s %9d calls  p50 %8.2f us  p99 %8.2f us", feature.feature(), feature.calls(),
+                    feature.p50() / 1000.0, feature.p99() / 1000.0));
+        }
+        LOGGER.info("[mountainores] Benchmark '{}': {} chunks, {} veins in {} ms of ore work, {} B/chunk{}",
+                result.setting(), result.chunks(), result.veins(), result.nanos() / 1_000_000,
+                THREADS != null ? String.format("%.0f", result.bytesPerChunk()) : "n/a", table);
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            return bean;
+        }
+        return null;
+    }
+}
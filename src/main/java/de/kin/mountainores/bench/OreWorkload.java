@@ -0,0 +1,140 @@
+package de.kin.mountainores.bench;
+
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.engine.GrowthStats;
+import de.kin.mountainores.engine.VoxelAccess;
+import de.kin.mountainores.feature.EngineSettings;
+import de.kin.mountainores.feature.LodeSelectorFeature;
+import de.kin.mountainores.feature.VariableOreFeature;
+import de.kin.mountainores.placement.LodeGridPlacementModifier;
+import de.kin.mountainores.placement.ScaledCountPlacementModifier;
+import de.kin.mountainores.placement.ScaledHeightRangePlacementModifier;
+import net.minecraft.block.BlockState;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.random.ChunkRandom;
+import net.minecraft.world.gen.HeightContext;
+import net.minecraft.world.gen.feature.ConfiguredFeature;
+import net.minecraft.world.gen.feature.OreFeatureConfig;
+import net.minecraft.world.gen.feature.PlacedFeature;
+import net.minecraft.world.gen.placementmodifier.PlacementModifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Synthetic ore generation without a world, shared by the JIT warm-up and
+ * {@code /mountainores benchmark}.
+ *
+ * <p>For every {@code mountainores:} vein and lode feature, positions are
+ * sampled through the feature's {@code scaled_count},
+ * {@code scaled_height_range} and {@code lode_grid} modifiers and the ore is
+ * grown there with the feature's own config via {@code growDetached}.
+ * Other filters are not evaluated. Lodes run at their real rate: only in
+ * grid sites, or with {@code lodeGrid} off after the rarity roll, so over
+ * few chunks they usually do not run at all. Banded features ({@code bandedPlacement}) share the vein growth but
+ * are not run themselves.
+ */
+public final class OreWorkload {
+
+    /** One placed feature with the modifiers the workload evaluates. */
+    public record Job(String id, ConfiguredFeature<?, ?> configured, ScaledCountPlacementModifier count,
+                      ScaledHeightRangePlacementModifier range, LodeGridPlacementModifier grid) {
+    }
+
+    private final List<Job> jobs;
+    private final HeightContext context;
+    private final long seed;
+    private final int bottomY;
+    private final int topY;
+
+    private OreWorkload(List<Job> jobs, HeightContext context, long seed, int bottomY, int topY) {
+        this.jobs = jobs;
+        this.context = context;
+        this.seed = seed;
+        this.bottomY = bottomY;
+        this.topY = topY;
+    }
+
+    /** The ore features registered on {@code server}, for chunks of {@code world}. */
+    public static OreWorkload of(MinecraftServer server, ServerWorld world) {
+        List<Job> jobs = new ArrayList<>();
+        Registry<PlacedFeature> registry = server.getRegistryManager().getOrThrow(RegistryKeys.PLACED_FEATURE);
+        for (Map.Entry<RegistryKey<PlacedFeature>, PlacedFeature> entry : registry.getEntrySet()) {
+            if (!MountainOres.MOD_ID.equals(entry.getKey().getValue().getNamespace())) {
+                continue;
+            }
+            ConfiguredFeature<?, ?> configured = entry.getValue().feature().value();
+            if (!(configured.feature() instanceof VariableOreFeature) && !(configured.feature() instanceof LodeSelectorFeature)) {
+                continue;
+            }
+            ScaledCountPlacementModifier count = null;
+            ScaledHeightRangePlacementModifier range = null;
+            LodeGridPlacementModifier grid = null;
+            for (PlacementModifier modifier : entry.getValue().placementModifiers()) {
+                if (modifier instanceof ScaledCountPlacementModifier scaledCount) {
+                    count = scaledCount;
+                } else if (modifier instanceof ScaledHeightRangePlacementModifier scaledRange) {
+                    range = scaledRange;
+                } else if (modifier instanceof LodeGridPlacementModifier lodeGrid) {
+                    grid = lodeGrid;
+                }
+            }
+            jobs.add(new Job(entry.getKey().getValue().getPath(), configured, count, range, grid));
+        }
+
+        HeightContext context = new HeightContext(world.getChunkManager().getChunkGenerator(), world);
+        return new OreWorkload(List.copyOf(jobs), context, world.getSeed(), world.getBottomY(),
+                world.getBottomY() + world.getHeight());
+    }
+
+    public List<Job> jobs() {
+        return jobs;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public int bottomY() {
+        return bottomY;
+    }
+
+    public int topY() {
+        return topY;
+    }
+
+    /** How many times {@code job} runs in chunk {@code (chunkX, chunkZ)}; 0 for a lode outside its sites. */
+    public int count(Job job, ChunkRandom random, int chunkX, int chunkZ) {
+        if (job.grid() != null && !job.grid().accepts(seed, chunkX, chunkZ, random)) {
+            return 0;
+        }
+        return job.count() != null ? job.count().scaledCount(random, topY) : 1;
+    }
+
+    /** Samples one origin for {@code job} in chunk {@code (chunkX, chunkZ)}. */
+    public BlockPos origin(Job job, ChunkRandom random, int chunkX, int chunkZ) {
+        int x = (chunkX << 4) + random.nextInt(16);
+        int z = (chunkZ << 4) + random.nextInt(16);
+        int y = job.range() != null ? job.range().scaledY(random, context, topY) : bottomY + random.nextInt(topY - bottomY);
+        return new BlockPos(x, y, z);
+    }
+
+    /** Grows one vein or lode of {@code job} at {@code origin}. */
+    public boolean grow(Job job, VoxelAccess<BlockState> voxels, ChunkRandom random, BlockPos origin,
+                        EngineSettings settings, GrowthStats stats) {
+        if (job.configured().feature() instanceof VariableOreFeature vein
+                && job.configured().config() instanceof OreFeatureConfig ore) {
+            return vein.growDetached(voxels, ore, random, origin, settings, stats);
+        }
+        if (job.configured().config() instanceof LodeSelectorFeature.Config lode) {
+            return LodeSelectorFeature.growDetached(voxels, lode, random, origin, settings, stats);
+        }
+        return false;
+    }
+}
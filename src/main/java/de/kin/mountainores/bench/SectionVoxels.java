@@ -0,0 +1,76 @@
+package de.kin.mountainores.bench;
+
+import de.kin.mountainores.engine.VoxelAccess;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.world.chunk.PalettedContainer;
+
+/**
+ * {@link VoxelAccess} over private copies of one chunk's block state
+ * containers, so veins read and write the same paletted storage as during
+ * world generation without touching the world. Reads outside the chunk
+ * column return stone.
+ */
+final class SectionVoxels implements VoxelAccess<BlockState> {
+
+    private static final BlockState OUTSIDE = Blocks.STONE.getDefaultState();
+
+    private final int minX;
+    private final int minZ;
+    private final int bottomY;
+    private final PalettedContainer<BlockState>[] sections;
+
+    /** Copies {@code source}, which stays untouched. */
+    @SuppressWarnings("unchecked")
+    SectionVoxels(int chunkX, int chunkZ, int bottomY, PalettedContainer<BlockState>[] source) {
+        this.minX = chunkX << 4;
+        this.minZ = chunkZ << 4;
+        this.bottomY = bottomY;
+        this.sections = new PalettedContainer[source.length];
+        for (int i = 0; i < source.length; i++) {
+            sections[i] = source[i].copy();
+        }
+    }
+
+    @Override
+    public int bottomY() {
+        return bottomY;
+    }
+
+    @Override
+    public int topY() {
+        return bottomY + (sections.length << 4);
+    }
+
+    @Override
+    public BlockState getState(int x, int y, int z) {
+        PalettedContainer<BlockState> section = section(x, y, z);
+        return section != null ? section.get(x & 15, y & 15, z & 15) : OUTSIDE;
+    }
+
+    @Override
+    public void setState(int x, int y, int z, BlockState state) {
+        PalettedContainer<BlockState> section = section(x, y, z);
+        if (section != null) {
+            section.swap(x & 15, y & 15, z & 15, state);
+        }
+    }
+
+    @Override
+    public boolean isAir(int x, int y, int z) {
+        return getState(x, y, z).isAir();
+    }
+
+    @Override
+    public boolean hasFluid(int x, int y, int z) {
+        return !getState(x, y, z).getFluidState().isEmpty();
+    }
+
+    private PalettedContainer<BlockState> section(int x, int y, int z) {
+        int index = (y - bottomY) >> 4;
+        if ((x - minX) >>> 4 != 0 || (z - minZ) >>> 4 != 0 || index < 0 || index >= sections.length) {
+            return null;
+        }
+        return sections[index];
+    }
+}
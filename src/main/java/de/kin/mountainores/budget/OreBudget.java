@@ -0,0 +1,202 @@
+package de.kin.mountainores.budget;
+
+import de.kin.mountainores.MountainOres;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-chunk ore work budget ({@code chunkBudgetBlocks} / {@code chunkBudgetMicros}).
+ *
+ * <p>Every MountainOres feature of a chunk draws from one budget, counted in
+ * blocks examined and/or microseconds spent in MountainOres features (between
+ * {@link #beginFeature} and {@link #endFeature}); vanilla and other mods'
+ * features in the same step do not count. Before a vein starts, its feature's {@link Priority} is checked against the
+ * share of the budget already used: secondary veins stop once 75% is used,
+ * tertiary ones at 50%, primary ones at 100%. Lodes are never cut, and
+ * exempt features (high bands that {@code deferHighBands} can defer) neither
+ * count nor get cut. With only
+ * a block budget, the trimming is deterministic per seed; a time budget
+ * depends on the machine.
+ */
+public final class OreBudget {
+
+    /** Which veins are given up first when a chunk runs over budget. */
+    public enum Priority {
+        /** Lodes: never trimmed. */
+        ESSENTIAL(Double.POSITIVE_INFINITY),
+        /** Main bands and underground replacements. */
+        PRIMARY(1.0),
+        /** Mid-altitude bands. */
+        SECONDARY(0.75),
+        /** High and mountain-tail bands. */
+        TERTIARY(0.5);
+
+        /** Fraction of the budget after which veins of this priority are skipped. */
+        final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+
+        /**
+         * The priority of a vein feature by its registered name (without
+         * namespace): high and tail bands before mid-altitude bands before
+         * everything else.
+         */
+        public static Priority forFeature(String name) {
+            if (name.contains("__high__") || name.contains("mountain_tail")) {
+                return TERTIARY;
+            }
+            if (name.contains("__mid_altitude__")) {
+                return SECONDARY;
+            }
+            return PRIMARY;
+        }
+    }
+
+    private static final class ChunkWork {
+        long examined;
+        long nanos;
+        /** Start of the running feature, or -1 outside a counted feature. */
+        long featureStart = -1L;
+        boolean trimmed;
+        boolean exempt;
+    }
+
+    private static final ThreadLocal<ChunkWork> CURRENT = new ThreadLocal<>();
+
+    private static final AtomicLong CHUNKS = new AtomicLong();
+    private static final AtomicLong TRIMMED_CHUNKS = new AtomicLong();
+    private static final AtomicLongArray SKIPPED_VEINS = new AtomicLongArray(Priority.values().length);
+
+    private OreBudget() {}
+
+    // ── Chunk scope ─────────────────────────────────────────────────────
+
+    /** Opens the budget for a chunk whose ore-step features are about to run. */
+    public static void beginChunk() {
+        if (!enabled()) {
+            CURRENT.remove();
+            return;
+        }
+        CURRENT.set(new ChunkWork());
+    }
+
+    public static void endChunk() {
+        ChunkWork work = CURRENT.get();
+        if (work == null) {
+            return;
+        }
+        CURRENT.remove();
+        CHUNKS.incrementAndGet();
+        if (work.trimmed) {
+            TRIMMED_CHUNKS.incrementAndGet();
+        }
+    }
+
+    // ── Features ────────────────────────────────────────────────────────
+
+    /**
+     * A MountainOres placed feature starts in the current chunk. Its time counts
+     * against the budget until {@link #endFeature()}; an {@code exempt} feature
+     * neither counts nor gets cut.
+     */
+    public static void beginFeature(boolean exempt) {
+        ChunkWork work = CURRENT.get();
+        if (work != null) {
+            work.exempt = exempt;
+            work.featureStart = exempt ? -1L : System.nanoTime();
+        }
+    }
+
+    /** The feature begun last has finished; a no-op outside a MountainOres feature. */
+    public static void endFeature() {
+        ChunkWork work = CURRENT.get();
+        if (work == null) {
+            return;
+        }
+        if (work.featureStart >= 0) {
+            work.nanos += System.nanoTime() - work.featureStart;
+            work.featureStart = -1L;
+        }
+        work.exempt = false;
+    }
+
+    /**
+     * Whether a vein of {@code priority} may still run in the current chunk.
+     * A refusal is counted in the metrics.
+     */
+    public static boolean allows(Priority priority) {
+        ChunkWork work = CURRENT.get();
+        if (work == null || work.exempt || priority == Priority.ESSENTIAL) {
+            return true;
+        }
+        if (used(work) < priority.share) {
+            return true;
+        }
+        work.trimmed = true;
+        SKIPPED_VEINS.incrementAndGet(priority.ordinal());
+        return false;
+    }
+
+    /** Adds the blocks a finished vein or lode examined to the current chunk. */
+    public static void spend(int blocksExamined) {
+        ChunkWork work = CURRENT.get();
+        if (work != null && !work.exempt) {
+            work.examined += blocksExamined;
+        }
+    }
+
+    /** Fraction of the budget used so far; the larger of the block and time shares. */
+    private static double used(ChunkWork work) {
+        double used = 0.0;
+        int blocks = MountainOres.CONFIG.chunkBudgetBlocks;
+        if (blocks > 0) {
+            used = (double) work.examined / blocks;
+        }
+        int micros = MountainOres.CONFIG.chunkBudgetMicros;
+        if (micros > 0) {
+            long nanos = work.nanos;
+            if (work.featureStart >= 0) {
+                nanos += System.nanoTime() - work.featureStart;
+            }
+            used = Math.max(used, nanos / 1000.0 / micros);
+        }
+        return used;
+    }
+
+    private static boolean enabled() {
+        return MountainOres.CONFIG != null
+                && (MountainOres.CONFIG.chunkBudgetBlocks > 0 || MountainOres.CONFIG.chunkBudgetMicros > 0);
+    }
+
+    // ── Metrics ─────────────────────────────────────────────────────────
+
+    /** Budget metrics since startup or the last {@link #resetMetrics()}. */
+    public static String describeMetrics() {
+        if (!enabled()) {
+            return "Chunk budget disabled (chunkBudgetBlocks = 0, chunkBudgetMicros = 0)";
+        }
+        long chunks = CHUNKS.get();
+        long trimmed = TRIMMED_CHUNKS.get();
+        double percent = chunks > 0 ? 100.0 * trimmed / chunks : 0.0;
+        StringBuilder sb = new StringBuilder(String.format(
+                "Chunk budget (%d blocks, %d µs): %d of %d chunks over budget (%.2f%%); veins skipped:",
+                MountainOres.CONFIG.chunkBudgetBlocks, MountainOres.CONFIG.chunkBudgetMicros, trimmed, chunks, percent));
+        for (Priority priority : Priority.values()) {
+            if (priority != Priority.ESSENTIAL) {
+                sb.append(' ').append(priority.name().toLowerCase()).append('=').append(SKIPPED_VEINS.get(priority.ordinal()));
+            }
+        }
+        return sb.toString();
+    }
+
+    public static void resetMetrics() {
+        CHUNKS.set(0);
+        TRIMMED_CHUNKS.set(0);
+        for (int i = 0; i < SKIPPED_VEINS.length(); i++) {
+            SKIPPED_VEINS.set(i, 0);
+        }
+    }
+}
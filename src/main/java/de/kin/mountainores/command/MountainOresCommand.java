@@ -0,0 +1,392 @@
+package de.kin.mountainores.command;
+
+import com.mojang.brigadier.arguments.BoolArgumentType;
+import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.alloc.AllocationProbe;
+import de.kin.mountainores.bench.OreBenchmark;
+import de.kin.mountainores.budget.OreBudget;
+import de.kin.mountainores.ledger.LedgerAggregator;
+import de.kin.mountainores.ledger.OreLedger;
+import de.kin.mountainores.locate.LodeLocator;
+import de.kin.mountainores.retrogen.RetrogenScheduler;
+import de.kin.mountainores.trace.TraceCapture;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.command.CommandSource;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Admin command tree: {@code /mountainores ...}
+ */
+public final class MountainOresCommand {
+
+    private MountainOresCommand() {}
+
+    public static void register() {
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) ->
+                dispatcher.register(CommandManager.literal("mountainores")
+                        .requires(source -> source.hasPermissionLevel(2))
+                        .then(retrogen())
+                        .then(locate())
+                        .then(ledger())
+                        .then(budget())
+                        .then(allocations())
+                        .then(trace())
+                        .then(benchmark())));
+    }
+
+    // ── retrogen ────────────────────────────────────────────────────────
+
+    private static LiteralArgumentBuilder<ServerCommandSource> retrogen() {
+        return CommandManager.literal("retrogen")
+                .then(CommandManager.literal("start")
+                        .executes(ctx -> retrogenStart(ctx.getSource(),
+                                MountainOres.CONFIG != null && MountainOres.CONFIG.retrogenRemoveVanillaOres))
+                        .then(CommandManager.argument("removeVanillaOres", BoolArgumentType.bool())
+                                .executes(ctx -> retrogenStart(ctx.getSource(),
+                                        BoolArgumentType.getBool(ctx, "removeVanillaOres")))))
+                .then(CommandManager.literal("pause")
+                        .executes(ctx -> {
+                            RetrogenScheduler scheduler = RetrogenScheduler.get();
+                            if (scheduler == null) {
+                                return 0;
+                            }
+                            scheduler.pause();
+                            ctx.getSource().sendFeedback(() -> Text.literal("[MountainOres] Retrogen paused"), true);
+                            return 1;
+                        }))
+                .then(CommandManager.literal("status")
+                        .executes(ctx -> {
+                            RetrogenScheduler scheduler = RetrogenScheduler.get();
+                            if (scheduler == null) {
+                                return 0;
+                            }
+                            String status = scheduler.describeStatus();
+                            ctx.getSource().sendFeedback(() -> Text.literal("[MountainOres] " + status), false);
+                            return 1;
+                        }))
+                .then(CommandManager.literal("reset")
+                        .executes(ctx -> {
+                            RetrogenScheduler scheduler = RetrogenScheduler.get();
+                            if (scheduler == null) {
+                                return 0;
+                            }
+                            scheduler.reset();
+                            ctx.getSource().sendFeedback(() -> Text.literal("[MountainOres] Retrogen progress cleared"), true);
+                            return 1;
+                        }));
+    }
+
+    private static int retrogenStart(ServerCommandSource source, boolean removeVanillaOres) {
+        RetrogenScheduler scheduler = RetrogenScheduler.get();
+        if (scheduler == null) {
+            return 0;
+        }
+        int remaining;
+        try {
+            remaining = scheduler.start(removeVanillaOres);
+        } catch (IllegalStateException e) {
+            source.sendError(Text.literal("[MountainOres] Retrogen not started: " + e.getMessage()));
+            return 0;
+        }
+        source.sendFeedback(() -> Text.literal(String.format(
+                "[MountainOres] Retrogen started: %d chunks to process (removeVanillaOres=%s)",
+                remaining, removeVanillaOres)), true);
+        return 1;
+    }
+
+    // ── locate ──────────────────────────────────────────────────────────
+
+    private static LiteralArgumentBuilder<ServerCommandSource> locate() {
+        return CommandManager.literal("locate")
+                .then(CommandManager.literal("lode")
+                        .executes(ctx -> locateLode(ctx.getSource(), null, defaultLocateRadius()))
+                        .then(CommandManager.argument("ore", StringArgumentType.word())
+                                .suggests((ctx, builder) -> {
+                                    try {
+                                        LodeLocator locator = LodeLocator.create(ctx.getSource().getWorld());
+                                        CommandSource.suggestMatching(new String[] {"any"}, builder);
+                                        return CommandSource.suggestMatching(LodeLocator.oreNames(locator.config()), builder);
+                                    } catch (IllegalStateException e) {
+                                        return builder.buildFuture();
+                                    }
+                                })
+                                .executes(ctx -> locateLode(ctx.getSource(),
+                                        StringArgumentType.getString(ctx, "ore"), defaultLocateRadius()))
+                                .then(CommandManager.argument("radius", IntegerArgumentType.integer(0, 30000))
+                                        .executes(ctx -> locateLode(ctx.getSource(),
+                                                StringArgumentType.getString(ctx, "ore"),
+                                                IntegerArgumentType.getInteger(ctx, "radius"))))));
+    }
+
+    private static int defaultLocateRadius() {
+        return MountainOres.CONFIG != null ? MountainOres.CONFIG.lodeLocateRadius : 2048;
+    }
+
+    private static int locateLode(ServerCommandSource source, String ore, int radius) {
+        LodeLocator locator;
+        try {
+            locator = LodeLocator.create(source.getWorld());
+        } catch (IllegalStateException e) {
+            source.sendError(Text.literal("[MountainOres] " + e.getMessage()));
+            return 0;
+        }
+
+        String oreFilter = ore == null || ore.equals("any") ? null : ore;
+        ChunkPos center = new ChunkPos(BlockPos.ofFloored(source.getPosition()));
+        MinecraftServer server = source.getServer();
+
+        locator.locateNearest(center, radius, oreFilter).whenComplete((result, error) -> server.execute(() -> {
+            if (error != null) {
+                source.sendError(Text.literal("[MountainOres] Lode search failed: " + error));
+                return;
+            }
+            double millis = result.elapsedNanos() / 1.0e6;
+            if (result.nearest().isEmpty()) {
+                source.sendFeedback(() -> Text.literal(String.format(
+                        "[MountainOres] No %slode within %d chunks (%d chunks scanned in %.0f ms)",
+                        oreFilter != null ? oreFilter + " " : "", radius, result.scannedChunks(), millis)), false);
+                return;
+            }
+
+            LodeLocator.Prediction lode = result.nearest().get();
+            BlockPos pos = lode.pos();
+            source.sendFeedback(() -> Text.literal(String.format(
+                    "[MountainOres] %s lode (%d blocks) predicted at %d %d %d, chunk [%d, %d] (%d chunks scanned in %.0f ms)",
+                    lode.ore(), lode.targetBlocks(), pos.getX(), pos.getY(), pos.getZ(),
+                    lode.chunk().x, lode.chunk().z, result.scannedChunks(), millis)), false);
+        }));
+        return 1;
+    }
+
+    // ── ledger ──────────────────────────────────────────────────────────
+
+    private static LiteralArgumentBuilder<ServerCommandSource> ledger() {
+        return CommandManager.literal("ledger")
+                .then(CommandManager.literal("summary")
+                        .executes(ctx -> ledgerSummary(ctx.getSource())))
+                .then(CommandManager.literal("lodes")
+                        .executes(ctx -> ledgerLodes(ctx.getSource(), null))
+                        .then(CommandManager.argument("ore", StringArgumentType.word())
+                                .suggests((ctx, builder) -> CommandSource.suggestMatching(OreLedger.ORES, builder))
+                                .executes(ctx -> ledgerLodes(ctx.getSource(), StringArgumentType.getString(ctx, "ore")))));
+    }
+
+    private static int ledgerSummary(ServerCommandSource source) {
+        MinecraftServer server = source.getServer();
+        LedgerAggregator.summarize(OreLedger.ledgerDirectory(server)).whenComplete((summary, error) -> server.execute(() -> {
+            if (error != null) {
+                source.sendError(Text.literal("[MountainOres] Ledger read failed: " + error));
+                return;
+            }
+            if (summary.chunks() == 0) {
+                source.sendFeedback(() -> Text.literal("[MountainOres] Ledger is empty (enable oreLedger and generate new chunks)"), false);
+                return;
+            }
+
+            StringBuilder ores = new StringBuilder();
+            for (int i = 0; i < OreLedger.ORES.length; i++) {
+                ores.append(String.format("%n  %s: %d blocks (%.1f/chunk), %d lodes", OreLedger.ORES[i],
+                        summary.ores()[i], (double) summary.ores()[i] / summary.chunks(), summary.lodes()[i]));
+            }
+            StringBuilder bands = new StringBuilder();
+            for (int band = 0; band < OreLedger.BAND_COUNT; band++) {
+                bands.append(String.format("%n  %s: %d blocks", OreLedger.bandName(band), summary.bands()[band]));
+            }
+            source.sendFeedback(() -> Text.literal(String.format(
+                    "[MountainOres] Ledger: %d chunks in %d regions%s%s",
+                    summary.chunks(), summary.regions(), ores, bands)), false);
+        }));
+        return 1;
+    }
+
+    private static int ledgerLodes(ServerCommandSource source, String ore) {
+        MinecraftServer server = source.getServer();
+        BlockPos near = BlockPos.ofFloored(source.getPosition());
+        LedgerAggregator.lodes(OreLedger.ledgerDirectory(server), ore, near, 10).whenComplete((lodes, error) -> server.execute(() -> {
+            if (error != null) {
+                source.sendError(Text.literal("[MountainOres] Ledger read failed: " + error));
+                return;
+            }
+            if (lodes.isEmpty()) {
+                source.sendFeedback(() -> Text.literal("[MountainOres] No recorded " + (ore != null ? ore + " " : "") + "lodes"), false);
+                return;
+            }
+
+            StringBuilder lines = new StringBuilder();
+            for (LedgerAggregator.Lode lode : lodes) {
+                BlockPos pos = lode.origin();
+                lines.append(String.format("%n  %s (entry %d) at %d %d %d: %d/%d blocks", lode.ore(), lode.entry(),
+                        pos.getX(), pos.getY(), pos.getZ(), lode.placedBlocks(), lode.targetBlocks()));
+            }
+            source.sendFeedback(() -> Text.literal("[MountainOres] Nearest recorded lodes:" + lines), false);
+        }));
+        return 1;
+    }
+
+    // ── budget ──────────────────────────────────────────────────────────
+
+    private static LiteralArgumentBuilder<ServerCommandSource> budget() {
+        return CommandManager.literal("budget")
+                .executes(ctx -> {
+                    String metrics = OreBudget.describeMetrics();
+                    ctx.getSource().sendFeedback(() -> Text.literal("[MountainOres] " + metrics), false);
+                    return 1;
+                })
+                .then(CommandManager.literal("reset")
+                        .executes(ctx -> {
+                            OreBudget.resetMetrics();
+                            ctx.getSource().sendFeedback(() -> Text.literal("[MountainOres] Chunk budget metrics cleared"), true);
+                            return 1;
+                        }));
+    }
+
+    // ── allocations ─────────────────────────────────────────────────────
+
+    private static LiteralArgumentBuilder<ServerCommandSource> allocations() {
+        return CommandManager.literal("allocations")
+                .then(CommandManager.literal("start")
+                        .executes(ctx -> {
+                            if (!AllocationProbe.isSupported()) {
+                                ctx.getSource().sendError(Text.literal("[MountainOres] This JVM has no per-thread allocation counters"));
+                                return 0;
+                            }
+                            AllocationProbe.start();
+                            ctx.getSource().sendFeedback(() -> Text.literal("[MountainOres] Measuring world generation allocations; generate new chunks, then run 'allocations report'"), true);
+                            return 1;
+                        }))
+                .then(CommandManager.literal("stop")
+                        .executes(ctx -> {
+                            AllocationProbe.stop();
+                            ctx.getSource().sendFeedback(() -> Text.literal("[MountainOres] Allocation measurement stopped"), true);
+                            return 1;
+                        }))
+                .then(CommandManager.literal("report")
+                        .executes(ctx -> allocationsReport(ctx.getSource())));
+    }
+
+    private static int allocationsReport(ServerCommandSource source) {
+        long chunks = AllocationProbe.chunks();
+        List<AllocationProbe.Line> lines = AllocationProbe.report();
+        if (chunks == 0 || lines.isEmpty()) {
+            source.sendFeedback(() -> Text.literal("[MountainOres] No chunks measured yet (run 'allocations start' and generate new chunks)"), false);
+            return 0;
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (AllocationProbe.Line line : lines) {
+            text.append(String.format("%n  %s: %.0f B/chunk (%d calls)", line.site().key(), line.bytesPerChunk(),
+                    line.calls()));
+        }
+        String summary = String.format("[MountainOres] Allocations over %d chunks%s:%s",
+                chunks, AllocationProbe.isRecording() ? " (still recording)" : "", text);
+        source.sendFeedback(() -> Text.literal(summary), false);
+        return 1;
+    }
+
+    // ── Trace capture ───────────────────────────────────────────────────
+
+    private static LiteralArgumentBuilder<ServerCommandSource> trace() {
+        return CommandManager.literal("trace")
+                .then(CommandManager.literal("start")
+                        .executes(ctx -> traceStart(ctx.getSource(), 0.01))
+                        .then(CommandManager.argument("rate", DoubleArgumentType.doubleArg(0.0001, 1.0))
+                                .executes(ctx -> traceStart(ctx.getSource(), DoubleArgumentType.getDouble(ctx, "rate")))))
+                .then(CommandManager.literal("stop")
+                        .executes(ctx -> {
+                            int records = TraceCapture.stop();
+                            if (records < 0) {
+                                ctx.getSource().sendError(Text.literal("[MountainOres] No trace capture running"));
+                                return 0;
+                            }
+                            ctx.getSource().sendFeedback(() -> Text.literal(String.format("[MountainOres] Trace capture stopped: %d invocations", records)), true);
+                            return 1;
+                        }))
+                .then(CommandManager.literal("status")
+                        .executes(ctx -> {
+                            ctx.getSource().sendFeedback(() -> Text.literal("[MountainOres] " + TraceCapture.describe()), false);
+                            return 1;
+                        }));
+    }
+
+    private static int traceStart(ServerCommandSource source, double rate) {
+        Path file;
+        try {
+            file = TraceCapture.start(source.getServer(), rate);
+        } catch (IOException e) {
+            source.sendError(Text.literal("[MountainOres] Failed to create trace file: " + e.getMessage()));
+            return 0;
+        }
+        source.sendFeedback(() -> Text.literal(String.format("[MountainOres] Capturing %.2f%% of vein and lode invocations to %s; generate new chunks, then run 'trace stop'",
+                rate * 100.0, file.getFileName())), true);
+        return 1;
+    }
+
+    // ── benchmark ───────────────────────────────────────────────────────
+
+    private static LiteralArgumentBuilder<ServerCommandSource> benchmark() {
+        return CommandManager.literal("benchmark")
+                .executes(ctx -> benchmark(ctx.getSource(), 10, false))
+                .then(CommandManager.argument("seconds", IntegerArgumentType.integer(1, OreBenchmark.MAX_SECONDS))
+                        .executes(ctx -> benchmark(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "seconds"), false)))
+                .then(CommandManager.literal("compare")
+                        .executes(ctx -> benchmark(ctx.getSource(), 10, true))
+                        .then(CommandManager.argument("seconds", IntegerArgumentType.integer(1, OreBenchmark.MAX_SECONDS))
+                                .executes(ctx -> benchmark(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "seconds"), true))));
+    }
+
+    private static int benchmark(ServerCommandSource source, int seconds, boolean compare) {
+        OreBenchmark.Run run;
+        try {
+            run = OreBenchmark.start(source.getWorld(), new ChunkPos(BlockPos.ofFloored(source.getPosition())), seconds, compare);
+        } catch (IllegalStateException e) {
+            source.sendError(Text.literal("[MountainOres] " + e.getMessage()));
+            return 0;
+        }
+        source.sendFeedback(() -> Text.literal(String.format(
+                "[MountainOres] Benchmark started: %d loaded chunks, %d ore features, %d setting(s) of %d s; the world is not modified",
+                run.chunks(), run.features(), run.settings(), seconds)), true);
+
+        MinecraftServer server = source.getServer();
+        run.report().whenComplete((report, error) -> server.execute(() -> {
+            if (error != null) {
+                source.sendError(Text.literal("[MountainOres] Benchmark failed: " + error));
+                return;
+            }
+
+            OreBenchmark.Result active = report.results().get(0);
+            StringBuilder lines = new StringBuilder();
+            for (OreBenchmark.Result result : report.results()) {
+                String delta = result == active ? ""
+                        : String.format(" (%+.0f%%)", (result.chunksPerSecond() / active.chunksPerSecond() - 1.0) * 100.0);
+                String allocation = report.allocationsMeasured()
+                        ? String.format("%.1f MB/s, %.0f B/chunk", result.bytesPerSecond() / 1.0e6, result.bytesPerChunk())
+                        : "allocation n/a";
+                lines.append(String.format("%n  %s: %.0f chunks/s%s, %.0f veins/s, vein p50 %.1f us, p99 %.1f us, %s",
+                        result.setting(), result.chunksPerSecond(), delta, result.veinsPerSecond(),
+                        result.p50() / 1000.0, result.p99() / 1000.0, allocation));
+            }
+            StringBuilder slowest = new StringBuilder();
+            for (OreBenchmark.FeatureLatency feature : active.slowest()) {
+                slowest.append(String.format("%n  %s: p50 %.1f us, p99 %.1f us", feature.feature(),
+                        feature.p50() / 1000.0, feature.p99() / 1000.0));
+            }
+            source.sendFeedback(() -> Text.literal(String.format(
+                    "[MountainOres] Benchmark over %d loaded chunks, %d ore features:%s%nSlowest features (active, by p99):%s%nFull table in the server log",
+                    report.chunks(), report.features(), lines, slowest)), false);
+        }));
+        return 1;
+    }
+}
@@ -0,0 +1,87 @@
+package de.kin.mountainores.engine;
+
+/**
+ * Grows a lode: a dense, roughly spherical cluster around a centre, filled by
+ * sampling random points in a sphere whose radius follows the target size.
+ *
+ * <p>Writes stay inside the given {@link WriteBounds}. Once the cluster
+ * touches air or fluid its target size is multiplied by the shrink factor.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class ClusterGrower {
+
+    private final float exposureShrinkFactor;
+
+    public ClusterGrower(float exposureShrinkFactor) {
+        this.exposureShrinkFactor = exposureShrinkFactor;
+    }
+
+    public float exposureShrinkFactor() {
+        return exposureShrinkFactor;
+    }
+
+    /**
+     * Grows one cluster centred on {@code (x, y, z)}.
+     *
+     * @param missLimit stop after this many attempts in a row without a placement
+     *                  ({@link Integer#MAX_VALUE} to always use the full attempt budget)
+     * @param bounds    where blocks may be placed
+     * @param stats     receives the outcome; reset before use
+     * @return whether at least one block was placed
+     */
+    public <S> boolean grow(VoxelAccess<S> voxels, OreTargets<S> ore, EngineRandom random,
+                            int x, int y, int z, int targetBlocks, int missLimit, WriteBounds bounds, GrowthStats stats) {
+        stats.reset();
+        if (targetBlocks <= 0) {
+            return false;
+        }
+
+        double radius = Math.max(2.0, Math.cbrt((double) targetBlocks) * 2.0);
+        double radiusSq = radius * radius;
+        int maxAttempts = Math.max(12, targetBlocks * 6);
+
+        boolean shrinkApplied = false;
+        int placed = 0;
+        int lastHit = 0;
+
+        int attempts = 0;
+        for (; attempts < maxAttempts && placed < targetBlocks && attempts - lastHit < missLimit; attempts++) {
+            // Up to five tries for a point inside the sphere; the last one is kept either way
+            double dx = 0;
+            double dy = 0;
+            double dz = 0;
+            for (int i = 0; i < 5; i++) {
+                dx = (random.nextDouble() * 2.0 - 1.0) * radius;
+                dy = (random.nextDouble() * 2.0 - 1.0) * radius;
+                dz = (random.nextDouble() * 2.0 - 1.0) * radius;
+                if (dx * dx + dy * dy + dz * dz <= radiusSq) {
+                    break;
+                }
+            }
+            int px = x + (int) Math.round(dx);
+            int py = y + (int) Math.round(dy);
+            int pz = z + (int) Math.round(dz);
+
+            if (!Placement.writable(voxels, bounds, px, py, pz)) {
+                continue;
+            }
+
+            if (Placement.tryPlace(voxels, ore, random, px, py, pz)) {
+                placed++;
+                lastHit = attempts + 1;
+
+                if (!shrinkApplied && Placement.exposed(voxels, px, py, pz, true)) {
+                    targetBlocks = Math.max(1, (int) Math.floor(targetBlocks * exposureShrinkFactor));
+                    shrinkApplied = true;
+                }
+            }
+        }
+
+        stats.started = placed > 0;
+        stats.placed = placed;
+        stats.attempts = attempts;
+        stats.missLimitHit(targetBlocks, maxAttempts);
+        stats.exposureShrunk = shrinkApplied;
+        return placed > 0;
+    }
+}
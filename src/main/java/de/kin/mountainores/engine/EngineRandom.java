@@ -0,0 +1,14 @@
+package de.kin.mountainores.engine;
+
+/**
+ * The random calls the growers make. Backends forward to the feature's random
+ * so that a vein consumes exactly the same sequence as before.
+ */
+public interface EngineRandom {
+
+    int nextInt(int bound);
+
+    float nextFloat();
+
+    double nextDouble();
+}
@@ -0,0 +1,104 @@
+package de.kin.mountainores.engine;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Array-backed {@link VoxelAccess} for a box of blocks, independent of any
+ * world. Meant for benchmarks and offline tools that run the growers without
+ * a server. Reads outside the box return the fill state.
+ *
+ * @param <S> block state type
+ */
+public final class FlatVoxels<S> implements VoxelAccess<S> {
+
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final S outside;
+    private final Predicate<S> air;
+    private final Predicate<S> fluid;
+    private final Object[] states;
+
+    /**
+     * @param fill  initial state of every block, also returned for reads outside the box
+     * @param air   which states count as air
+     * @param fluid which states hold fluid
+     */
+    public FlatVoxels(int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ,
+                      S fill, Predicate<S> air, Predicate<S> fluid) {
+        if (sizeX <= 0 || sizeY <= 0 || sizeZ <= 0) {
+            throw new IllegalArgumentException("Box size must be positive: " + sizeX + "x" + sizeY + "x" + sizeZ);
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.outside = fill;
+        this.air = air;
+        this.fluid = fluid;
+        this.states = new Object[sizeX * sizeY * sizeZ];
+        Arrays.fill(states, fill);
+    }
+
+    @Override
+    public int bottomY() {
+        return minY;
+    }
+
+    @Override
+    public int topY() {
+        return minY + sizeY;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public S getState(int x, int y, int z) {
+        int index = index(x, y, z);
+        return index < 0 ? outside : (S) states[index];
+    }
+
+    @Override
+    public void setState(int x, int y, int z, S state) {
+        int index = index(x, y, z);
+        if (index >= 0) {
+            states[index] = state;
+        }
+    }
+
+    @Override
+    public boolean isAir(int x, int y, int z) {
+        return air.test(getState(x, y, z));
+    }
+
+    @Override
+    public boolean hasFluid(int x, int y, int z) {
+        return fluid.test(getState(x, y, z));
+    }
+
+    /** Counts the blocks in the box that currently hold {@code state}. */
+    public int count(S state) {
+        int count = 0;
+        for (Object s : states) {
+            if (s == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int index(int x, int y, int z) {
+        int lx = x - minX;
+        int ly = y - minY;
+        int lz = z - minZ;
+        if (lx < 0 || ly < 0 || lz < 0 || lx >= sizeX || ly >= sizeY || lz >= sizeZ) {
+            return -1;
+        }
+        return (ly * sizeZ + lz) * sizeX + lx;
+    }
+}
@@ -0,0 +1,42 @@
+package de.kin.mountainores.engine;
+
+/**
+ * Outcome of one vein or cluster, filled in by the growers.
+ */
+public final class GrowthStats {
+
+    /** Whether a first block could be placed at all. */
+    public boolean started;
+
+    /** Blocks placed, including the start block. */
+    public int placed;
+
+    /** Growth attempts after the start block. */
+    public int attempts;
+
+    /** Whether the target size was reduced because the vein touched air or fluid. */
+    public boolean exposureShrunk;
+
+    /** Blocks short of the target when the miss limit ended growth; 0 if it did not. */
+    public int missing;
+
+    /** Attempts left under the attempt cap when the miss limit ended growth; 0 if it did not. */
+    public int attemptsLeft;
+
+    public void reset() {
+        started = false;
+        placed = 0;
+        attempts = 0;
+        exposureShrunk = false;
+        missing = 0;
+        attemptsLeft = 0;
+    }
+
+    /** Records that the miss limit ended growth before the target and the attempt cap were reached. */
+    void missLimitHit(int targetBlocks, int maxAttempts) {
+        if (placed < targetBlocks && attempts < maxAttempts) {
+            missing = targetBlocks - placed;
+            attemptsLeft = maxAttempts - attempts;
+        }
+    }
+}
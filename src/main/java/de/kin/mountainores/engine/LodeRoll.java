@@ -0,0 +1,91 @@
+package de.kin.mountainores.engine;
+
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The random rolls that precede growing a lode: weighted entry, centre Y and
+ * target size, in the order generation draws them. The lode feature and the
+ * lode locator both roll through here, so a prediction consumes the random
+ * exactly like generation does.
+ *
+ * @param entry        index of the chosen entry
+ * @param y            centre Y, inside the world
+ * @param targetBlocks blocks the cluster grower aims for
+ */
+public record LodeRoll(int entry, int y, int targetBlocks) {
+
+    /** What a roll reads of a lode entry. Y values are in reference coordinates. */
+    public interface Entry {
+
+        int weight();
+
+        int minY();
+
+        int maxY();
+
+        int minSize();
+
+        int maxSize();
+    }
+
+    /**
+     * Rolls entry, Y and size. Entries with a weight of 0 or less are never
+     * chosen.
+     *
+     * @param topY   the world's top Y (exclusive)
+     * @param scaleY maps an entry's reference Y to the world (height scaling)
+     * @return the roll, or {@code null} if no lode is generated
+     */
+    public static LodeRoll roll(List<? extends Entry> entries, EngineRandom random, int bottomY, int topY,
+                                IntUnaryOperator scaleY) {
+        int index = pick(entries, random);
+        if (index < 0) {
+            return null;
+        }
+        Entry entry = entries.get(index);
+        if (entry.minSize() <= 0 || entry.maxSize() < entry.minSize()) {
+            return null;
+        }
+
+        int minY = Math.max(scaleY.applyAsInt(entry.minY()), bottomY);
+        int maxY = Math.min(scaleY.applyAsInt(entry.maxY()), topY - 1);
+        if (minY > maxY) {
+            return null;
+        }
+
+        int y = minY + random.nextInt(maxY - minY + 1);
+        int targetBlocks = entry.minSize() + random.nextInt(entry.maxSize() - entry.minSize() + 1);
+        return new LodeRoll(index, y, targetBlocks);
+    }
+
+    private static int pick(List<? extends Entry> entries, EngineRandom random) {
+        if (entries == null || entries.isEmpty()) {
+            return -1;
+        }
+
+        int totalWeight = 0;
+        for (Entry entry : entries) {
+            if (entry.weight() > 0) {
+                totalWeight += entry.weight();
+            }
+        }
+        if (totalWeight <= 0) {
+            return -1;
+        }
+
+        int roll = random.nextInt(totalWeight);
+        int cumulative = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            int weight = entries.get(i).weight();
+            if (weight <= 0) {
+                continue;
+            }
+            cumulative += weight;
+            if (roll < cumulative) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
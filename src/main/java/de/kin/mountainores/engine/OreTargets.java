@@ -0,0 +1,29 @@
+package de.kin.mountainores.engine;
+
+/**
+ * Which ore replaces which host block, plus the air-exposure discard chance.
+ *
+ * @param <S> block state type
+ */
+public interface OreTargets<S> {
+
+    /**
+     * Tests the targets in order against {@code current}.
+     * Implementations may draw from {@code random} exactly like the rule tests they wrap.
+     *
+     * @return the ore state to place, or {@code null} if {@code current} is not replaceable
+     */
+    S match(S current, EngineRandom random);
+
+    /** Chance to skip an otherwise valid placement that touches air; 0 disables the check. */
+    float discardOnAirChance();
+
+    /**
+     * Whether a state this returns could itself be matched again. Growers may
+     * skip blocks already placed by the same vein when this is {@code false};
+     * the default is the safe answer.
+     */
+    default boolean mayReplaceOwnOre() {
+        return true;
+    }
+}
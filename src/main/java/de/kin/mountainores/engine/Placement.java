@@ -0,0 +1,54 @@
+package de.kin.mountainores.engine;
+
+/**
+ * Shared placement step of the growers: match, optional air-exposure discard,
+ * write.
+ */
+final class Placement {
+
+    private Placement() {}
+
+    static <S> boolean tryPlace(VoxelAccess<S> voxels, OreTargets<S> ore, EngineRandom random, int x, int y, int z) {
+        S replacement = ore.match(voxels.getState(x, y, z), random);
+        if (replacement == null) {
+            return false;
+        }
+
+        float discardChance = ore.discardOnAirChance();
+        if (discardChance > 0.0f && touchesAir(voxels, x, y, z) && random.nextFloat() < discardChance) {
+            return false;
+        }
+
+        voxels.setState(x, y, z, replacement);
+        return true;
+    }
+
+    static boolean touchesAir(VoxelAccess<?> voxels, int x, int y, int z) {
+        return exposed(voxels, x, y, z, false);
+    }
+
+    /**
+     * Whether any of the six neighbours (in Y order down, up, north, south,
+     * west, east) is air, or holds fluid if {@code fluids} is set.
+     * Neighbours outside the world's height are ignored.
+     */
+    static boolean exposed(VoxelAccess<?> voxels, int x, int y, int z, boolean fluids) {
+        return exposedAt(voxels, x, y - 1, z, fluids)
+                || exposedAt(voxels, x, y + 1, z, fluids)
+                || exposedAt(voxels, x, y, z - 1, fluids)
+                || exposedAt(voxels, x, y, z + 1, fluids)
+                || exposedAt(voxels, x - 1, y, z, fluids)
+                || exposedAt(voxels, x + 1, y, z, fluids);
+    }
+
+    private static boolean exposedAt(VoxelAccess<?> voxels, int x, int y, int z, boolean fluids) {
+        if (y < voxels.bottomY() || y >= voxels.topY()) {
+            return false;
+        }
+        return voxels.isAir(x, y, z) || (fluids && voxels.hasFluid(x, y, z));
+    }
+
+    static boolean writable(VoxelAccess<?> voxels, WriteBounds bounds, int x, int y, int z) {
+        return y >= voxels.bottomY() && y < voxels.topY() && bounds.contains(x, z);
+    }
+}
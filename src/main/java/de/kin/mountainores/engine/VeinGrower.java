@@ -0,0 +1,268 @@
+package de.kin.mountainores.engine;
+
+import java.util.Arrays;
+
+/**
+ * Grows a connected vein: each new block is placed next to a random block that
+ * is already part of the vein, so the result is one face-connected body
+ * instead of scattered single blocks.
+ *
+ * <p>Veins of up to {@value #TINY_MAX} blocks take a fast path that keeps
+ * the vein in two longs instead of an array and skips growth attempts that
+ * land on the vein itself without reading the block. Such an attempt can
+ * never place (see {@link OreTargets#mayReplaceOwnOre()}) and draws nothing,
+ * so both paths consume the same random sequence and place the same blocks.
+ *
+ * <p>Writes stay inside the given {@link WriteBounds}. Instances are
+ * immutable and can be shared between threads.
+ */
+public final class VeinGrower {
+
+    // Offsets in the order of Minecraft's Direction.values(): down, up, north, south, west, east
+    private static final int[] DX = {0, 0, 0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0, 0, 0};
+    private static final int[] DZ = {0, 0, -1, 1, 0, 0};
+
+    /** Largest target size grown on the fast path. */
+    static final int TINY_MAX = 8;
+
+    private static final long NO_START = Long.MIN_VALUE;
+
+    private final boolean shrinkOnExposure;
+    private final float exposureShrinkFactor;
+    private final boolean countFluidsAsExposure;
+
+    /**
+     * @param shrinkOnExposure      reduce the target size once the vein touches air (or fluid)
+     * @param exposureShrinkFactor  factor applied to the target size when shrinking
+     * @param countFluidsAsExposure whether fluids count as exposure for shrinking
+     */
+    public VeinGrower(boolean shrinkOnExposure, float exposureShrinkFactor, boolean countFluidsAsExposure) {
+        this.shrinkOnExposure = shrinkOnExposure;
+        this.exposureShrinkFactor = exposureShrinkFactor;
+        this.countFluidsAsExposure = countFluidsAsExposure;
+    }
+
+    /** Whether the target size depends on what the vein runs into. */
+    public boolean shrinksOnExposure() {
+        return shrinkOnExposure;
+    }
+
+    public float exposureShrinkFactor() {
+        return exposureShrinkFactor;
+    }
+
+    public boolean countsFluidsAsExposure() {
+        return countFluidsAsExposure;
+    }
+
+    /**
+     * Grows one vein at {@code (x, y, z)}.
+     *
+     * @param missLimit stop after this many growth attempts in a row without a placement
+     *                  ({@link Integer#MAX_VALUE} to always use the full attempt budget)
+     * @param bounds    where blocks may be placed
+     * @param stats     receives the outcome; reset before use
+     * @return whether at least one block was placed
+     */
+    public <S> boolean grow(VoxelAccess<S> voxels, OreTargets<S> ore, EngineRandom random,
+                            int x, int y, int z, int targetBlocks, int missLimit, WriteBounds bounds, GrowthStats stats) {
+        stats.reset();
+        if (targetBlocks <= 0) {
+            return false;
+        }
+
+        // Start at the origin, or search a small neighbourhood for a replaceable block
+        long start;
+        if (Placement.tryPlace(voxels, ore, random, x, y, z)) {
+            start = pack(x, y, z);
+        } else {
+            start = findStart(voxels, ore, random, x, y, z, bounds);
+            if (start == NO_START) {
+                return false;
+            }
+        }
+        if (targetBlocks <= TINY_MAX && !ore.mayReplaceOwnOre()) {
+            return growTiny(voxels, ore, random, unpackX(start), unpackY(start), unpackZ(start),
+                    targetBlocks, missLimit, bounds, stats);
+        }
+
+        int[] vein = new int[3 * Math.min(targetBlocks, 64)];
+        vein[0] = unpackX(start);
+        vein[1] = unpackY(start);
+        vein[2] = unpackZ(start);
+        int placed = 1;
+        stats.started = true;
+
+        boolean shrinkApplied = false;
+        if (shrinkOnExposure && Placement.exposed(voxels, vein[0], vein[1], vein[2], countFluidsAsExposure)) {
+            targetBlocks = shrink(targetBlocks);
+            shrinkApplied = true;
+        }
+
+        int maxAttempts = Math.max(48, targetBlocks * 24);
+        int lastHit = 0;
+
+        int attempts = 0;
+        for (; attempts < maxAttempts && placed < targetBlocks && attempts - lastHit < missLimit; attempts++) {
+            int base = 3 * random.nextInt(placed);
+            int direction = random.nextInt(6);
+            int nx = vein[base] + DX[direction];
+            int ny = vein[base + 1] + DY[direction];
+            int nz = vein[base + 2] + DZ[direction];
+
+            if (!Placement.writable(voxels, bounds, nx, ny, nz)) {
+                continue;
+            }
+
+            if (Placement.tryPlace(voxels, ore, random, nx, ny, nz)) {
+                if (3 * placed == vein.length) {
+                    vein = Arrays.copyOf(vein, vein.length * 2);
+                }
+                vein[3 * placed] = nx;
+                vein[3 * placed + 1] = ny;
+                vein[3 * placed + 2] = nz;
+                placed++;
+                lastHit = attempts + 1;
+
+                if (shrinkOnExposure && !shrinkApplied && Placement.exposed(voxels, nx, ny, nz, countFluidsAsExposure)) {
+                    targetBlocks = shrink(targetBlocks);
+                    shrinkApplied = true;
+                }
+            }
+        }
+
+        stats.placed = placed;
+        stats.attempts = attempts;
+        stats.missLimitHit(targetBlocks, maxAttempts);
+        stats.exposureShrunk = shrinkApplied;
+        return true;
+    }
+
+    /**
+     * Same loop as the general path for veins of at most {@value #TINY_MAX}
+     * blocks, starting from the placed block {@code (sx, sy, sz)}. Block
+     * offsets from the start fit in four bits per axis (a vein of n blocks
+     * reaches at most n - 1 blocks from its start), so each block is one
+     * 12-bit cell: five in {@code low}, three in {@code high}.
+     */
+    private <S> boolean growTiny(VoxelAccess<S> voxels, OreTargets<S> ore, EngineRandom random,
+                                 int sx, int sy, int sz, int targetBlocks, int missLimit, WriteBounds bounds,
+                                 GrowthStats stats) {
+        long low = cell(0, 0, 0);
+        long high = 0L;
+        int placed = 1;
+        stats.started = true;
+
+        boolean shrinkApplied = false;
+        if (shrinkOnExposure && Placement.exposed(voxels, sx, sy, sz, countFluidsAsExposure)) {
+            targetBlocks = shrink(targetBlocks);
+            shrinkApplied = true;
+        }
+
+        int maxAttempts = Math.max(48, targetBlocks * 24);
+        int lastHit = 0;
+
+        int attempts = 0;
+        for (; attempts < maxAttempts && placed < targetBlocks && attempts - lastHit < missLimit; attempts++) {
+            int index = random.nextInt(placed);
+            int base = (int) (index < 5 ? low >>> (12 * index) : high >>> (12 * (index - 5))) & 0xFFF;
+            int nx = sx + (base >>> 8) - 8;
+            int ny = sy + ((base >>> 4) & 15) - 8;
+            int nz = sz + (base & 15) - 8;
+            switch (random.nextInt(6)) {
+                case 0 -> ny--;
+                case 1 -> ny++;
+                case 2 -> nz--;
+                case 3 -> nz++;
+                case 4 -> nx--;
+                default -> nx++;
+            }
+
+            if (!Placement.writable(voxels, bounds, nx, ny, nz)) {
+                continue;
+            }
+
+            long cell = cell(nx - sx, ny - sy, nz - sz);
+            if (contains(low, high, placed, cell)) {
+                // Our own ore: not replaceable, so tryPlace would read it and give up
+                continue;
+            }
+
+            if (Placement.tryPlace(voxels, ore, random, nx, ny, nz)) {
+                if (placed < 5) {
+                    low |= cell << (12 * placed);
+                } else {
+                    high |= cell << (12 * (placed - 5));
+                }
+                placed++;
+                lastHit = attempts + 1;
+
+                if (shrinkOnExposure && !shrinkApplied && Placement.exposed(voxels, nx, ny, nz, countFluidsAsExposure)) {
+                    targetBlocks = shrink(targetBlocks);
+                    shrinkApplied = true;
+                }
+            }
+        }
+
+        stats.placed = placed;
+        stats.attempts = attempts;
+        stats.missLimitHit(targetBlocks, maxAttempts);
+        stats.exposureShrunk = shrinkApplied;
+        return true;
+    }
+
+    private static long cell(int dx, int dy, int dz) {
+        return (long) ((dx + 8) << 8 | (dy + 8) << 4 | (dz + 8));
+    }
+
+    private static boolean contains(long low, long high, int placed, long cell) {
+        for (int i = 0; i < placed; i++) {
+            long stored = (i < 5 ? low >>> (12 * i) : high >>> (12 * (i - 5))) & 0xFFF;
+            if (stored == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** @return the packed position of the placed start block, or {@link #NO_START} */
+    private static <S> long findStart(VoxelAccess<S> voxels, OreTargets<S> ore, EngineRandom random,
+                                      int x, int y, int z, WriteBounds bounds) {
+        for (int i = 0; i < 32; i++) {
+            int cx = x + random.nextInt(5) - 2;
+            int cy = y + random.nextInt(5) - 2;
+            int cz = z + random.nextInt(5) - 2;
+
+            if (!Placement.writable(voxels, bounds, cx, cy, cz)) {
+                continue;
+            }
+
+            if (Placement.tryPlace(voxels, ore, random, cx, cy, cz)) {
+                return pack(cx, cy, cz);
+            }
+        }
+        return NO_START;
+    }
+
+    // x and z in 26 bits, y in 12 bits, like a block position
+    private static long pack(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | ((long) y & 0xFFFL);
+    }
+
+    private static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    private static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    private static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+
+    private int shrink(int targetBlocks) {
+        return Math.max(1, (int) Math.floor(targetBlocks * exposureShrinkFactor));
+    }
+}
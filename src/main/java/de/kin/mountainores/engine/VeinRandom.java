@@ -0,0 +1,70 @@
+package de.kin.mountainores.engine;
+
+/**
+ * Small, unsynchronized Xoroshiro128++ generator for the inner loop of one
+ * vein or lode ({@code fastVeinRandom}).
+ *
+ * <p>Seeded from a single draw of the feature's random, so the result is
+ * still deterministic per world seed, while the per-attempt calls skip the
+ * indirection and thread checks of the shared world-generation random.
+ * Not thread-safe; create one per vein.
+ */
+public final class VeinRandom implements EngineRandom {
+
+    private long lo;
+    private long hi;
+
+    public VeinRandom(long seed) {
+        // SplitMix64 expansion, as recommended for seeding xoroshiro
+        long z = seed + 0x9E3779B97F4A7C15L;
+        this.lo = mix(z);
+        this.hi = mix(z + 0x9E3779B97F4A7C15L);
+        if ((lo | hi) == 0L) {
+            lo = 0x9E3779B97F4A7C15L;
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public long nextLong() {
+        long l = lo;
+        long h = hi;
+        long result = Long.rotateLeft(l + h, 17) + l;
+        h ^= l;
+        lo = Long.rotateLeft(l, 49) ^ h ^ (h << 21);
+        hi = Long.rotateLeft(h, 28);
+        return result;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Bound must be positive: " + bound);
+        }
+        // Lemire's multiply-shift with rejection, unbiased for every bound
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (-bound & 0xFFFFFFFFL) % bound;
+            while (low < threshold) {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    @Override
+    public float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,163 @@
+package de.kin.mountainores.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Library of pre-grown vein shapes, used instead of growing every vein from
+ * scratch.
+ *
+ * <p>For every size from 1 to {@link #maxSize()} the library holds
+ * {@link #variants()} face-connected shapes, grown with the same rule as
+ * {@link VeinGrower} (new blocks next to a random existing block) but in empty
+ * space. Cells are stored as packed byte triples relative to the first cell.
+ * A vein then costs one random draw, which picks both the shape and one of the
+ * eight rotations/mirrors around the Y axis, plus one read and one write per
+ * block. Cells that are not replaceable, or fall outside the
+ * {@link WriteBounds}, are skipped.
+ *
+ * <p>The library is built from a fixed seed, so the same world seed gives the
+ * same ore on every start. Instances are immutable and thread-safe.
+ */
+public final class VeinTemplates {
+
+    private static final int[] DX = {0, 0, 0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0, 0, 0};
+    private static final int[] DZ = {0, 0, -1, 1, 0, 0};
+
+    private static final long SEED = 0x4D4F5645494E53L;
+
+    private final int maxSize;
+    private final int variants;
+    // shapes[size][variant * size * 3 + cell * 3 + axis]
+    private final byte[][] shapes;
+
+    private VeinTemplates(int maxSize, int variants, byte[][] shapes) {
+        this.maxSize = maxSize;
+        this.variants = variants;
+        this.shapes = shapes;
+    }
+
+    /**
+     * Grows {@code variants} shapes for each size up to {@code maxSize}.
+     * Takes a few milliseconds for the default sizes.
+     */
+    public static VeinTemplates build(int maxSize, int variants) {
+        if (maxSize < 1 || maxSize > 127 || variants < 1) {
+            throw new IllegalArgumentException("Invalid template library: maxSize=" + maxSize + ", variants=" + variants);
+        }
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        byte[][] shapes = new byte[maxSize + 1][];
+        int[] cells = new int[maxSize * 3];
+        for (int size = 1; size <= maxSize; size++) {
+            byte[] packed = new byte[variants * size * 3];
+            for (int v = 0; v < variants; v++) {
+                growShape(random, size, cells);
+                for (int i = 0; i < size * 3; i++) {
+                    packed[v * size * 3 + i] = (byte) cells[i];
+                }
+            }
+            shapes[size] = packed;
+        }
+        return new VeinTemplates(maxSize, variants, shapes);
+    }
+
+    private static void growShape(SplittableRandom random, int size, int[] cells) {
+        cells[0] = 0;
+        cells[1] = 0;
+        cells[2] = 0;
+        int count = 1;
+        while (count < size) {
+            int base = 3 * random.nextInt(count);
+            int direction = random.nextInt(6);
+            int x = cells[base] + DX[direction];
+            int y = cells[base + 1] + DY[direction];
+            int z = cells[base + 2] + DZ[direction];
+            if (!contains(cells, count, x, y, z)) {
+                cells[3 * count] = x;
+                cells[3 * count + 1] = y;
+                cells[3 * count + 2] = z;
+                count++;
+            }
+        }
+    }
+
+    private static boolean contains(int[] cells, int count, int x, int y, int z) {
+        for (int i = 0; i < count * 3; i += 3) {
+            if (cells[i] == x && cells[i + 1] == y && cells[i + 2] == z) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public int variants() {
+        return variants;
+    }
+
+    /** Whether the library has shapes for veins of {@code size} blocks. */
+    public boolean covers(int size) {
+        return size >= 1 && size <= maxSize;
+    }
+
+    /** Memory held by the packed shapes, in bytes. */
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (byte[] packed : shapes) {
+            if (packed != null) {
+                bytes += packed.length;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Stamps a random shape of {@code size} blocks with its first cell at
+     * {@code (x, y, z)}.
+     *
+     * @param bounds where blocks may be placed
+     * @param stats  receives the outcome; {@code attempts} is the number of cells tried
+     * @return whether at least one block was placed
+     */
+    public <S> boolean stamp(VoxelAccess<S> voxels, OreTargets<S> ore, EngineRandom random,
+                             int x, int y, int z, int size, WriteBounds bounds, GrowthStats stats) {
+        stats.reset();
+        if (!covers(size)) {
+            return false;
+        }
+
+        int pick = random.nextInt(variants * 8);
+        int offset = (pick >>> 3) * size * 3;
+        boolean mirror = (pick & 4) != 0;
+        int rotation = pick & 3;
+        byte[] packed = shapes[size];
+
+        int placed = 0;
+        for (int i = offset; i < offset + size * 3; i += 3) {
+            int dx = mirror ? -packed[i] : packed[i];
+            int dz = packed[i + 2];
+            for (int r = 0; r < rotation; r++) {
+                int t = dx;
+                dx = -dz;
+                dz = t;
+            }
+
+            int px = x + dx;
+            int py = y + packed[i + 1];
+            int pz = z + dz;
+            if (Placement.writable(voxels, bounds, px, py, pz)
+                    && Placement.tryPlace(voxels, ore, random, px, py, pz)) {
+                placed++;
+            }
+        }
+
+        stats.started = placed > 0;
+        stats.placed = placed;
+        stats.attempts = size;
+        return placed > 0;
+    }
+}
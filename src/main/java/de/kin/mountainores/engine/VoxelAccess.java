@@ -0,0 +1,28 @@
+package de.kin.mountainores.engine;
+
+/**
+ * Minimal block access for the growers.
+ *
+ * <p>{@code S} is the backend's block state type. Coordinates are absolute.
+ * Growers only write inside their {@link WriteBounds}, but exposure checks read
+ * one block beyond them, so reads must work there too.
+ *
+ * @param <S> block state type
+ */
+public interface VoxelAccess<S> {
+
+    /** Lowest valid Y. */
+    int bottomY();
+
+    /** One above the highest valid Y. */
+    int topY();
+
+    S getState(int x, int y, int z);
+
+    void setState(int x, int y, int z, S state);
+
+    boolean isAir(int x, int y, int z);
+
+    /** Whether the block at the position holds any fluid (including waterlogged blocks). */
+    boolean hasFluid(int x, int y, int z);
+}
@@ -0,0 +1,30 @@
+package de.kin.mountainores.engine;
+
+/**
+ * Horizontal area a vein or lode may write into (inclusive block coordinates).
+ * Y is bounded by the {@link VoxelAccess}.
+ */
+public record WriteBounds(int minX, int maxX, int minZ, int maxZ) {
+
+    /** The chunk column containing {@code (x, z)}. */
+    public static WriteBounds column(int x, int z) {
+        int cx = x & ~15;
+        int cz = z & ~15;
+        return new WriteBounds(cx, cx + 15, cz, cz + 15);
+    }
+
+    /**
+     * The 3×3 chunks around the column containing {@code (x, z)}, minus their
+     * outermost block, so that every neighbour an exposure check reads is
+     * still inside the 3×3 window.
+     */
+    public static WriteBounds neighbourhood(int x, int z) {
+        int cx = x & ~15;
+        int cz = z & ~15;
+        return new WriteBounds(cx - 15, cx + 30, cz - 15, cz + 30);
+    }
+
+    public boolean contains(int x, int z) {
+        return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+    }
+}
@@ -0,0 +1,214 @@
+package de.kin.mountainores.engine.minecraft;
+
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.engine.VoxelAccess;
+import de.kin.mountainores.engine.WriteBounds;
+import de.kin.mountainores.ledger.OreLedger;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.ChunkRegion;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.chunk.ChunkSection;
+
+/**
+ * {@link VoxelAccess} backends for features.
+ *
+ * <p>During chunk generation ({@link ChunkRegion}) blocks are read and written
+ * straight through the chunk sections, the same way vanilla's ore feature does.
+ * Sections of the 3×3 chunks around the region centre are cached per
+ * neighbour, so writes across a chunk border cost no more than local ones.
+ * Replacing stone with ore changes neither heightmaps nor light, so skipping
+ * {@code setBlockState} and its bookkeeping gives the same chunk. Everywhere
+ * else (e.g. retrogen into loaded chunks) writes go through the world.
+ * {@link #standIn} runs the same sections backend over sections that belong
+ * to no world, so that the JIT warm-up sees the worldgen call profile.
+ *
+ * <p>Every placement is reported to the {@link OreLedger}.
+ */
+public abstract class BlockStateVoxels implements VoxelAccess<BlockState>, AutoCloseable {
+
+    protected final StructureWorldAccess world;
+    protected final BlockPos.Mutable pos = new BlockPos.Mutable();
+    private final int bottomY;
+    private final int topY;
+    protected int reads;
+
+    private BlockStateVoxels(StructureWorldAccess world, int bottomY, int height) {
+        this.world = world;
+        this.bottomY = bottomY;
+        this.topY = bottomY + height;
+    }
+
+    /** Opens the best backend for {@code world}. Close it once the feature is done. */
+    public static BlockStateVoxels open(StructureWorldAccess world) {
+        return world instanceof ChunkRegion region ? new Sections(region) : new Direct(world);
+    }
+
+    /**
+     * The sections backend over the 3×3 chunks around {@code center}, with
+     * the sections of chunk {@code (center.x + dx, center.z + dz)} at
+     * {@code columns[(dz + 1) * 3 + dx + 1]}, from {@code bottomY} up. Reads
+     * outside them return air. Close it once the feature is done.
+     */
+    public static BlockStateVoxels standIn(ChunkSection[][] columns, int bottomY, ChunkPos center) {
+        return new Sections(null, columns, bottomY, columns[4].length << 4, center);
+    }
+
+    /**
+     * Where a vein or lode starting at {@code (x, z)} may write: the origin's
+     * chunk column, or with {@code neighbourWrites} during world generation
+     * the 3×3 chunks around it (the window vanilla's ore feature writes into).
+     */
+    public WriteBounds bounds(int x, int z) {
+        return WriteBounds.column(x, z);
+    }
+
+    /** Blocks read so far, including exposure checks (the work measure of the chunk budget). */
+    public int reads() {
+        return reads;
+    }
+
+    @Override
+    public int bottomY() {
+        return bottomY;
+    }
+
+    @Override
+    public int topY() {
+        return topY;
+    }
+
+    @Override
+    public boolean isAir(int x, int y, int z) {
+        return getState(x, y, z).isAir();
+    }
+
+    @Override
+    public boolean hasFluid(int x, int y, int z) {
+        return !getState(x, y, z).getFluidState().isEmpty();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static final class Direct extends BlockStateVoxels {
+
+        Direct(StructureWorldAccess world) {
+            super(world, world.getBottomY(), world.getHeight());
+        }
+
+        @Override
+        public BlockState getState(int x, int y, int z) {
+            reads++;
+            return world.getBlockState(pos.set(x, y, z));
+        }
+
+        @Override
+        public void setState(int x, int y, int z, BlockState state) {
+            world.setBlockState(pos.set(x, y, z), state, 2);
+            OreLedger.orePlaced(state, y);
+        }
+    }
+
+    private static final class Sections extends BlockStateVoxels {
+
+        private static final BlockState AIR = Blocks.AIR.getDefaultState();
+
+        private final int centerX;
+        private final int centerZ;
+        private final int bottomSection;
+        private final int sectionCount;
+        // Where sections come from: the region's chunks when null, else stand-in columns as columns below
+        private final ChunkSection[][] standIn;
+        // Sections of the 3×3 chunks around the centre, [(dz + 1) * 3 + dx + 1][section index];
+        // a column's array is only allocated once the vein reaches it
+        private final ChunkSection[][] columns = new ChunkSection[9][];
+
+        Sections(ChunkRegion region) {
+            this(region, null, region.getBottomY(), region.getHeight(), region.getCenterPos());
+        }
+
+        Sections(ChunkRegion region, ChunkSection[][] standIn, int bottomY, int height, ChunkPos center) {
+            super(region, bottomY, height);
+            this.centerX = center.x;
+            this.centerZ = center.z;
+            this.bottomSection = bottomY >> 4;
+            this.sectionCount = height >> 4;
+            this.standIn = standIn;
+        }
+
+        @Override
+        public WriteBounds bounds(int x, int z) {
+            boolean neighbours = MountainOres.CONFIG != null && MountainOres.CONFIG.neighbourWrites;
+            if (neighbours && (x >> 4) == centerX && (z >> 4) == centerZ) {
+                return WriteBounds.neighbourhood(x, z);
+            }
+            return WriteBounds.column(x, z);
+        }
+
+        @Override
+        public BlockState getState(int x, int y, int z) {
+            reads++;
+            if (y < bottomY() || y >= topY()) {
+                return AIR;
+            }
+            ChunkSection section = section(x, y, z);
+            if (section == null) {
+                return world != null ? world.getBlockState(pos.set(x, y, z)) : AIR;
+            }
+            return section.getBlockState(x & 15, y & 15, z & 15);
+        }
+
+        @Override
+        public void setState(int x, int y, int z, BlockState state) {
+            ChunkSection section = section(x, y, z);
+            if (section == null) {
+                return;
+            }
+            section.setBlockState(x & 15, y & 15, z & 15, state, false);
+            OreLedger.orePlaced(state, y);
+        }
+
+        /** The cached section at the position, or {@code null} outside the 3×3 window. */
+        private ChunkSection section(int x, int y, int z) {
+            int dx = (x >> 4) - centerX;
+            int dz = (z >> 4) - centerZ;
+            if (dx < -1 || dx > 1 || dz < -1 || dz > 1) {
+                return null;
+            }
+            int column = (dz + 1) * 3 + dx + 1;
+            ChunkSection[] sections = columns[column];
+            if (sections == null) {
+                sections = new ChunkSection[sectionCount];
+                columns[column] = sections;
+            }
+            int sectionIndex = (y >> 4) - bottomSection;
+            ChunkSection section = sections[sectionIndex];
+            if (section == null) {
+                section = standIn != null
+                        ? standIn[column][sectionIndex]
+                        : world.getChunk(x >> 4, z >> 4).getSection(sectionIndex);
+                section.lock();
+                sections[sectionIndex] = section;
+            }
+            return section;
+        }
+
+        @Override
+        public void close() {
+            for (ChunkSection[] sections : columns) {
+                if (sections == null) {
+                    continue;
+                }
+                for (ChunkSection section : sections) {
+                    if (section != null) {
+                        section.unlock();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package de.kin.mountainores.engine.minecraft;
+
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.engine.EngineRandom;
+import de.kin.mountainores.engine.VeinRandom;
+import net.minecraft.util.math.random.Random;
+
+/** {@link EngineRandom} over a feature's {@link Random}. */
+public record MinecraftRandom(Random random) implements EngineRandom {
+
+    /**
+     * The random for one vein or lode: the feature's random itself, or with
+     * {@code fastVeinRandom} a {@link VeinRandom} seeded from one draw of it.
+     * Rule tests of the ore targets keep using the feature's random either way.
+     */
+    public static EngineRandom forVein(Random random) {
+        return forVein(random, MountainOres.CONFIG != null && MountainOres.CONFIG.fastVeinRandom);
+    }
+
+    /** Like {@link #forVein(Random)}, with {@code fastVeinRandom} given instead of read from the config. */
+    public static EngineRandom forVein(Random random, boolean fastVeinRandom) {
+        return fastVeinRandom ? new VeinRandom(random.nextLong()) : new MinecraftRandom(random);
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public float nextFloat() {
+        return random.nextFloat();
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+}
@@ -0,0 +1,69 @@
+package de.kin.mountainores.engine.minecraft;
+
+import de.kin.mountainores.engine.EngineRandom;
+import de.kin.mountainores.engine.OreTargets;
+import net.minecraft.block.BlockState;
+import net.minecraft.structure.rule.BlockMatchRuleTest;
+import net.minecraft.structure.rule.BlockStateMatchRuleTest;
+import net.minecraft.structure.rule.RuleTest;
+import net.minecraft.structure.rule.TagMatchRuleTest;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.gen.feature.OreFeatureConfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link OreTargets} for an {@link OreFeatureConfig}. Rule tests draw from
+ * {@code random}, which must be the random the growers are given.
+ */
+public record OreConfigTargets(OreFeatureConfig config, Random random) implements OreTargets<BlockState> {
+
+    // Per config (identity): whether any target state matches a rule again
+    private static final Map<OreFeatureConfig, Boolean> SELF_REPLACING = new ConcurrentHashMap<>();
+
+    @Override
+    public BlockState match(BlockState current, EngineRandom engineRandom) {
+        // Indexed: called for every attempt, so no iterator
+        List<OreFeatureConfig.Target> targets = config.targets;
+        for (int i = 0; i < targets.size(); i++) {
+            OreFeatureConfig.Target target = targets.get(i);
+            if (target.target.test(current, random)) {
+                return target.state;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public float discardOnAirChance() {
+        return config.discardOnAirChance;
+    }
+
+    @Override
+    public boolean mayReplaceOwnOre() {
+        return SELF_REPLACING.computeIfAbsent(config, OreConfigTargets::replacesOwnOre);
+    }
+
+    /**
+     * Evaluates the rules against the target states. Only rule tests that
+     * never draw from the random are evaluated; any other rule counts as
+     * matching.
+     */
+    private static boolean replacesOwnOre(OreFeatureConfig config) {
+        Random probe = Random.create(0L);
+        for (OreFeatureConfig.Target rule : config.targets) {
+            RuleTest test = rule.target;
+            if (!(test instanceof TagMatchRuleTest || test instanceof BlockMatchRuleTest || test instanceof BlockStateMatchRuleTest)) {
+                return true;
+            }
+            for (OreFeatureConfig.Target placed : config.targets) {
+                if (test.test(placed.state, probe)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,78 @@
+package de.kin.mountainores.feature;
+
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.engine.GrowthStats;
+
+/**
+ * Per-thread estimate of how often a growth attempt of one feature places a
+ * block, used to stop veins that have run into caves or water early.
+ *
+ * <p>The success rate {@code p} is an exponentially weighted average over
+ * completed veins. A vein stops after {@code k} consecutive misses once
+ * {@code (1 - p)^k} drops below {@value #UNLIKELY}: a vein growing at the
+ * feature's usual rate would almost never have missed that often.
+ *
+ * <p>Each early stop may still give up ore. Its expected loss is the ore the
+ * vein's remaining attempts would have placed at rate {@code p}, at most the
+ * blocks it was short of its target. Lost and target blocks are averaged
+ * like the success rate; while lost blocks make up
+ * {@code adaptiveAttemptsMaxLoss} or more of the feature's target volume,
+ * veins run to their full attempt cap again, so the estimated loss stays
+ * under the cap.
+ *
+ * <p>Only active with {@code adaptiveAttempts = true}. The estimate depends
+ * on which chunks a worker thread generated before, so the layout is then no
+ * longer reproducible from the seed alone.
+ */
+final class AttemptBudget {
+
+    /** Weight of the newest vein in the running averages. */
+    private static final double ALPHA = 0.05;
+
+    /** Never stop before this many consecutive misses. */
+    private static final int MIN_MISSES = 8;
+
+    /** Chance of a run of misses at the usual success rate below which a vein stops. */
+    private static final double UNLIKELY = 0.05;
+
+    private double successRate = 0.5;
+    private double lostBlocks;
+    private double targetBlocks;
+
+    /**
+     * @return the budget of the calling thread, or {@code null} if adaptive attempts are disabled
+     */
+    static AttemptBudget current(ThreadLocal<AttemptBudget> perThread) {
+        if (MountainOres.CONFIG == null || !MountainOres.CONFIG.adaptiveAttempts) {
+            return null;
+        }
+        return perThread.get();
+    }
+
+    /** Consecutive misses after which the calling vein should stop. */
+    int missLimit() {
+        double maxLoss = MountainOres.CONFIG.adaptiveAttemptsMaxLoss;
+        if (maxLoss <= 0.0 || lostBlocks >= maxLoss * targetBlocks) {
+            return Integer.MAX_VALUE;
+        }
+        double p = Math.min(0.99, Math.max(0.01, successRate));
+        double misses = Math.log(UNLIKELY) / Math.log1p(-p);
+        return Math.max(MIN_MISSES, (int) Math.ceil(misses));
+    }
+
+    /**
+     * Folds the outcome of a finished vein into the estimates.
+     *
+     * @param placed blocks placed by the growth attempts
+     * @param target the vein's target size
+     * @param stats  the vein's outcome, for whether and where the miss limit ended it
+     */
+    void record(int placed, int target, GrowthStats stats) {
+        double lost = stats.missing > 0 ? Math.min(stats.missing, stats.attemptsLeft * successRate) : 0.0;
+        lostBlocks += ALPHA * (lost - lostBlocks);
+        targetBlocks += ALPHA * (target - targetBlocks);
+        if (stats.attempts > 0) {
+            successRate += ALPHA * ((double) placed / stats.attempts - successRate);
+        }
+    }
+}
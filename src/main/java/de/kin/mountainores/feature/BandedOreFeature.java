@@ -0,0 +1,107 @@
+package de.kin.mountainores.feature;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import de.kin.mountainores.HeightScaler;
+import de.kin.mountainores.alloc.AllocationProbe;
+import de.kin.mountainores.budget.OreBudget;
+import de.kin.mountainores.jfr.OreVeinEvent;
+import de.kin.mountainores.placement.BandedHeightTable;
+import de.kin.mountainores.placement.HeightBand;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.gen.feature.Feature;
+import net.minecraft.world.gen.feature.FeatureConfig;
+import net.minecraft.world.gen.feature.OreFeatureConfig;
+import net.minecraft.world.gen.feature.util.FeatureContext;
+
+import java.util.List;
+
+/**
+ * All height bands of one ore in a single configured feature.
+ *
+ * <p>Each invocation picks a band with one alias draw (weights = the expected
+ * veins per chunk of the band's former placed feature), samples the band's
+ * trapezoid, scales the Y like {@code mountainores:scaled_height_range} and
+ * grows a connected vein with the band's own size range and budget
+ * priority. The placed feature therefore only needs a count,
+ * {@code in_square} and the biome filter.
+ *
+ * <p>The placed feature's count is the sum of the band counts, scaled as a
+ * whole. With the default rounding (minimum 1) the separate band features
+ * scaled each band on its own, so on worlds below the reference height the
+ * merged feature runs fewer veins, mostly in the low-weight bands. Expected
+ * counts per band only match with stochastic rounding or at the reference
+ * height.
+ */
+@SuppressWarnings("null")
+public class BandedOreFeature extends Feature<BandedOreFeature.Config> {
+
+    /**
+     * One band. {@code feature} names the per-band vein feature the band
+     * replaces (e.g. {@code coal__high__ore}); its budget priority follows the
+     * same name rule, so a band is trimmed exactly like that feature.
+     */
+    public record Band(HeightBand height, int minSize, int maxSize, String feature, OreBudget.Priority priority) {
+        public static final Codec<Band> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+                HeightBand.MAP_CODEC.forGetter(Band::height),
+                Codec.INT.fieldOf("min_size").forGetter(Band::minSize),
+                Codec.INT.fieldOf("max_size").forGetter(Band::maxSize),
+                Codec.STRING.optionalFieldOf("feature", "").forGetter(Band::feature)
+        ).apply(instance, Band::new));
+
+        public Band(HeightBand height, int minSize, int maxSize, String feature) {
+            this(height, minSize, maxSize, feature, OreBudget.Priority.forFeature(feature));
+        }
+    }
+
+    public record Config(OreFeatureConfig ore, List<Band> bands, BandedHeightTable table) implements FeatureConfig {
+        public static final Codec<Config> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+                OreFeatureConfig.CODEC.fieldOf("ore").forGetter(Config::ore),
+                Band.CODEC.listOf().fieldOf("bands").forGetter(Config::bands)
+        ).apply(instance, Config::new));
+
+        public Config(OreFeatureConfig ore, List<Band> bands) {
+            this(ore, bands, new BandedHeightTable(bands.stream().map(Band::height).toList()));
+        }
+    }
+
+    /** Vein growth shared with the per-band features (no exposure shrinking); traces and events carry this feature's ID. */
+    private final VariableOreFeature veins = new VariableOreFeature(this);
+
+    public BandedOreFeature(Codec<Config> configCodec) {
+        super(configCodec);
+    }
+
+    @Override
+    public boolean generate(FeatureContext<Config> context) {
+        Random random = context.getRandom();
+        StructureWorldAccess world = context.getWorld();
+        Config config = context.getConfig();
+
+        int bandIndex = config.table().sampleBand(random);
+        Band band = config.bands().get(bandIndex);
+        if (band.minSize() <= 0 || band.maxSize() < band.minSize()) {
+            return false;
+        }
+        if (!OreBudget.allows(band.priority())) {
+            return false;
+        }
+
+        long allocated = AllocationProbe.begin();
+        OreVeinEvent event = new OreVeinEvent();
+        event.begin();
+
+        int worldTopY = world.getBottomY() + world.getHeight();
+        int y = HeightScaler.scaleY(band.height().sample(random), HeightScaler.resolveMaxWorldHeight(worldTopY));
+        BlockPos origin = context.getOrigin().withY(y);
+
+        int targetBlocks = band.minSize() + random.nextInt(band.maxSize() - band.minSize() + 1);
+        boolean generated = veins.generateVein(world, random, config.ore(), origin, targetBlocks, event);
+        event.band = bandIndex;
+        event.complete("mountainores:banded__ore", origin, targetBlocks);
+        AllocationProbe.end(AllocationProbe.Site.BANDED, allocated);
+        return generated;
+    }
+}
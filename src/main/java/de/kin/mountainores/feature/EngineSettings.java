@@ -0,0 +1,48 @@
+package de.kin.mountainores.feature;
+
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.engine.EngineRandom;
+import de.kin.mountainores.engine.VeinTemplates;
+import de.kin.mountainores.engine.minecraft.MinecraftRandom;
+import net.minecraft.util.math.random.Random;
+
+/**
+ * The vein engine settings that {@code growDetached} grows with. World
+ * generation always reads them from the live config; the warm-up passes
+ * {@link #current()}, the benchmark also alternatives, so it can compare
+ * settings without changing how the world generates meanwhile.
+ *
+ * @param templates pre-grown vein shapes to stamp, or {@code null} to always grow
+ */
+public record EngineSettings(boolean fastVeinRandom, boolean adaptiveAttempts, VeinTemplates templates) {
+
+    /** The settings world generation uses right now. */
+    public static EngineSettings current() {
+        return new EngineSettings(
+                MountainOres.CONFIG != null && MountainOres.CONFIG.fastVeinRandom,
+                MountainOres.CONFIG != null && MountainOres.CONFIG.adaptiveAttempts,
+                VariableOreFeature.templates());
+    }
+
+    public EngineSettings withFastVeinRandom(boolean enabled) {
+        return new EngineSettings(enabled, adaptiveAttempts, templates);
+    }
+
+    public EngineSettings withAdaptiveAttempts(boolean enabled) {
+        return new EngineSettings(fastVeinRandom, enabled, templates);
+    }
+
+    public EngineSettings withTemplates(VeinTemplates library) {
+        return new EngineSettings(fastVeinRandom, adaptiveAttempts, library);
+    }
+
+    /** {@link MinecraftRandom#forVein(Random, boolean)} with this {@code fastVeinRandom}. */
+    EngineRandom veinRandom(Random random) {
+        return MinecraftRandom.forVein(random, fastVeinRandom);
+    }
+
+    /** The calling thread's budget from {@code perThread}, or {@code null} without adaptive attempts. */
+    AttemptBudget attemptBudget(ThreadLocal<AttemptBudget> perThread) {
+        return adaptiveAttempts && MountainOres.CONFIG != null ? perThread.get() : null;
+    }
+}
@@ -3,8 +3,23 @@ package de.kin.mountainores.feature;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import de.kin.mountainores.HeightScaler;
+import de.kin.mountainores.alloc.AllocationProbe;
+import de.kin.mountainores.budget.OreBudget;
+import de.kin.mountainores.engine.ClusterGrower;
+import de.kin.mountainores.engine.EngineRandom;
+import de.kin.mountainores.engine.GrowthStats;
+import de.kin.mountainores.engine.LodeRoll;
+import de.kin.mountainores.engine.VoxelAccess;
+import de.kin.mountainores.engine.WriteBounds;
+import de.kin.mountainores.engine.minecraft.BlockStateVoxels;
+import de.kin.mountainores.engine.minecraft.MinecraftRandom;
+import de.kin.mountainores.engine.minecraft.OreConfigTargets;
+import de.kin.mountainores.jfr.LodeEvent;
+import de.kin.mountainores.ledger.OreLedger;
+import de.kin.mountainores.trace.TraceCapture;
+import net.minecraft.block.BlockState;
+import net.minecraft.registry.Registries;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.random.Random;
 import net.minecraft.world.StructureWorldAccess;
 import net.minecraft.world.gen.feature.Feature;
@@ -24,7 +39,7 @@ public class LodeSelectorFeature extends Feature<LodeSelectorFeature.Config> {
             int minSize,
             int maxSize,
             OreFeatureConfig ore
-    ) {
+    ) implements LodeRoll.Entry {
         public static final Codec<Entry> CODEC = RecordCodecBuilder.create(instance -> instance.group(
                 Codec.INT.fieldOf("weight").forGetter(Entry::weight),
                 Codec.INT.fieldOf("min_y").forGetter(Entry::minY),
@@ -33,6 +48,24 @@ public class LodeSelectorFeature extends Feature<LodeSelectorFeature.Config> {
                 Codec.INT.fieldOf("max_size").forGetter(Entry::maxSize),
                 OreFeatureConfig.CODEC.fieldOf("ore").forGetter(Entry::ore)
         ).apply(instance, Entry::new));
+
+        /**
+         * Short ore name derived from the first target block,
+         * e.g. {@code minecraft:deepslate_iron_ore} → {@code iron}.
+         */
+        public String oreName() {
+            if (ore.targets.isEmpty()) {
+                return "unknown";
+            }
+            String path = Registries.BLOCK.getId(ore.targets.get(0).state.getBlock()).getPath();
+            if (path.startsWith("deepslate_")) {
+                path = path.substring("deepslate_".length());
+            }
+            if (path.endsWith("_ore")) {
+                path = path.substring(0, path.length() - "_ore".length());
+            }
+            return path;
+        }
     }
 
     public record Config(
@@ -45,10 +78,21 @@ public class LodeSelectorFeature extends Feature<LodeSelectorFeature.Config> {
         ).apply(instance, Config::new));
     }
 
+    private static final ThreadLocal<AttemptBudget> ATTEMPT_BUDGET = ThreadLocal.withInitial(AttemptBudget::new);
+
     public LodeSelectorFeature(Codec<Config> configCodec) {
         super(configCodec);
     }
 
+    /**
+     * The outcome of the random rolls that precede growing a lode: chosen entry,
+     * lode centre and target size. Shared by {@link #generate} and
+     * {@link #roll} so predictions (e.g. {@code /mountainores locate lode})
+     * consume the random in exactly the same order as real generation.
+     */
+    public record Roll(Entry entry, BlockPos origin, int targetBlocks) {
+    }
+
     @Override
     public boolean generate(FeatureContext<Config> context) {
         Random random = context.getRandom();
@@ -56,211 +100,119 @@ public class LodeSelectorFeature extends Feature<LodeSelectorFeature.Config> {
         BlockPos origin = context.getOrigin();
         Config config = context.getConfig();
 
-        int originChunkX = origin.getX() >> 4;
-        int originChunkZ = origin.getZ() >> 4;
+        long allocated = AllocationProbe.begin();
+        LodeEvent event = new LodeEvent();
+        event.begin();
 
-        Entry entry = pickEntry(config.entries(), random);
-        if (entry == null) {
+        Roll roll = roll(config, random, origin, world.getBottomY(), world.getHeight());
+        if (roll == null) {
+            event.complete(null, origin, 0);
+            AllocationProbe.end(AllocationProbe.Site.LODE, allocated);
             return false;
         }
 
-        if (entry.minSize() <= 0 || entry.maxSize() < entry.minSize()) {
-            return false;
-        }
-
-        // Scale lode Y-range to the effective world height
-        int worldTopY = world.getBottomY() + world.getHeight();
-        int maxWorldHeight = HeightScaler.resolveMaxWorldHeight(worldTopY);
-        int scaledMinY = HeightScaler.scaleY(entry.minY(), maxWorldHeight);
-        int scaledMaxY = HeightScaler.scaleY(entry.maxY(), maxWorldHeight);
-
-        int clampedMinY = Math.max(scaledMinY, world.getBottomY());
-        int worldTopExclusive = world.getBottomY() + world.getHeight();
-        int clampedMaxY = Math.min(scaledMaxY, worldTopExclusive - 1);
-        if (clampedMinY > clampedMaxY) {
-            return false;
-        }
-
-        int y = clampedMinY + random.nextInt(clampedMaxY - clampedMinY + 1);
-        BlockPos lodeOrigin = new BlockPos(origin.getX(), y, origin.getZ());
-
-        int targetBlocks = entry.minSize() + random.nextInt(entry.maxSize() - entry.minSize() + 1);
         float shrinkFactor = clamp01(config.exposureShrinkFactor());
-        return generateOreCluster(world, random, entry.ore(), lodeOrigin, targetBlocks, shrinkFactor, originChunkX, originChunkZ);
+        boolean generated = generateOreCluster(world, random, roll.entry().oreName(), roll.entry().ore(), roll.origin(), roll.targetBlocks(), shrinkFactor, event);
+        if (OreLedger.isRecording()) {
+            OreLedger.lode(config.entries().indexOf(roll.entry()), roll.entry().oreName(),
+                    roll.origin(), roll.targetBlocks(), event.placedBlocks);
+        }
+        event.complete(roll.entry().oreName(), roll.origin(), roll.targetBlocks());
+        AllocationProbe.end(AllocationProbe.Site.LODE, allocated);
+        return generated;
     }
 
-    private static Entry pickEntry(List<Entry> entries, Random random) {
-        if (entries == null || entries.isEmpty()) {
+    /**
+     * Performs the entry, Y and size rolls for a lode at {@code origin}.
+     *
+     * @param bottomY the world's bottom Y
+     * @param height  the world's height
+     * @return the roll, or {@code null} if no lode is generated here
+     */
+    public static Roll roll(Config config, Random random, BlockPos origin, int bottomY, int height) {
+        // Scale lode Y-range to the effective world height
+        int maxWorldHeight = HeightScaler.resolveMaxWorldHeight(bottomY + height);
+        LodeRoll roll = LodeRoll.roll(config.entries(), new MinecraftRandom(random), bottomY, bottomY + height,
+                y -> HeightScaler.scaleY(y, maxWorldHeight));
+        if (roll == null) {
             return null;
         }
+        BlockPos lodeOrigin = new BlockPos(origin.getX(), roll.y(), origin.getZ());
+        return new Roll(config.entries().get(roll.entry()), lodeOrigin, roll.targetBlocks());
+    }
 
-        int totalWeight = 0;
-        for (Entry entry : entries) {
-            if (entry.weight() > 0) {
-                totalWeight += entry.weight();
-            }
-        }
-        if (totalWeight <= 0) {
-            return null;
+    /**
+     * Rolls and grows one lode into {@code voxels} instead of a world, like
+     * {@link #generate} but without budgets, events, tracing or the ledger,
+     * and with the engine {@code settings} given instead of the config's.
+     * Writes stay inside the origin's chunk column. Used by the JIT warm-up
+     * and the benchmark.
+     *
+     * @return whether a lode was rolled and at least one block placed
+     */
+    public static boolean growDetached(VoxelAccess<BlockState> voxels, Config config, Random random, BlockPos origin,
+                                       EngineSettings settings, GrowthStats stats) {
+        Roll roll = roll(config, random, origin, voxels.bottomY(), voxels.topY() - voxels.bottomY());
+        if (roll == null || roll.targetBlocks() <= 0) {
+            return false;
         }
-
-        int roll = random.nextInt(totalWeight);
-        int cumulative = 0;
-        for (Entry entry : entries) {
-            if (entry.weight() <= 0) {
-                continue;
-            }
-            cumulative += entry.weight();
-            if (roll < cumulative) {
-                return entry;
-            }
+        BlockPos center = roll.origin();
+        ClusterGrower grower = new ClusterGrower(clamp01(config.exposureShrinkFactor()));
+        OreConfigTargets targets = new OreConfigTargets(roll.entry().ore(), random);
+        AttemptBudget budget = settings.attemptBudget(ATTEMPT_BUDGET);
+        int missLimit = budget != null ? budget.missLimit() : Integer.MAX_VALUE;
+        boolean generated = grower.grow(voxels, targets, settings.veinRandom(random), center.getX(), center.getY(),
+                center.getZ(), roll.targetBlocks(), missLimit, WriteBounds.column(center.getX(), center.getZ()), stats);
+        if (budget != null) {
+            budget.record(stats.placed, roll.targetBlocks(), stats);
         }
-
-        return null;
+        return generated;
     }
 
     private static boolean generateOreCluster(
             StructureWorldAccess world,
             Random random,
+            String oreName,
             OreFeatureConfig oreConfig,
             BlockPos origin,
             int targetBlocks,
             float exposureShrinkFactor,
-            int originChunkX,
-            int originChunkZ
+            LodeEvent event
     ) {
         if (targetBlocks <= 0) {
             return false;
         }
 
-        boolean generated = false;
-        boolean shrinkApplied = false;
-        int placed = 0;
-
-        double radius = Math.max(2.0, Math.cbrt((double) targetBlocks) * 2.0);
-        int maxAttempts = Math.max(12, targetBlocks * 6);
-
-        for (int attempts = 0; attempts < maxAttempts && placed < targetBlocks; attempts++) {
-            BlockPos blockPos = randomPosInSphere(origin, radius, random);
-
-            if (!isInWorld(world, blockPos) || !isInSameChunk(blockPos, originChunkX, originChunkZ)) {
-                continue;
-            }
-
-            if (tryPlaceOre(world, random, oreConfig, blockPos)) {
-                placed++;
-                generated = true;
-
-                if (!shrinkApplied && isExposedToAirOrFluid(world, blockPos)) {
-                    int shrunkTarget = Math.max(1, (int) Math.floor(targetBlocks * exposureShrinkFactor));
-                    targetBlocks = shrunkTarget;
-                    shrinkApplied = true;
-                }
-            }
-        }
-
-        return generated;
-    }
-
-    private static BlockPos randomPosInSphere(BlockPos origin, double radius, Random random) {
-        double radiusSq = radius * radius;
-
-        double x = 0;
-        double y = 0;
-        double z = 0;
-
-        for (int i = 0; i < 5; i++) {
-            x = (random.nextDouble() * 2.0 - 1.0) * radius;
-            y = (random.nextDouble() * 2.0 - 1.0) * radius;
-            z = (random.nextDouble() * 2.0 - 1.0) * radius;
-
-            if (x * x + y * y + z * z <= radiusSq) {
-                break;
-            }
-        }
-
-        return origin.add((int) Math.round(x), (int) Math.round(y), (int) Math.round(z));
-    }
-
-    private static boolean tryPlaceOre(
-            StructureWorldAccess world,
-            Random random,
-            OreFeatureConfig config,
-            BlockPos pos
-    ) {
-        for (OreFeatureConfig.Target target : config.targets) {
-            if (target.target.test(world.getBlockState(pos), random)) {
-                // For lodes we generally keep discard chance at 0, but still respect the config.
-                if (shouldDiscardDueToAirExposure(world, pos, config, random)) {
-                    return false;
-                }
-
-                world.setBlockState(pos, target.state, 2);
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private static boolean shouldDiscardDueToAirExposure(
-            StructureWorldAccess world,
-            BlockPos pos,
-            OreFeatureConfig config,
-            Random random
-    ) {
-        float discardChance = config.discardOnAirChance;
-        if (discardChance <= 0.0f) {
-            return false;
-        }
-
-        if (!isExposedToAir(world, pos)) {
-            return false;
-        }
-
-        return random.nextFloat() < discardChance;
-    }
-
-    private static boolean isExposedToAir(StructureWorldAccess world, BlockPos pos) {
-        for (Direction direction : Direction.values()) {
-            BlockPos adjacentPos = pos.offset(direction);
-            if (!isInWorld(world, adjacentPos)) {
-                continue;
-            }
-            if (world.getBlockState(adjacentPos).isAir()) {
-                return true;
+        // Optional early stop after a run of misses (adaptiveAttempts)
+        AttemptBudget budget = AttemptBudget.current(ATTEMPT_BUDGET);
+        int missLimit = budget != null ? budget.missLimit() : Integer.MAX_VALUE;
+
+        GrowthStats stats = new GrowthStats();
+        boolean generated;
+        try (BlockStateVoxels voxels = BlockStateVoxels.open(world)) {
+            ClusterGrower grower = new ClusterGrower(exposureShrinkFactor);
+            OreConfigTargets targets = new OreConfigTargets(oreConfig, random);
+            EngineRandom lodeRandom = MinecraftRandom.forVein(random);
+            WriteBounds bounds = voxels.bounds(origin.getX(), origin.getZ());
+            TraceCapture.Recording trace = TraceCapture.sampleLode(oreName, grower, voxels, targets, lodeRandom,
+                    origin.getX(), origin.getY(), origin.getZ(), targetBlocks, missLimit, bounds);
+            if (trace == null) {
+                generated = grower.grow(voxels, targets, lodeRandom,
+                        origin.getX(), origin.getY(), origin.getZ(), targetBlocks, missLimit, bounds, stats);
+            } else {
+                generated = grower.grow(trace.voxels(), targets, trace.random(),
+                        origin.getX(), origin.getY(), origin.getZ(), targetBlocks, missLimit, bounds, stats);
+                trace.finish(generated);
             }
+            // Lodes are never cut, but their work counts against the chunk's budget
+            OreBudget.spend(voxels.reads());
         }
-        return false;
-    }
-
-    private static boolean isExposedToAirOrFluid(StructureWorldAccess world, BlockPos pos) {
-        for (Direction direction : Direction.values()) {
-            BlockPos adjacentPos = pos.offset(direction);
 
-            if (!isInWorld(world, adjacentPos)) {
-                continue;
-            }
-
-            if (world.getBlockState(adjacentPos).isAir()) {
-                return true;
-            }
-
-            if (!world.getFluidState(adjacentPos).isEmpty()) {
-                return true;
-            }
+        if (budget != null) {
+            budget.record(stats.placed, targetBlocks, stats);
         }
-        return false;
-    }
-
-    private static boolean isInWorld(StructureWorldAccess world, BlockPos pos) {
-        int bottomY = world.getBottomY();
-        int topYExclusive = bottomY + world.getHeight();
-        int y = pos.getY();
-        return y >= bottomY && y < topYExclusive;
-    }
-
-    private static boolean isInSameChunk(BlockPos pos, int originChunkX, int originChunkZ) {
-        return (pos.getX() >> 4) == originChunkX && (pos.getZ() >> 4) == originChunkZ;
+        event.outcome(stats.placed, stats.attempts, stats.exposureShrunk);
+        return generated;
     }
 
     private static float clamp01(float value) {
@@ -0,0 +1,186 @@
+package de.kin.mountainores.feature;
+
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.MountainOresConfig;
+import de.kin.mountainores.ledger.OreLedger;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.ChunkRegion;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.gen.feature.OreFeatureConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parallel vein growth within one chunk ({@code parallelVeins}).
+ *
+ * <p>While a chunk's features run, veins are only planned: the feature rolls
+ * the size as usual and draws one seed from its random for the vein. When the
+ * feature step ends, the planned veins are grown on a shared fork-join pool.
+ * They are grouped into horizontal slabs of whole sections, tall enough that
+ * a vein can never reach (read or write) a section that a vein of the
+ * next-but-one slab reaches. All even slabs run in parallel, then all odd
+ * ones; within a slab veins run in plan order. Every vein has its own random
+ * and no two concurrent slabs share a section, so the chunk comes out the
+ * same whatever the scheduling.
+ *
+ * <p>Lodes are not planned and run in the normal feature order.
+ */
+public final class ParallelVeins {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("mountainores");
+
+    /** How far from its origin a vein may start (start search) plus the neighbour read of the exposure checks. */
+    private static final int START_REACH = 3;
+
+    record PlannedVein(VariableOreFeature feature, OreFeatureConfig config, BlockPos origin, int targetBlocks, long seed) {
+    }
+
+    /** The veins planned for the chunk being generated on the calling thread. */
+    static final class Plan {
+        private final StructureWorldAccess world;
+        private final List<PlannedVein> veins = new ArrayList<>();
+        private int maxTargetBlocks;
+
+        private Plan(StructureWorldAccess world) {
+            this.world = world;
+        }
+
+        void add(VariableOreFeature feature, OreFeatureConfig config, BlockPos origin, int targetBlocks, long seed) {
+            veins.add(new PlannedVein(feature, config, origin.toImmutable(), targetBlocks, seed));
+            maxTargetBlocks = Math.max(maxTargetBlocks, targetBlocks);
+        }
+    }
+
+    private static final ThreadLocal<Plan> CURRENT = new ThreadLocal<>();
+
+    private static volatile ForkJoinPool pool;
+
+    private ParallelVeins() {}
+
+    // ── Chunk scope ─────────────────────────────────────────────────────
+
+    /**
+     * Starts planning veins for a chunk whose features are about to run, if
+     * {@code parallelVeins} is enabled. A chunk budget needs each vein's cost
+     * while the features run, so planning is off while one is configured.
+     */
+    public static void beginChunk(StructureWorldAccess world) {
+        CURRENT.remove();
+        MountainOresConfig cfg = MountainOres.CONFIG;
+        if (cfg == null || !cfg.parallelVeins || !(world instanceof ChunkRegion)
+                || cfg.chunkBudgetBlocks > 0 || cfg.chunkBudgetMicros > 0) {
+            return;
+        }
+        CURRENT.set(new Plan(world));
+    }
+
+    /** Grows the planned veins. Call on the generating thread once the chunk's features have run. */
+    public static void endChunk() {
+        Plan plan = CURRENT.get();
+        CURRENT.remove();
+        if (plan == null || plan.veins.isEmpty()) {
+            return;
+        }
+        try {
+            run(plan);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while growing planned veins", e);
+        }
+    }
+
+    /** The plan of the calling thread's chunk, or {@code null} if veins are grown right away. */
+    static Plan current() {
+        return CURRENT.get();
+    }
+
+    // ── Execution ───────────────────────────────────────────────────────
+
+    private static void run(Plan plan) throws InterruptedException {
+        StructureWorldAccess world = plan.world;
+        int bottomY = world.getBottomY();
+        int sectionCount = world.countVerticalSections();
+
+        // Sections per slab so that slabs s and s + 2 never reach a common section
+        int reach = plan.maxTargetBlocks + START_REACH;
+        int slabSections = Math.floorDiv(reach - 1, 16) + Math.ceilDiv(reach, 16) + 1;
+        int slabCount = Math.ceilDiv(sectionCount, slabSections);
+        if (slabCount < 3) {
+            grow(world, plan.veins);
+            return;
+        }
+
+        List<List<PlannedVein>> slabs = new ArrayList<>(slabCount);
+        for (int i = 0; i < slabCount; i++) {
+            slabs.add(new ArrayList<>());
+        }
+        for (PlannedVein vein : plan.veins) {
+            int slab = Math.floorDiv(vein.origin().getY() - bottomY, 16 * slabSections);
+            slabs.get(Math.clamp(slab, 0, slabCount - 1)).add(vein);
+        }
+
+        for (int parity = 0; parity < 2; parity++) {
+            List<Callable<OreLedger.Fork>> tasks = new ArrayList<>();
+            for (int i = parity; i < slabCount; i += 2) {
+                List<PlannedVein> veins = slabs.get(i);
+                if (veins.isEmpty()) {
+                    continue;
+                }
+                OreLedger.Fork fork = OreLedger.fork();
+                tasks.add(() -> {
+                    OreLedger.enter(fork);
+                    try {
+                        grow(world, veins);
+                    } finally {
+                        OreLedger.exit();
+                    }
+                    return fork;
+                });
+            }
+            for (Future<OreLedger.Fork> done : pool().invokeAll(tasks)) {
+                try {
+                    OreLedger.join(done.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Planned vein failed", e.getCause());
+                }
+            }
+        }
+    }
+
+    private static void grow(StructureWorldAccess world, List<PlannedVein> veins) {
+        for (PlannedVein vein : veins) {
+            vein.feature().growPlanned(world, vein);
+        }
+    }
+
+    private static ForkJoinPool pool() {
+        ForkJoinPool current = pool;
+        if (current == null) {
+            synchronized (ParallelVeins.class) {
+                current = pool;
+                if (current == null) {
+                    int threads = MountainOres.CONFIG != null ? MountainOres.CONFIG.parallelVeinThreads : 0;
+                    if (threads <= 0) {
+                        threads = Runtime.getRuntime().availableProcessors();
+                    }
+                    current = new ForkJoinPool(threads, p -> {
+                        var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                        thread.setName("mountainores-veins-" + thread.getPoolIndex());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, null, false);
+                    pool = current;
+                    LOGGER.info("[mountainores] Parallel veins: {} threads", threads);
+                }
+            }
+        }
+        return current;
+    }
+}
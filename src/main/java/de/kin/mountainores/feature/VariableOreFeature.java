@@ -1,13 +1,27 @@
 package de.kin.mountainores.feature;
 
 import com.mojang.serialization.Codec;
-import java.util.ArrayList;
-import java.util.List;
+import de.kin.mountainores.alloc.AllocationProbe;
+import de.kin.mountainores.budget.OreBudget;
+import de.kin.mountainores.engine.EngineRandom;
+import de.kin.mountainores.engine.GrowthStats;
+import de.kin.mountainores.engine.VeinGrower;
+import de.kin.mountainores.engine.VeinTemplates;
+import de.kin.mountainores.engine.VoxelAccess;
+import de.kin.mountainores.engine.WriteBounds;
+import de.kin.mountainores.engine.minecraft.BlockStateVoxels;
+import de.kin.mountainores.engine.minecraft.MinecraftRandom;
+import de.kin.mountainores.engine.minecraft.OreConfigTargets;
+import de.kin.mountainores.jfr.OreVeinEvent;
+import de.kin.mountainores.trace.TraceCapture;
+import net.minecraft.block.BlockState;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
 import net.minecraft.world.gen.feature.Feature;
 import net.minecraft.world.gen.feature.OreFeatureConfig;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.random.Random;
+import net.minecraft.util.math.random.Xoroshiro128PlusPlusRandom;
 import net.minecraft.world.StructureWorldAccess;
 import net.minecraft.world.gen.feature.util.FeatureContext;
 
@@ -16,12 +30,28 @@ public class VariableOreFeature extends Feature<OreFeatureConfig> {
     private final int minSize;
     private final int maxSize;
 
-    private final boolean shrinkOnExposure;
-    private final float exposureShrinkFactor;
-    private final boolean countFluidsAsExposure;
+    private final VeinGrower grower;
+
+    // Order in which veins are given up when a chunk runs over its ore budget
+    private final OreBudget.Priority priority;
+
+    // The registered feature whose ID events and traces carry: this one, or the feature it grows veins for
+    private final Feature<?> owner;
+
+    // Registry ID for JFR events, resolved on first use
+    private String featureId;
+
+    // Pre-grown vein shapes (veinTemplates), shared by all vein features
+    private static volatile VeinTemplates templates;
+
+    private final ThreadLocal<AttemptBudget> attemptBudget = ThreadLocal.withInitial(AttemptBudget::new);
 
     public VariableOreFeature(Codec<OreFeatureConfig> configCodec, int minSize, int maxSize) {
-        this(configCodec, minSize, maxSize, false, 1.0f, false);
+        this(configCodec, minSize, maxSize, OreBudget.Priority.PRIMARY);
+    }
+
+    public VariableOreFeature(Codec<OreFeatureConfig> configCodec, int minSize, int maxSize, OreBudget.Priority priority) {
+        this(configCodec, minSize, maxSize, false, 1.0f, false, priority);
     }
 
     public VariableOreFeature(
@@ -30,15 +60,29 @@ public class VariableOreFeature extends Feature<OreFeatureConfig> {
             int maxSize,
             boolean shrinkOnExposure,
             float exposureShrinkFactor,
-            boolean countFluidsAsExposure
+            boolean countFluidsAsExposure,
+            OreBudget.Priority priority
     ) {
         super(configCodec);
         this.minSize = minSize;
         this.maxSize = maxSize;
 
-        this.shrinkOnExposure = shrinkOnExposure;
-        this.exposureShrinkFactor = exposureShrinkFactor;
-        this.countFluidsAsExposure = countFluidsAsExposure;
+        this.grower = new VeinGrower(shrinkOnExposure, exposureShrinkFactor, countFluidsAsExposure);
+        this.priority = priority;
+        this.owner = this;
+    }
+
+    /**
+     * Unregistered vein growth for {@code owner}, which picks origin and size
+     * itself ({@link #generateVein}); no exposure shrinking.
+     */
+    VariableOreFeature(Feature<?> owner) {
+        super(OreFeatureConfig.CODEC);
+        this.minSize = 1;
+        this.maxSize = 1;
+        this.grower = new VeinGrower(false, 1.0f, false);
+        this.priority = OreBudget.Priority.PRIMARY;
+        this.owner = owner;
     }
 
     @Override
@@ -48,187 +92,165 @@ public class VariableOreFeature extends Feature<OreFeatureConfig> {
         OreFeatureConfig config = context.getConfig();
         BlockPos origin = context.getOrigin();
 
-        int originChunkX = origin.getX() >> 4;
-        int originChunkZ = origin.getZ() >> 4;
+        if (!OreBudget.allows(priority)) {
+            return false;
+        }
+
+        long allocated = AllocationProbe.begin();
 
-        // Zufällige Größe zwischen minSize und maxSize
-        int targetBlocks = minSize + random.nextInt(maxSize - minSize + 1);
+        int targetBlocks = targetSize(random);
+
+        ParallelVeins.Plan plan = ParallelVeins.current();
+        if (plan != null) {
+            // Grown when the chunk's features are done (parallelVeins); the event is recorded then
+            plan.add(this, config, origin, targetBlocks, random.nextLong());
+            AllocationProbe.end(AllocationProbe.Site.VEIN, allocated);
+            return true;
+        }
 
         // Generiere eine zusammenhängende Ader (nicht "gesprenkelte" Einzelblöcke)
-        return generateConnectedVein(world, random, config, origin, targetBlocks, originChunkX, originChunkZ);
+        OreVeinEvent event = new OreVeinEvent();
+        event.begin();
+        boolean generated = generateConnectedVein(world, random, config, origin, targetBlocks, event);
+        event.complete(featureId(), origin, targetBlocks);
+        AllocationProbe.end(AllocationProbe.Site.VEIN, allocated);
+        return generated;
     }
 
-    private boolean generateConnectedVein(
-            StructureWorldAccess world,
-            Random random,
-            OreFeatureConfig config,
-            BlockPos origin,
-            int targetBlocks,
-            int originChunkX,
-            int originChunkZ
-    ) {
-        if (targetBlocks <= 0) {
-            return false;
-        }
+    /**
+     * Grows a connected vein of {@code targetBlocks} at {@code origin} with this
+     * feature's exposure settings, for features that pick origin and size themselves.
+     */
+    boolean generateVein(StructureWorldAccess world, Random random, OreFeatureConfig config, BlockPos origin, int targetBlocks,
+                         OreVeinEvent event) {
+        return generateConnectedVein(world, random, config, origin, targetBlocks, event);
+    }
 
-        boolean generated = false;
-        boolean shrinkApplied = false;
-
-        // Startpunkt: versuche erst Ursprung, dann kleine Umgebung.
-        List<BlockPos> placedPositions = new ArrayList<>(Math.min(targetBlocks, 64));
-        int placed = 0;
-
-        if (tryPlaceOre(world, random, config, origin)) {
-            placedPositions.add(origin);
-            placed++;
-            generated = true;
-        } else {
-            BlockPos start = tryFindAndPlaceStart(world, random, config, origin, originChunkX, originChunkZ);
-            if (start == null) {
-                return false;
-            }
-            placedPositions.add(start);
-            placed++;
-            generated = true;
+    /**
+     * Grows one vein of this feature into {@code voxels} instead of a world,
+     * with the same size roll and template/grower choice as {@link #generate}
+     * but without budgets, events, tracing or planning, and with the engine
+     * {@code settings} given instead of the config's. Writes stay inside the
+     * origin's chunk column. Used by the JIT warm-up and the benchmark.
+     */
+    public boolean growDetached(VoxelAccess<BlockState> voxels, OreFeatureConfig config, Random random, BlockPos origin,
+                                EngineSettings settings, GrowthStats stats) {
+        int targetBlocks = targetSize(random);
+        OreConfigTargets targets = new OreConfigTargets(config, random);
+        EngineRandom veinRandom = settings.veinRandom(random);
+        WriteBounds bounds = WriteBounds.column(origin.getX(), origin.getZ());
+        VeinTemplates library = settings.templates();
+        if (library != null && library.covers(targetBlocks) && !grower.shrinksOnExposure()) {
+            return library.stamp(voxels, targets, veinRandom, origin.getX(), origin.getY(), origin.getZ(), targetBlocks,
+                    bounds, stats);
         }
 
-        if (shrinkOnExposure && !shrinkApplied && isExposed(world, placedPositions.get(0))) {
-            int shrunkTarget = Math.max(1, (int) Math.floor(targetBlocks * exposureShrinkFactor));
-            targetBlocks = shrunkTarget;
-            shrinkApplied = true;
+        AttemptBudget budget = settings.attemptBudget(attemptBudget);
+        int missLimit = budget != null ? budget.missLimit() : Integer.MAX_VALUE;
+        boolean generated = grower.grow(voxels, targets, veinRandom, origin.getX(), origin.getY(), origin.getZ(),
+                targetBlocks, missLimit, bounds, stats);
+        if (budget != null && stats.started) {
+            budget.record(stats.placed - 1, targetBlocks, stats);
         }
+        return generated;
+    }
 
-        Direction[] directions = Direction.values();
-        int maxAttempts = Math.max(48, targetBlocks * 24);
+    // Zufällige Größe zwischen minSize und maxSize
+    private int targetSize(Random random) {
+        return minSize + random.nextInt(maxSize - minSize + 1);
+    }
 
-        for (int attempts = 0; attempts < maxAttempts && placed < targetBlocks; attempts++) {
-            BlockPos base = placedPositions.get(random.nextInt(placedPositions.size()));
-            Direction direction = directions[random.nextInt(directions.length)];
-            BlockPos next = base.offset(direction);
+    /**
+     * Makes all vein features stamp shapes from {@code library} instead of
+     * growing them, for sizes the library covers; {@code null} switches back.
+     * Features that shrink on exposure keep growing.
+     */
+    public static void useTemplates(VeinTemplates library) {
+        templates = library;
+    }
 
-            if (!isInWorld(world, next) || !isInSameChunk(next, originChunkX, originChunkZ)) {
-                continue;
-            }
+    /** The library set by {@link #useTemplates}, or {@code null}. */
+    static VeinTemplates templates() {
+        return templates;
+    }
 
-            if (tryPlaceOre(world, random, config, next)) {
-                placedPositions.add(next);
-                placed++;
+    /** Grows a vein planned by {@link ParallelVeins}, with its own random. */
+    void growPlanned(StructureWorldAccess world, ParallelVeins.PlannedVein vein) {
+        long allocated = AllocationProbe.begin();
+        OreVeinEvent event = new OreVeinEvent();
+        event.begin();
+        generateConnectedVein(world, new Xoroshiro128PlusPlusRandom(vein.seed()), vein.config(), vein.origin(), vein.targetBlocks(), event);
+        event.complete(featureId(), vein.origin(), vein.targetBlocks());
+        AllocationProbe.end(AllocationProbe.Site.VEIN, allocated);
+    }
 
-                if (shrinkOnExposure && !shrinkApplied && isExposed(world, next)) {
-                    int shrunkTarget = Math.max(1, (int) Math.floor(targetBlocks * exposureShrinkFactor));
-                    targetBlocks = shrunkTarget;
-                    shrinkApplied = true;
-                }
-            }
+    private String featureId() {
+        if (featureId == null) {
+            Identifier id = Registries.FEATURE.getId(owner);
+            featureId = id != null ? id.toString() : owner.getClass().getSimpleName();
         }
-
-        return generated;
+        return featureId;
     }
 
-    private BlockPos tryFindAndPlaceStart(
+    private boolean generateConnectedVein(
             StructureWorldAccess world,
             Random random,
             OreFeatureConfig config,
             BlockPos origin,
-            int originChunkX,
-            int originChunkZ
+            int targetBlocks,
+            OreVeinEvent event
     ) {
-        // Kleine lokale Suche: erhöht die Chance, überhaupt in replaceables zu starten.
-        for (int i = 0; i < 32; i++) {
-            int dx = random.nextInt(5) - 2;
-            int dy = random.nextInt(5) - 2;
-            int dz = random.nextInt(5) - 2;
-            BlockPos candidate = origin.add(dx, dy, dz);
-
-            if (!isInWorld(world, candidate) || !isInSameChunk(candidate, originChunkX, originChunkZ)) {
-                continue;
-            }
-
-            if (tryPlaceOre(world, random, config, candidate)) {
-                return candidate;
-            }
+        ParallelVeins.Plan plan = ParallelVeins.current();
+        if (plan != null) {
+            // Grown when the chunk's features are done (parallelVeins)
+            plan.add(this, config, origin, targetBlocks, random.nextLong());
+            return true;
         }
-        return null;
-    }
 
-    private boolean tryPlaceOre(
-            StructureWorldAccess world,
-            Random random,
-            OreFeatureConfig config,
-            BlockPos pos
-    ) {
-        // Überprüfe alle Targets (z.B. Stein, Tiefenschiefer)
-        for (OreFeatureConfig.Target target : config.targets) {
-            if (target.target.test(world.getBlockState(pos), random)) {
-                if (shouldDiscardDueToAirExposure(world, pos, config, random)) {
-                    return false;
-                }
-
-                world.setBlockState(pos, target.state, 2);
-                return true;
+        VeinTemplates library = templates;
+        if (library != null && library.covers(targetBlocks) && !grower.shrinksOnExposure()) {
+            GrowthStats stats = new GrowthStats();
+            boolean generated;
+            try (BlockStateVoxels voxels = BlockStateVoxels.open(world)) {
+                generated = library.stamp(voxels, new OreConfigTargets(config, random), MinecraftRandom.forVein(random),
+                        origin.getX(), origin.getY(), origin.getZ(), targetBlocks,
+                        voxels.bounds(origin.getX(), origin.getZ()), stats);
+                OreBudget.spend(voxels.reads());
             }
-        }
-        return false;
-    }
-
-    private static boolean shouldDiscardDueToAirExposure(
-            StructureWorldAccess world,
-            BlockPos pos,
-            OreFeatureConfig config,
-            Random random
-    ) {
-        float discardChance = config.discardOnAirChance;
-        if (discardChance <= 0.0f) {
-            return false;
-        }
-
-        if (!isExposedToAir(world, pos)) {
-            return false;
+            event.outcome(stats.placed, stats.attempts, false);
+            return generated;
         }
 
-        return random.nextFloat() < discardChance;
-    }
-
-    private static boolean isExposedToAir(StructureWorldAccess world, BlockPos pos) {
-        for (Direction direction : Direction.values()) {
-            BlockPos adjacentPos = pos.offset(direction);
-            if (!isInWorld(world, adjacentPos)) {
-                continue;
-            }
-            if (world.getBlockState(adjacentPos).isAir()) {
-                return true;
+        // Optional early stop after a run of misses (adaptiveAttempts)
+        AttemptBudget budget = AttemptBudget.current(attemptBudget);
+        int missLimit = budget != null ? budget.missLimit() : Integer.MAX_VALUE;
+
+        GrowthStats stats = new GrowthStats();
+        boolean generated;
+        try (BlockStateVoxels voxels = BlockStateVoxels.open(world)) {
+            OreConfigTargets targets = new OreConfigTargets(config, random);
+            EngineRandom veinRandom = MinecraftRandom.forVein(random);
+            WriteBounds bounds = voxels.bounds(origin.getX(), origin.getZ());
+            TraceCapture.Recording trace = TraceCapture.sampleVein(featureId(), grower, voxels, targets, veinRandom,
+                    origin.getX(), origin.getY(), origin.getZ(), targetBlocks, missLimit, bounds);
+            if (trace == null) {
+                generated = grower.grow(voxels, targets, veinRandom,
+                        origin.getX(), origin.getY(), origin.getZ(), targetBlocks, missLimit, bounds, stats);
+            } else {
+                generated = grower.grow(trace.voxels(), targets, trace.random(),
+                        origin.getX(), origin.getY(), origin.getZ(), targetBlocks, missLimit, bounds, stats);
+                trace.finish(generated);
             }
+            OreBudget.spend(voxels.reads());
         }
-        return false;
-    }
-
-    private boolean isExposed(StructureWorldAccess world, BlockPos pos) {
-        for (Direction direction : Direction.values()) {
-            BlockPos adjacentPos = pos.offset(direction);
-
-            if (!isInWorld(world, adjacentPos)) {
-                continue;
-            }
 
-            if (world.getBlockState(adjacentPos).isAir()) {
-                return true;
-            }
-
-            if (countFluidsAsExposure && !world.getFluidState(adjacentPos).isEmpty()) {
-                return true;
-            }
+        if (budget != null && stats.started) {
+            // The start block is not part of the growth loop
+            budget.record(stats.placed - 1, targetBlocks, stats);
         }
-        return false;
-    }
-
-    private static boolean isInWorld(StructureWorldAccess world, BlockPos pos) {
-        int bottomY = world.getBottomY();
-        int topYExclusive = bottomY + world.getHeight();
-        int y = pos.getY();
-        return y >= bottomY && y < topYExclusive;
-    }
-
-    private static boolean isInSameChunk(BlockPos pos, int originChunkX, int originChunkZ) {
-        return (pos.getX() >> 4) == originChunkX && (pos.getZ() >> 4) == originChunkZ;
+        if (targetBlocks > 0) {
+            event.outcome(stats.placed, stats.attempts, stats.exposureShrunk);
+        }
+        return generated;
     }
 }
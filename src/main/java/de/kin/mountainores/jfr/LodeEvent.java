@@ -0,0 +1,70 @@
+package de.kin.mountainores.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * One lode rolled by {@code LodeSelectorFeature}. Rolls that pick no entry or
+ * fall outside the world are committed with {@code ore} unset and zero blocks.
+ */
+@Name("mountainores.Lode")
+@Label("Lode")
+@Category({"MountainOres", "World Generation"})
+@Description("Lode deposit generated by mountainores:lode__selector")
+@StackTrace(false)
+public class LodeEvent extends jdk.jfr.Event {
+
+    @Label("Ore")
+    public String ore;
+
+    @Label("Chunk X")
+    public int chunkX;
+
+    @Label("Chunk Z")
+    public int chunkZ;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Target Blocks")
+    public int targetBlocks;
+
+    @Label("Placed Blocks")
+    public int placedBlocks;
+
+    @Label("Attempts")
+    public int attempts;
+
+    @Label("Exposure Shrink")
+    @Description("Target was reduced because the lode touched air or fluid")
+    public boolean exposureShrunk;
+
+    public void outcome(int placedBlocks, int attempts, boolean exposureShrunk) {
+        this.placedBlocks = placedBlocks;
+        this.attempts = attempts;
+        this.exposureShrunk = exposureShrunk;
+    }
+
+    /**
+     * Ends the event and commits it if it is enabled and above its threshold.
+     *
+     * @param ore    the ore name, or {@code null} if the roll produced no lode
+     * @param origin the lode centre (or the chunk origin if there is none)
+     */
+    public void complete(String ore, BlockPos origin, int targetBlocks) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.ore = ore;
+        this.chunkX = origin.getX() >> 4;
+        this.chunkZ = origin.getZ() >> 4;
+        this.y = origin.getY();
+        this.targetBlocks = targetBlocks;
+        commit();
+    }
+}
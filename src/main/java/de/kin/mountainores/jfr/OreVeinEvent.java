@@ -0,0 +1,71 @@
+package de.kin.mountainores.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * One connected vein grown by {@code VariableOreFeature} (band, underground
+ * and banded ores). Duration covers the whole growth including the start search.
+ */
+@Name("mountainores.OreVein")
+@Label("Ore Vein")
+@Category({"MountainOres", "World Generation"})
+@Description("Connected ore vein grown by a MountainOres feature")
+@StackTrace(false)
+public class OreVeinEvent extends jdk.jfr.Event {
+
+    @Label("Feature")
+    public String feature;
+
+    @Label("Band")
+    @Description("Band index for mountainores:banded__ore, -1 for single-band features")
+    public int band = -1;
+
+    @Label("Chunk X")
+    public int chunkX;
+
+    @Label("Chunk Z")
+    public int chunkZ;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Target Blocks")
+    public int targetBlocks;
+
+    @Label("Placed Blocks")
+    public int placedBlocks;
+
+    @Label("Attempts")
+    @Description("Growth attempts, including those rejected for leaving the chunk")
+    public int attempts;
+
+    @Label("Exposure Shrink")
+    @Description("Target was reduced because the vein touched air or fluid")
+    public boolean exposureShrunk;
+
+    /** Records the growth outcome; called by the vein loop on every exit path. */
+    public void outcome(int placedBlocks, int attempts, boolean exposureShrunk) {
+        this.placedBlocks = placedBlocks;
+        this.attempts = attempts;
+        this.exposureShrunk = exposureShrunk;
+    }
+
+    /** Ends the event and commits it if it is enabled and above its threshold. */
+    public void complete(String feature, BlockPos origin, int targetBlocks) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.feature = feature;
+        this.chunkX = origin.getX() >> 4;
+        this.chunkZ = origin.getZ() >> 4;
+        this.y = origin.getY();
+        this.targetBlocks = targetBlocks;
+        commit();
+    }
+}
@@ -0,0 +1,50 @@
+package de.kin.mountainores.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * One evaluation of a MountainOres placement modifier. Count modifiers report
+ * the number of positions produced, height modifiers the sampled Y.
+ */
+@Name("mountainores.Placement")
+@Label("Ore Placement")
+@Category({"MountainOres", "World Generation"})
+@Description("Evaluation of a mountainores:* placement modifier")
+@StackTrace(false)
+public class PlacementEvent extends jdk.jfr.Event {
+
+    @Label("Modifier")
+    public String modifier;
+
+    @Label("Chunk X")
+    public int chunkX;
+
+    @Label("Chunk Z")
+    public int chunkZ;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Count")
+    @Description("Positions produced (1 for height modifiers)")
+    public int count;
+
+    /** Ends the event and commits it if it is enabled and above its threshold. */
+    public void complete(String modifier, BlockPos pos, int y, int count) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.modifier = modifier;
+        this.chunkX = pos.getX() >> 4;
+        this.chunkZ = pos.getZ() >> 4;
+        this.y = y;
+        this.count = count;
+        commit();
+    }
+}
@@ -0,0 +1,32 @@
+package de.kin.mountainores.ledger;
+
+import net.minecraft.util.math.ChunkPos;
+
+/**
+ * Ore placed in one chunk while its features run; written to the ledger as
+ * one {@link LedgerRecord} when the chunk's feature step ends.
+ */
+final class ChunkTally {
+
+    final ChunkPos pos;
+    final int maxWorldHeight;
+
+    final int[] ores = new int[OreLedger.ORES.length];
+    final int[] bands = new int[OreLedger.BAND_COUNT];
+
+    int lodeEntry = LedgerRecord.NO_LODE;
+    int lodeOre;
+    int lodeX;
+    int lodeY;
+    int lodeZ;
+    int lodeTarget;
+    int lodePlaced;
+
+    /** Adds to the chunk's previous record instead of replacing it ({@link LedgerRecord#SUPPLEMENT}). */
+    boolean supplement;
+
+    ChunkTally(ChunkPos pos, int maxWorldHeight) {
+        this.pos = pos;
+        this.maxWorldHeight = maxWorldHeight;
+    }
+}
@@ -0,0 +1,158 @@
+package de.kin.mountainores.ledger;
+
+import net.minecraft.util.math.BlockPos;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads region ledger files in parallel. Only the last full record of each
+ * chunk counts, plus the supplement records appended after it.
+ */
+public final class LedgerAggregator {
+
+    /** World-wide totals. */
+    public record Summary(int regions, int chunks, long[] ores, long[] bands, int[] lodes) {
+
+        static Summary empty() {
+            return new Summary(0, 0, new long[OreLedger.ORES.length], new long[OreLedger.BAND_COUNT],
+                    new int[OreLedger.ORES.length]);
+        }
+
+        Summary merge(Summary other) {
+            long[] o = ores.clone();
+            long[] b = bands.clone();
+            int[] l = lodes.clone();
+            for (int i = 0; i < o.length; i++) {
+                o[i] += other.ores[i];
+                l[i] += other.lodes[i];
+            }
+            for (int i = 0; i < b.length; i++) {
+                b[i] += other.bands[i];
+            }
+            return new Summary(regions + other.regions, chunks + other.chunks, o, b, l);
+        }
+    }
+
+    public record Lode(BlockPos origin, String ore, int entry, int targetBlocks, int placedBlocks) {
+    }
+
+    private LedgerAggregator() {}
+
+    public static CompletableFuture<Summary> summarize(Path directory) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Stream<Path> files = listFiles(directory)) {
+                return files.parallel()
+                        .map(LedgerAggregator::summarizeRegion)
+                        .reduce(Summary.empty(), Summary::merge);
+            }
+        });
+    }
+
+    /**
+     * @param ore   ore name to filter by, or {@code null} for all
+     * @param limit maximum number of lodes, nearest to {@code near} first
+     */
+    public static CompletableFuture<List<Lode>> lodes(Path directory, String ore, BlockPos near, int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Stream<Path> files = listFiles(directory)) {
+                return files.parallel()
+                        .flatMap(file -> {
+                            List<Lode> lodes = new ArrayList<>();
+                            readRegion(file, record -> {
+                                String name = OreLedger.oreName(record.lodeOre());
+                                if (record.hasLode() && (ore == null || ore.equals(name))) {
+                                    lodes.add(new Lode(record.lodeOrigin(), name, record.lodeEntry(),
+                                            record.lodeTarget(), record.lodePlaced()));
+                                }
+                            });
+                            return lodes.stream();
+                        })
+                        .sorted(Comparator.comparingDouble(lode -> lode.origin().getSquaredDistance(near)))
+                        .limit(limit)
+                        .toList();
+            }
+        });
+    }
+
+    private static Summary summarizeRegion(Path file) {
+        long[] ores = new long[OreLedger.ORES.length];
+        long[] bands = new long[OreLedger.BAND_COUNT];
+        int[] lodes = new int[OreLedger.ORES.length];
+        int[] chunks = {0};
+
+        readRegion(file, record -> {
+            chunks[0]++;
+            for (int i = 0; i < ores.length; i++) {
+                ores[i] += record.ores()[i];
+            }
+            for (int i = 0; i < bands.length; i++) {
+                bands[i] += record.bands()[i];
+            }
+            if (record.hasLode() && record.lodeOre() < lodes.length) {
+                lodes[record.lodeOre()]++;
+            }
+        });
+        return new Summary(1, chunks[0], ores, bands, lodes);
+    }
+
+    private static Stream<Path> listFiles(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return Stream.empty();
+        }
+        try {
+            return Files.list(directory).filter(file -> file.getFileName().toString().endsWith(".mol"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Calls {@code consumer} with the current record of every chunk in the file (see class doc). */
+    static void readRegion(Path file, Consumer<LedgerRecord> consumer) {
+        String[] parts = file.getFileName().toString().split("\\.");
+        int regionX;
+        int regionZ;
+        try {
+            regionX = Integer.parseInt(parts[1]);
+            regionZ = Integer.parseInt(parts[2]);
+        } catch (RuntimeException e) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < RegionLedgerFile.HEADER_BYTES) {
+                return;
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            RegionLedgerFile.checkHeader(map, file);
+            int capacity = (int) ((channel.size() - RegionLedgerFile.HEADER_BYTES) / LedgerRecord.BYTES);
+            int count = Math.min(map.getInt(RegionLedgerFile.COUNT_OFFSET), capacity);
+
+            LedgerRecord[] current = new LedgerRecord[32 * 32];
+            for (int i = 0; i < count; i++) {
+                int offset = RegionLedgerFile.HEADER_BYTES + i * LedgerRecord.BYTES;
+                int index = LedgerRecord.chunkIndex(map, offset);
+                LedgerRecord record = LedgerRecord.decode(map.slice(offset, LedgerRecord.BYTES), regionX, regionZ);
+                current[index] = record.supplement() && current[index] != null ? current[index].plus(record) : record;
+            }
+            for (LedgerRecord record : current) {
+                if (record != null) {
+                    consumer.accept(record);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package de.kin.mountainores.ledger;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One chunk in a region ledger file. Fixed width, {@link #BYTES} bytes:
+ *
+ * <pre>
+ *  0  u16      chunk index in region (x + z * 32)
+ *  2  u8       lode entry index in lode__selector__cfg, 0xFF = no lode
+ *  3  u8       lode ore index
+ *  4  u8       lode origin, chunk-local (x << 4 | z)
+ *  5  u8       flags: {@link #SUPPLEMENT}
+ *  6  i16      lode origin Y
+ *  8  u16      lode target blocks
+ * 10  u16      lode placed blocks
+ * 12  u16 x 8  ore blocks placed per ore ({@link OreLedger#ORES})
+ * 28  u16 x 7  ore blocks placed per height band ({@link OreLedger#band})
+ * 42  u16      reserved
+ * </pre>
+ *
+ * Counts saturate at 65535.
+ */
+public record LedgerRecord(ChunkPos chunk, int[] ores, int[] bands,
+                           int lodeEntry, int lodeOre, BlockPos lodeOrigin, int lodeTarget, int lodePlaced,
+                           boolean supplement) {
+
+    public static final int BYTES = 44;
+    public static final int NO_LODE = 0xFF;
+
+    /** Flag: ore placed later in the same chunk (deferred bands), added to the chunk's previous record. */
+    public static final int SUPPLEMENT = 1;
+
+    public boolean hasLode() {
+        return lodeEntry != NO_LODE;
+    }
+
+    /** This record with the counts of a later {@link #supplement} record of the same chunk added. */
+    LedgerRecord plus(LedgerRecord later) {
+        int[] o = ores.clone();
+        int[] b = bands.clone();
+        for (int i = 0; i < o.length; i++) {
+            o[i] += later.ores[i];
+        }
+        for (int i = 0; i < b.length; i++) {
+            b[i] += later.bands[i];
+        }
+        if (later.hasLode()) {
+            return new LedgerRecord(chunk, o, b, later.lodeEntry, later.lodeOre, later.lodeOrigin,
+                    later.lodeTarget, later.lodePlaced, supplement);
+        }
+        return new LedgerRecord(chunk, o, b, lodeEntry, lodeOre, lodeOrigin, lodeTarget, lodePlaced, supplement);
+    }
+
+    static void encode(ChunkTally tally, ByteBuffer out) {
+        out.putShort((short) ((tally.pos.x & 31) | (tally.pos.z & 31) << 5));
+        out.put((byte) tally.lodeEntry);
+        out.put((byte) tally.lodeOre);
+        out.put((byte) ((tally.lodeX & 15) << 4 | (tally.lodeZ & 15)));
+        out.put((byte) (tally.supplement ? SUPPLEMENT : 0));
+        out.putShort((short) tally.lodeY);
+        out.putShort(u16(tally.lodeTarget));
+        out.putShort(u16(tally.lodePlaced));
+        for (int count : tally.ores) {
+            out.putShort(u16(count));
+        }
+        for (int count : tally.bands) {
+            out.putShort(u16(count));
+        }
+        out.putShort((short) 0);
+    }
+
+    static LedgerRecord decode(ByteBuffer in, int regionX, int regionZ) {
+        int index = in.getShort() & 0xFFFF;
+        int lodeEntry = in.get() & 0xFF;
+        int lodeOre = in.get() & 0xFF;
+        int lodeXZ = in.get() & 0xFF;
+        int flags = in.get() & 0xFF;
+        int lodeY = in.getShort();
+        int lodeTarget = in.getShort() & 0xFFFF;
+        int lodePlaced = in.getShort() & 0xFFFF;
+        int[] ores = new int[OreLedger.ORES.length];
+        for (int i = 0; i < ores.length; i++) {
+            ores[i] = in.getShort() & 0xFFFF;
+        }
+        int[] bands = new int[OreLedger.BAND_COUNT];
+        for (int i = 0; i < bands.length; i++) {
+            bands[i] = in.getShort() & 0xFFFF;
+        }
+        in.getShort();
+
+        ChunkPos chunk = new ChunkPos((regionX << 5) + (index & 31), (regionZ << 5) + (index >> 5));
+        BlockPos lodeOrigin = lodeEntry == NO_LODE ? null
+                : new BlockPos(chunk.getStartX() + (lodeXZ >> 4), lodeY, chunk.getStartZ() + (lodeXZ & 15));
+        return new LedgerRecord(chunk, ores, bands, lodeEntry, lodeOre, lodeOrigin, lodeTarget, lodePlaced,
+                (flags & SUPPLEMENT) != 0);
+    }
+
+    static int chunkIndex(ByteBuffer in, int offset) {
+        return in.getShort(offset) & 0x3FF;
+    }
+
+    private static short u16(int value) {
+        return (short) Math.min(value, 0xFFFF);
+    }
+}
@@ -0,0 +1,314 @@
+package de.kin.mountainores.ledger;
+
+import de.kin.mountainores.HeightScaler;
+import de.kin.mountainores.MountainOres;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.World;
+import net.minecraft.world.dimension.DimensionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Generation-time ore ledger ({@code oreLedger = true}).
+ *
+ * <p>While a chunk's features run, every ore block MountainOres places is
+ * counted per ore and per height band, together with the chunk's lode. When
+ * the feature step ends the totals are appended to the region's ledger file
+ * under {@code <world>/data/mountainores_ledger/}. {@link LedgerAggregator}
+ * reads them back without touching the region files.
+ */
+public final class OreLedger {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("mountainores");
+
+    /** Ore index used in ledger records. */
+    public static final String[] ORES = {
+            "coal", "iron", "copper", "gold", "redstone", "lapis", "diamond", "emerald"
+    };
+
+    /** Band 0 is underground (Y < 64), bands 1-6 follow docs/height-bands.md. */
+    public static final int BAND_COUNT = 7;
+
+    /** Lower bounds of bands 2-6 at the reference height. */
+    private static final int[] BAND_CUTS = {160, 256, 640, 1024, 1536};
+
+    private static final Map<Block, Integer> ORE_INDEX = new IdentityHashMap<>();
+
+    static {
+        Block[][] blocks = {
+                {Blocks.COAL_ORE, Blocks.DEEPSLATE_COAL_ORE},
+                {Blocks.IRON_ORE, Blocks.DEEPSLATE_IRON_ORE},
+                {Blocks.COPPER_ORE, Blocks.DEEPSLATE_COPPER_ORE},
+                {Blocks.GOLD_ORE, Blocks.DEEPSLATE_GOLD_ORE},
+                {Blocks.REDSTONE_ORE, Blocks.DEEPSLATE_REDSTONE_ORE},
+                {Blocks.LAPIS_ORE, Blocks.DEEPSLATE_LAPIS_ORE},
+                {Blocks.DIAMOND_ORE, Blocks.DEEPSLATE_DIAMOND_ORE},
+                {Blocks.EMERALD_ORE, Blocks.DEEPSLATE_EMERALD_ORE}
+        };
+        for (int i = 0; i < blocks.length; i++) {
+            for (Block block : blocks[i]) {
+                ORE_INDEX.put(block, i);
+            }
+        }
+    }
+
+    private static final int MAX_OPEN_FILES = 64;
+
+    private static final ThreadLocal<ChunkTally> CURRENT = new ThreadLocal<>();
+
+    private static final Map<Long, RegionLedgerFile> OPEN_FILES = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Ledger directory of the running server, or {@code null} if the ledger is off. */
+    private static volatile Path directory;
+
+    private OreLedger() {}
+
+    // ── Lifecycle ───────────────────────────────────────────────────────
+
+    public static void register() {
+        ServerLifecycleEvents.SERVER_STARTED.register(OreLedger::onServerStarted);
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> closeAll());
+    }
+
+    private static void onServerStarted(MinecraftServer server) {
+        Path dir = ledgerDirectory(server);
+        if (MountainOres.CONFIG == null || !MountainOres.CONFIG.oreLedger) {
+            directory = null;
+            return;
+        }
+        try {
+            Files.createDirectories(dir);
+            directory = dir;
+            LOGGER.info("[mountainores] Ore ledger enabled: {}", dir);
+        } catch (IOException e) {
+            LOGGER.warn("[mountainores] Failed to create ledger directory {}: {}", dir, e.toString());
+        }
+    }
+
+    /** {@code <overworld>/data/mountainores_ledger}, whether or not the ledger is enabled. */
+    public static Path ledgerDirectory(MinecraftServer server) {
+        return DimensionType.getSaveDirectory(World.OVERWORLD, server.getSavePath(WorldSavePath.ROOT))
+                .resolve("data").resolve("mountainores_ledger");
+    }
+
+    private static void closeAll() {
+        directory = null;
+        synchronized (OPEN_FILES) {
+            for (RegionLedgerFile file : OPEN_FILES.values()) {
+                closeQuietly(file);
+            }
+            OPEN_FILES.clear();
+        }
+    }
+
+    // ── Recording ───────────────────────────────────────────────────────
+
+    /** Starts counting for a chunk whose ore-step features are about to run. */
+    public static void beginChunk(StructureWorldAccess world, ChunkPos pos) {
+        beginChunk(world, pos, false);
+    }
+
+    /**
+     * @param supplement whether the counts add to the chunk's existing record
+     *                   (deferred bands) instead of replacing it
+     */
+    public static void beginChunk(StructureWorldAccess world, ChunkPos pos, boolean supplement) {
+        if (directory == null) {
+            return;
+        }
+        if (world.toServerWorld().getRegistryKey() != World.OVERWORLD) {
+            CURRENT.remove();
+            return;
+        }
+        int maxWorldHeight = HeightScaler.resolveMaxWorldHeight(world.getBottomY() + world.getHeight());
+        ChunkTally tally = new ChunkTally(pos, maxWorldHeight);
+        tally.supplement = supplement;
+        CURRENT.set(tally);
+    }
+
+    /** Appends the chunk's totals to its region ledger. */
+    public static void endChunk(ChunkPos pos) {
+        if (directory == null) {
+            return;
+        }
+        ChunkTally tally = CURRENT.get();
+        CURRENT.remove();
+        if (tally == null || !tally.pos.equals(pos)) {
+            return;
+        }
+        try {
+            append(tally);
+        } catch (IOException e) {
+            LOGGER.warn("[mountainores] Failed to write ledger for chunk [{}, {}]: {}", pos.x, pos.z, e.toString());
+        }
+    }
+
+    /** Whether a chunk is being recorded on the calling thread. */
+    public static boolean isRecording() {
+        return directory != null && CURRENT.get() != null;
+    }
+
+    /** Counts one ore block placed by a MountainOres feature. */
+    public static void orePlaced(BlockState state, int y) {
+        if (directory == null) {
+            return;
+        }
+        ChunkTally tally = CURRENT.get();
+        if (tally == null) {
+            return;
+        }
+        Integer ore = ORE_INDEX.get(state.getBlock());
+        if (ore != null) {
+            tally.ores[ore]++;
+        }
+        tally.bands[band(y, tally.maxWorldHeight)]++;
+    }
+
+    /**
+     * Counts for the calling thread's chunk that can be filled on a helper
+     * thread ({@link #enter}) and added back with {@link #join}.
+     */
+    public static final class Fork {
+        private final ChunkTally parent;
+        private final ChunkTally local;
+
+        private Fork(ChunkTally parent) {
+            this.parent = parent;
+            this.local = new ChunkTally(parent.pos, parent.maxWorldHeight);
+        }
+    }
+
+    /** A new fork of the chunk being recorded on the calling thread, or {@code null} if none is. */
+    public static Fork fork() {
+        if (directory == null) {
+            return null;
+        }
+        ChunkTally tally = CURRENT.get();
+        return tally != null ? new Fork(tally) : null;
+    }
+
+    /** Makes ore placed on the calling (helper) thread count into {@code fork} until {@link #exit()}. */
+    public static void enter(Fork fork) {
+        if (fork != null) {
+            CURRENT.set(fork.local);
+        }
+    }
+
+    public static void exit() {
+        CURRENT.remove();
+    }
+
+    /** Adds a finished fork's counts to its chunk. Call on the thread that forked it. */
+    public static void join(Fork fork) {
+        if (fork == null) {
+            return;
+        }
+        for (int i = 0; i < fork.local.ores.length; i++) {
+            fork.parent.ores[i] += fork.local.ores[i];
+        }
+        for (int i = 0; i < fork.local.bands.length; i++) {
+            fork.parent.bands[i] += fork.local.bands[i];
+        }
+    }
+
+    /** Records the chunk's lode (at most one per chunk). */
+    public static void lode(int entryIndex, String oreName, BlockPos origin, int targetBlocks, int placedBlocks) {
+        if (directory == null) {
+            return;
+        }
+        ChunkTally tally = CURRENT.get();
+        if (tally == null) {
+            return;
+        }
+        tally.lodeEntry = Math.min(entryIndex, LedgerRecord.NO_LODE - 1);
+        tally.lodeOre = oreIndex(oreName);
+        tally.lodeX = origin.getX() & 15;
+        tally.lodeY = origin.getY();
+        tally.lodeZ = origin.getZ() & 15;
+        tally.lodeTarget = targetBlocks;
+        tally.lodePlaced = placedBlocks;
+    }
+
+    // ── Helpers ─────────────────────────────────────────────────────────
+
+    /** Height band of {@code y} (0 = underground, 1-6 by reference Y). */
+    public static int band(int y, int maxWorldHeight) {
+        if (y < HeightScaler.SCALE_THRESHOLD) {
+            return 0;
+        }
+        double referenceY = HeightScaler.SCALE_THRESHOLD + (y - HeightScaler.SCALE_THRESHOLD) / HeightScaler.getFactor(maxWorldHeight);
+        int band = 1;
+        while (band <= BAND_CUTS.length && referenceY >= BAND_CUTS[band - 1]) {
+            band++;
+        }
+        return band;
+    }
+
+    public static String bandName(int band) {
+        return band == 0 ? "underground" : "band " + band;
+    }
+
+    /** @return the index in {@link #ORES}, or {@code 0xFF} if unknown */
+    public static int oreIndex(String oreName) {
+        for (int i = 0; i < ORES.length; i++) {
+            if (ORES[i].equals(oreName)) {
+                return i;
+            }
+        }
+        return 0xFF;
+    }
+
+    public static String oreName(int index) {
+        return index >= 0 && index < ORES.length ? ORES[index] : "unknown";
+    }
+
+    private static void append(ChunkTally tally) throws IOException {
+        int regionX = tally.pos.getRegionX();
+        int regionZ = tally.pos.getRegionZ();
+        long key = (long) regionX << 32 | (regionZ & 0xFFFFFFFFL);
+
+        // One lock for lookup, append and eviction: a record is 44 bytes, once per chunk
+        synchronized (OPEN_FILES) {
+            // Read once: closeAll() may have cleared it since endChunk checked, and must not see a file reopened after it
+            Path dir = directory;
+            if (dir == null) {
+                return;
+            }
+            RegionLedgerFile file = OPEN_FILES.get(key);
+            if (file == null) {
+                file = RegionLedgerFile.open(dir.resolve(RegionLedgerFile.fileName(regionX, regionZ)));
+                OPEN_FILES.put(key, file);
+                if (OPEN_FILES.size() > MAX_OPEN_FILES) {
+                    Iterator<RegionLedgerFile> eldest = OPEN_FILES.values().iterator();
+                    closeQuietly(eldest.next());
+                    eldest.remove();
+                }
+            }
+            file.append(tally);
+        }
+    }
+
+    private static void closeQuietly(RegionLedgerFile file) {
+        try {
+            file.close();
+        } catch (IOException e) {
+            LOGGER.warn("[mountainores] Failed to close ledger file: {}", e.toString());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package de.kin.mountainores.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only, memory-mapped ledger file of one region
+ * ({@code r.<x>.<z>.mol}).
+ *
+ * <p>Layout: a 16-byte header (magic {@code MOLG}, version, record size,
+ * record count, reserved) followed by {@link LedgerRecord}s. The count is
+ * updated after each record is written, so a crash loses at most the record
+ * being written. A chunk that is generated again (e.g. by retrogen) is
+ * appended again; readers use its last record, plus any supplement records
+ * (deferred bands) appended after it.
+ *
+ * <p>Not thread-safe; {@link OreLedger} serialises access.
+ */
+final class RegionLedgerFile implements Closeable {
+
+    static final int MAGIC = 0x4D4F4C47; // "MOLG"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int COUNT_OFFSET = 8;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final FileChannel channel;
+    private MappedByteBuffer map;
+    private int capacity;
+    private int count;
+
+    private RegionLedgerFile(FileChannel channel, MappedByteBuffer map, int capacity, int count) {
+        this.channel = channel;
+        this.map = map;
+        this.capacity = capacity;
+        this.count = count;
+    }
+
+    static String fileName(int regionX, int regionZ) {
+        return "r." + regionX + "." + regionZ + ".mol";
+    }
+
+    static RegionLedgerFile open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                MappedByteBuffer map = map(channel, INITIAL_CAPACITY);
+                map.putInt(0, MAGIC);
+                map.putShort(4, VERSION);
+                map.putShort(6, (short) LedgerRecord.BYTES);
+                map.putInt(COUNT_OFFSET, 0);
+                return new RegionLedgerFile(channel, map, INITIAL_CAPACITY, 0);
+            }
+
+            int capacity = (int) ((size - HEADER_BYTES) / LedgerRecord.BYTES);
+            MappedByteBuffer map = map(channel, capacity);
+            checkHeader(map, file);
+            int count = Math.min(map.getInt(COUNT_OFFSET), capacity);
+            return new RegionLedgerFile(channel, map, capacity, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static void checkHeader(ByteBuffer map, Path file) throws IOException {
+        if (map.getInt(0) != MAGIC) {
+            throw new IOException("Not a MountainOres ledger file: " + file);
+        }
+        if (map.getShort(4) != VERSION || map.getShort(6) != LedgerRecord.BYTES) {
+            throw new IOException("Unsupported ledger version in " + file);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, int capacity) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * LedgerRecord.BYTES);
+    }
+
+    void append(ChunkTally tally) throws IOException {
+        if (count == capacity) {
+            capacity *= 2;
+            map = map(channel, capacity);
+        }
+        ByteBuffer slice = map.slice(HEADER_BYTES + count * LedgerRecord.BYTES, LedgerRecord.BYTES);
+        LedgerRecord.encode(tally, slice);
+        count++;
+        map.putInt(COUNT_OFFSET, count);
+    }
+
+    @Override
+    public void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+}
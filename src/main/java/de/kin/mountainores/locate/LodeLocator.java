@@ -0,0 +1,308 @@
+package de.kin.mountainores.locate;
+
+import de.kin.mountainores.feature.LodeSelectorFeature;
+import de.kin.mountainores.mixin.CountPlacementModifierAccessor;
+import de.kin.mountainores.mixin.RarityFilterPlacementModifierAccessor;
+import de.kin.mountainores.placement.LodeGridPlacementModifier;
+import de.kin.mountainores.worldgen.FeatureSeeding;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.intprovider.IntProvider;
+import net.minecraft.util.math.random.ChunkRandom;
+import net.minecraft.world.gen.feature.ConfiguredFeature;
+import net.minecraft.world.gen.feature.PlacedFeature;
+import net.minecraft.world.gen.feature.util.PlacedFeatureIndexer;
+import net.minecraft.world.gen.placementmodifier.BiomePlacementModifier;
+import net.minecraft.world.gen.placementmodifier.CountPlacementModifier;
+import net.minecraft.world.gen.placementmodifier.PlacementModifier;
+import net.minecraft.world.gen.placementmodifier.RarityFilterPlacementModifier;
+import net.minecraft.world.gen.placementmodifier.SquarePlacementModifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Predicts lode positions from the world seed alone.
+ *
+ * <p>For each chunk the locator re-creates the decorator random that
+ * {@code ChunkGenerator#generateFeatures} would hand to the lode placed feature,
+ * replays its placement chain and then {@link LodeSelectorFeature#roll}. No
+ * chunk is loaded or generated. Square rings around the centre are scanned in
+ * batches on a dedicated worker pool.
+ *
+ * <p>The placement chain is compiled once into a list of steps and replayed
+ * without streams, so a chunk costs two re-seeds and a few random calls.
+ * Only {@code count}, {@code rarity_filter}, {@code mountainores:lode_grid}
+ * and {@code in_square} are supported; the biome filter is assumed to pass
+ * because the lode feature is added to every Overworld biome. With the lode
+ * grid enabled, chunks that are not a grid site are rejected by a hash before
+ * any seeding.
+ */
+@SuppressWarnings("null")
+public final class LodeLocator {
+
+    public static final Identifier LODE_PLACED_FEATURE = Identifier.of("mountainores", "lode__selector__placed");
+
+    /** Rings evaluated per parallel batch. */
+    private static final int RINGS_PER_BATCH = 16;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+            pool -> {
+                var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("MountainOres-Locate-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            },
+            null,
+            false
+    );
+
+    private static final ThreadLocal<ChunkRandom> RANDOM = ThreadLocal.withInitial(FeatureSeeding::newChunkRandom);
+
+    public record Prediction(ChunkPos chunk, BlockPos pos, String ore, int targetBlocks) {
+    }
+
+    private enum StepKind { COUNT, RARITY, GRID, IN_SQUARE }
+
+    private record Step(StepKind kind, IntProvider count, int chance, LodeGridPlacementModifier grid) {
+    }
+
+    public record Result(Optional<Prediction> nearest, int scannedChunks, long elapsedNanos) {
+    }
+
+    private final long worldSeed;
+    private final int bottomY;
+    private final int height;
+    private final int featureIndex;
+    private final Step[] placement;
+    private final LodeSelectorFeature.Config config;
+
+    private LodeLocator(long worldSeed, int bottomY, int height, int featureIndex,
+                        Step[] placement, LodeSelectorFeature.Config config) {
+        this.worldSeed = worldSeed;
+        this.bottomY = bottomY;
+        this.height = height;
+        this.featureIndex = featureIndex;
+        this.placement = placement;
+        this.config = config;
+    }
+
+    /**
+     * Builds a locator for the given world.
+     *
+     * @throws IllegalStateException if the lode feature is missing or its placement cannot be replayed
+     */
+    public static LodeLocator create(ServerWorld world) {
+        Registry<PlacedFeature> registry = world.getRegistryManager().getOrThrow(RegistryKeys.PLACED_FEATURE);
+        PlacedFeature placed = registry.get(LODE_PLACED_FEATURE);
+        if (placed == null) {
+            throw new IllegalStateException("Placed feature " + LODE_PLACED_FEATURE + " is not loaded");
+        }
+
+        ConfiguredFeature<?, ?> configured = placed.feature().value();
+        if (!(configured.config() instanceof LodeSelectorFeature.Config config)) {
+            throw new IllegalStateException(LODE_PLACED_FEATURE + " does not use the lode selector feature");
+        }
+
+        PlacedFeatureIndexer.IndexedFeatures indexed =
+                FeatureSeeding.indexedFeatures(world.getChunkManager().getChunkGenerator(), FeatureSeeding.ORE_STEP);
+        int index = indexed != null ? indexed.indexMapping().applyAsInt(placed) : -1;
+        if (index < 0) {
+            throw new IllegalStateException(LODE_PLACED_FEATURE + " is not part of this dimension's ore step");
+        }
+
+        return of(world.getSeed(), world.getBottomY(), world.getHeight(), index, placed.placementModifiers(), config);
+    }
+
+    /**
+     * Builds a locator for a lode feature with the given placement modifiers
+     * and config, {@code featureIndex} being its index in the ore step.
+     *
+     * @throws IllegalStateException if the placement cannot be replayed
+     */
+    static LodeLocator of(long worldSeed, int bottomY, int height, int featureIndex,
+                          List<PlacementModifier> modifiers, LodeSelectorFeature.Config config) {
+        List<Step> steps = new ArrayList<>();
+        for (PlacementModifier modifier : modifiers) {
+            if (modifier instanceof BiomePlacementModifier) {
+                continue;
+            }
+            if (modifier instanceof CountPlacementModifier) {
+                steps.add(new Step(StepKind.COUNT, ((CountPlacementModifierAccessor) modifier).mountainores$getCount(), 0, null));
+            } else if (modifier instanceof RarityFilterPlacementModifier) {
+                steps.add(new Step(StepKind.RARITY, null, ((RarityFilterPlacementModifierAccessor) modifier).mountainores$getChance(), null));
+            } else if (modifier instanceof LodeGridPlacementModifier grid) {
+                steps.add(new Step(StepKind.GRID, null, grid.rarity(), grid));
+            } else if (modifier instanceof SquarePlacementModifier) {
+                steps.add(new Step(StepKind.IN_SQUARE, null, 0, null));
+            } else {
+                throw new IllegalStateException("Cannot predict placement modifier " + modifier.getType()
+                        + " in " + LODE_PLACED_FEATURE);
+            }
+        }
+
+        return new LodeLocator(worldSeed, bottomY, height, featureIndex, steps.toArray(new Step[0]), config);
+    }
+
+    /**
+     * Predicts every lode rolled in the given chunk (usually zero or one).
+     *
+     * @param ore ore name to match (see {@link LodeSelectorFeature.Entry#oreName()}), or {@code null} for any
+     */
+    public List<Prediction> predict(int chunkX, int chunkZ, String ore) {
+        List<Prediction> out = new ArrayList<>(1);
+        predictInto(chunkX, chunkZ, ore, out);
+        return out;
+    }
+
+    private void predictInto(int chunkX, int chunkZ, String ore, List<Prediction> out) {
+        if (!mayBeSite(chunkX, chunkZ)) {
+            return;
+        }
+        ChunkPos chunkPos = new ChunkPos(chunkX, chunkZ);
+        ChunkRandom random = RANDOM.get();
+        long populationSeed = FeatureSeeding.populationSeed(random, worldSeed, chunkPos);
+        random.setDecoratorSeed(populationSeed, featureIndex, FeatureSeeding.ORE_STEP);
+
+        replay(0, chunkPos, chunkPos.getStartX(), chunkPos.getStartZ(), random, ore, out);
+    }
+
+    /** {@code false} if a lode grid step rejects the chunk whatever the random does. */
+    private boolean mayBeSite(int chunkX, int chunkZ) {
+        if (!LodeGridPlacementModifier.gridEnabled()) {
+            return true;
+        }
+        for (Step step : placement) {
+            if (step.kind() == StepKind.GRID && !step.grid().isSite(worldSeed, chunkX, chunkZ)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Depth-first replay of the placement chain; matches the element-by-element
+     * evaluation order of the nested {@code flatMap} in {@code PlacedFeature}.
+     */
+    private void replay(int step, ChunkPos chunkPos, int x, int z, ChunkRandom random, String ore, List<Prediction> out) {
+        if (step == placement.length) {
+            LodeSelectorFeature.Roll roll = LodeSelectorFeature.roll(config, random, new BlockPos(x, bottomY, z), bottomY, height);
+            if (roll != null && (ore == null || roll.entry().oreName().equals(ore))) {
+                out.add(new Prediction(chunkPos, roll.origin(), roll.entry().oreName(), roll.targetBlocks()));
+            }
+            return;
+        }
+
+        Step current = placement[step];
+        switch (current.kind()) {
+            case COUNT -> {
+                int count = current.count().get(random);
+                for (int i = 0; i < count; i++) {
+                    replay(step + 1, chunkPos, x, z, random, ore, out);
+                }
+            }
+            case RARITY -> {
+                if (random.nextFloat() < 1.0f / (float) current.chance()) {
+                    replay(step + 1, chunkPos, x, z, random, ore, out);
+                }
+            }
+            case GRID -> {
+                boolean place = LodeGridPlacementModifier.gridEnabled()
+                        ? current.grid().isSite(worldSeed, chunkPos.x, chunkPos.z)
+                        : random.nextFloat() < 1.0f / (float) current.chance();
+                if (place) {
+                    replay(step + 1, chunkPos, x, z, random, ore, out);
+                }
+            }
+            case IN_SQUARE -> {
+                int squareX = random.nextInt(16) + x;
+                int squareZ = random.nextInt(16) + z;
+                replay(step + 1, chunkPos, squareX, squareZ, random, ore, out);
+            }
+        }
+    }
+
+    /**
+     * Finds the lode closest to {@code center} (horizontal distance between chunk
+     * centres) within {@code maxRadius} chunks, scanning on the worker pool.
+     */
+    public CompletableFuture<Result> locateNearest(ChunkPos center, int maxRadius, String ore) {
+        return CompletableFuture.supplyAsync(() -> scan(center, maxRadius, ore), POOL);
+    }
+
+    private Result scan(ChunkPos center, int maxRadius, String ore) {
+        long start = System.nanoTime();
+        AtomicInteger scanned = new AtomicInteger();
+        Prediction best = null;
+        double bestDistSq = Double.MAX_VALUE;
+
+        int ring = 0;
+        while (ring <= maxRadius) {
+            // A chunk on ring r is at least r chunks away, so once r exceeds the best
+            // distance found so far, no later ring can contain a closer lode.
+            if (best != null && (double) ring * ring > bestDistSq) {
+                break;
+            }
+
+            int firstRing = ring;
+            int lastRing = Math.min(maxRadius, ring + RINGS_PER_BATCH - 1);
+            List<Prediction> found = IntStream.rangeClosed(firstRing, lastRing)
+                    .parallel()
+                    .boxed()
+                    .flatMap(r -> scanRing(center, r, ore, scanned).stream())
+                    .toList();
+
+            for (Prediction prediction : found) {
+                double dx = prediction.chunk().x - center.x;
+                double dz = prediction.chunk().z - center.z;
+                double distSq = dx * dx + dz * dz;
+                if (distSq < bestDistSq) {
+                    bestDistSq = distSq;
+                    best = prediction;
+                }
+            }
+            ring = lastRing + 1;
+        }
+
+        return new Result(Optional.ofNullable(best), scanned.get(), System.nanoTime() - start);
+    }
+
+    private List<Prediction> scanRing(ChunkPos center, int ring, String ore, AtomicInteger scanned) {
+        List<Prediction> found = new ArrayList<>();
+        if (ring == 0) {
+            predictInto(center.x, center.z, ore, found);
+            scanned.incrementAndGet();
+            return found;
+        }
+
+        for (int d = -ring; d <= ring; d++) {
+            predictInto(center.x + d, center.z - ring, ore, found);
+            predictInto(center.x + d, center.z + ring, ore, found);
+        }
+        for (int d = -ring + 1; d <= ring - 1; d++) {
+            predictInto(center.x - ring, center.z + d, ore, found);
+            predictInto(center.x + ring, center.z + d, ore, found);
+        }
+        scanned.addAndGet(8 * ring);
+        return found;
+    }
+
+    /** Ore names of all lode entries, for command suggestions. */
+    public static List<String> oreNames(LodeSelectorFeature.Config config) {
+        return config.entries().stream().map(LodeSelectorFeature.Entry::oreName).distinct().toList();
+    }
+
+    public LodeSelectorFeature.Config config() {
+        return config;
+    }
+}
@@ -0,0 +1,27 @@
+package de.kin.mountainores.mixin;
+
+import de.kin.mountainores.worldgen.DeferredBands;
+import net.minecraft.server.network.ChunkDataSender;
+import net.minecraft.server.network.ServerPlayNetworkHandler;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.chunk.WorldChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ChunkDataSender.class)
+public abstract class ChunkDataSenderMixin {
+
+    /**
+     * Places the chunk's deferred high bands before its data is written, so
+     * the first player to receive the chunk already sees the ore.
+     */
+    @Inject(method = "sendChunkData", at = @At("HEAD"))
+    private static void mountainores$materializeDeferred(ServerPlayNetworkHandler handler,
+                                                        ServerWorld world,
+                                                        WorldChunk chunk,
+                                                        CallbackInfo ci) {
+        DeferredBands.materialize(world, chunk);
+    }
+}
@@ -0,0 +1,20 @@
+package de.kin.mountainores.mixin;
+
+import net.minecraft.world.gen.chunk.ChunkGenerator;
+import net.minecraft.world.gen.feature.util.PlacedFeatureIndexer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Exposes the generator's per-step feature index so MountainOres can derive
+ * the same decorator seeds as {@code ChunkGenerator#generateFeatures}.
+ */
+@Mixin(ChunkGenerator.class)
+public interface ChunkGeneratorAccessor {
+
+    @Accessor("indexedFeaturesListSupplier")
+    Supplier<List<PlacedFeatureIndexer.IndexedFeatures>> mountainores$getIndexedFeatures();
+}
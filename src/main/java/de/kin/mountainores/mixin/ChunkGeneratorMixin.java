@@ -0,0 +1,45 @@
+package de.kin.mountainores.mixin;
+
+import de.kin.mountainores.alloc.AllocationProbe;
+import de.kin.mountainores.budget.OreBudget;
+import de.kin.mountainores.feature.ParallelVeins;
+import de.kin.mountainores.ledger.OreLedger;
+import de.kin.mountainores.retrogen.RetrogenMarker;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.gen.StructureAccessor;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ChunkGenerator.class)
+public abstract class ChunkGeneratorMixin {
+
+    @Inject(method = "generateFeatures", at = @At("HEAD"))
+    private void mountainores$beforeGenerateFeatures(StructureWorldAccess world,
+                                                     Chunk chunk,
+                                                     StructureAccessor structureAccessor,
+                                                     CallbackInfo ci) {
+        OreLedger.beginChunk(world, chunk.getPos());
+        OreBudget.beginChunk();
+        ParallelVeins.beginChunk(world);
+    }
+
+    /**
+     * Chunks that ran the feature step with MountainOres installed already
+     * contain MountainOres ore, so retrogen must never touch them again.
+     */
+    @Inject(method = "generateFeatures", at = @At("RETURN"))
+    private void mountainores$afterGenerateFeatures(StructureWorldAccess world,
+                                                    Chunk chunk,
+                                                    StructureAccessor structureAccessor,
+                                                    CallbackInfo ci) {
+        ParallelVeins.endChunk();
+        RetrogenMarker.markDone(chunk);
+        OreLedger.endChunk(chunk.getPos());
+        OreBudget.endChunk();
+        AllocationProbe.chunkDone();
+    }
+}
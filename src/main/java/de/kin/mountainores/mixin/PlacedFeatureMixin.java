@@ -0,0 +1,63 @@
+package de.kin.mountainores.mixin;
+
+import de.kin.mountainores.budget.OreBudget;
+import de.kin.mountainores.feature.BandedOreFeature;
+import de.kin.mountainores.feature.LodeSelectorFeature;
+import de.kin.mountainores.feature.VariableOreFeature;
+import de.kin.mountainores.worldgen.DeferredBands;
+import de.kin.mountainores.worldgen.PlacedFeaturePruner;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
+import net.minecraft.world.gen.feature.Feature;
+import net.minecraft.world.gen.feature.PlacedFeature;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(PlacedFeature.class)
+public abstract class PlacedFeatureMixin {
+
+    /**
+     * Skips MountainOres placed features that cannot place a block at this
+     * world's height. Each placed feature has its own decorator seed, so
+     * skipping one does not change any other feature. Deferred high bands
+     * are recorded on the chunk and skipped in the same way. Any other
+     * MountainOres feature starts counting against the chunk's time budget.
+     */
+    @Inject(method = "generate(Lnet/minecraft/world/StructureWorldAccess;Lnet/minecraft/world/gen/chunk/ChunkGenerator;Lnet/minecraft/util/math/random/Random;Lnet/minecraft/util/math/BlockPos;)Z",
+            at = @At("HEAD"), cancellable = true)
+    private void mountainores$skipPruned(StructureWorldAccess world,
+                                        ChunkGenerator generator,
+                                        Random random,
+                                        BlockPos pos,
+                                        CallbackInfoReturnable<Boolean> cir) {
+        if (PlacedFeaturePruner.isPruned((PlacedFeature) (Object) this, world)) {
+            cir.setReturnValue(false);
+        } else if (DeferredBands.defer((PlacedFeature) (Object) this, world, pos)) {
+            cir.setReturnValue(false);
+        } else if (mountainores$isMountainOres((PlacedFeature) (Object) this)) {
+            // Deferrable bands never draw from the chunk budget, so deferring them does not change trimming
+            OreBudget.beginFeature(DeferredBands.isHighBand((PlacedFeature) (Object) this, world));
+        }
+    }
+
+    @Inject(method = "generate(Lnet/minecraft/world/StructureWorldAccess;Lnet/minecraft/world/gen/chunk/ChunkGenerator;Lnet/minecraft/util/math/random/Random;Lnet/minecraft/util/math/BlockPos;)Z",
+            at = @At("RETURN"))
+    private void mountainores$endFeature(StructureWorldAccess world,
+                                         ChunkGenerator generator,
+                                         Random random,
+                                         BlockPos pos,
+                                         CallbackInfoReturnable<Boolean> cir) {
+        OreBudget.endFeature();
+    }
+
+    /** Only these features count against the chunk's time budget. */
+    private static boolean mountainores$isMountainOres(PlacedFeature placed) {
+        Feature<?> feature = placed.feature().value().feature();
+        return feature instanceof VariableOreFeature || feature instanceof BandedOreFeature
+                || feature instanceof LodeSelectorFeature;
+    }
+}
@@ -0,0 +1,19 @@
+package de.kin.mountainores.mixin;
+
+import net.minecraft.world.gen.YOffset;
+import net.minecraft.world.gen.heightprovider.TrapezoidHeightProvider;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(TrapezoidHeightProvider.class)
+public interface TrapezoidHeightProviderAccessor {
+
+    @Accessor("minOffset")
+    YOffset mountainores$getMinOffset();
+
+    @Accessor("maxOffset")
+    YOffset mountainores$getMaxOffset();
+
+    @Accessor("plateau")
+    int mountainores$getPlateau();
+}
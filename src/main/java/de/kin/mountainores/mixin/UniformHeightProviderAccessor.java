@@ -0,0 +1,16 @@
+package de.kin.mountainores.mixin;
+
+import net.minecraft.world.gen.YOffset;
+import net.minecraft.world.gen.heightprovider.UniformHeightProvider;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(UniformHeightProvider.class)
+public interface UniformHeightProviderAccessor {
+
+    @Accessor("minOffset")
+    YOffset mountainores$getMinOffset();
+
+    @Accessor("maxOffset")
+    YOffset mountainores$getMaxOffset();
+}
@@ -0,0 +1,25 @@
+package de.kin.mountainores.mixin;
+
+import de.kin.mountainores.worldgen.DeferredBands;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.WorldChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(WorldChunk.class)
+public abstract class WorldChunkMixin {
+
+    /**
+     * Places the chunk's deferred high bands before the first block at or
+     * above the deferral threshold changes, so the change applies to the
+     * chunk as eager generation would have left it.
+     */
+    @Inject(method = "setBlockState", at = @At("HEAD"))
+    private void mountainores$materializeDeferred(BlockPos pos, BlockState state, int flags,
+                                                  CallbackInfoReturnable<BlockState> cir) {
+        DeferredBands.blockChanging((WorldChunk) (Object) this, pos.getY());
+    }
+}
@@ -0,0 +1,112 @@
+package de.kin.mountainores.placement;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import de.kin.mountainores.HeightScaler;
+import de.kin.mountainores.jfr.PlacementEvent;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.gen.feature.FeaturePlacementContext;
+import net.minecraft.world.gen.placementmodifier.PlacementModifier;
+import net.minecraft.world.gen.placementmodifier.PlacementModifierType;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Replaces several placed features that share one configured feature but use
+ * different height windows with a single placed feature.
+ *
+ * <p>The bands are compiled once into a {@link BandedHeightTable}; each
+ * position then costs one alias draw over the combined Y distribution. With
+ * {@code count} set to the sum of the original counts and each band's
+ * {@code weight} set to its original count, the expected number of attempts
+ * per Y level is the same as with the separate placed features.
+ *
+ * <p>Usage in placed-feature JSON:
+ * <pre>{@code
+ * {
+ *   "type": "mountainores:banded_height",
+ *   "scaled": false,
+ *   "bands": [
+ *     { "weight": 10, "min_inclusive": -64, "max_inclusive": 0, "plateau": 64 },
+ *     { "weight": 12, "min_inclusive": 1, "max_inclusive": 68, "plateau": 40 }
+ *   ]
+ * }
+ * }</pre>
+ *
+ * <p>With {@code scaled} (default {@code true}) the sampled Y is passed through
+ * {@link HeightScaler#scaleY}, like {@code mountainores:scaled_height_range};
+ * use {@code false} to replace {@code minecraft:height_range}.
+ */
+public class BandedHeightPlacementModifier extends PlacementModifier {
+
+    public static final MapCodec<BandedHeightPlacementModifier> MODIFIER_CODEC =
+            RecordCodecBuilder.mapCodec(instance -> instance.group(
+                    HeightBand.CODEC.listOf().fieldOf("bands").forGetter(mod -> mod.table.bands()),
+                    Codec.BOOL.optionalFieldOf("scaled", true).forGetter(mod -> mod.scaled)
+            ).apply(instance, BandedHeightPlacementModifier::new));
+
+    public static final PlacementModifierType<BandedHeightPlacementModifier> TYPE =
+            () -> MODIFIER_CODEC;
+
+    private final BandedHeightTable table;
+    private final boolean scaled;
+
+    public BandedHeightPlacementModifier(List<HeightBand> bands, boolean scaled) {
+        this.table = new BandedHeightTable(bands);
+        this.scaled = scaled;
+    }
+
+    public List<HeightBand> bands() {
+        return table.bands();
+    }
+
+    /** Whether sampled Y values are passed through {@link HeightScaler#scaleY}. */
+    public boolean scaled() {
+        return scaled;
+    }
+
+    @Override
+    public Stream<BlockPos> getPositions(FeaturePlacementContext context,
+                                         Random random,
+                                         BlockPos pos) {
+        PlacementEvent event = new PlacementEvent();
+        event.begin();
+
+        int y = table.sampleY(random);
+        if (scaled) {
+            int worldTopY = context.getWorld().getBottomY() + context.getWorld().getHeight();
+            y = HeightScaler.scaleY(y, HeightScaler.resolveMaxWorldHeight(worldTopY));
+        }
+        event.complete("mountainores:banded_height", pos, y, 1);
+        return Stream.of(pos.withY(y));
+    }
+
+    @Override
+    public PlacementModifierType<?> getType() {
+        return TYPE;
+    }
+
+    // ── Registration ────────────────────────────────────────────────────
+
+    private static boolean registered = false;
+
+    /**
+     * Registers the {@code mountainores:banded_height} placement modifier type.
+     * Safe to call multiple times; only the first call has an effect.
+     */
+    public static void register() {
+        if (registered) return;
+        Registry.register(
+                Registries.PLACEMENT_MODIFIER_TYPE,
+                Identifier.of("mountainores", "banded_height"),
+                TYPE
+        );
+        registered = true;
+    }
+}
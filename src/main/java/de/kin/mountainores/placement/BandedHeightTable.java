@@ -0,0 +1,70 @@
+package de.kin.mountainores.placement;
+
+import net.minecraft.util.math.random.Random;
+
+import java.util.List;
+
+/**
+ * A list of {@link HeightBand}s compiled into sampling tables.
+ *
+ * <ul>
+ *   <li>{@link #sampleY} draws from the combined, weighted distribution over all
+ *       Y levels with a single alias draw (one piecewise table for all bands).</li>
+ *   <li>{@link #sampleBand} draws only the band, for callers that need to know
+ *       which band was picked (e.g. to choose a band-specific vein size).</li>
+ * </ul>
+ */
+public final class BandedHeightTable {
+
+    private final List<HeightBand> bands;
+    private final AliasTable bandChoice;
+    private final AliasTable levelChoice;
+    private final int minY;
+
+    public BandedHeightTable(List<HeightBand> bands) {
+        if (bands.isEmpty()) {
+            throw new IllegalArgumentException("At least one height band is required");
+        }
+        this.bands = List.copyOf(bands);
+
+        double[] bandWeights = new double[bands.size()];
+        double totalWeight = 0.0;
+        int lowest = Integer.MAX_VALUE;
+        int highest = Integer.MIN_VALUE;
+        for (int i = 0; i < bands.size(); i++) {
+            HeightBand band = bands.get(i);
+            bandWeights[i] = Math.max(0.0f, band.weight());
+            totalWeight += bandWeights[i];
+            lowest = Math.min(lowest, band.minInclusive());
+            highest = Math.max(highest, Math.max(band.minInclusive(), band.maxInclusive()));
+        }
+        this.bandChoice = new AliasTable(bandWeights);
+        this.minY = lowest;
+
+        double[] levels = new double[highest - lowest + 1];
+        for (int i = 0; i < bands.size(); i++) {
+            HeightBand band = bands.get(i);
+            double share = bandWeights[i] / totalWeight;
+            double[] p = band.probabilities();
+            int offset = band.minInclusive() - lowest;
+            for (int y = 0; y < p.length; y++) {
+                levels[offset + y] += share * p[y];
+            }
+        }
+        this.levelChoice = new AliasTable(levels);
+    }
+
+    public List<HeightBand> bands() {
+        return bands;
+    }
+
+    /** Samples a Y value (reference coordinates) from the combined distribution. */
+    public int sampleY(Random random) {
+        return minY + levelChoice.sample(random);
+    }
+
+    /** Samples the index of a band according to the band weights. */
+    public int sampleBand(Random random) {
+        return bandChoice.sample(random);
+    }
+}
@@ -0,0 +1,154 @@
+package de.kin.mountainores.placement;
+
+import de.kin.mountainores.worldgen.RegionContext;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
+import net.minecraft.world.gen.feature.PlacedFeature;
+
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Which biomes {@code world.getBiome(pos)} can return for positions in one
+ * chunk, per section.
+ *
+ * <p>Vanilla already skips a feature when no biome of the surrounding 3x3
+ * chunks has it. The biome lookup itself only ever reads the 4x4x4 quart cell
+ * containing {@code pos - 2} and the next cell on each axis, i.e. the chunk's
+ * own cells plus a one-cell rim into its neighbours (and into the sections
+ * above and below). The sets here are exactly that rim-extended area, built
+ * once per chunk and thread, so "not present" means {@code minecraft:biome}
+ * would reject every position. Sets are bit masks over the biome palette of
+ * the chunk's {@link RegionContext}, which also caches what the chunk and its
+ * neighbours contribute and which biomes allow each feature.
+ */
+public final class BiomePresence {
+
+    private static final int CACHE_CAPACITY = 32;
+
+    private static final ThreadLocal<Map<Long, BiomePresence>> CACHE = ThreadLocal.withInitial(
+            () -> new LinkedHashMap<>(CACHE_CAPACITY, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, BiomePresence> eldest) {
+                    return size() > CACHE_CAPACITY;
+                }
+            });
+
+    /** Used when a neighbour is unavailable or a region has more than 64 biomes: allows everything. */
+    private static final BiomePresence UNKNOWN = new BiomePresence(null, null, new long[0], -1L);
+
+    // Weak, so the per-thread cache does not keep unloaded chunks alive
+    private final WeakReference<Chunk> chunk;
+    // Masks are bits of the region's biome palette
+    private final RegionContext region;
+    private final long[] sectionMasks;
+    private final long chunkMask;
+
+    private BiomePresence(Chunk chunk, RegionContext region, long[] sectionMasks, long chunkMask) {
+        this.chunk = new WeakReference<>(chunk);
+        this.region = region;
+        this.sectionMasks = sectionMasks;
+        this.chunkMask = chunkMask;
+    }
+
+    /** The presence data of the chunk containing {@code pos}, built on first use. */
+    public static BiomePresence of(StructureWorldAccess world, ChunkPos pos) {
+        Chunk chunk = world.getChunk(pos.x, pos.z, ChunkStatus.BIOMES, false);
+        if (chunk == null) {
+            return UNKNOWN;
+        }
+
+        Map<Long, BiomePresence> cache = CACHE.get();
+        long key = pos.toLong();
+        BiomePresence cached = cache.get(key);
+        if (cached != null && cached.chunk.get() == chunk) {
+            return cached;
+        }
+
+        BiomePresence built = build(world, chunk);
+        cache.put(key, built);
+        return built;
+    }
+
+    private static BiomePresence build(StructureWorldAccess world, Chunk center) {
+        ChunkPos pos = center.getPos();
+        ServerWorld server = world.toServerWorld();
+        RegionContext region = RegionContext.of(server, pos.x, pos.z);
+        int sectionCount = center.getSectionArray().length;
+        // Per section: biomes of its quart layers 0-3, and separately of the bottom and top layer
+        long[] full = new long[sectionCount];
+        long[] bottom = new long[sectionCount];
+        long[] top = new long[sectionCount];
+
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                Chunk chunk = dx == 0 && dz == 0 ? center
+                        : world.getChunk(pos.x + dx, pos.z + dz, ChunkStatus.BIOMES, false);
+                if (chunk == null || chunk.getSectionArray().length != sectionCount) {
+                    return UNKNOWN;
+                }
+
+                // Neighbours only contribute the quart column/row adjacent to the centre chunk,
+                // read once per chunk and region (see RegionContext)
+                RegionContext owner = RegionContext.of(server, pos.x + dx, pos.z + dz);
+                RegionContext.ChunkBiomes biomes = owner.chunkBiomes(chunk);
+                if (biomes == null) {
+                    return UNKNOWN;
+                }
+                for (int i = 0; i < sectionCount; i++) {
+                    long sectionFull = region.remap(biomes.full(i, dx, dz), owner);
+                    long sectionBottom = region.remap(biomes.bottom(i, dx, dz), owner);
+                    long sectionTop = region.remap(biomes.top(i, dx, dz), owner);
+                    if (sectionFull == -1L || sectionBottom == -1L || sectionTop == -1L) {
+                        return UNKNOWN;
+                    }
+                    full[i] |= sectionFull;
+                    bottom[i] |= sectionBottom;
+                    top[i] |= sectionTop;
+                }
+            }
+        }
+
+        long[] masks = new long[sectionCount];
+        long chunkMask = 0L;
+        for (int i = 0; i < sectionCount; i++) {
+            long mask = full[i];
+            if (i > 0) {
+                mask |= top[i - 1];
+            }
+            if (i + 1 < sectionCount) {
+                mask |= bottom[i + 1];
+            }
+            masks[i] = mask;
+            chunkMask |= full[i];
+        }
+        return new BiomePresence(center, region, masks, chunkMask);
+    }
+
+    /** Whether any biome that can occur in the chunk allows {@code feature}. */
+    public boolean mayPlace(PlacedFeature feature, ChunkGenerator generator) {
+        return (allowedMask(feature, generator) & chunkMask) != 0;
+    }
+
+    /** Whether any biome that can occur at section index {@code sectionIndex} allows {@code feature}. */
+    public boolean mayPlace(PlacedFeature feature, ChunkGenerator generator, int sectionIndex) {
+        if (this == UNKNOWN) {
+            return true;
+        }
+        // Biome lookups clamp Y to the world, so do the same
+        int index = Math.max(0, Math.min(sectionIndex, sectionMasks.length - 1));
+        return (allowedMask(feature, generator) & sectionMasks[index]) != 0;
+    }
+
+    private long allowedMask(PlacedFeature feature, ChunkGenerator generator) {
+        if (this == UNKNOWN) {
+            return -1L;
+        }
+        return region.allowedMask(feature, generator);
+    }
+}
@@ -0,0 +1,85 @@
+package de.kin.mountainores.placement;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.gen.feature.FeaturePlacementContext;
+import net.minecraft.world.gen.feature.PlacedFeature;
+import net.minecraft.world.gen.placementmodifier.AbstractConditionalPlacementModifier;
+import net.minecraft.world.gen.placementmodifier.PlacementModifierType;
+
+import java.util.Optional;
+
+/**
+ * Cheap pre-filter for biome-restricted features: drops the position when no
+ * biome reachable from the chunk (or, with {@code "scope": "section"}, from
+ * the position's section) has this placed feature.
+ *
+ * <p>Never rejects a position that {@code minecraft:biome} would accept (see
+ * {@link BiomePresence}), so the vanilla filter stays at the end of the chain
+ * and output is unchanged. Put it first, before {@code count}, so chunks
+ * without a matching biome skip all candidate positions:
+ * <pre>{@code
+ * { "type": "mountainores:biome_presence" }
+ * }</pre>
+ */
+public class BiomePresencePlacementModifier extends AbstractConditionalPlacementModifier {
+
+    public static final MapCodec<BiomePresencePlacementModifier> MODIFIER_CODEC =
+            RecordCodecBuilder.mapCodec(instance -> instance.group(
+                    Codec.STRING.optionalFieldOf("scope", "chunk").forGetter(mod -> mod.perSection ? "section" : "chunk")
+            ).apply(instance, scope -> new BiomePresencePlacementModifier("section".equals(scope))));
+
+    public static final PlacementModifierType<BiomePresencePlacementModifier> TYPE =
+            () -> MODIFIER_CODEC;
+
+    private final boolean perSection;
+
+    public BiomePresencePlacementModifier(boolean perSection) {
+        this.perSection = perSection;
+    }
+
+    @Override
+    protected boolean shouldPlace(FeaturePlacementContext context, Random random, BlockPos pos) {
+        Optional<PlacedFeature> feature = context.getPlacedFeature();
+        if (feature.isEmpty()) {
+            return true;
+        }
+
+        BiomePresence presence = BiomePresence.of(context.getWorld(), new ChunkPos(pos));
+        if (perSection) {
+            int sectionIndex = context.getWorld().getSectionIndex(pos.getY());
+            return presence.mayPlace(feature.get(), context.getChunkGenerator(), sectionIndex);
+        }
+        return presence.mayPlace(feature.get(), context.getChunkGenerator());
+    }
+
+    @Override
+    public PlacementModifierType<?> getType() {
+        return TYPE;
+    }
+
+    // ── Registration ────────────────────────────────────────────────────
+
+    private static boolean registered = false;
+
+    /**
+     * Registers the {@code mountainores:biome_presence} placement modifier type.
+     * Safe to call multiple times; only the first call has an effect.
+     */
+    public static void register() {
+        if (registered) return;
+        Registry.register(
+                Registries.PLACEMENT_MODIFIER_TYPE,
+                Identifier.of("mountainores", "biome_presence"),
+                TYPE
+        );
+        registered = true;
+    }
+}
@@ -0,0 +1,77 @@
+package de.kin.mountainores.placement;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.minecraft.util.math.random.Random;
+
+import java.util.Arrays;
+
+/**
+ * One weighted height band: a {@code minecraft:trapezoid}-shaped Y distribution
+ * between two absolute Y values (authored for the reference height, like all
+ * MountainOres band values).
+ *
+ * <p>A {@code plateau} at least as wide as the band makes it uniform,
+ * matching {@code minecraft:uniform}.
+ *
+ * <p>JSON form:
+ * <pre>{@code
+ * { "weight": 5, "min_inclusive": 60, "max_inclusive": 200, "plateau": 72 }
+ * }</pre>
+ */
+public record HeightBand(float weight, int minInclusive, int maxInclusive, int plateau) {
+
+    public static final MapCodec<HeightBand> MAP_CODEC = RecordCodecBuilder.mapCodec(instance -> instance.group(
+            Codec.FLOAT.fieldOf("weight").forGetter(HeightBand::weight),
+            Codec.INT.fieldOf("min_inclusive").forGetter(HeightBand::minInclusive),
+            Codec.INT.fieldOf("max_inclusive").forGetter(HeightBand::maxInclusive),
+            Codec.INT.optionalFieldOf("plateau", 0).forGetter(HeightBand::plateau)
+    ).apply(instance, HeightBand::new));
+
+    public static final Codec<HeightBand> CODEC = MAP_CODEC.codec();
+
+    /**
+     * Samples a Y value exactly like {@code TrapezoidHeightProvider}
+     * (one or two random calls).
+     */
+    public int sample(Random random) {
+        int width = maxInclusive - minInclusive;
+        if (width <= 0) {
+            return minInclusive;
+        }
+        if (plateau >= width) {
+            return minInclusive + random.nextInt(width + 1);
+        }
+        int slope = (width - plateau) / 2;
+        int rest = width - slope;
+        return minInclusive + random.nextInt(rest + 1) + random.nextInt(slope + 1);
+    }
+
+    /**
+     * Probability of each Y in {@code [minInclusive, maxInclusive]} under {@link #sample}.
+     */
+    public double[] probabilities() {
+        int width = Math.max(0, maxInclusive - minInclusive);
+        double[] p = new double[width + 1];
+        if (width == 0) {
+            p[0] = 1.0;
+            return p;
+        }
+        if (plateau >= width) {
+            Arrays.fill(p, 1.0 / (width + 1));
+            return p;
+        }
+
+        // Sum of two independent uniforms U[0, rest] + U[0, slope].
+        int slope = (width - plateau) / 2;
+        int rest = width - slope;
+        double cell = 1.0 / ((rest + 1.0) * (slope + 1.0));
+        for (int a = 0; a <= rest; a++) {
+            for (int b = 0; b <= slope; b++) {
+                p[a + b] += cell;
+            }
+        }
+        return p;
+    }
+}
@@ -0,0 +1,171 @@
+package de.kin.mountainores.placement;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import de.kin.mountainores.MountainOres;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.gen.feature.FeaturePlacementContext;
+import net.minecraft.world.gen.placementmodifier.AbstractConditionalPlacementModifier;
+import net.minecraft.world.gen.placementmodifier.PlacementModifierType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lode site filter: with {@code lodeGrid} enabled, the world is divided into
+ * cells of {@code cell_chunks}×{@code cell_chunks} chunks and each cell gets
+ * one candidate chunk at a seed-derived position inside it, kept with
+ * probability {@code chance}. Whether a chunk is a site is a hash of the world
+ * seed and cell, with no random draws, so lodes are spread evenly and sites
+ * can be listed for any area without replaying placement.
+ *
+ * <p>With {@code lodeGrid} disabled it behaves exactly like
+ * {@code minecraft:rarity_filter} with {@code rarity} (same random draw), so
+ * existing worlds keep their lodes:
+ * <pre>{@code
+ * { "type": "mountainores:lode_grid", "cell_chunks": 29, "chance": 0.99, "rarity": 850 }
+ * }</pre>
+ * The defaults give the same expected number of lodes as a rarity of 850.
+ */
+public class LodeGridPlacementModifier extends AbstractConditionalPlacementModifier {
+
+    public static final MapCodec<LodeGridPlacementModifier> MODIFIER_CODEC =
+            RecordCodecBuilder.mapCodec(instance -> instance.group(
+                    Codec.intRange(1, 1024).optionalFieldOf("cell_chunks", 29).forGetter(LodeGridPlacementModifier::cellChunks),
+                    Codec.floatRange(0.0f, 1.0f).optionalFieldOf("chance", 0.99f).forGetter(LodeGridPlacementModifier::chance),
+                    Codec.intRange(1, Integer.MAX_VALUE).optionalFieldOf("rarity", 850).forGetter(LodeGridPlacementModifier::rarity),
+                    Codec.LONG.optionalFieldOf("salt", 0L).forGetter(LodeGridPlacementModifier::salt)
+            ).apply(instance, LodeGridPlacementModifier::new));
+
+    public static final PlacementModifierType<LodeGridPlacementModifier> TYPE =
+            () -> MODIFIER_CODEC;
+
+    private final int cellChunks;
+    private final float chance;
+    private final int rarity;
+    private final long salt;
+
+    public LodeGridPlacementModifier(int cellChunks, float chance, int rarity, long salt) {
+        this.cellChunks = cellChunks;
+        this.chance = chance;
+        this.rarity = rarity;
+        this.salt = salt;
+    }
+
+    public int cellChunks() {
+        return cellChunks;
+    }
+
+    public float chance() {
+        return chance;
+    }
+
+    public int rarity() {
+        return rarity;
+    }
+
+    public long salt() {
+        return salt;
+    }
+
+    /** Whether lode sites come from the grid ({@code lodeGrid}) rather than the rarity roll. */
+    public static boolean gridEnabled() {
+        return MountainOres.CONFIG != null && MountainOres.CONFIG.lodeGrid;
+    }
+
+    @Override
+    protected boolean shouldPlace(FeaturePlacementContext context, Random random, BlockPos pos) {
+        ChunkPos chunk = new ChunkPos(pos);
+        return accepts(context.getWorld().getSeed(), chunk.x, chunk.z, random);
+    }
+
+    /**
+     * Whether a lode runs in the chunk: the grid site check, or with the grid
+     * disabled the rarity roll (which draws from {@code random}).
+     */
+    public boolean accepts(long worldSeed, int chunkX, int chunkZ, Random random) {
+        if (!gridEnabled()) {
+            return random.nextFloat() < 1.0f / (float) rarity;
+        }
+        return isSite(worldSeed, chunkX, chunkZ);
+    }
+
+    // ── Grid ────────────────────────────────────────────────────────────
+
+    /** Whether the chunk is its cell's site. */
+    public boolean isSite(long worldSeed, int chunkX, int chunkZ) {
+        int cellX = Math.floorDiv(chunkX, cellChunks);
+        int cellZ = Math.floorDiv(chunkZ, cellChunks);
+        long site = site(worldSeed, cellX, cellZ);
+        return site != NO_SITE && (int) (site >> 32) == chunkX && (int) site == chunkZ;
+    }
+
+    /** Site chunks whose position lies in {@code [min, max]} (inclusive chunk coordinates). */
+    public List<ChunkPos> sites(long worldSeed, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        List<ChunkPos> sites = new ArrayList<>();
+        for (int cellZ = Math.floorDiv(minChunkZ, cellChunks); cellZ <= Math.floorDiv(maxChunkZ, cellChunks); cellZ++) {
+            for (int cellX = Math.floorDiv(minChunkX, cellChunks); cellX <= Math.floorDiv(maxChunkX, cellChunks); cellX++) {
+                long site = site(worldSeed, cellX, cellZ);
+                if (site == NO_SITE) {
+                    continue;
+                }
+                int x = (int) (site >> 32);
+                int z = (int) site;
+                if (x >= minChunkX && x <= maxChunkX && z >= minChunkZ && z <= maxChunkZ) {
+                    sites.add(new ChunkPos(x, z));
+                }
+            }
+        }
+        return sites;
+    }
+
+    private static final long NO_SITE = Long.MIN_VALUE;
+
+    /** The cell's site chunk packed as {@code x << 32 | z}, or {@link #NO_SITE}. */
+    private long site(long worldSeed, int cellX, int cellZ) {
+        long h = mix(worldSeed ^ mix(salt + 0x4C4F444547524944L) ^ ((long) cellX * 0x9E3779B97F4A7C15L) ^ ((long) cellZ * 0xC2B2AE3D27D4EB4FL));
+        if ((h >>> 40) * 0x1.0p-24 >= chance) {
+            return NO_SITE;
+        }
+        long jitter = mix(h);
+        int x = cellX * cellChunks + (int) Long.remainderUnsigned(jitter, cellChunks);
+        int z = cellZ * cellChunks + (int) Long.remainderUnsigned(jitter >>> 32, cellChunks);
+        return (long) x << 32 | (z & 0xFFFFFFFFL);
+    }
+
+    /** SplitMix64 finaliser. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public PlacementModifierType<?> getType() {
+        return TYPE;
+    }
+
+    // ── Registration ────────────────────────────────────────────────────
+
+    private static boolean registered = false;
+
+    /**
+     * Registers the {@code mountainores:lode_grid} placement modifier type.
+     * Safe to call multiple times; only the first call has an effect.
+     */
+    public static void register() {
+        if (registered) return;
+        Registry.register(
+                Registries.PLACEMENT_MODIFIER_TYPE,
+                Identifier.of("mountainores", "lode_grid"),
+                TYPE
+        );
+        registered = true;
+    }
+}
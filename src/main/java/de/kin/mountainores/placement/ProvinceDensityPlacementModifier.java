@@ -0,0 +1,134 @@
+package de.kin.mountainores.placement;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import de.kin.mountainores.HeightScaler;
+import de.kin.mountainores.jfr.PlacementEvent;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.intprovider.IntProvider;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.gen.feature.FeaturePlacementContext;
+import net.minecraft.world.gen.placementmodifier.PlacementModifier;
+import net.minecraft.world.gen.placementmodifier.PlacementModifierType;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A height-scaled count (like {@link ScaledCountPlacementModifier}) that is
+ * additionally modulated by the shared {@link ProvinceField}.
+ *
+ * <p>All band features read the same cached per-chunk noise value, so rich and
+ * poor regions are correlated across ores. The fractional part of the
+ * modulated count is rounded with a per-chunk hash instead of an extra random
+ * roll, keeping the expected count per chunk at
+ * {@code count * heightFactor * multiplier}. The hash is salted with the placed
+ * feature's ID, so the features of a chunk do not all round the same way.
+ *
+ * <p>Usage in placed-feature JSON:
+ * <pre>{@code
+ * {
+ *   "type": "mountainores:province_density",
+ *   "count": 8,
+ *   "strength": 1.0
+ * }
+ * }</pre>
+ *
+ * <p>{@code strength} scales how strongly this feature follows the province
+ * field (0 = ignore it). When {@code provinceDensity = false} in the config,
+ * this behaves identically to {@code mountainores:scaled_count}.
+ */
+public class ProvinceDensityPlacementModifier extends PlacementModifier {
+
+    public static final MapCodec<ProvinceDensityPlacementModifier> MODIFIER_CODEC =
+            RecordCodecBuilder.mapCodec(instance -> instance.group(
+                    IntProvider.VALUE_CODEC.fieldOf("count").forGetter(mod -> mod.count),
+                    Codec.FLOAT.optionalFieldOf("strength", 1.0f).forGetter(mod -> mod.strength)
+            ).apply(instance, ProvinceDensityPlacementModifier::new));
+
+    public static final PlacementModifierType<ProvinceDensityPlacementModifier> TYPE =
+            () -> MODIFIER_CODEC;
+
+    private final IntProvider count;
+    private final float strength;
+    // Jitter salt from the placed feature's ID, resolved on first use (each placed feature decodes its own instance)
+    private volatile Long jitterSalt;
+
+    public ProvinceDensityPlacementModifier(IntProvider count, float strength) {
+        this.count = count;
+        this.strength = strength;
+    }
+
+    @Override
+    public Stream<BlockPos> getPositions(FeaturePlacementContext context,
+                                         Random random,
+                                         BlockPos pos) {
+        PlacementEvent event = new PlacementEvent();
+        event.begin();
+
+        int worldTopY = context.getWorld().getBottomY() + context.getWorld().getHeight();
+        int maxWorldHeight = HeightScaler.resolveMaxWorldHeight(worldTopY);
+        int rawCount = this.count.get(random);
+
+        if (!ProvinceField.isEnabled()) {
+            int scaledCount = HeightScaler.scaleCount(rawCount, maxWorldHeight, random);
+            event.complete("mountainores:province_density", pos, pos.getY(), scaledCount);
+            return IntStream.range(0, scaledCount).mapToObj(i -> pos);
+        }
+
+        long seed = context.getWorld().getSeed();
+        int chunkX = pos.getX() >> 4;
+        int chunkZ = pos.getZ() >> 4;
+        double expected = rawCount
+                * HeightScaler.getFactor(maxWorldHeight)
+                * ProvinceField.multiplier(seed, chunkX, chunkZ, strength);
+        int n = (int) Math.floor(expected + ProvinceField.jitter(seed, jitterSalt(context), chunkX, chunkZ));
+        event.complete("mountainores:province_density", pos, pos.getY(), n);
+        return IntStream.range(0, n).mapToObj(i -> pos);
+    }
+
+    private long jitterSalt(FeaturePlacementContext context) {
+        Long salt = jitterSalt;
+        if (salt != null) {
+            return salt;
+        }
+        Identifier id = context.getPlacedFeature()
+                .map(feature -> context.getWorld().getRegistryManager().getOrThrow(RegistryKeys.PLACED_FEATURE).getId(feature))
+                .orElse(null);
+        if (id == null) {
+            // Not placed through a registered feature (e.g. /place); do not cache
+            return 0L;
+        }
+        salt = (long) id.toString().hashCode();
+        jitterSalt = salt;
+        return salt;
+    }
+
+    @Override
+    public PlacementModifierType<?> getType() {
+        return TYPE;
+    }
+
+    // ── Registration ────────────────────────────────────────────────────
+
+    private static boolean registered = false;
+
+    /**
+     * Registers the {@code mountainores:province_density} placement modifier type.
+     * Safe to call multiple times; only the first call has an effect.
+     */
+    public static void register() {
+        if (registered) return;
+        Registry.register(
+                Registries.PLACEMENT_MODIFIER_TYPE,
+                Identifier.of("mountainores", "province_density"),
+                TYPE
+        );
+        registered = true;
+    }
+}
@@ -0,0 +1,126 @@
+package de.kin.mountainores.placement;
+
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.MountainOresConfig;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Seed-derived, coherent 2D noise over chunk coordinates that describes
+ * "ore provinces": large rich and poor regions shared by all band features.
+ *
+ * <p>The field is two octaves of smoothed value noise with a base cell size of
+ * {@code provinceScaleChunks}. It is sampled at most once per chunk and thread;
+ * the result is kept in a small per-thread LRU keyed by chunk position, so all
+ * band features of a chunk share a single evaluation without locking.
+ */
+public final class ProvinceField {
+
+    private static final int CACHE_CAPACITY = 64;
+
+    private static final ThreadLocal<SampleCache> CACHE = ThreadLocal.withInitial(SampleCache::new);
+
+    private ProvinceField() {}
+
+    public static boolean isEnabled() {
+        MountainOresConfig cfg = MountainOres.CONFIG;
+        return cfg != null && cfg.provinceDensity;
+    }
+
+    /**
+     * Returns the province noise for the chunk, in {@code [-1, 1]} with mean 0.
+     */
+    public static double sample(long worldSeed, int chunkX, int chunkZ) {
+        MountainOresConfig cfg = MountainOres.CONFIG;
+        int scale = cfg != null ? Math.max(2, cfg.provinceScaleChunks) : 24;
+
+        SampleCache cache = CACHE.get();
+        if (cache.seed != worldSeed || cache.scale != scale) {
+            cache.clear();
+            cache.seed = worldSeed;
+            cache.scale = scale;
+        }
+
+        long key = ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+        Double cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        double value = 0.67 * valueNoise(worldSeed, chunkX, chunkZ, scale)
+                     + 0.33 * valueNoise(worldSeed + 0x9E3779B97F4A7C15L, chunkX, chunkZ, Math.max(1, scale / 2));
+        cache.put(key, value);
+        return value;
+    }
+
+    /**
+     * Density multiplier for the chunk: {@code 1 + amplitude * strength * noise},
+     * never negative. Averages to 1 over large areas.
+     */
+    public static double multiplier(long worldSeed, int chunkX, int chunkZ, float strength) {
+        MountainOresConfig cfg = MountainOres.CONFIG;
+        double amplitude = cfg != null ? cfg.provinceAmplitude : 0.5;
+        return Math.max(0.0, 1.0 + amplitude * strength * sample(worldSeed, chunkX, chunkZ));
+    }
+
+    /**
+     * A per-chunk value in {@code [0, 1)} used to round fractional counts.
+     * Independent of the noise itself, so rounding is unbiased; {@code salt}
+     * (one per feature) keeps the features of a chunk from all rounding up or
+     * down together.
+     */
+    public static double jitter(long worldSeed, long salt, int chunkX, int chunkZ) {
+        long h = mix(worldSeed ^ 0x632BE59BD9B4E019L ^ (salt * 0xD1B54A32D192ED03L), chunkX, chunkZ);
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    // ── Noise ───────────────────────────────────────────────────────────
+
+    private static double valueNoise(long seed, int chunkX, int chunkZ, int scale) {
+        int cellX = Math.floorDiv(chunkX, scale);
+        int cellZ = Math.floorDiv(chunkZ, scale);
+        double fx = smooth((chunkX - cellX * scale + 0.5) / scale);
+        double fz = smooth((chunkZ - cellZ * scale + 0.5) / scale);
+
+        double v00 = lattice(seed, cellX, cellZ);
+        double v10 = lattice(seed, cellX + 1, cellZ);
+        double v01 = lattice(seed, cellX, cellZ + 1);
+        double v11 = lattice(seed, cellX + 1, cellZ + 1);
+
+        double top = v00 + (v10 - v00) * fx;
+        double bottom = v01 + (v11 - v01) * fx;
+        return top + (bottom - top) * fz;
+    }
+
+    /** Symmetric lattice value in {@code [-1, 1]}. */
+    private static double lattice(long seed, int cellX, int cellZ) {
+        long h = mix(seed, cellX, cellZ);
+        return ((h >>> 11) * 0x1.0p-53) * 2.0 - 1.0;
+    }
+
+    private static double smooth(double t) {
+        return t * t * (3.0 - 2.0 * t);
+    }
+
+    private static long mix(long seed, int x, int z) {
+        long h = seed ^ (x * 0x9E3779B97F4A7C15L) ^ (z * 0xC2B2AE3D27D4EB4FL);
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    private static final class SampleCache extends LinkedHashMap<Long, Double> {
+        long seed;
+        int scale;
+
+        SampleCache() {
+            super(CACHE_CAPACITY * 2, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Double> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package de.kin.mountainores.placement;
 
 import com.mojang.serialization.MapCodec;
 import de.kin.mountainores.HeightScaler;
+import de.kin.mountainores.alloc.AllocationProbe;
+import de.kin.mountainores.jfr.PlacementEvent;
 import net.minecraft.registry.Registries;
 import net.minecraft.registry.Registry;
 import net.minecraft.util.Identifier;
@@ -59,12 +61,27 @@ public class ScaledCountPlacementModifier extends PlacementModifier {
     public Stream<BlockPos> getPositions(FeaturePlacementContext context,
                                          Random random,
                                          BlockPos pos) {
-        // Resolve effective world height: auto-detect from world or manual config
+        long allocated = AllocationProbe.begin();
+        PlacementEvent event = new PlacementEvent();
+        event.begin();
+
         int worldTopY = context.getWorld().getBottomY() + context.getWorld().getHeight();
+        int scaledCount = scaledCount(random, worldTopY);
+        event.complete("mountainores:scaled_count", pos, pos.getY(), scaledCount);
+        Stream<BlockPos> positions = IntStream.range(0, scaledCount).mapToObj(i -> pos);
+        AllocationProbe.end(AllocationProbe.Site.SCALED_COUNT, allocated);
+        return positions;
+    }
+
+    /**
+     * Samples the count and scales it for a world whose top is {@code worldTopY}.
+     * {@link #getPositions} uses the same call.
+     */
+    public int scaledCount(Random random, int worldTopY) {
+        // Resolve effective world height: auto-detect from world or manual config
         int maxWorldHeight = HeightScaler.resolveMaxWorldHeight(worldTopY);
         int rawCount = this.count.get(random);
-        int scaledCount = HeightScaler.scaleCount(rawCount, maxWorldHeight);
-        return IntStream.range(0, scaledCount).mapToObj(i -> pos);
+        return HeightScaler.scaleCount(rawCount, maxWorldHeight, random);
     }
 
     @Override
@@ -2,11 +2,14 @@ package de.kin.mountainores.placement;
 
 import com.mojang.serialization.MapCodec;
 import de.kin.mountainores.HeightScaler;
+import de.kin.mountainores.alloc.AllocationProbe;
+import de.kin.mountainores.jfr.PlacementEvent;
 import net.minecraft.registry.Registries;
 import net.minecraft.registry.Registry;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.random.Random;
+import net.minecraft.world.gen.HeightContext;
 import net.minecraft.world.gen.feature.FeaturePlacementContext;
 import net.minecraft.world.gen.heightprovider.HeightProvider;
 import net.minecraft.world.gen.placementmodifier.PlacementModifier;
@@ -52,19 +55,39 @@ public class ScaledHeightRangePlacementModifier extends PlacementModifier {
         this.height = height;
     }
 
+    /** The unscaled height distribution, in reference coordinates. */
+    public HeightProvider height() {
+        return height;
+    }
+
     @Override
     public Stream<BlockPos> getPositions(FeaturePlacementContext context,
                                          Random random,
                                          BlockPos pos) {
+        long allocated = AllocationProbe.begin();
+        PlacementEvent event = new PlacementEvent();
+        event.begin();
+
+        int worldTopY = context.getWorld().getBottomY() + context.getWorld().getHeight();
+        int y = scaledY(random, context, worldTopY);
+        event.complete("mountainores:scaled_height_range", pos, y, 1);
+
+        Stream<BlockPos> positions = Stream.of(pos.withY(y));
+        AllocationProbe.end(AllocationProbe.Site.SCALED_HEIGHT_RANGE, allocated);
+        return positions;
+    }
+
+    /**
+     * Samples a Y and scales it for a world whose top is {@code worldTopY}.
+     * {@link #getPositions} uses the same call.
+     */
+    public int scaledY(Random random, HeightContext context, int worldTopY) {
         // Sample from the HeightProvider (uses unscaled reference values from JSON)
         int y = this.height.get(random, context);
 
         // Resolve effective world height: auto-detect from world or manual config
-        int worldTopY = context.getWorld().getBottomY() + context.getWorld().getHeight();
         int maxWorldHeight = HeightScaler.resolveMaxWorldHeight(worldTopY);
-        y = HeightScaler.scaleY(y, maxWorldHeight);
-
-        return Stream.of(pos.withY(y));
+        return HeightScaler.scaleY(y, maxWorldHeight);
     }
 
     @Override
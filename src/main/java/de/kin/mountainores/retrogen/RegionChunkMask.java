@@ -0,0 +1,77 @@
+package de.kin.mountainores.retrogen;
+
+/**
+ * A 32x32 chunk bitset for a single region file (128 bytes).
+ *
+ * <p>Bit {@code i} corresponds to local chunk {@code (i & 31, i >> 5)}, which
+ * is the same ordering the region file header uses for its location table.
+ */
+public final class RegionChunkMask {
+
+    public static final int CHUNKS = 32 * 32;
+    public static final int WORDS = CHUNKS / 64;
+
+    private final long[] bits;
+
+    public RegionChunkMask() {
+        this(new long[WORDS]);
+    }
+
+    RegionChunkMask(long[] bits) {
+        if (bits.length != WORDS) {
+            throw new IllegalArgumentException("Expected " + WORDS + " words, got " + bits.length);
+        }
+        this.bits = bits;
+    }
+
+    public static int index(int chunkX, int chunkZ) {
+        return (chunkX & 31) | ((chunkZ & 31) << 5);
+    }
+
+    public boolean get(int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public void set(int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /** Returns the next set bit at or after {@code from}, or -1. */
+    public int nextSet(int from) {
+        if (from >= CHUNKS) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long current = bits[word] & (-1L << from);
+        while (true) {
+            if (current != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(current);
+            }
+            if (++word == WORDS) {
+                return -1;
+            }
+            current = bits[word];
+        }
+    }
+
+    /** Returns a new mask with the bits of this mask that are not set in {@code other}. */
+    public RegionChunkMask andNot(RegionChunkMask other) {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            result[i] = bits[i] & ~other.bits[i];
+        }
+        return new RegionChunkMask(result);
+    }
+
+    long[] words() {
+        return bits;
+    }
+}
@@ -0,0 +1,71 @@
+package de.kin.mountainores.retrogen;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lists the chunks stored in a dimension's {@code region/} folder by reading
+ * only the 4 KiB location table at the start of each {@code r.X.Z.mca} file.
+ * No chunk data is decompressed.
+ */
+final class RegionFileScanner {
+
+    private static final Pattern REGION_NAME = Pattern.compile("^r\\.(-?\\d+)\\.(-?\\d+)\\.mca$");
+
+    private RegionFileScanner() {}
+
+    /**
+     * @return region key (see {@link RegionKeys}) to mask of chunks present in that file,
+     *         sorted by key; regions without chunks are omitted
+     */
+    static Map<Long, RegionChunkMask> scan(Path regionDir) throws IOException {
+        Map<Long, RegionChunkMask> result = new TreeMap<>();
+        if (!Files.isDirectory(regionDir)) {
+            return result;
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(regionDir, "r.*.mca")) {
+            for (Path file : files) {
+                Matcher matcher = REGION_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+
+                RegionChunkMask present = readPresentChunks(file);
+                if (present.cardinality() > 0) {
+                    int regionX = Integer.parseInt(matcher.group(1));
+                    int regionZ = Integer.parseInt(matcher.group(2));
+                    result.put(RegionKeys.key(regionX, regionZ), present);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static RegionChunkMask readPresentChunks(Path file) throws IOException {
+        RegionChunkMask present = new RegionChunkMask();
+        if (Files.size(file) < RegionChunkMask.CHUNKS * 4L) {
+            // Truncated or freshly created file without a complete header.
+            return present;
+        }
+
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(raw)) {
+            for (int i = 0; i < RegionChunkMask.CHUNKS; i++) {
+                // Location entry: 3 bytes sector offset + 1 byte sector count; 0 = absent.
+                if (in.readInt() != 0) {
+                    present.set(i);
+                }
+            }
+        }
+        return present;
+    }
+}
@@ -0,0 +1,21 @@
+package de.kin.mountainores.retrogen;
+
+/**
+ * Packs region coordinates into a single {@code long}, ordered by X then Z.
+ */
+final class RegionKeys {
+
+    private RegionKeys() {}
+
+    static long key(int regionX, int regionZ) {
+        return ((long) regionX << 32) | (regionZ & 0xFFFFFFFFL);
+    }
+
+    static int regionX(long key) {
+        return (int) (key >> 32);
+    }
+
+    static int regionZ(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,103 @@
+package de.kin.mountainores.retrogen;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * On-disk retrogen progress: a run flag plus one {@link RegionChunkMask} of
+ * processed chunks per region.
+ *
+ * <p>Written to a temporary file and atomically moved into place, so a crash
+ * while saving leaves the previous checkpoint intact.
+ */
+final class RetrogenCheckpoint {
+
+    private static final int MAGIC = 0x4D4F5247; // "MORG"
+    private static final int VERSION = 1;
+
+    final Map<Long, RegionChunkMask> processed;
+    boolean running;
+    boolean removeVanillaOres;
+
+    RetrogenCheckpoint(Map<Long, RegionChunkMask> processed, boolean running, boolean removeVanillaOres) {
+        this.processed = processed;
+        this.running = running;
+        this.removeVanillaOres = removeVanillaOres;
+    }
+
+    static RetrogenCheckpoint empty() {
+        return new RetrogenCheckpoint(new TreeMap<>(), false, false);
+    }
+
+    RegionChunkMask processedIn(long regionKey) {
+        return processed.computeIfAbsent(regionKey, key -> new RegionChunkMask());
+    }
+
+    int processedCount() {
+        int count = 0;
+        for (RegionChunkMask mask : processed.values()) {
+            count += mask.cardinality();
+        }
+        return count;
+    }
+
+    static RetrogenCheckpoint read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return empty();
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a MountainOres retrogen checkpoint: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported retrogen checkpoint version " + version);
+            }
+
+            boolean running = in.readBoolean();
+            boolean removeVanillaOres = in.readBoolean();
+            int regions = in.readInt();
+
+            Map<Long, RegionChunkMask> processed = new TreeMap<>();
+            for (int r = 0; r < regions; r++) {
+                long key = in.readLong();
+                long[] words = new long[RegionChunkMask.WORDS];
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = in.readLong();
+                }
+                processed.put(key, new RegionChunkMask(words));
+            }
+            return new RetrogenCheckpoint(processed, running, removeVanillaOres);
+        }
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeBoolean(running);
+            out.writeBoolean(removeVanillaOres);
+            out.writeInt(processed.size());
+            for (Map.Entry<Long, RegionChunkMask> entry : processed.entrySet()) {
+                out.writeLong(entry.getKey());
+                for (long word : entry.getValue().words()) {
+                    out.writeLong(word);
+                }
+            }
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
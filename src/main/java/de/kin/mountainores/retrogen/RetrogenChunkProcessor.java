@@ -0,0 +1,133 @@
+package de.kin.mountainores.retrogen;
+
+import de.kin.mountainores.alloc.AllocationProbe;
+import de.kin.mountainores.budget.OreBudget;
+import de.kin.mountainores.ledger.OreLedger;
+import de.kin.mountainores.worldgen.FeatureSeeding;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.entry.RegistryEntryList;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.random.ChunkRandom;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.chunk.WorldChunk;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
+import net.minecraft.world.gen.feature.PlacedFeature;
+import net.minecraft.world.gen.feature.util.PlacedFeatureIndexer;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Runs the MountainOres placed features of the ore step on an already
+ * generated, fully loaded chunk, in the same order and with the same seeds
+ * the normal feature pass would use. Used by retrogen and to materialize
+ * deferred high bands ({@link de.kin.mountainores.worldgen.DeferredBands}).
+ */
+@SuppressWarnings("null")
+public final class RetrogenChunkProcessor {
+
+    private RetrogenChunkProcessor() {}
+
+    /**
+     * @param featureFilter decides, by placed feature ID, which features run
+     * @return the number of placed features that were run, or {@code -1} if
+     *         a neighbour is not loaded and nothing was run (see {@link #neighboursLoaded})
+     */
+    public static int generate(ServerWorld world, WorldChunk chunk, Predicate<Identifier> featureFilter) {
+        return generate(world, chunk, featureFilter, false);
+    }
+
+    /**
+     * @param supplementLedger whether the placed ore adds to the chunk's existing ledger record
+     *                         instead of replacing it
+     */
+    public static int generate(ServerWorld world, WorldChunk chunk, Predicate<Identifier> featureFilter, boolean supplementLedger) {
+        ChunkGenerator generator = world.getChunkManager().getChunkGenerator();
+        PlacedFeatureIndexer.IndexedFeatures indexed = FeatureSeeding.indexedFeatures(generator, FeatureSeeding.ORE_STEP);
+        if (indexed == null) {
+            return 0;
+        }
+
+        // Same feature selection as ChunkGenerator#generateFeatures: the biomes of the chunk and its
+        // eight neighbours, since biome filters look up positions fuzzily across the chunk border
+        ChunkPos chunkPos = chunk.getPos();
+        if (!neighboursLoaded(world, chunkPos)) {
+            return -1;
+        }
+        Set<RegistryEntry<Biome>> biomes = new HashSet<>();
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                Chunk neighbour = dx == 0 && dz == 0 ? chunk
+                        : world.getChunk(chunkPos.x + dx, chunkPos.z + dz, ChunkStatus.BIOMES, false);
+                for (ChunkSection section : neighbour.getSectionArray()) {
+                    section.getBiomeContainer().forEachValue(biomes::add);
+                }
+            }
+        }
+
+        BitSet featureIndices = new BitSet();
+        for (RegistryEntry<Biome> biome : biomes) {
+            List<RegistryEntryList<PlacedFeature>> steps = generator.getGenerationSettings(biome).getFeatures();
+            if (FeatureSeeding.ORE_STEP >= steps.size()) {
+                continue;
+            }
+            for (RegistryEntry<PlacedFeature> entry : steps.get(FeatureSeeding.ORE_STEP)) {
+                featureIndices.set(indexed.indexMapping().applyAsInt(entry.value()));
+            }
+        }
+
+        Registry<PlacedFeature> registry = world.getRegistryManager().getOrThrow(RegistryKeys.PLACED_FEATURE);
+        BlockPos origin = new BlockPos(chunkPos.getStartX(), world.getBottomY(), chunkPos.getStartZ());
+
+        ChunkRandom random = FeatureSeeding.newChunkRandom();
+        long populationSeed = FeatureSeeding.populationSeed(random, world.getSeed(), chunkPos);
+
+        int ran = 0;
+        OreLedger.beginChunk(world, chunkPos, supplementLedger);
+        OreBudget.beginChunk();
+        for (int index = featureIndices.nextSetBit(0); index >= 0; index = featureIndices.nextSetBit(index + 1)) {
+            PlacedFeature feature = indexed.features().get(index);
+            Identifier id = registry.getId(feature);
+            if (id == null || !featureFilter.test(id)) {
+                continue;
+            }
+
+            random.setDecoratorSeed(populationSeed, index, FeatureSeeding.ORE_STEP);
+            feature.generate(world, generator, random, origin);
+            ran++;
+        }
+        OreLedger.endChunk(chunkPos);
+        OreBudget.endChunk();
+        AllocationProbe.chunkDone();
+        return ran;
+    }
+
+    /**
+     * Whether the eight neighbours of the chunk are loaded with their biomes.
+     * Never loads or generates a chunk: on the server thread that would mean
+     * generation work inside the tick, and new chunks at the edge of the
+     * explored area that nothing asked for.
+     */
+    public static boolean neighboursLoaded(ServerWorld world, ChunkPos chunkPos) {
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if ((dx != 0 || dz != 0)
+                        && world.getChunk(chunkPos.x + dx, chunkPos.z + dz, ChunkStatus.BIOMES, false) == null) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
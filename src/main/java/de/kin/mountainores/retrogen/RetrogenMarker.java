@@ -0,0 +1,40 @@
+package de.kin.mountainores.retrogen;
+
+import com.mojang.serialization.Codec;
+import net.fabricmc.fabric.api.attachment.v1.AttachmentRegistry;
+import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * Persistent per-chunk flag recording that a chunk already contains
+ * MountainOres ore, either because it was generated with the mod installed
+ * or because retrogen processed it.
+ *
+ * <p>The flag is stored with the chunk itself, so it is saved atomically with
+ * the blocks it describes. The region bitsets in {@link RetrogenCheckpoint}
+ * are only a fast skip index on top of it: after a crash they may lag behind,
+ * but a chunk whose ore was actually saved is never processed twice.
+ */
+@SuppressWarnings("UnstableApiUsage")
+public final class RetrogenMarker {
+
+    public static final AttachmentType<Boolean> DONE = AttachmentRegistry.create(
+            Identifier.of("mountainores", "retrogen_done"),
+            builder -> builder.persistent(Codec.BOOL)
+    );
+
+    private RetrogenMarker() {}
+
+    /** Forces class loading so the attachment type is registered during init. */
+    public static void register() {
+    }
+
+    public static boolean isDone(Chunk chunk) {
+        return Boolean.TRUE.equals(chunk.getAttached(DONE));
+    }
+
+    public static void markDone(Chunk chunk) {
+        chunk.setAttached(DONE, Boolean.TRUE);
+    }
+}
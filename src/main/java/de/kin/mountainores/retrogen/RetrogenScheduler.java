@@ -0,0 +1,348 @@
+package de.kin.mountainores.retrogen;
+
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.MountainOresConfig;
+import de.kin.mountainores.WorldGenRegistrar;
+import de.kin.mountainores.worldgen.RegionContext;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+import net.minecraft.world.dimension.DimensionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Retro-generates MountainOres ore into Overworld chunks that existed before
+ * the mod was installed.
+ *
+ * <p>Work happens on the server thread at the end of each tick, limited to
+ * {@code retrogenTickBudgetMs}. The chunk list is taken from the region file
+ * headers, progress is kept in per-region bitsets and checkpointed to
+ * {@code data/mountainores_retrogen.bin} every {@code retrogenCheckpointSeconds}.
+ * A run that was active when the server stopped (or crashed) resumes on the
+ * next start.
+ *
+ * <p>Feature selection needs the biomes of a chunk's eight neighbours, so a
+ * chunk is only processed when all of them are stored in the region files.
+ * Chunks at the edge of the explored area are left unprocessed instead of
+ * generating new neighbours; a later run picks them up once the neighbours
+ * exist.
+ */
+@SuppressWarnings("null")
+public final class RetrogenScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("mountainores");
+
+    private static final String CHECKPOINT_FILE = "mountainores_retrogen.bin";
+
+    private static RetrogenScheduler instance;
+
+    private final ServerWorld world;
+    private final Path regionDir;
+    private final Path checkpointFile;
+    private final RetrogenCheckpoint checkpoint;
+
+    // Chunk cursor (rebuilt from region headers whenever a run starts)
+    private Map<Long, RegionChunkMask> present;
+    private Iterator<Map.Entry<Long, RegionChunkMask>> regionCursor;
+    private long currentRegionKey;
+    private RegionChunkMask currentPending;
+    private int currentIndex;
+    // Keeps the region being walked cached (RegionContext)
+    private RegionContext.Batch currentBatch;
+
+    private int totalChunks;
+    private int generatedThisRun;
+    private int failedThisRun;
+    private int deferredThisRun;
+    private long lastCheckpointNanos;
+    private long runStartNanos;
+
+    private RetrogenScheduler(ServerWorld world, Path worldDir, RetrogenCheckpoint checkpoint) {
+        this.world = world;
+        this.regionDir = worldDir.resolve("region");
+        this.checkpointFile = worldDir.resolve("data").resolve(CHECKPOINT_FILE);
+        this.checkpoint = checkpoint;
+    }
+
+    // ── Lifecycle ───────────────────────────────────────────────────────
+
+    public static void register() {
+        ServerLifecycleEvents.SERVER_STARTED.register(RetrogenScheduler::onServerStarted);
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> onServerStopping());
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (instance != null) {
+                instance.tick();
+            }
+        });
+    }
+
+    private static void onServerStarted(MinecraftServer server) {
+        ServerWorld overworld = server.getOverworld();
+        Path worldDir = DimensionType.getSaveDirectory(World.OVERWORLD, server.getSavePath(WorldSavePath.ROOT));
+        Path file = worldDir.resolve("data").resolve(CHECKPOINT_FILE);
+
+        RetrogenCheckpoint checkpoint;
+        try {
+            checkpoint = RetrogenCheckpoint.read(file);
+        } catch (IOException e) {
+            LOGGER.warn("[mountainores] Failed to read retrogen checkpoint {} (starting fresh): {}", file, e.toString());
+            checkpoint = RetrogenCheckpoint.empty();
+        }
+
+        instance = new RetrogenScheduler(overworld, worldDir, checkpoint);
+        if (checkpoint.running && checkpoint.removeVanillaOres && !canRemoveVanillaOres()) {
+            LOGGER.warn("[mountainores] Not resuming retrogen: it strips vanilla ores, which requires overrideVanillaOres = true");
+            checkpoint.running = false;
+        } else if (checkpoint.running) {
+            LOGGER.info("[mountainores] Resuming retrogen ({} chunks already processed)", checkpoint.processedCount());
+            instance.beginRun();
+        }
+    }
+
+    private static void onServerStopping() {
+        if (instance != null) {
+            instance.releaseRegion();
+            instance.saveCheckpoint();
+            instance = null;
+        }
+    }
+
+    /** The scheduler of the running server, or {@code null} if no server is running. */
+    public static RetrogenScheduler get() {
+        return instance;
+    }
+
+    // ── Control ─────────────────────────────────────────────────────────
+
+    /**
+     * Starts (or continues) retrogen. Chunks that were already processed are skipped.
+     *
+     * @return the number of chunks still to process
+     * @throws IllegalStateException if {@code removeVanillaOres} is set without {@code overrideVanillaOres}
+     */
+    public int start(boolean removeVanillaOres) {
+        if (removeVanillaOres && !canRemoveVanillaOres()) {
+            throw new IllegalStateException("removeVanillaOres requires overrideVanillaOres = true");
+        }
+        checkpoint.running = true;
+        checkpoint.removeVanillaOres = removeVanillaOres;
+        beginRun();
+        saveCheckpoint();
+        return totalChunks - checkpoint.processedCount();
+    }
+
+    public void pause() {
+        checkpoint.running = false;
+        releaseRegion();
+        saveCheckpoint();
+    }
+
+    /** Forgets all progress. Chunks stay protected by their {@link RetrogenMarker}. */
+    public void reset() {
+        checkpoint.running = false;
+        checkpoint.processed.clear();
+        present = null;
+        regionCursor = null;
+        currentPending = null;
+        releaseRegion();
+        saveCheckpoint();
+    }
+
+    public boolean isRunning() {
+        return checkpoint.running;
+    }
+
+    public String describeStatus() {
+        int processed = checkpoint.processedCount();
+        if (!checkpoint.running) {
+            return String.format("Retrogen idle: %d chunks processed%s",
+                    processed, present != null ? " of " + totalChunks : "");
+        }
+
+        double seconds = (System.nanoTime() - runStartNanos) / 1.0e9;
+        double rate = seconds > 0 ? generatedThisRun / seconds : 0.0;
+        return String.format("Retrogen running: %d/%d chunks processed, %d retro-generated this run (%.1f chunks/s), %d failed, "
+                        + "%d left for a later run (neighbours missing), removeVanillaOres=%s",
+                processed, totalChunks, generatedThisRun, rate, failedThisRun, deferredThisRun, checkpoint.removeVanillaOres);
+    }
+
+    // ── Work loop ───────────────────────────────────────────────────────
+
+    private void beginRun() {
+        try {
+            present = RegionFileScanner.scan(regionDir);
+        } catch (IOException e) {
+            LOGGER.warn("[mountainores] Failed to scan region files in {}: {}", regionDir, e.toString());
+            checkpoint.running = false;
+            return;
+        }
+
+        totalChunks = 0;
+        for (RegionChunkMask mask : present.values()) {
+            totalChunks += mask.cardinality();
+        }
+        regionCursor = present.entrySet().iterator();
+        currentPending = null;
+        releaseRegion();
+        generatedThisRun = 0;
+        failedThisRun = 0;
+        deferredThisRun = 0;
+        runStartNanos = System.nanoTime();
+        lastCheckpointNanos = runStartNanos;
+
+        LOGGER.info("[mountainores] Retrogen started: {} chunks in {} regions, removeVanillaOres={}",
+                totalChunks, present.size(), checkpoint.removeVanillaOres);
+    }
+
+    private void tick() {
+        if (!checkpoint.running || regionCursor == null) {
+            return;
+        }
+
+        MountainOresConfig cfg = MountainOres.CONFIG != null ? MountainOres.CONFIG : new MountainOresConfig();
+        long budgetNanos = Math.max(1, cfg.retrogenTickBudgetMs) * 1_000_000L;
+        long start = System.nanoTime();
+
+        while (System.nanoTime() - start < budgetNanos) {
+            if (!advance()) {
+                finishRun();
+                return;
+            }
+            processChunk(currentRegionKey, currentIndex);
+            currentIndex++;
+        }
+
+        long now = System.nanoTime();
+        if (now - lastCheckpointNanos >= Math.max(1, cfg.retrogenCheckpointSeconds) * 1_000_000_000L) {
+            saveCheckpoint();
+        }
+    }
+
+    /**
+     * Moves the cursor to the next unprocessed chunk.
+     *
+     * @return {@code false} once every region has been walked
+     */
+    private boolean advance() {
+        while (true) {
+            if (currentPending != null) {
+                int next = currentPending.nextSet(currentIndex);
+                if (next >= 0) {
+                    currentIndex = next;
+                    return true;
+                }
+            }
+            releaseRegion();
+            if (!regionCursor.hasNext()) {
+                return false;
+            }
+
+            Map.Entry<Long, RegionChunkMask> region = regionCursor.next();
+            currentRegionKey = region.getKey();
+            currentPending = region.getValue().andNot(checkpoint.processedIn(currentRegionKey));
+            currentIndex = 0;
+            currentBatch = RegionContext.batch(world, RegionKeys.regionX(currentRegionKey), RegionKeys.regionZ(currentRegionKey));
+        }
+    }
+
+    private void processChunk(long regionKey, int index) {
+        int chunkX = (RegionKeys.regionX(regionKey) << 5) + (index & 31);
+        int chunkZ = (RegionKeys.regionZ(regionKey) << 5) + (index >> 5);
+        boolean removeVanillaOres = checkpoint.removeVanillaOres && canRemoveVanillaOres();
+        if (!neighboursOnDisk(chunkX, chunkZ)) {
+            // Not marked processed, so the next run retries it
+            deferredThisRun++;
+            return;
+        }
+
+        try {
+            // Loads the chunk from disk. Chunks stored below FULL status are generated here,
+            // which runs the MountainOres features and marks them done through the normal path.
+            WorldChunk chunk = world.getChunk(chunkX, chunkZ);
+            if (!RetrogenMarker.isDone(chunk)) {
+                if (!RetrogenChunkProcessor.neighboursLoaded(world, chunk.getPos())) {
+                    deferredThisRun++;
+                    return;
+                }
+                if (removeVanillaOres) {
+                    VanillaOreStripper.strip(world, chunk);
+                }
+                RetrogenChunkProcessor.generate(world, chunk, id -> shouldRetrogen(id, removeVanillaOres));
+                RetrogenMarker.markDone(chunk);
+                generatedThisRun++;
+            }
+        } catch (RuntimeException e) {
+            failedThisRun++;
+            LOGGER.warn("[mountainores] Retrogen failed for chunk [{}, {}]: {}", chunkX, chunkZ, e.toString());
+        }
+
+        checkpoint.processedIn(regionKey).set(index);
+    }
+
+    /** Whether the region file headers list all eight neighbours of the chunk. */
+    private boolean neighboursOnDisk(int chunkX, int chunkZ) {
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int x = chunkX + dx;
+                int z = chunkZ + dz;
+                RegionChunkMask mask = present.get(RegionKeys.key(x >> 5, z >> 5));
+                if (mask == null || !mask.get(RegionChunkMask.index(x, z))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stripping is only safe when the underground replacements exist: without
+     * {@code overrideVanillaOres} the chunks would be left without ore below Y 64.
+     */
+    private static boolean canRemoveVanillaOres() {
+        return MountainOres.CONFIG != null && MountainOres.CONFIG.overrideVanillaOres;
+    }
+
+    private static boolean shouldRetrogen(Identifier placedFeatureId, boolean removeVanillaOres) {
+        if (!MountainOres.MOD_ID.equals(placedFeatureId.getNamespace())) {
+            return false;
+        }
+        // Without stripping, the underground replacements would double the existing vanilla ore.
+        return removeVanillaOres || !WorldGenRegistrar.isUndergroundReplacement(placedFeatureId.getPath());
+    }
+
+    private void releaseRegion() {
+        if (currentBatch != null) {
+            currentBatch.close();
+            currentBatch = null;
+        }
+    }
+
+    private void finishRun() {
+        checkpoint.running = false;
+        regionCursor = null;
+        currentPending = null;
+        releaseRegion();
+        saveCheckpoint();
+        LOGGER.info("[mountainores] Retrogen finished: {} chunks retro-generated, {} failed", generatedThisRun, failedThisRun);
+    }
+
+    private void saveCheckpoint() {
+        lastCheckpointNanos = System.nanoTime();
+        try {
+            checkpoint.write(checkpointFile);
+        } catch (IOException e) {
+            LOGGER.warn("[mountainores] Failed to write retrogen checkpoint {}: {}", checkpointFile, e.toString());
+        }
+    }
+}
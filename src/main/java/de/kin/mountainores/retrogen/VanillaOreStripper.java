@@ -0,0 +1,154 @@
+package de.kin.mountainores.retrogen;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.structure.StructurePiece;
+import net.minecraft.structure.StructureStart;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Map.entry;
+
+/**
+ * Turns the vanilla ores that {@code overrideVanillaOres} would have
+ * suppressed back into their host rock before retrogen adds MountainOres ore.
+ *
+ * <p>Only ore within the Y range of the vanilla placed features for that ore
+ * (plus a few blocks for the vein's spread) is stripped, and nothing inside
+ * the bounding box of a structure piece, so that ore in mineshafts, trail
+ * ruins and the like stays. The stripper cannot tell feature ore from other
+ * ore of the same kind in that range, so the following is lost as well:
+ * <ul>
+ *   <li>copper and iron ore of noise ore veins (Y 0 to 50 and -60 to -8); their
+ *       raw ore blocks and granite/tuff filler stay,</li>
+ *   <li>ore blocks players placed outside structures, e.g. in builds.</li>
+ * </ul>
+ */
+final class VanillaOreStripper {
+
+    /** Vanilla ore veins reach this far from the Y range their placement samples. */
+    private static final int VEIN_SPREAD = 4;
+
+    /** Host rock and the Y range the vanilla placed features of the ore sample (inclusive). */
+    private record Host(BlockState rock, int minY, int maxY) {
+
+        boolean covers(int y) {
+            return y >= minY - VEIN_SPREAD && y <= maxY + VEIN_SPREAD;
+        }
+    }
+
+    private static final BlockState STONE = Blocks.STONE.getDefaultState();
+    private static final BlockState DEEPSLATE = Blocks.DEEPSLATE.getDefaultState();
+    // Integer.MIN_VALUE / MAX_VALUE: anchored to the world's bottom / top
+    private static final int BOTTOM = Integer.MIN_VALUE + VEIN_SPREAD;
+    private static final int TOP = Integer.MAX_VALUE - VEIN_SPREAD;
+
+    private static final Map<Block, Host> HOSTS = Map.ofEntries(
+            // ore_coal_lower (0..192), ore_coal_upper (136..top)
+            entry(Blocks.COAL_ORE, new Host(STONE, 0, TOP)),
+            entry(Blocks.DEEPSLATE_COAL_ORE, new Host(DEEPSLATE, 0, TOP)),
+            // ore_iron_small (bottom..72), ore_iron_middle (-24..56), ore_iron_upper (80..384)
+            entry(Blocks.IRON_ORE, new Host(STONE, BOTTOM, 384)),
+            entry(Blocks.DEEPSLATE_IRON_ORE, new Host(DEEPSLATE, BOTTOM, 384)),
+            // ore_copper, ore_copper_large (-16..112)
+            entry(Blocks.COPPER_ORE, new Host(STONE, -16, 112)),
+            entry(Blocks.DEEPSLATE_COPPER_ORE, new Host(DEEPSLATE, -16, 112)),
+            // ore_gold (-64..32), ore_gold_lower (-64..-48), ore_gold_extra (32..256)
+            entry(Blocks.GOLD_ORE, new Host(STONE, -64, 256)),
+            entry(Blocks.DEEPSLATE_GOLD_ORE, new Host(DEEPSLATE, -64, 256)),
+            // ore_redstone (bottom..15), ore_redstone_lower (bottom-32..bottom+32)
+            entry(Blocks.REDSTONE_ORE, new Host(STONE, BOTTOM, 15)),
+            entry(Blocks.DEEPSLATE_REDSTONE_ORE, new Host(DEEPSLATE, BOTTOM, 15)),
+            // ore_lapis (-32..32), ore_lapis_buried (bottom..64)
+            entry(Blocks.LAPIS_ORE, new Host(STONE, BOTTOM, 64)),
+            entry(Blocks.DEEPSLATE_LAPIS_ORE, new Host(DEEPSLATE, BOTTOM, 64)),
+            // ore_diamond* (bottom-80..bottom+80)
+            entry(Blocks.DIAMOND_ORE, new Host(STONE, BOTTOM, 16)),
+            entry(Blocks.DEEPSLATE_DIAMOND_ORE, new Host(DEEPSLATE, BOTTOM, 16)),
+            // ore_emerald (-16..480)
+            entry(Blocks.EMERALD_ORE, new Host(STONE, -16, 480)),
+            entry(Blocks.DEEPSLATE_EMERALD_ORE, new Host(DEEPSLATE, -16, 480))
+    );
+
+    /** Highest Y any vanilla ore feature reaches, apart from coal (which goes to the top). */
+    private static final int MAX_FEATURE_Y = 480 + VEIN_SPREAD;
+
+    private VanillaOreStripper() {}
+
+    /**
+     * @return the number of ore blocks replaced
+     */
+    static int strip(ServerWorld world, WorldChunk chunk) {
+        ChunkPos chunkPos = chunk.getPos();
+        ChunkSection[] sections = chunk.getSectionArray();
+        List<BlockBox> structures = structurePieces(world, chunk);
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int replaced = 0;
+
+        for (int i = 0; i < sections.length; i++) {
+            ChunkSection section = sections[i];
+            int baseY = ChunkSectionPos.getBlockCoord(chunk.sectionIndexToCoord(i));
+            // Palette check first: most sections contain no ore at all. Above the
+            // emerald range only coal can be feature ore.
+            boolean coalOnly = baseY > MAX_FEATURE_Y;
+            if (section.isEmpty() || !section.getBlockStateContainer().hasAny(state -> coalOnly
+                    ? state.isOf(Blocks.COAL_ORE) || state.isOf(Blocks.DEEPSLATE_COAL_ORE)
+                    : HOSTS.containsKey(state.getBlock()))) {
+                continue;
+            }
+
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        Host host = HOSTS.get(section.getBlockState(x, y, z).getBlock());
+                        if (host == null || !host.covers(baseY + y)) {
+                            continue;
+                        }
+                        pos.set(chunkPos.getStartX() + x, baseY + y, chunkPos.getStartZ() + z);
+                        if (insideAny(structures, pos)) {
+                            continue;
+                        }
+                        world.setBlockState(pos, host.rock(), Block.NOTIFY_LISTENERS);
+                        replaced++;
+                    }
+                }
+            }
+        }
+        return replaced;
+    }
+
+    /** Bounding boxes of the structure pieces that reach into the chunk. */
+    private static List<BlockBox> structurePieces(ServerWorld world, WorldChunk chunk) {
+        ChunkPos chunkPos = chunk.getPos();
+        BlockBox chunkBox = new BlockBox(chunkPos.getStartX(), world.getBottomY(), chunkPos.getStartZ(),
+                chunkPos.getEndX(), world.getBottomY() + world.getHeight() - 1, chunkPos.getEndZ());
+        List<BlockBox> boxes = new ArrayList<>();
+        for (StructureStart start : world.getStructureAccessor().getStructureStarts(chunkPos, structure -> true)) {
+            for (StructurePiece piece : start.getChildren()) {
+                if (piece.getBoundingBox().intersects(chunkBox)) {
+                    boxes.add(piece.getBoundingBox());
+                }
+            }
+        }
+        return boxes;
+    }
+
+    private static boolean insideAny(List<BlockBox> boxes, BlockPos pos) {
+        for (BlockBox box : boxes) {
+            if (box.contains(pos)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
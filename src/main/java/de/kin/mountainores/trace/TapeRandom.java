@@ -0,0 +1,122 @@
+package de.kin.mountainores.trace;
+
+import de.kin.mountainores.engine.EngineRandom;
+
+import java.util.Arrays;
+
+/**
+ * {@link EngineRandom} that records every draw of another random (capture),
+ * or plays a recorded sequence back (replay). Playback checks that each call
+ * has the same kind and bound as the recorded one, so a grower that consumes
+ * the random differently is reported instead of silently producing other
+ * blocks.
+ */
+public final class TapeRandom implements EngineRandom {
+
+    static final byte INT = 0;
+    static final byte FLOAT = 1;
+    static final byte DOUBLE = 2;
+
+    /** Thrown on playback when the grower asks for a different draw than the recorded one. */
+    public static final class Desync extends RuntimeException {
+        Desync(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private final EngineRandom source;
+    private byte[] kinds;
+    private int[] bounds;
+    private long[] values;
+    private int length;
+    private int position;
+
+    private TapeRandom(EngineRandom source, byte[] kinds, int[] bounds, long[] values, int length) {
+        this.source = source;
+        this.kinds = kinds;
+        this.bounds = bounds;
+        this.values = values;
+        this.length = length;
+    }
+
+    /** Records the draws of {@code source}. */
+    public static TapeRandom recording(EngineRandom source) {
+        return new TapeRandom(source, new byte[64], new int[64], new long[64], 0);
+    }
+
+    /** Plays back a recorded tape from the start. */
+    public static TapeRandom playback(byte[] kinds, int[] bounds, long[] values) {
+        return new TapeRandom(null, kinds, bounds, values, kinds.length);
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (source == null) {
+            return (int) next(INT, bound);
+        }
+        int value = source.nextInt(bound);
+        append(INT, bound, value);
+        return value;
+    }
+
+    @Override
+    public float nextFloat() {
+        if (source == null) {
+            return Float.intBitsToFloat((int) next(FLOAT, 0));
+        }
+        float value = source.nextFloat();
+        append(FLOAT, 0, Float.floatToRawIntBits(value));
+        return value;
+    }
+
+    @Override
+    public double nextDouble() {
+        if (source == null) {
+            return Double.longBitsToDouble(next(DOUBLE, 0));
+        }
+        double value = source.nextDouble();
+        append(DOUBLE, 0, Double.doubleToRawLongBits(value));
+        return value;
+    }
+
+    /** Number of draws recorded (capture) or consumed (playback). */
+    public int size() {
+        return source == null ? position : length;
+    }
+
+    byte[] kinds() {
+        return Arrays.copyOf(kinds, length);
+    }
+
+    int[] bounds() {
+        return Arrays.copyOf(bounds, length);
+    }
+
+    long[] values() {
+        return Arrays.copyOf(values, length);
+    }
+
+    private long next(byte kind, int bound) {
+        if (position >= length) {
+            throw new Desync("tape exhausted after " + length + " draws");
+        }
+        if (kinds[position] != kind || bounds[position] != bound) {
+            throw new Desync("draw " + position + " expected kind " + kinds[position] + " bound " + bounds[position]
+                    + ", got kind " + kind + " bound " + bound);
+        }
+        return values[position++];
+    }
+
+    private void append(byte kind, int bound, long value) {
+        if (length == kinds.length) {
+            int capacity = length * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            bounds = Arrays.copyOf(bounds, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        kinds[length] = kind;
+        bounds[length] = bound;
+        values[length] = value;
+        length++;
+    }
+}
@@ -0,0 +1,295 @@
+package de.kin.mountainores.trace;
+
+import de.kin.mountainores.engine.ClusterGrower;
+import de.kin.mountainores.engine.EngineRandom;
+import de.kin.mountainores.engine.VeinGrower;
+import de.kin.mountainores.engine.VoxelAccess;
+import de.kin.mountainores.engine.WriteBounds;
+import de.kin.mountainores.engine.minecraft.MinecraftRandom;
+import de.kin.mountainores.engine.minecraft.OreConfigTargets;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.command.argument.BlockArgumentParser;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.World;
+import net.minecraft.world.dimension.DimensionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Captures a sample of real vein and lode invocations into a trace file for
+ * {@link TraceReplay} ({@code /mountainores trace start}).
+ *
+ * <p>A sampled invocation first reads the box of blocks the grower can reach
+ * (its write bounds plus one block, origin ± reach in Y), then runs with a
+ * {@link TapeRandom} and a voxel wrapper that record its random draws and
+ * placements. The grower sees the same blocks and draws as without capture,
+ * so the ore layout is unchanged; the extra reads count against the chunk
+ * budget. Sampling uses its own random, not the world's.
+ */
+public final class TraceCapture {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("mountainores");
+
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+
+    private record Session(TraceFile.Writer writer, Path file, double rate) {
+    }
+
+    private static volatile Session session;
+
+    private TraceCapture() {}
+
+    public static void register() {
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> stop());
+    }
+
+    // ── Control ─────────────────────────────────────────────────────────
+
+    /**
+     * Starts capturing {@code rate} (0..1] of all vein and lode invocations
+     * into a new file under {@code <overworld>/data/mountainores_traces}.
+     */
+    public static synchronized Path start(MinecraftServer server, double rate) throws IOException {
+        stop();
+        Path dir = DimensionType.getSaveDirectory(World.OVERWORLD, server.getSavePath(WorldSavePath.ROOT))
+                .resolve("data").resolve("mountainores_traces");
+        Path file = dir.resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".motr");
+        session = new Session(new TraceFile.Writer(file), file, rate);
+        LOGGER.info("[mountainores] Capturing {}% of vein invocations to {}", rate * 100.0, file);
+        return file;
+    }
+
+    /** @return the number of invocations captured, or -1 if no capture was running */
+    public static synchronized int stop() {
+        Session current = session;
+        if (current == null) {
+            return -1;
+        }
+        session = null;
+        try {
+            current.writer().close();
+        } catch (IOException e) {
+            LOGGER.warn("[mountainores] Failed to close trace {}: {}", current.file(), e.toString());
+        }
+        LOGGER.info("[mountainores] Trace capture stopped: {} invocations in {}", current.writer().records(), current.file());
+        return current.writer().records();
+    }
+
+    public static String describe() {
+        Session current = session;
+        if (current == null) {
+            return "Trace capture idle";
+        }
+        return String.format("Capturing %.2f%% of invocations: %d so far in %s",
+                current.rate() * 100.0, current.writer().records(), current.file());
+    }
+
+    // ── Capture ─────────────────────────────────────────────────────────
+
+    /**
+     * Decides whether this vein is captured and, if so, snapshots its
+     * surroundings. Grow with {@link Recording#voxels()} and
+     * {@link Recording#random()}, then call {@link Recording#finish}.
+     *
+     * @return {@code null} if the invocation is not captured
+     */
+    public static Recording sampleVein(String featureId, VeinGrower grower, VoxelAccess<BlockState> voxels,
+                                       OreConfigTargets targets, EngineRandom random,
+                                       int x, int y, int z, int targetBlocks, int missLimit, WriteBounds bounds) {
+        return sample(featureId, VeinTrace.Kind.VEIN, grower.shrinksOnExposure(), grower.exposureShrinkFactor(),
+                grower.countsFluidsAsExposure(), voxels, targets, random, x, y, z, targetBlocks, missLimit, bounds);
+    }
+
+    /** Like {@link #sampleVein}, for a lode of {@code oreName}. */
+    public static Recording sampleLode(String oreName, ClusterGrower grower, VoxelAccess<BlockState> voxels,
+                                       OreConfigTargets targets, EngineRandom random,
+                                       int x, int y, int z, int targetBlocks, int missLimit, WriteBounds bounds) {
+        if (session == null) {
+            return null;
+        }
+        return sample("mountainores:lode__selector/" + oreName, VeinTrace.Kind.LODE, false, grower.exposureShrinkFactor(), true,
+                voxels, targets, random, x, y, z, targetBlocks, missLimit, bounds);
+    }
+
+    private static Recording sample(String featureId, VeinTrace.Kind kind, boolean shrinkOnExposure,
+                                    float exposureShrinkFactor, boolean countFluidsAsExposure,
+                                    VoxelAccess<BlockState> voxels, OreConfigTargets targets, EngineRandom random,
+                                    int x, int y, int z, int targetBlocks, int missLimit, WriteBounds bounds) {
+        Session current = session;
+        if (current == null || ThreadLocalRandom.current().nextDouble() >= current.rate()) {
+            return null;
+        }
+        if (y < voxels.bottomY() || y >= voxels.topY()) {
+            return null;
+        }
+
+        int reach = switch (kind) {
+            // Start search ±2, growth by one face per block, exposure check one beyond
+            case VEIN -> targetBlocks + 3;
+            case LODE -> (int) Math.ceil(Math.max(2.0, Math.cbrt((double) targetBlocks) * 2.0)) + 2;
+        };
+        int minX = Math.max(x - reach, bounds.minX() - 1);
+        int maxX = Math.min(x + reach, bounds.maxX() + 1);
+        int minZ = Math.max(z - reach, bounds.minZ() - 1);
+        int maxZ = Math.min(z + reach, bounds.maxZ() + 1);
+        int minY = Math.max(y - reach, voxels.bottomY());
+        int maxY = Math.min(y + reach, voxels.topY() - 1);
+
+        Recording recording = new Recording(current, voxels, targets, random);
+        recording.header = new VeinTrace(kind, featureId, shrinkOnExposure, exposureShrinkFactor, countFluidsAsExposure,
+                x, y, z, targetBlocks, missLimit, bounds, voxels.bottomY(), voxels.topY(),
+                targets.discardOnAirChance(), null, null, null, null, false);
+        recording.snapshot(minX, minY, minZ, maxX - minX + 1, maxY - minY + 1, maxZ - minZ + 1);
+        return recording;
+    }
+
+    /** One captured invocation in progress. */
+    public static final class Recording {
+
+        private final Session session;
+        private final VoxelAccess<BlockState> voxels;
+        private final OreConfigTargets targets;
+        private final TapeRandom random;
+        private final Map<BlockState, Integer> paletteIndex = new IdentityHashMap<>();
+        private final List<BlockState> palette = new ArrayList<>();
+        private VeinTrace header;
+        private VeinTrace.Snapshot snapshot;
+        private int[] placements = new int[64];
+        private int placed;
+
+        private Recording(Session session, VoxelAccess<BlockState> voxels, OreConfigTargets targets, EngineRandom random) {
+            this.session = session;
+            this.voxels = voxels;
+            this.targets = targets;
+            this.random = TapeRandom.recording(random);
+        }
+
+        /** The random to grow with; records every draw. */
+        public EngineRandom random() {
+            return random;
+        }
+
+        /** The blocks to grow in; records every placement. */
+        public VoxelAccess<BlockState> voxels() {
+            return new VoxelAccess<>() {
+                @Override
+                public int bottomY() {
+                    return voxels.bottomY();
+                }
+
+                @Override
+                public int topY() {
+                    return voxels.topY();
+                }
+
+                @Override
+                public BlockState getState(int x, int y, int z) {
+                    return voxels.getState(x, y, z);
+                }
+
+                @Override
+                public void setState(int x, int y, int z, BlockState state) {
+                    voxels.setState(x, y, z, state);
+                    if (placed + 4 > placements.length) {
+                        placements = Arrays.copyOf(placements, placements.length * 2);
+                    }
+                    placements[placed++] = x;
+                    placements[placed++] = y;
+                    placements[placed++] = z;
+                    placements[placed++] = index(state);
+                }
+
+                @Override
+                public boolean isAir(int x, int y, int z) {
+                    return voxels.isAir(x, y, z);
+                }
+
+                @Override
+                public boolean hasFluid(int x, int y, int z) {
+                    return voxels.hasFluid(x, y, z);
+                }
+            };
+        }
+
+        /** Writes the trace. A failed write stops the capture. */
+        public void finish(boolean generated) {
+            VeinTrace.Palette resolved = resolvePalette();
+            VeinTrace trace = new VeinTrace(header.kind(), header.featureId(), header.shrinkOnExposure(),
+                    header.exposureShrinkFactor(), header.countFluidsAsExposure(), header.x(), header.y(), header.z(),
+                    header.targetBlocks(), header.missLimit(), header.bounds(), header.bottomY(), header.topY(),
+                    header.discardOnAirChance(), resolved, snapshot,
+                    new VeinTrace.Tape(random.kinds(), random.bounds(), random.values()),
+                    Arrays.copyOf(placements, placed), generated);
+            try {
+                session.writer().append(trace);
+            } catch (IOException e) {
+                LOGGER.warn("[mountainores] Failed to write trace {}, stopping capture: {}", session.file(), e.toString());
+                TraceCapture.stop();
+            }
+        }
+
+        private void snapshot(int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+            index(AIR);
+            short[] cells = new short[sizeX * sizeY * sizeZ];
+            int i = 0;
+            for (int ly = 0; ly < sizeY; ly++) {
+                for (int lz = 0; lz < sizeZ; lz++) {
+                    for (int lx = 0; lx < sizeX; lx++) {
+                        cells[i++] = (short) index(voxels.getState(minX + lx, minY + ly, minZ + lz));
+                    }
+                }
+            }
+            snapshot = new VeinTrace.Snapshot(minX, minY, minZ, sizeX, sizeY, sizeZ, cells);
+        }
+
+        /** Resolves flags and ore matches for every state seen, adding the ores to the palette. */
+        private VeinTrace.Palette resolvePalette() {
+            // Rule tests get their own random: matching here must not draw from the feature's
+            Random matchRandom = Random.create(0L);
+            OreConfigTargets matcher = new OreConfigTargets(targets.config(), matchRandom);
+            EngineRandom engineRandom = new MinecraftRandom(matchRandom);
+            List<Short> matches = new ArrayList<>();
+            for (int i = 0; i < palette.size(); i++) {
+                BlockState ore = matcher.match(palette.get(i), engineRandom);
+                matches.add((short) (ore != null ? index(ore) : -1));
+            }
+
+            int size = palette.size();
+            String[] names = new String[size];
+            byte[] flags = new byte[size];
+            short[] resolved = new short[size];
+            for (int i = 0; i < size; i++) {
+                BlockState state = palette.get(i);
+                names[i] = BlockArgumentParser.stringifyBlockState(state);
+                flags[i] = (byte) ((state.isAir() ? VeinTrace.AIR : 0) | (state.getFluidState().isEmpty() ? 0 : VeinTrace.FLUID));
+                resolved[i] = matches.get(i);
+            }
+            return new VeinTrace.Palette(names, flags, resolved, (short) (int) paletteIndex.get(AIR));
+        }
+
+        private int index(BlockState state) {
+            Integer index = paletteIndex.get(state);
+            if (index == null) {
+                index = palette.size();
+                palette.add(state);
+                paletteIndex.put(state, index);
+            }
+            return index;
+        }
+    }
+}
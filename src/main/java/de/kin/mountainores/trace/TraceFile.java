@@ -0,0 +1,83 @@
+package de.kin.mountainores.trace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped trace file: a header ({@code MOTR}, version) followed by
+ * length-prefixed {@link VeinTrace} records until the end of the file.
+ */
+public final class TraceFile {
+
+    private static final int MAGIC = 0x4D4F5452;
+    private static final int VERSION = 1;
+
+    private TraceFile() {}
+
+    /** Appends records from any thread; each record is written in one piece. */
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private int records;
+
+        public Writer(Path file) throws IOException {
+            Files.createDirectories(file.getParent());
+            this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file))));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        public void append(VeinTrace trace) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+            trace.write(new DataOutputStream(bytes));
+            synchronized (this) {
+                out.writeInt(bytes.size());
+                bytes.writeTo(out);
+                records++;
+            }
+        }
+
+        public synchronized int records() {
+            return records;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            out.close();
+        }
+    }
+
+    public static List<VeinTrace> read(Path file) throws IOException {
+        List<VeinTrace> traces = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a MountainOres trace: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported trace version " + version + ": " + file);
+            }
+            while (true) {
+                try {
+                    in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                traces.add(VeinTrace.read(in));
+            }
+        }
+        return traces;
+    }
+}
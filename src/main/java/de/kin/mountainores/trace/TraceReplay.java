@@ -0,0 +1,278 @@
+package de.kin.mountainores.trace;
+
+import de.kin.mountainores.engine.ClusterGrower;
+import de.kin.mountainores.engine.EngineRandom;
+import de.kin.mountainores.engine.GrowthStats;
+import de.kin.mountainores.engine.OreTargets;
+import de.kin.mountainores.engine.VeinGrower;
+import de.kin.mountainores.engine.VoxelAccess;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Offline replay of captured traces ({@code /mountainores trace}): every
+ * recorded vein and lode is grown again by the current engine against its
+ * captured surroundings, with its recorded random draws. Reports latency and
+ * allocation per feature and whether the blocks placed are identical to the
+ * capture. Needs no Minecraft classes.
+ *
+ * <pre>
+ * ./gradlew replayTrace --args="run/world/data/mountainores_traces/&lt;file&gt;.motr [--iterations N] [--warmup N]"
+ * </pre>
+ *
+ * <p>Exit code 1 if any invocation placed different blocks.
+ */
+public final class TraceReplay {
+
+    private TraceReplay() {}
+
+    private static final class FeatureStats {
+        long invocations;
+        long nanos;
+        long bytes;
+        int mismatches;
+        int desyncs;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Path> files = new ArrayList<>();
+        int iterations = 100;
+        int warmup = 20;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                default -> files.add(Path.of(args[i]));
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: TraceReplay <trace.motr>... [--iterations N] [--warmup N]");
+            System.exit(2);
+        }
+
+        List<VeinTrace> traces = new ArrayList<>();
+        for (Path file : files) {
+            traces.addAll(TraceFile.read(file));
+        }
+        System.out.printf("%d invocations from %d file(s), %d warm-up + %d measured rounds%n",
+                traces.size(), files.size(), warmup, iterations);
+
+        for (int round = 0; round < warmup; round++) {
+            for (VeinTrace trace : traces) {
+                replay(trace);
+            }
+        }
+
+        com.sun.management.ThreadMXBean threads = allocationBean();
+        Map<String, FeatureStats> stats = new TreeMap<>();
+        for (VeinTrace trace : traces) {
+            FeatureStats feature = stats.computeIfAbsent(trace.featureId(), id -> new FeatureStats());
+            Result first = replay(trace);
+            if (first.desync) {
+                feature.desyncs++;
+            } else if (!first.identical) {
+                feature.mismatches++;
+            }
+        }
+        for (int round = 0; round < iterations; round++) {
+            for (VeinTrace trace : traces) {
+                FeatureStats feature = stats.get(trace.featureId());
+                Run run = new Run(trace);
+                long bytes = threads != null ? threads.getCurrentThreadAllocatedBytes() : 0L;
+                long start = System.nanoTime();
+                try {
+                    TraceReplay.grow(trace, run.voxels, run.ore, run.random, run.stats);
+                } catch (TapeRandom.Desync e) {
+                    // Already reported; the time up to the desync still counts
+                }
+                feature.nanos += System.nanoTime() - start;
+                if (threads != null) {
+                    feature.bytes += threads.getCurrentThreadAllocatedBytes() - bytes;
+                }
+                feature.invocations++;
+            }
+        }
+
+        int failed = 0;
+        System.out.printf("%-52s %8s %10s %12s %s%n", "feature", "traces", "us/call", "bytes/call", "output");
+        for (Map.Entry<String, FeatureStats> entry : stats.entrySet()) {
+            FeatureStats feature = entry.getValue();
+            long calls = Math.max(1, feature.invocations);
+            String output = feature.desyncs > 0 ? feature.desyncs + " random desync(s)"
+                    : feature.mismatches > 0 ? feature.mismatches + " mismatch(es)" : "identical";
+            System.out.printf("%-52s %8d %10.2f %12d %s%n", entry.getKey(), feature.invocations / Math.max(1, iterations),
+                    feature.nanos / 1000.0 / calls, threads != null ? feature.bytes / calls : -1, output);
+            failed += feature.desyncs + feature.mismatches;
+        }
+        if (failed > 0) {
+            System.out.printf("%d invocation(s) differ from the capture%n", failed);
+            System.exit(1);
+        }
+    }
+
+    private record Result(boolean identical, boolean desync) {
+    }
+
+    /** One replay of a trace, set up outside the timed section. */
+    private static final class Run {
+        final VeinTrace trace;
+        final SnapshotVoxels voxels;
+        final TapeRandom random;
+        final OreTargets<Integer> ore;
+        final GrowthStats stats = new GrowthStats();
+
+        Run(VeinTrace trace) {
+            this.trace = trace;
+            this.voxels = new SnapshotVoxels(trace);
+            this.random = TapeRandom.playback(trace.tape().kinds(), trace.tape().bounds(), trace.tape().values());
+            this.ore = new PaletteTargets(trace.palette(), trace.discardOnAirChance());
+        }
+
+        Result grow() {
+            boolean generated;
+            try {
+                generated = TraceReplay.grow(trace, voxels, ore, random, stats);
+            } catch (TapeRandom.Desync e) {
+                return new Result(false, true);
+            }
+            boolean identical = generated == trace.generated() && Arrays.equals(voxels.placements(), trace.placements());
+            return new Result(identical, false);
+        }
+    }
+
+    /** Grows the trace's vein again on a copy of its snapshot, so a trace can be replayed any number of times. */
+    private static Result replay(VeinTrace trace) {
+        return new Run(trace).grow();
+    }
+
+    private static boolean grow(VeinTrace trace, VoxelAccess<Integer> voxels, OreTargets<Integer> ore, EngineRandom random,
+                                GrowthStats stats) {
+        return switch (trace.kind()) {
+            case VEIN -> new VeinGrower(trace.shrinkOnExposure(), trace.exposureShrinkFactor(), trace.countFluidsAsExposure())
+                    .grow(voxels, ore, random, trace.x(), trace.y(), trace.z(), trace.targetBlocks(), trace.missLimit(),
+                            trace.bounds(), stats);
+            case LODE -> new ClusterGrower(trace.exposureShrinkFactor())
+                    .grow(voxels, ore, random, trace.x(), trace.y(), trace.z(), trace.targetBlocks(), trace.missLimit(),
+                            trace.bounds(), stats);
+        };
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+
+    // ── Stand-in world ──────────────────────────────────────────────────
+
+    /** The captured box as a world; records what is placed, in order. */
+    private static final class SnapshotVoxels implements VoxelAccess<Integer> {
+
+        private final VeinTrace.Snapshot box;
+        private final short[] cells;
+        private final byte[] flags;
+        private final int outside;
+        private final int bottomY;
+        private final int topY;
+        private int[] placements = new int[64];
+        private int placed;
+
+        SnapshotVoxels(VeinTrace trace) {
+            this.box = trace.snapshot();
+            this.cells = box.cells().clone();
+            this.flags = trace.palette().flags();
+            this.outside = trace.palette().outside();
+            this.bottomY = trace.bottomY();
+            this.topY = trace.topY();
+        }
+
+        @Override
+        public int bottomY() {
+            return bottomY;
+        }
+
+        @Override
+        public int topY() {
+            return topY;
+        }
+
+        @Override
+        public Integer getState(int x, int y, int z) {
+            return state(x, y, z);
+        }
+
+        @Override
+        public void setState(int x, int y, int z, Integer state) {
+            int index = index(x, y, z);
+            if (index >= 0) {
+                cells[index] = state.shortValue();
+            }
+            if (placed + 4 > placements.length) {
+                placements = Arrays.copyOf(placements, placements.length * 2);
+            }
+            placements[placed++] = x;
+            placements[placed++] = y;
+            placements[placed++] = z;
+            placements[placed++] = state;
+        }
+
+        @Override
+        public boolean isAir(int x, int y, int z) {
+            return (flags[state(x, y, z)] & VeinTrace.AIR) != 0;
+        }
+
+        @Override
+        public boolean hasFluid(int x, int y, int z) {
+            return (flags[state(x, y, z)] & VeinTrace.FLUID) != 0;
+        }
+
+        int[] placements() {
+            return Arrays.copyOf(placements, placed);
+        }
+
+        private int state(int x, int y, int z) {
+            int index = index(x, y, z);
+            return index < 0 ? outside : cells[index];
+        }
+
+        private int index(int x, int y, int z) {
+            int lx = x - box.minX();
+            int ly = y - box.minY();
+            int lz = z - box.minZ();
+            if (lx < 0 || ly < 0 || lz < 0 || lx >= box.sizeX() || ly >= box.sizeY() || lz >= box.sizeZ()) {
+                return -1;
+            }
+            return (ly * box.sizeZ() + lz) * box.sizeX() + lx;
+        }
+    }
+
+    /** Ore targets resolved at capture time: which palette entry replaces which. */
+    private record PaletteTargets(VeinTrace.Palette palette, float discardOnAirChance) implements OreTargets<Integer> {
+
+        @Override
+        public Integer match(Integer current, EngineRandom random) {
+            short match = palette.matches()[current];
+            return match >= 0 ? Integer.valueOf(match) : null;
+        }
+
+        @Override
+        public boolean mayReplaceOwnOre() {
+            for (short match : palette.matches()) {
+                if (match >= 0 && palette.matches()[match] >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package de.kin.mountainores.trace;
+
+import de.kin.mountainores.engine.WriteBounds;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * One captured vein or lode: grower settings, call arguments, the blocks
+ * around it before it grew, the random draws it made and the blocks it
+ * placed. Block states are palette indices, so a trace can be replayed
+ * without Minecraft.
+ */
+public record VeinTrace(
+        Kind kind,
+        String featureId,
+        boolean shrinkOnExposure,
+        float exposureShrinkFactor,
+        boolean countFluidsAsExposure,
+        int x,
+        int y,
+        int z,
+        int targetBlocks,
+        int missLimit,
+        WriteBounds bounds,
+        int bottomY,
+        int topY,
+        float discardOnAirChance,
+        Palette palette,
+        Snapshot snapshot,
+        Tape tape,
+        int[] placements,
+        boolean generated
+) {
+
+    /** Which grower ran. */
+    public enum Kind {
+        VEIN,
+        LODE
+    }
+
+    static final byte AIR = 1;
+    static final byte FLUID = 2;
+
+    /**
+     * Block states seen by the grower: name (for reports), air/fluid flags and
+     * the palette index of the ore it is replaced with, or {@code -1}.
+     */
+    public record Palette(String[] names, byte[] flags, short[] matches, short outside) {
+    }
+
+    /** Palette indices of the box {@code [min, min + size)} around the origin, Y-major like {@code FlatVoxels}. */
+    public record Snapshot(int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, short[] cells) {
+    }
+
+    /** The grower's random draws, see {@link TapeRandom}. */
+    public record Tape(byte[] kinds, int[] bounds, long[] values) {
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeByte(kind.ordinal());
+        out.writeUTF(featureId);
+        out.writeBoolean(shrinkOnExposure);
+        out.writeFloat(exposureShrinkFactor);
+        out.writeBoolean(countFluidsAsExposure);
+        out.writeInt(x);
+        out.writeInt(y);
+        out.writeInt(z);
+        out.writeInt(targetBlocks);
+        out.writeInt(missLimit);
+        out.writeInt(bounds.minX());
+        out.writeInt(bounds.maxX());
+        out.writeInt(bounds.minZ());
+        out.writeInt(bounds.maxZ());
+        out.writeInt(bottomY);
+        out.writeInt(topY);
+        out.writeFloat(discardOnAirChance);
+
+        out.writeShort(palette.names().length);
+        for (int i = 0; i < palette.names().length; i++) {
+            out.writeUTF(palette.names()[i]);
+            out.writeByte(palette.flags()[i]);
+            out.writeShort(palette.matches()[i]);
+        }
+        out.writeShort(palette.outside());
+
+        out.writeInt(snapshot.minX());
+        out.writeInt(snapshot.minY());
+        out.writeInt(snapshot.minZ());
+        out.writeInt(snapshot.sizeX());
+        out.writeInt(snapshot.sizeY());
+        out.writeInt(snapshot.sizeZ());
+        for (short cell : snapshot.cells()) {
+            out.writeShort(cell);
+        }
+
+        out.writeInt(tape.kinds().length);
+        for (int i = 0; i < tape.kinds().length; i++) {
+            byte drawKind = tape.kinds()[i];
+            out.writeByte(drawKind);
+            switch (drawKind) {
+                case TapeRandom.INT -> {
+                    out.writeInt(tape.bounds()[i]);
+                    out.writeInt((int) tape.values()[i]);
+                }
+                case TapeRandom.FLOAT -> out.writeInt((int) tape.values()[i]);
+                default -> out.writeLong(tape.values()[i]);
+            }
+        }
+
+        out.writeInt(placements.length / 4);
+        for (int value : placements) {
+            out.writeInt(value);
+        }
+        out.writeBoolean(generated);
+    }
+
+    static VeinTrace read(DataInput in) throws IOException {
+        Kind kind = Kind.values()[in.readByte()];
+        String featureId = in.readUTF();
+        boolean shrinkOnExposure = in.readBoolean();
+        float exposureShrinkFactor = in.readFloat();
+        boolean countFluidsAsExposure = in.readBoolean();
+        int x = in.readInt();
+        int y = in.readInt();
+        int z = in.readInt();
+        int targetBlocks = in.readInt();
+        int missLimit = in.readInt();
+        WriteBounds bounds = new WriteBounds(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+        int bottomY = in.readInt();
+        int topY = in.readInt();
+        float discardOnAirChance = in.readFloat();
+
+        int paletteSize = in.readUnsignedShort();
+        String[] names = new String[paletteSize];
+        byte[] flags = new byte[paletteSize];
+        short[] matches = new short[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            names[i] = in.readUTF();
+            flags[i] = in.readByte();
+            matches[i] = in.readShort();
+        }
+        Palette palette = new Palette(names, flags, matches, in.readShort());
+
+        int minX = in.readInt();
+        int minY = in.readInt();
+        int minZ = in.readInt();
+        int sizeX = in.readInt();
+        int sizeY = in.readInt();
+        int sizeZ = in.readInt();
+        short[] cells = new short[sizeX * sizeY * sizeZ];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = in.readShort();
+        }
+        Snapshot snapshot = new Snapshot(minX, minY, minZ, sizeX, sizeY, sizeZ, cells);
+
+        int draws = in.readInt();
+        byte[] kinds = new byte[draws];
+        int[] drawBounds = new int[draws];
+        long[] values = new long[draws];
+        for (int i = 0; i < draws; i++) {
+            kinds[i] = in.readByte();
+            switch (kinds[i]) {
+                case TapeRandom.INT -> {
+                    drawBounds[i] = in.readInt();
+                    values[i] = in.readInt();
+                }
+                case TapeRandom.FLOAT -> values[i] = in.readInt();
+                default -> values[i] = in.readLong();
+            }
+        }
+        Tape tape = new Tape(kinds, drawBounds, values);
+
+        int[] placements = new int[in.readInt() * 4];
+        for (int i = 0; i < placements.length; i++) {
+            placements[i] = in.readInt();
+        }
+        boolean generated = in.readBoolean();
+
+        return new VeinTrace(kind, featureId, shrinkOnExposure, exposureShrinkFactor, countFluidsAsExposure,
+                x, y, z, targetBlocks, missLimit, bounds, bottomY, topY, discardOnAirChance,
+                palette, snapshot, tape, placements, generated);
+    }
+}
@@ -0,0 +1,195 @@
+package de.kin.mountainores.warmup;
+
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.MountainOresConfig;
+import de.kin.mountainores.bench.OreWorkload;
+import de.kin.mountainores.engine.GrowthStats;
+import de.kin.mountainores.engine.minecraft.BlockStateVoxels;
+import de.kin.mountainores.feature.EngineSettings;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.block.BlockState;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.random.ChunkRandom;
+import net.minecraft.util.math.random.Xoroshiro128PlusPlusRandom;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.ReadableContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+/**
+ * JIT warm-up of the ore generation path ({@code jitWarmup}).
+ *
+ * <p>Once the server has started, the block states of the 3×3 Overworld
+ * chunks around chunk (0, 0) are copied (loading them if needed), and a
+ * low-priority daemon thread generates {@code jitWarmupIterations} stand-in
+ * chunks: fresh {@link ChunkSection}s from those copies each time, running
+ * the {@link OreWorkload} of all ore features with the config's engine
+ * settings. Blocks are read and written through
+ * {@link BlockStateVoxels#standIn}, the same sections backend and the same
+ * paletted containers as in a generating chunk region, so the growers'
+ * {@code VoxelAccess} call sites see the receiver types of worldgen. The
+ * feature random is a {@link ChunkRandom} over Xoroshiro as during worldgen.
+ *
+ * <p>After the copy the world is never read or written, and nothing is
+ * recorded in the ledger, budgets, traces, allocation check or JFR.
+ *
+ * <p>At the end the time to steady state is logged: the wall time until the
+ * last stand-in chunk that was more than {@value #STEADY_TOLERANCE}× slower
+ * than the steady time (the median of the last quarter of iterations).
+ */
+public final class JitWarmup {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("mountainores");
+
+    /** The stand-in's centre chunk; {@link OreWorkload#origin} samples origins in it. */
+    private static final ChunkPos CENTER = new ChunkPos(0, 0);
+
+    private static final double STEADY_TOLERANCE = 1.25;
+
+    private static volatile boolean cancelled;
+
+    private JitWarmup() {}
+
+    public static void register() {
+        ServerLifecycleEvents.SERVER_STARTED.register(JitWarmup::start);
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> cancelled = true);
+    }
+
+    private static void start(MinecraftServer server) {
+        MountainOresConfig cfg = MountainOres.CONFIG;
+        if (cfg == null || !cfg.jitWarmup || cfg.jitWarmupIterations <= 0) {
+            return;
+        }
+
+        OreWorkload workload = OreWorkload.of(server, server.getOverworld());
+        if (workload.jobs().isEmpty()) {
+            LOGGER.info("[mountainores] JIT warm-up skipped: no ore features registered");
+            return;
+        }
+        int iterations = cfg.jitWarmupIterations;
+        Template template = Template.copy(server.getOverworld());
+
+        cancelled = false;
+        Thread thread = new Thread(() -> {
+            try {
+                run(workload, template, EngineSettings.current(), iterations);
+            } catch (RuntimeException e) {
+                LOGGER.warn("[mountainores] JIT warm-up failed: {}", e.toString());
+            }
+        }, "mountainores-warmup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        LOGGER.info("[mountainores] JIT warm-up started: {} ore features, {} stand-in chunks", workload.jobs().size(), iterations);
+    }
+
+    // ── Warm-up ─────────────────────────────────────────────────────────
+
+    private static void run(OreWorkload workload, Template template, EngineSettings settings, int iterations) {
+        ChunkRandom random = new ChunkRandom(new Xoroshiro128PlusPlusRandom(workload.seed()));
+        GrowthStats stats = new GrowthStats();
+
+        long[] nanos = new long[iterations];
+        long[] elapsedAt = new long[iterations];
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (cancelled) {
+                LOGGER.info("[mountainores] JIT warm-up stopped after {} of {} stand-in chunks", i, iterations);
+                return;
+            }
+            ChunkSection[][] columns = template.sections();
+            random.setSeed(workload.seed() + i);
+
+            long start = System.nanoTime();
+            for (OreWorkload.Job job : workload.jobs()) {
+                // The stand-in chunk sits at chunk (0, 0); lode site checks walk along a row of chunks,
+                // so the grid does not decide once for all iterations
+                int count = workload.count(job, random, i, 0);
+                for (int n = 0; n < count; n++) {
+                    // One backend per feature, as VariableOreFeature and LodeSelectorFeature open it
+                    try (BlockStateVoxels chunk = BlockStateVoxels.standIn(columns, template.bottomY(), CENTER)) {
+                        workload.grow(job, chunk, random, workload.origin(job, random, CENTER.x, CENTER.z), settings, stats);
+                    }
+                }
+            }
+            long end = System.nanoTime();
+            nanos[i] = end - start;
+            elapsedAt[i] = end - started;
+        }
+        report(nanos, elapsedAt);
+    }
+
+    /**
+     * Copies of the block and biome containers of the chunks around
+     * {@link #CENTER}, taken on the server thread, in
+     * {@link BlockStateVoxels#standIn} column order.
+     */
+    private record Template(int bottomY, PalettedContainer<BlockState>[][] blocks,
+                            ReadableContainer<RegistryEntry<Biome>>[][] biomes) {
+
+        @SuppressWarnings("unchecked")
+        static Template copy(ServerWorld world) {
+            PalettedContainer<BlockState>[][] blocks = new PalettedContainer[9][];
+            ReadableContainer<RegistryEntry<Biome>>[][] biomes = new ReadableContainer[9][];
+            for (int dz = -1; dz <= 1; dz++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    ChunkSection[] sections = world.getChunk(CENTER.x + dx, CENTER.z + dz).getSectionArray();
+                    int column = (dz + 1) * 3 + dx + 1;
+                    blocks[column] = new PalettedContainer[sections.length];
+                    biomes[column] = new ReadableContainer[sections.length];
+                    for (int i = 0; i < sections.length; i++) {
+                        blocks[column][i] = sections[i].getBlockStateContainer().copy();
+                        biomes[column][i] = sections[i].getBiomeContainer().slice();
+                    }
+                }
+            }
+            return new Template(world.getBottomY(), blocks, biomes);
+        }
+
+        /** Fresh sections from the copies, so the ore of earlier stand-in chunks is gone. */
+        ChunkSection[][] sections() {
+            ChunkSection[][] columns = new ChunkSection[9][];
+            for (int column = 0; column < 9; column++) {
+                columns[column] = new ChunkSection[blocks[column].length];
+                for (int i = 0; i < columns[column].length; i++) {
+                    columns[column][i] = new ChunkSection(blocks[column][i].copy(), biomes[column][i]);
+                }
+            }
+            return columns;
+        }
+    }
+
+    private static void report(long[] nanos, long[] elapsedAt) {
+        int n = nanos.length;
+        long[] tail = Arrays.copyOfRange(nanos, n - Math.max(1, n / 4), n);
+        Arrays.sort(tail);
+        long steady = tail[tail.length / 2];
+
+        int lastSlow = -1;
+        for (int i = 0; i < n; i++) {
+            if (nanos[i] > steady * STEADY_TOLERANCE) {
+                lastSlow = i;
+            }
+        }
+        if (lastSlow == n - 1) {
+            LOGGER.info("[mountainores] JIT warm-up: {} stand-in chunks in {} ms, not steady yet (first {} ms, last {} ms); "
+                            + "raise jitWarmupIterations",
+                    n, millis(elapsedAt[n - 1]), millis(nanos[0]), millis(nanos[n - 1]));
+            return;
+        }
+        long toSteady = lastSlow >= 0 ? elapsedAt[lastSlow] : 0L;
+        LOGGER.info("[mountainores] JIT warm-up: {} stand-in chunks in {} ms; first {} ms, steady {} ms, reached after {} chunks ({} ms)",
+                n, millis(elapsedAt[n - 1]), millis(nanos[0]), millis(steady), lastSlow + 1, millis(toSteady));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,212 @@
+package de.kin.mountainores.worldgen;
+
+import de.kin.mountainores.HeightScaler;
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.MountainOresConfig;
+import de.kin.mountainores.retrogen.RetrogenChunkProcessor;
+import net.fabricmc.fabric.api.attachment.v1.AttachmentRegistry;
+import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.ChunkRegion;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.WorldChunk;
+import net.minecraft.world.gen.HeightContext;
+import net.minecraft.world.gen.feature.PlacedFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deferred generation of high-altitude bands ({@code deferHighBands}).
+ *
+ * <p>When the Overworld is loaded, every {@code mountainores:} placed feature
+ * whose positions all scale to {@code deferBandsAboveY} or higher is marked
+ * deferrable (same exact height evaluation as {@link PlacedFeaturePruner}).
+ * During worldgen such features are not run; their IDs are stored in a
+ * persistent chunk attachment instead. The first time the chunk is sent to a
+ * player, or a block at or above the threshold of the loaded chunk changes
+ * before that, the pending features are run through
+ * {@link RetrogenChunkProcessor} with the chunk's normal population and
+ * decorator seeds. Chunks that are generated but never sent to a player or
+ * changed up there (pregeneration, far terrain) skip the work entirely.
+ *
+ * <p>The veins start where eager generation would have started them, but the
+ * ore now goes in after every other feature of every step. Ore only replaces
+ * stone and deepslate, so where a deferred vein overlaps one of a feature
+ * that is not deferred, the other vein keeps the blocks, even if the
+ * deferred feature comes first in the ore step; and blocks that later steps
+ * changed (springs, trees, snow, other mods' features) are no longer
+ * replaced.
+ *
+ * <p>Pending features are materialized regardless of the current config, so
+ * turning the option off later does not leave chunks without their high ore.
+ *
+ * <p>So that deferral does not change which veins a chunk budget trims, the
+ * deferrable features are exempt from {@link de.kin.mountainores.budget.OreBudget} whether or not they
+ * are deferred. Their ore is added to the chunk's ledger record when they
+ * are materialized.
+ */
+@SuppressWarnings({"null", "UnstableApiUsage"})
+public final class DeferredBands {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("mountainores");
+
+    public static final AttachmentType<List<Identifier>> PENDING = AttachmentRegistry.create(
+            Identifier.of("mountainores", "pending_bands"),
+            builder -> builder.persistent(Identifier.CODEC.listOf())
+    );
+
+    /**
+     * @param thresholdY the lowest Y any deferrable feature places at
+     * @param defer      whether the features are deferred, or only exempt from the chunk budget
+     */
+    private record Deferrable(ServerWorld world, Map<PlacedFeature, Identifier> features, int thresholdY, boolean defer) {
+    }
+
+    private static volatile Deferrable deferrable;
+
+    /** Set while pending features run, whose own block changes must not materialize again. Server thread only. */
+    private static boolean materializing;
+
+    private DeferredBands() {}
+
+    public static void register() {
+        ServerWorldEvents.LOAD.register((server, world) -> {
+            if (world.getRegistryKey() == World.OVERWORLD) {
+                evaluate(server, world);
+            }
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> deferrable = null);
+    }
+
+    // ── Worldgen ────────────────────────────────────────────────────────
+
+    /**
+     * Records {@code feature} as pending for the chunk at {@code pos} if it is
+     * deferrable and runs as part of normal chunk generation. Called for every
+     * placed feature.
+     *
+     * @return {@code true} if the feature was deferred and must not run now
+     */
+    public static boolean defer(PlacedFeature feature, StructureWorldAccess world, BlockPos pos) {
+        Deferrable current = deferrable;
+        if (current == null || !current.defer() || !(world instanceof ChunkRegion) || current.world() != world.toServerWorld()) {
+            return false;
+        }
+        Identifier id = current.features().get(feature);
+        if (id == null) {
+            return false;
+        }
+
+        Chunk chunk = world.getChunk(pos);
+        List<Identifier> pending = chunk.getAttached(PENDING);
+        List<Identifier> updated = new ArrayList<>(pending != null ? pending.size() + 1 : 1);
+        if (pending != null) {
+            updated.addAll(pending);
+        }
+        updated.add(id);
+        chunk.setAttached(PENDING, List.copyOf(updated));
+        return true;
+    }
+
+    /** Whether {@code feature} places only at or above {@code deferBandsAboveY} in {@code world}, deferred or not. */
+    public static boolean isHighBand(PlacedFeature feature, StructureWorldAccess world) {
+        Deferrable current = deferrable;
+        return current != null && current.world() == world.toServerWorld() && current.features().containsKey(feature);
+    }
+
+    // ── Materialization ─────────────────────────────────────────────────
+
+    /** Runs the chunk's pending features, if any. Called on the server thread before a chunk is sent to a player. */
+    public static void materialize(ServerWorld world, WorldChunk chunk) {
+        List<Identifier> pending = chunk.getAttached(PENDING);
+        if (pending == null || materializing) {
+            return;
+        }
+        if (pending.isEmpty()) {
+            chunk.removeAttached(PENDING);
+            return;
+        }
+        materializing = true;
+        try {
+            // Adds to the ledger record written at generation time; stays pending while a neighbour is not loaded
+            if (RetrogenChunkProcessor.generate(world, chunk, pending::contains, true) >= 0) {
+                chunk.removeAttached(PENDING);
+            }
+        } finally {
+            materializing = false;
+        }
+    }
+
+    /**
+     * Runs the chunk's pending features before a block at {@code y} changes,
+     * if {@code y} is in a section at or above the deferral threshold. Called
+     * for every block change of a loaded chunk, so the common cases return
+     * after a field read or two.
+     */
+    public static void blockChanging(WorldChunk chunk, int y) {
+        Deferrable current = deferrable;
+        if (current == null || ChunkSectionPos.getSectionCoord(y) < ChunkSectionPos.getSectionCoord(current.thresholdY())
+                || chunk.getWorld() != current.world() || !chunk.hasAttached(PENDING)
+                || !current.world().getServer().isOnThread()) {
+            return;
+        }
+        materialize(current.world(), chunk);
+    }
+
+    // ── Evaluation ──────────────────────────────────────────────────────
+
+    private static void evaluate(MinecraftServer server, ServerWorld world) {
+        MountainOresConfig cfg = MountainOres.CONFIG != null ? MountainOres.CONFIG : new MountainOresConfig();
+        deferrable = null;
+        boolean defer = cfg.deferHighBands;
+        if (defer && cfg.neighbourWrites) {
+            // Materialization runs on a loaded chunk and cannot reach into its neighbours.
+            LOGGER.warn("[mountainores] deferHighBands is ignored while neighbourWrites is enabled");
+            defer = false;
+        }
+
+        int topY = world.getBottomY() + world.getHeight();
+        int maxWorldHeight = HeightScaler.resolveMaxWorldHeight(topY);
+        int thresholdY = HeightScaler.scaleY(cfg.deferBandsAboveY, maxWorldHeight);
+        HeightContext context = new HeightContext(world.getChunkManager().getChunkGenerator(), world);
+
+        Map<PlacedFeature, Identifier> features = new IdentityHashMap<>();
+        Registry<PlacedFeature> registry = server.getRegistryManager().getOrThrow(RegistryKeys.PLACED_FEATURE);
+        for (Map.Entry<RegistryKey<PlacedFeature>, PlacedFeature> entry : registry.getEntrySet()) {
+            Identifier id = entry.getKey().getValue();
+            if (!MountainOres.MOD_ID.equals(id.getNamespace())) {
+                continue;
+            }
+            // Features without an evaluable height modifier count as "any Y" and are never deferred.
+            double below = FeatureHeights.fraction(entry.getValue(), context, maxWorldHeight, y -> y < thresholdY);
+            if (below <= 0.0) {
+                features.put(entry.getValue(), id);
+            }
+        }
+
+        if (!features.isEmpty()) {
+            deferrable = new Deferrable(world, features, thresholdY, defer);
+        }
+        if (!defer) {
+            return;
+        }
+        LOGGER.info("[mountainores] Deferred high bands: {} feature(s) at or above Y {} (reference Y {}) wait for the first player visit",
+                features.size(), thresholdY, cfg.deferBandsAboveY);
+    }
+}
@@ -0,0 +1,101 @@
+package de.kin.mountainores.worldgen;
+
+import de.kin.mountainores.HeightScaler;
+import de.kin.mountainores.mixin.TrapezoidHeightProviderAccessor;
+import de.kin.mountainores.mixin.UniformHeightProviderAccessor;
+import de.kin.mountainores.placement.BandedHeightPlacementModifier;
+import de.kin.mountainores.placement.HeightBand;
+import de.kin.mountainores.placement.ScaledHeightRangePlacementModifier;
+import net.minecraft.world.gen.HeightContext;
+import net.minecraft.world.gen.feature.PlacedFeature;
+import net.minecraft.world.gen.heightprovider.HeightProvider;
+import net.minecraft.world.gen.heightprovider.TrapezoidHeightProvider;
+import net.minecraft.world.gen.heightprovider.UniformHeightProvider;
+import net.minecraft.world.gen.placementmodifier.PlacementModifier;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Exact evaluation of the Y distribution of MountainOres placed features,
+ * from their {@code scaled_height_range} and {@code banded_height} modifiers.
+ * Uniform and trapezoid height providers are supported; other modifiers
+ * and provider types count as "any Y".
+ */
+final class FeatureHeights {
+
+    private FeatureHeights() {}
+
+    /**
+     * Probability that a position of {@code feature} has a (scaled) Y accepted
+     * by {@code accept}: the product over the feature's height modifiers.
+     *
+     * @return 1 if the feature has no evaluable height modifier
+     */
+    static double fraction(PlacedFeature feature, HeightContext context, int maxWorldHeight, IntPredicate accept) {
+        double fraction = 1.0;
+        for (PlacementModifier modifier : feature.placementModifiers()) {
+            if (modifier instanceof ScaledHeightRangePlacementModifier range) {
+                HeightBand band = asBand(range.height(), context);
+                if (band != null) {
+                    fraction *= fraction(band, true, maxWorldHeight, accept);
+                }
+            } else if (modifier instanceof BandedHeightPlacementModifier banded) {
+                double total = 0.0;
+                double accepted = 0.0;
+                for (HeightBand band : banded.bands()) {
+                    total += band.weight();
+                    accepted += band.weight() * fraction(band, banded.scaled(), maxWorldHeight, accept);
+                }
+                if (total > 0.0) {
+                    fraction *= accepted / total;
+                }
+            }
+        }
+        return fraction;
+    }
+
+    /** Whether {@code feature} has at least one height modifier this class can evaluate. */
+    static boolean hasHeightModifier(PlacedFeature feature, HeightContext context) {
+        for (PlacementModifier modifier : feature.placementModifiers()) {
+            if (modifier instanceof ScaledHeightRangePlacementModifier range && asBand(range.height(), context) != null) {
+                return true;
+            }
+            if (modifier instanceof BandedHeightPlacementModifier) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double fraction(HeightBand band, boolean scaled, int maxWorldHeight, IntPredicate accept) {
+        double[] p = band.probabilities();
+        double accepted = 0.0;
+        for (int i = 0; i < p.length; i++) {
+            int y = band.minInclusive() + i;
+            if (scaled) {
+                y = HeightScaler.scaleY(y, maxWorldHeight);
+            }
+            if (accept.test(y)) {
+                accepted += p[i];
+            }
+        }
+        return accepted;
+    }
+
+    /** The provider as a trapezoid band, or {@code null} for provider types that are not evaluated. */
+    private static HeightBand asBand(HeightProvider provider, HeightContext context) {
+        if (provider instanceof UniformHeightProvider) {
+            UniformHeightProviderAccessor uniform = (UniformHeightProviderAccessor) provider;
+            int min = uniform.mountainores$getMinOffset().getY(context);
+            int max = uniform.mountainores$getMaxOffset().getY(context);
+            return new HeightBand(1.0f, min, max, Math.max(0, max - min));
+        }
+        if (provider instanceof TrapezoidHeightProvider) {
+            TrapezoidHeightProviderAccessor trapezoid = (TrapezoidHeightProviderAccessor) provider;
+            int min = trapezoid.mountainores$getMinOffset().getY(context);
+            int max = trapezoid.mountainores$getMaxOffset().getY(context);
+            return new HeightBand(1.0f, min, max, trapezoid.mountainores$getPlateau());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,52 @@
+package de.kin.mountainores.worldgen;
+
+import de.kin.mountainores.mixin.ChunkGeneratorAccessor;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.random.ChunkRandom;
+import net.minecraft.util.math.random.RandomSeed;
+import net.minecraft.util.math.random.Xoroshiro128PlusPlusRandom;
+import net.minecraft.world.gen.GenerationStep;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
+import net.minecraft.world.gen.feature.util.PlacedFeatureIndexer;
+
+import java.util.List;
+
+/**
+ * Reproduces the random derivation of {@code ChunkGenerator#generateFeatures}
+ * outside of the normal feature pass.
+ *
+ * <p>Vanilla seeds one {@link ChunkRandom} per chunk with the population seed
+ * (world seed + chunk block origin) and re-seeds it before every placed feature
+ * with the decorator seed (population seed + feature index + step index).
+ * Code that runs or predicts MountainOres features later must use the same
+ * derivation, otherwise the result would differ from a freshly generated chunk.
+ */
+public final class FeatureSeeding {
+
+    /** All MountainOres placed features run in this generation step. */
+    public static final int ORE_STEP = GenerationStep.Feature.UNDERGROUND_ORES.ordinal();
+
+    private FeatureSeeding() {}
+
+    public static ChunkRandom newChunkRandom() {
+        return new ChunkRandom(new Xoroshiro128PlusPlusRandom(RandomSeed.getSeed()));
+    }
+
+    /**
+     * Seeds {@code random} for the chunk and returns the population seed to
+     * pass to {@link ChunkRandom#setDecoratorSeed(long, int, int)}.
+     */
+    public static long populationSeed(ChunkRandom random, long worldSeed, ChunkPos chunkPos) {
+        return random.setPopulationSeed(worldSeed, chunkPos.getStartX(), chunkPos.getStartZ());
+    }
+
+    /**
+     * The generator's ordered feature list and index mapping for one step.
+     * Returns {@code null} if the generator has no features for that step.
+     */
+    public static PlacedFeatureIndexer.IndexedFeatures indexedFeatures(ChunkGenerator generator, int step) {
+        List<PlacedFeatureIndexer.IndexedFeatures> steps =
+                ((ChunkGeneratorAccessor) generator).mountainores$getIndexedFeatures().get();
+        return step < steps.size() ? steps.get(step) : null;
+    }
+}
@@ -0,0 +1,109 @@
+package de.kin.mountainores.worldgen;
+
+import de.kin.mountainores.HeightScaler;
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.MountainOresConfig;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.World;
+import net.minecraft.world.gen.HeightContext;
+import net.minecraft.world.gen.feature.PlacedFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drops MountainOres placed features that cannot (or, with
+ * {@code pruneYieldThreshold}, barely) place ore at the Overworld's height.
+ *
+ * <p>When the Overworld is loaded, every {@code mountainores:} placed feature's
+ * height modifiers ({@code scaled_height_range}, {@code banded_height}) are
+ * evaluated exactly: the fraction of sampled positions whose scaled Y lies
+ * within the world, widened by {@link #REACH} because a vein may start a
+ * couple of blocks away from its position. Features with fraction 0 — e.g.
+ * high bands when {@code maxWorldHeight} is set above the real world height —
+ * are skipped before their placement modifiers run. Their decorator seeds are
+ * independent of all other features, so skipping them changes nothing else.
+ * The pruned features are logged once with the reason.
+ */
+public final class PlacedFeaturePruner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("mountainores");
+
+    /** How far from its placed position a vein can still put its first block. */
+    private static final int REACH = 2;
+
+    private record Pruned(ServerWorld world, Set<PlacedFeature> features) {
+    }
+
+    private static volatile Pruned pruned;
+
+    private PlacedFeaturePruner() {}
+
+    public static void register() {
+        ServerWorldEvents.LOAD.register((server, world) -> {
+            if (world.getRegistryKey() == World.OVERWORLD) {
+                evaluate(server, world);
+            }
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> pruned = null);
+    }
+
+    /** Whether {@code feature} was pruned for {@code world}'s dimension. Called for every placed feature. */
+    public static boolean isPruned(PlacedFeature feature, StructureWorldAccess world) {
+        Pruned current = pruned;
+        return current != null && current.world() == world.toServerWorld() && current.features().contains(feature);
+    }
+
+    // ── Evaluation ──────────────────────────────────────────────────────
+
+    private static void evaluate(MinecraftServer server, ServerWorld world) {
+        MountainOresConfig cfg = MountainOres.CONFIG != null ? MountainOres.CONFIG : new MountainOresConfig();
+        pruned = null;
+        if (!cfg.pruneFeatures) {
+            return;
+        }
+
+        int bottomY = world.getBottomY();
+        int topY = bottomY + world.getHeight();
+        int maxWorldHeight = HeightScaler.resolveMaxWorldHeight(topY);
+        HeightContext context = new HeightContext(world.getChunkManager().getChunkGenerator(), world);
+
+        Set<PlacedFeature> features = Collections.newSetFromMap(new IdentityHashMap<>());
+        Registry<PlacedFeature> registry = server.getRegistryManager().getOrThrow(RegistryKeys.PLACED_FEATURE);
+        for (Map.Entry<RegistryKey<PlacedFeature>, PlacedFeature> entry : registry.getEntrySet()) {
+            if (!MountainOres.MOD_ID.equals(entry.getKey().getValue().getNamespace())) {
+                continue;
+            }
+
+            PlacedFeature feature = entry.getValue();
+            double fraction = FeatureHeights.fraction(feature, context, maxWorldHeight, y -> y >= bottomY - REACH && y < topY + REACH);
+            if (fraction <= 0.0) {
+                features.add(feature);
+                LOGGER.info("[mountainores] Pruned {}: all positions scale outside the world (Y {} to {}, height factor {})",
+                        entry.getKey().getValue(), bottomY, topY - 1, String.format("%.3f", HeightScaler.getFactor(maxWorldHeight)));
+            } else if (fraction < cfg.pruneYieldThreshold) {
+                features.add(feature);
+                LOGGER.info("[mountainores] Pruned {}: only {}% of positions inside the world (threshold {}%)",
+                        entry.getKey().getValue(), String.format("%.2f", fraction * 100.0),
+                        String.format("%.2f", cfg.pruneYieldThreshold * 100.0));
+            }
+        }
+
+        if (!features.isEmpty()) {
+            pruned = new Pruned(world, features);
+        }
+        LOGGER.info("[mountainores] Placed feature pruning: {} feature(s) skipped at world height {} (Y {} to {})",
+                features.size(), world.getHeight(), bottomY, topY - 1);
+    }
+}
@@ -0,0 +1,368 @@
+package de.kin.mountainores.worldgen;
+
+import de.kin.mountainores.MountainOres;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
+import net.minecraft.world.gen.feature.PlacedFeature;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Derived worldgen data shared by the chunks of one region of 32×32 chunks
+ * (the area of a region file), kept while neighbouring chunks generate.
+ *
+ * <p>A region holds a biome palette of up to 64 biomes, the biomes each
+ * placed feature is allowed in as a bit mask over that palette, and a
+ * summary of which biomes occur in each recently read chunk. The summary
+ * records, per section, the biomes of each of the chunk's edges and corners,
+ * so that the {@code biome_presence} filters of the eight neighbours reuse
+ * it instead of reading the chunk's biomes again. A chunk's biomes are read
+ * once while the region is cached, instead of up to nine times.
+ *
+ * <p>The last {@code regionCacheSize} regions used are kept (least recently
+ * used first out). Pregeneration tools that generate a region at a time can
+ * {@linkplain #batch pin} it so it is not evicted in between; retrogen does
+ * so for the region it is walking. The cache only holds data derived from
+ * biomes and the feature registry, so hits and misses give the same output.
+ */
+public final class RegionContext {
+
+    /** Region edge length as a shift of chunk coordinates (32 chunks). */
+    public static final int REGION_SHIFT = 5;
+
+    /** Chunk summaries kept per region; about four rows of a region. */
+    private static final int CHUNK_CAPACITY = 128;
+
+    /** Biome palette limit: palette indices are bits of a {@code long}. */
+    private static final int MAX_BIOMES = 64;
+
+    private record Key(ServerWorld world, int regionX, int regionZ) {
+    }
+
+    // Access order; guarded by itself
+    private static final LinkedHashMap<Key, RegionContext> CONTEXTS = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Key key;
+    private int pins; // guarded by CONTEXTS
+
+    // Copy-on-write, so readers need no lock; index = bit in every mask of this region
+    @SuppressWarnings("unchecked")
+    private volatile RegistryEntry<Biome>[] palette = new RegistryEntry[0];
+
+    private record AllowedMask(int paletteSize, long mask) {
+    }
+
+    private final Map<PlacedFeature, AllowedMask> allowed = new ConcurrentHashMap<>();
+
+    // Access order; guarded by itself
+    private final LinkedHashMap<Long, ChunkBiomes> chunks = new LinkedHashMap<>(CHUNK_CAPACITY * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ChunkBiomes> eldest) {
+            return size() > CHUNK_CAPACITY;
+        }
+    };
+
+    private RegionContext(Key key) {
+        this.key = key;
+    }
+
+    public static void register() {
+        ServerWorldEvents.UNLOAD.register((server, world) -> {
+            synchronized (CONTEXTS) {
+                CONTEXTS.keySet().removeIf(key -> key.world() == world);
+            }
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            synchronized (CONTEXTS) {
+                CONTEXTS.clear();
+            }
+        });
+    }
+
+    // ── API ─────────────────────────────────────────────────────────────
+
+    /** The region containing chunk {@code (chunkX, chunkZ)}, created on first use. */
+    public static RegionContext of(ServerWorld world, int chunkX, int chunkZ) {
+        Key key = new Key(world, chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT);
+        synchronized (CONTEXTS) {
+            RegionContext context = CONTEXTS.get(key);
+            if (context == null) {
+                context = new RegionContext(key);
+                CONTEXTS.put(key, context);
+                evict();
+            }
+            return context;
+        }
+    }
+
+    /**
+     * Keeps region {@code (regionX, regionZ)} cached until the returned batch
+     * is closed, e.g. while a pregeneration tool generates its chunks. Batches
+     * may overlap and nest; pinned regions do not count against
+     * {@code regionCacheSize}.
+     */
+    public static Batch batch(ServerWorld world, int regionX, int regionZ) {
+        Key key = new Key(world, regionX, regionZ);
+        synchronized (CONTEXTS) {
+            RegionContext context = CONTEXTS.get(key);
+            if (context == null) {
+                context = new RegionContext(key);
+                CONTEXTS.put(key, context);
+            }
+            context.pins++;
+            evict();
+            return new Batch(context);
+        }
+    }
+
+    /** A pinned region; see {@link #batch}. */
+    public static final class Batch implements AutoCloseable {
+
+        private RegionContext context;
+
+        private Batch(RegionContext context) {
+            this.context = context;
+        }
+
+        public RegionContext context() {
+            return context;
+        }
+
+        @Override
+        public void close() {
+            synchronized (CONTEXTS) {
+                if (context != null) {
+                    context.pins--;
+                    context = null;
+                    evict();
+                }
+            }
+        }
+    }
+
+    public int regionX() {
+        return key.regionX();
+    }
+
+    public int regionZ() {
+        return key.regionZ();
+    }
+
+    // Caller holds CONTEXTS
+    private static void evict() {
+        int capacity = MountainOres.CONFIG != null ? Math.max(1, MountainOres.CONFIG.regionCacheSize) : 4;
+        int unpinned = 0;
+        for (RegionContext context : CONTEXTS.values()) {
+            if (context.pins == 0) {
+                unpinned++;
+            }
+        }
+        Iterator<RegionContext> eldestFirst = CONTEXTS.values().iterator();
+        while (unpinned > capacity && eldestFirst.hasNext()) {
+            if (eldestFirst.next().pins == 0) {
+                eldestFirst.remove();
+                unpinned--;
+            }
+        }
+    }
+
+    // ── Biome palette ───────────────────────────────────────────────────
+
+    /** The palette index of {@code biome}, added on first use; {@code -1} once the palette is full. */
+    public int biomeIndex(RegistryEntry<Biome> biome) {
+        RegistryEntry<Biome>[] current = palette;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == biome) {
+                return i;
+            }
+        }
+        synchronized (this) {
+            current = palette;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == biome) {
+                    return i;
+                }
+            }
+            if (current.length == MAX_BIOMES) {
+                return -1;
+            }
+            RegistryEntry<Biome>[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = biome;
+            palette = grown;
+            return current.length;
+        }
+    }
+
+    /**
+     * Re-expresses a biome mask of {@code other}'s palette in this region's palette.
+     *
+     * @return the mask, or {@code -1} if this palette ran out of room
+     */
+    public long remap(long mask, RegionContext other) {
+        if (other == this) {
+            return mask;
+        }
+        RegistryEntry<Biome>[] biomes = other.palette;
+        long remapped = 0L;
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            int index = biomeIndex(biomes[Long.numberOfTrailingZeros(bits)]);
+            if (index < 0) {
+                return -1L;
+            }
+            remapped |= 1L << index;
+        }
+        return remapped;
+    }
+
+    /** Palette bits of the biomes whose generation settings contain {@code feature}. */
+    public long allowedMask(PlacedFeature feature, ChunkGenerator generator) {
+        RegistryEntry<Biome>[] biomes = palette;
+        AllowedMask cached = allowed.get(feature);
+        if (cached != null && cached.paletteSize() == biomes.length) {
+            return cached.mask();
+        }
+        long mask = 0L;
+        for (int i = 0; i < biomes.length; i++) {
+            if (generator.getGenerationSettings(biomes[i]).isFeatureAllowed(feature)) {
+                mask |= 1L << i;
+            }
+        }
+        allowed.put(feature, new AllowedMask(biomes.length, mask));
+        return mask;
+    }
+
+    // ── Chunk biomes ────────────────────────────────────────────────────
+
+    /**
+     * The biome summary of {@code chunk}, which must lie in this region, read
+     * on first use. Masks use this region's palette.
+     *
+     * @return {@code null} if the region's palette ran out of room
+     */
+    public ChunkBiomes chunkBiomes(Chunk chunk) {
+        long chunkKey = chunk.getPos().toLong();
+        synchronized (chunks) {
+            ChunkBiomes cached = chunks.get(chunkKey);
+            if (cached != null && cached.chunk.get() == chunk) {
+                return cached;
+            }
+        }
+        ChunkBiomes read = ChunkBiomes.read(this, chunk);
+        if (read != null) {
+            synchronized (chunks) {
+                chunks.put(chunkKey, read);
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Biomes of one chunk per section, split by the part of the chunk a
+     * neighbour's biome lookups can reach. Part {@code (dx, dz)} is what the
+     * chunk contributes when it lies at offset {@code (dx, dz)} from the chunk
+     * being filtered: all of it for {@code (0, 0)}, the facing quart column or
+     * row for an edge neighbour, the facing quart cell for a corner.
+     */
+    public static final class ChunkBiomes {
+
+        private static final int FULL = 0;
+        private static final int BOTTOM = 1;
+        private static final int TOP = 2;
+
+        private final WeakReference<Chunk> chunk;
+        private final int sectionCount;
+        // [(section * 9 + part) * 3 + layer], layer: all quart layers, the bottom one, the top one
+        private final long[] masks;
+
+        private ChunkBiomes(Chunk chunk, int sectionCount, long[] masks) {
+            this.chunk = new WeakReference<>(chunk);
+            this.sectionCount = sectionCount;
+            this.masks = masks;
+        }
+
+        public int sectionCount() {
+            return sectionCount;
+        }
+
+        /** Biomes of part {@code (dx, dz)} in section {@code section}. */
+        public long full(int section, int dx, int dz) {
+            return masks[index(section, dx, dz, FULL)];
+        }
+
+        /** Biomes of the bottom quart layer of part {@code (dx, dz)} in section {@code section}. */
+        public long bottom(int section, int dx, int dz) {
+            return masks[index(section, dx, dz, BOTTOM)];
+        }
+
+        /** Biomes of the top quart layer of part {@code (dx, dz)} in section {@code section}. */
+        public long top(int section, int dx, int dz) {
+            return masks[index(section, dx, dz, TOP)];
+        }
+
+        private static int index(int section, int dx, int dz, int layer) {
+            return (section * 9 + (dz + 1) * 3 + dx + 1) * 3 + layer;
+        }
+
+        private static ChunkBiomes read(RegionContext region, Chunk chunk) {
+            ChunkSection[] sections = chunk.getSectionArray();
+            long[] masks = new long[sections.length * 27];
+            RegistryEntry<Biome> last = null;
+            long lastBit = 0L;
+            for (int i = 0; i < sections.length; i++) {
+                for (int qy = 0; qy < 4; qy++) {
+                    for (int qz = 0; qz < 4; qz++) {
+                        for (int qx = 0; qx < 4; qx++) {
+                            RegistryEntry<Biome> biome = sections[i].getBiome(qx, qy, qz);
+                            if (biome != last) {
+                                int index = region.biomeIndex(biome);
+                                if (index < 0) {
+                                    return null;
+                                }
+                                last = biome;
+                                lastBit = 1L << index;
+                            }
+                            for (int dz = -1; dz <= 1; dz++) {
+                                if (!reaches(dz, qz)) {
+                                    continue;
+                                }
+                                for (int dx = -1; dx <= 1; dx++) {
+                                    if (!reaches(dx, qx)) {
+                                        continue;
+                                    }
+                                    masks[index(i, dx, dz, FULL)] |= lastBit;
+                                    if (qy == 0) {
+                                        masks[index(i, dx, dz, BOTTOM)] |= lastBit;
+                                    } else if (qy == 3) {
+                                        masks[index(i, dx, dz, TOP)] |= lastBit;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            return new ChunkBiomes(chunk, sections.length, masks);
+        }
+
+        /** Whether quart {@code q} is seen by the chunk when this chunk lies at offset {@code d} from it. */
+        private static boolean reaches(int d, int q) {
+            return d == 0 || (d == 1 && q == 0) || (d == -1 && q == 3);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RegionContext[" + key.regionX() + ", " + key.regionZ() + ", " + palette.length + " biomes]";
+    }
+}
@@ -0,0 +1,193 @@
+package de.kin.mountainores.alloc;
+
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.MountainOresConfig;
+import de.kin.mountainores.engine.FlatVoxels;
+import de.kin.mountainores.engine.GrowthStats;
+import de.kin.mountainores.feature.EngineSettings;
+import de.kin.mountainores.placement.ScaledCountPlacementModifier;
+import de.kin.mountainores.placement.ScaledHeightRangePlacementModifier;
+import de.kin.mountainores.worldgen.ShippedFeatures;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.intprovider.ConstantIntProvider;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.util.math.random.Xoroshiro128PlusPlusRandom;
+import net.minecraft.world.gen.feature.ConfiguredFeature;
+import net.minecraft.world.gen.feature.FeaturePlacementContext;
+import net.minecraft.world.gen.feature.PlacedFeature;
+import net.minecraft.world.gen.placementmodifier.PlacementModifier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation budgets of the world generation sites that
+ * {@link AllocationProbe} reports in game, checked by {@code gradle check}.
+ *
+ * <p>The shipped vein and lode features and the {@code scaled_count} /
+ * {@code scaled_height_range} modifiers (see {@link ShippedFeatures}) run
+ * stand-in chunks into a 16×384×16 {@link FlatVoxels} column, refilled
+ * between chunks, like {@code EngineAllocationTest} runs the engine. The
+ * per-chunk averages must stay within the {@code feature.*} and
+ * {@code modifier.*} budgets in {@code /mountainores/allocation-budgets.properties}.
+ */
+class GenerationAllocationTest {
+
+    private static final BlockState STONE = Blocks.STONE.getDefaultState();
+    private static final BlockState DEEPSLATE = Blocks.DEEPSLATE.getDefaultState();
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+
+    private static final List<String> VEIN_FEATURES = List.of(
+            "coal__main__placed",
+            "iron__underground__main__placed",
+            "copper__main__placed",
+            "gold__underground__main__placed",
+            "diamond__underground__best__placed",
+            "iron__underground_small__upper__placed");
+    private static final String LODE_FEATURE = "lode__selector__placed";
+
+    private static final int WARMUP_CHUNKS = 300;
+    private static final int MEASURED_CHUNKS = 200;
+
+    /** Veins or modifier calls per stand-in chunk, as in {@code EngineAllocationTest}. */
+    private static final int CALLS_PER_CHUNK = 48;
+
+    private static com.sun.management.ThreadMXBean threads;
+    private static Properties budgets;
+
+    private static List<ConfiguredFeature<?, ?>> veins;
+    private static ConfiguredFeature<?, ?> lode;
+    private static FeaturePlacementContext context;
+    private static ScaledHeightRangePlacementModifier heightRange;
+
+    private final FlatVoxels<BlockState> voxels = new FlatVoxels<>(0, -64, 0, 16, 384, 16, STONE,
+            BlockState::isAir, state -> !state.getFluidState().isEmpty());
+    private final GrowthStats stats = new GrowthStats();
+    private final Random random = new Xoroshiro128PlusPlusRandom(0x5EEDL);
+    private final BlockPos[] positions = new BlockPos[CALLS_PER_CHUNK];
+    /** Keeps the modifiers' streams alive, as placement does, so they cannot be scalar-replaced. */
+    private final Stream<?>[] streams = new Stream<?>[CALLS_PER_CHUNK];
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported(), "Thread allocation counters not supported");
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        budgets = new Properties();
+        try (InputStream in = GenerationAllocationTest.class.getResourceAsStream("/mountainores/allocation-budgets.properties")) {
+            assertNotNull(in, "allocation-budgets.properties missing");
+            budgets.load(in);
+        }
+
+        ShippedFeatures.bootstrap();
+        MountainOres.CONFIG = new MountainOresConfig();
+        veins = VEIN_FEATURES.stream()
+                .<ConfiguredFeature<?, ?>>map(name -> ShippedFeatures.load(name).feature().value())
+                .toList();
+        lode = ShippedFeatures.load(LODE_FEATURE).feature().value();
+
+        PlacedFeature coal = ShippedFeatures.load(VEIN_FEATURES.get(0));
+        context = ShippedFeatures.context(0x5EEDL, -64, 384, Identifier.of("mountainores", VEIN_FEATURES.get(0)), coal);
+        for (PlacementModifier modifier : coal.placementModifiers()) {
+            if (modifier instanceof ScaledHeightRangePlacementModifier range) {
+                heightRange = range;
+            }
+        }
+        assertNotNull(heightRange, VEIN_FEATURES.get(0) + " has no scaled_height_range");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        MountainOres.CONFIG = null;
+    }
+
+    @Test
+    void veinFeaturesStayWithinBudget() {
+        EngineSettings settings = EngineSettings.current();
+        check("feature.vein", () -> {
+            for (int i = 0; i < CALLS_PER_CHUNK; i++) {
+                ShippedFeatures.grow(veins.get(i % veins.size()), voxels, random, positions[i], settings, stats);
+            }
+        });
+    }
+
+    @Test
+    void lodeFeatureStaysWithinBudget() {
+        EngineSettings settings = EngineSettings.current();
+        check("feature.lode", () -> ShippedFeatures.grow(lode, voxels, random, positions[0], settings, stats));
+    }
+
+    @Test
+    void scaledCountStaysWithinBudget() {
+        // No shipped feature uses scaled_count (province_density took its place); 8 is coal__main's count
+        ScaledCountPlacementModifier count = new ScaledCountPlacementModifier(ConstantIntProvider.create(8));
+        check("modifier.scaled_count", () -> {
+            for (int i = 0; i < CALLS_PER_CHUNK; i++) {
+                streams[i] = count.getPositions(context, random, positions[i]);
+            }
+        });
+    }
+
+    @Test
+    void scaledHeightRangeStaysWithinBudget() {
+        check("modifier.scaled_height_range", () -> {
+            for (int i = 0; i < CALLS_PER_CHUNK; i++) {
+                streams[i] = heightRange.getPositions(context, random, positions[i]);
+            }
+        });
+    }
+
+    private void check(String key, Runnable chunk) {
+        String value = budgets.getProperty(key);
+        assertNotNull(value, "No budget committed for " + key);
+        long budget = Long.parseLong(value.trim());
+
+        for (int i = 0; i < WARMUP_CHUNKS; i++) {
+            refill();
+            chunk.run();
+        }
+        long thread = Thread.currentThread().threadId();
+        long bytes = 0;
+        for (int i = 0; i < MEASURED_CHUNKS; i++) {
+            refill();
+            long start = threads.getThreadAllocatedBytes(thread);
+            chunk.run();
+            bytes += threads.getThreadAllocatedBytes(thread) - start;
+        }
+        double perChunk = (double) bytes / MEASURED_CHUNKS;
+        System.out.printf("%s: %.1f B/chunk, budget %d%n", key, perChunk, budget);
+        assertTrue(perChunk <= budget, String.format("%s allocates %.1f B/chunk, budget %d", key, perChunk, budget));
+    }
+
+    /**
+     * Deepslate below 0 and stone above with about 1.5% air, and new
+     * positions for the next chunk.
+     */
+    private void refill() {
+        for (int y = -64; y < 320; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    voxels.setState(x, y, z, ((x * 31 + y * 17 + z * 7) & 63) == 0 ? AIR : y < 0 ? DEEPSLATE : STONE);
+                }
+            }
+        }
+        for (int i = 0; i < CALLS_PER_CHUNK; i++) {
+            positions[i] = new BlockPos(random.nextInt(16), random.nextInt(300) - 60, random.nextInt(16));
+        }
+    }
+}
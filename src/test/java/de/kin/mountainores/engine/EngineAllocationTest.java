@@ -0,0 +1,142 @@
+package de.kin.mountainores.engine;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation budgets of the vein engine, checked by {@code gradle check}.
+ *
+ * <p>Each test grows a stand-in chunk's worth of ore into a 16×384×16
+ * {@link FlatVoxels} stone column, refilled between chunks, and measures what
+ * the engine calls allocate with {@code ThreadMXBean#getThreadAllocatedBytes}.
+ * The per-chunk averages must stay within the {@code engine.*} budgets in
+ * {@code /mountainores/allocation-budgets.properties}.
+ */
+class EngineAllocationTest {
+
+    private static final Integer AIR = 0;
+    private static final Integer STONE = 1;
+    private static final Integer ORE = 2;
+
+    private static final OreTargets<Integer> STONE_TO_ORE = new OreTargets<>() {
+        @Override
+        public Integer match(Integer current, EngineRandom random) {
+            return current == STONE ? ORE : null;
+        }
+
+        @Override
+        public float discardOnAirChance() {
+            return 0.5f;
+        }
+
+        @Override
+        public boolean mayReplaceOwnOre() {
+            return false;
+        }
+    };
+
+    /** Chunks run before measuring, so the JIT has compiled the growers. */
+    private static final int WARMUP_CHUNKS = 300;
+    private static final int MEASURED_CHUNKS = 200;
+
+    /** Veins and template stamps per stand-in chunk, about a mountain chunk's worth. */
+    private static final int VEINS_PER_CHUNK = 48;
+
+    private static com.sun.management.ThreadMXBean threads;
+    private static Properties budgets;
+
+    private final FlatVoxels<Integer> voxels = new FlatVoxels<>(0, -64, 0, 16, 384, 16, STONE,
+            state -> state == AIR, state -> false);
+    private final WriteBounds bounds = WriteBounds.column(0, 0);
+    private final GrowthStats stats = new GrowthStats();
+    private final VeinRandom random = new VeinRandom(0x5EEDL);
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported(), "Thread allocation counters not supported");
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        budgets = new Properties();
+        try (InputStream in = EngineAllocationTest.class.getResourceAsStream("/mountainores/allocation-budgets.properties")) {
+            assertNotNull(in, "allocation-budgets.properties missing");
+            budgets.load(in);
+        }
+    }
+
+    @Test
+    void veinsStayWithinBudget() {
+        VeinGrower plain = new VeinGrower(false, 1.0f, false);
+        VeinGrower shrinking = new VeinGrower(true, 0.5f, true);
+        check("engine.vein", () -> {
+            for (int i = 0; i < VEINS_PER_CHUNK; i++) {
+                VeinGrower grower = (i & 1) == 0 ? plain : shrinking;
+                int size = i % 3 == 0 ? 2 + random.nextInt(4) : 10 + random.nextInt(13);
+                grower.grow(voxels, STONE_TO_ORE, random, random.nextInt(16), random.nextInt(300) - 60,
+                        random.nextInt(16), size, Integer.MAX_VALUE, bounds, stats);
+            }
+        });
+    }
+
+    @Test
+    void lodesStayWithinBudget() {
+        ClusterGrower grower = new ClusterGrower(0.5f);
+        check("engine.lode", () -> {
+            int size = 28 + random.nextInt(92);
+            grower.grow(voxels, STONE_TO_ORE, random, 8, random.nextInt(300) - 60, 8, size, Integer.MAX_VALUE,
+                    bounds, stats);
+        });
+    }
+
+    @Test
+    void templatesStayWithinBudget() {
+        VeinTemplates library = VeinTemplates.build(22, 256);
+        check("engine.template", () -> {
+            for (int i = 0; i < VEINS_PER_CHUNK; i++) {
+                library.stamp(voxels, STONE_TO_ORE, random, random.nextInt(16), random.nextInt(300) - 60,
+                        random.nextInt(16), 2 + random.nextInt(21), bounds, stats);
+            }
+        });
+    }
+
+    private void check(String key, Runnable chunk) {
+        String value = budgets.getProperty(key);
+        assertNotNull(value, "No budget committed for " + key);
+        long budget = Long.parseLong(value.trim());
+
+        for (int i = 0; i < WARMUP_CHUNKS; i++) {
+            refill();
+            chunk.run();
+        }
+        long thread = Thread.currentThread().threadId();
+        long bytes = 0;
+        for (int i = 0; i < MEASURED_CHUNKS; i++) {
+            refill();
+            long start = threads.getThreadAllocatedBytes(thread);
+            chunk.run();
+            bytes += threads.getThreadAllocatedBytes(thread) - start;
+        }
+        double perChunk = (double) bytes / MEASURED_CHUNKS;
+        assertTrue(perChunk <= budget, String.format("%s allocates %.1f B/chunk, budget %d", key, perChunk, budget));
+    }
+
+    /** Stone with about 1.5% air, so exposure checks and shrinking get exercised. */
+    private void refill() {
+        for (int y = -64; y < 320; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    voxels.setState(x, y, z, ((x * 31 + y * 17 + z * 7) & 63) == 0 ? AIR : STONE);
+                }
+            }
+        }
+    }
+}
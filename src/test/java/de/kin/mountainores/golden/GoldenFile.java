@@ -0,0 +1,114 @@
+package de.kin.mountainores.golden;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A recorded ore layout: world seed, world height and the {@link OreLayout}
+ * of a fixed set of chunks.
+ *
+ * <p>Plain text so that changes show up readably in a diff:
+ * <pre>
+ * seed 12345
+ * height 2032
+ * chunk 0 0
+ * section -4 9f3a0c51d2e4b871 3
+ * ore 3 -60 7 deepslate_iron_ore
+ * ...
+ * </pre>
+ */
+public record GoldenFile(long seed, int height, List<OreLayout> chunks) {
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("# MountainOres golden ore layout\n");
+            out.write("seed " + seed + "\n");
+            out.write("height " + height + "\n");
+            for (OreLayout chunk : chunks) {
+                out.write("chunk " + chunk.chunkX() + " " + chunk.chunkZ() + "\n");
+                for (OreLayout.Section section : chunk.sections()) {
+                    out.write("section " + section.sectionY() + " " + Long.toHexString(section.hash())
+                            + " " + section.blocks().size() + "\n");
+                    for (OreLayout.OreBlock block : section.blocks()) {
+                        out.write("ore " + block.x() + " " + block.y() + " " + block.z() + " " + block.block() + "\n");
+                    }
+                }
+            }
+        }
+    }
+
+    /** Reads a golden file from {@code in}; {@code name} is only used in error messages. */
+    public static GoldenFile read(InputStream in, String name) throws IOException {
+        long seed = 0;
+        int height = 0;
+        List<OreLayout> chunks = new ArrayList<>();
+
+        boolean inChunk = false;
+        int chunkX = 0;
+        int chunkZ = 0;
+        List<OreLayout.Section> sections = null;
+        int sectionY = 0;
+        long sectionHash = 0;
+        List<OreLayout.OreBlock> blocks = null;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNo = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split(" ");
+            try {
+                switch (parts[0]) {
+                    case "seed" -> seed = Long.parseLong(parts[1]);
+                    case "height" -> height = Integer.parseInt(parts[1]);
+                    case "chunk" -> {
+                        if (blocks != null) {
+                            sections.add(new OreLayout.Section(sectionY, sectionHash, blocks));
+                            blocks = null;
+                        }
+                        if (inChunk) {
+                            chunks.add(new OreLayout(chunkX, chunkZ, sections));
+                        }
+                        inChunk = true;
+                        chunkX = Integer.parseInt(parts[1]);
+                        chunkZ = Integer.parseInt(parts[2]);
+                        sections = new ArrayList<>();
+                    }
+                    case "section" -> {
+                        if (blocks != null) {
+                            sections.add(new OreLayout.Section(sectionY, sectionHash, blocks));
+                        }
+                        sectionY = Integer.parseInt(parts[1]);
+                        sectionHash = Long.parseUnsignedLong(parts[2], 16);
+                        blocks = new ArrayList<>(Integer.parseInt(parts[3]));
+                    }
+                    case "ore" -> blocks.add(new OreLayout.OreBlock(
+                            Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), parts[4]));
+                    default -> throw new IOException("Unknown record '" + parts[0] + "'");
+                }
+            } catch (RuntimeException e) {
+                throw new IOException(name + ":" + lineNo + ": malformed line '" + line + "'", e);
+            }
+        }
+
+        if (blocks != null) {
+            sections.add(new OreLayout.Section(sectionY, sectionHash, blocks));
+        }
+        if (inChunk) {
+            chunks.add(new OreLayout(chunkX, chunkZ, sections));
+        }
+        return new GoldenFile(seed, height, chunks);
+    }
+}
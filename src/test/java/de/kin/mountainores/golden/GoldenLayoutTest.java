@@ -0,0 +1,151 @@
+package de.kin.mountainores.golden;
+
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.MountainOresConfig;
+import de.kin.mountainores.worldgen.ShippedFeatures;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Golden ore layouts: changes to the engine or the height scaling must not
+ * alter the ore a seed generates, since unexplored chunks of existing worlds
+ * keep generating.
+ *
+ * <p>For every seed and world height, a fixed set of {@link StandInChunks}
+ * is generated with the default config and compared section by section with
+ * the committed layout in {@code /mountainores/golden/}. A failure names the first divergent chunk,
+ * section and block. A change that alters the output on purpose re-records
+ * the files with {@code ./gradlew test -PrecordGoldens} and commits them
+ * with it.
+ */
+class GoldenLayoutTest {
+
+    /** Set by {@code -PrecordGoldens}: the source directory to write the layouts to. */
+    private static final String RECORD_PROPERTY = "mountainores.recordGoldens";
+
+    private static final long[] SEEDS = {12345L, 0L, -4172144997902289642L};
+    private static final int[] HEIGHTS = {2032, 512, 320};
+    private static final int[][] CHUNKS = {{0, 0}, {1, 0}, {-1, -1}, {7, -3}};
+
+    /** The first difference found by {@link #compare}. */
+    record Divergence(int chunkX, int chunkZ, int sectionY, String detail) {
+        @Override
+        public String toString() {
+            return String.format("chunk [%d, %d] section %d: %s", chunkX, chunkZ, sectionY, detail);
+        }
+    }
+
+    @BeforeAll
+    static void setUp() {
+        ShippedFeatures.bootstrap();
+        MountainOres.CONFIG = new MountainOresConfig();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        MountainOres.CONFIG = null;
+    }
+
+    @Test
+    void layoutsMatchGoldens() throws IOException {
+        StandInChunks model = new StandInChunks();
+        String record = System.getProperty(RECORD_PROPERTY);
+        List<String> failures = new ArrayList<>();
+
+        for (long seed : SEEDS) {
+            for (int height : HEIGHTS) {
+                List<OreLayout> chunks = new ArrayList<>();
+                for (int[] chunk : CHUNKS) {
+                    chunks.add(model.generate(seed, height, chunk[0], chunk[1]));
+                }
+                GoldenFile actual = new GoldenFile(seed, height, chunks);
+                String name = "seed" + seed + "_" + height + ".golden";
+
+                if (record != null) {
+                    actual.write(Path.of(record, name));
+                    continue;
+                }
+                try (InputStream in = GoldenLayoutTest.class.getResourceAsStream("/mountainores/golden/" + name)) {
+                    assertNotNull(in, "No golden layout " + name + "; record with ./gradlew test -PrecordGoldens");
+                    compare(GoldenFile.read(in, name), actual)
+                            .ifPresent(divergence -> failures.add(name + ": " + divergence));
+                }
+            }
+        }
+        assertTrue(failures.isEmpty(), "Ore layout diverges from the goldens:\n" + String.join("\n", failures));
+    }
+
+    /** The first divergent section of {@code actual}, chunk by chunk. */
+    static Optional<Divergence> compare(GoldenFile golden, GoldenFile actual) {
+        for (int c = 0; c < golden.chunks().size(); c++) {
+            OreLayout expected = golden.chunks().get(c);
+            OreLayout generated = c < actual.chunks().size() ? actual.chunks().get(c) : null;
+            if (generated == null || generated.chunkX() != expected.chunkX() || generated.chunkZ() != expected.chunkZ()) {
+                return Optional.of(new Divergence(expected.chunkX(), expected.chunkZ(), 0,
+                        "not generated; the golden file covers other chunks, re-record it"));
+            }
+            List<OreLayout.Section> exp = expected.sections();
+            List<OreLayout.Section> act = generated.sections();
+
+            int i = 0;
+            int j = 0;
+            while (i < exp.size() || j < act.size()) {
+                OreLayout.Section e = i < exp.size() ? exp.get(i) : null;
+                OreLayout.Section a = j < act.size() ? act.get(j) : null;
+
+                if (a == null || (e != null && e.sectionY() < a.sectionY())) {
+                    return Optional.of(new Divergence(expected.chunkX(), expected.chunkZ(), e.sectionY(),
+                            "expected " + e.blocks().size() + " ore blocks, found none (first: " + e.blocks().get(0) + ")"));
+                }
+                if (e == null || a.sectionY() < e.sectionY()) {
+                    return Optional.of(new Divergence(expected.chunkX(), expected.chunkZ(), a.sectionY(),
+                            "expected no ore, found " + a.blocks().size() + " (first: " + a.blocks().get(0) + ")"));
+                }
+                if (e.hash() != a.hash()) {
+                    return Optional.of(new Divergence(expected.chunkX(), expected.chunkZ(), e.sectionY(),
+                            firstDifference(e, a)));
+                }
+                i++;
+                j++;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String firstDifference(OreLayout.Section expected, OreLayout.Section actual) {
+        List<OreLayout.OreBlock> exp = expected.blocks();
+        List<OreLayout.OreBlock> act = actual.blocks();
+        int n = Math.min(exp.size(), act.size());
+
+        for (int k = 0; k < n; k++) {
+            OreLayout.OreBlock e = exp.get(k);
+            OreLayout.OreBlock a = act.get(k);
+            if (e.equals(a)) {
+                continue;
+            }
+            int order = OreLayout.OreBlock.ORDER.compare(e, a);
+            if (order == 0) {
+                return "expected " + e + ", found " + a.block();
+            }
+            return order < 0 ? "missing " + e : "unexpected " + a;
+        }
+        if (exp.size() > n) {
+            return "missing " + exp.get(n);
+        }
+        if (act.size() > n) {
+            return "unexpected " + act.get(n);
+        }
+        return "hash mismatch with identical blocks (golden file edited by hand?)";
+    }
+}
@@ -0,0 +1,91 @@
+package de.kin.mountainores.golden;
+
+import de.kin.mountainores.engine.FlatVoxels;
+import net.minecraft.block.BlockState;
+import net.minecraft.registry.Registries;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The ore blocks of one chunk, grouped by section, with a stable hash per
+ * section. Any block whose name ends in {@code _ore} counts as ore.
+ */
+public record OreLayout(int chunkX, int chunkZ, List<Section> sections) {
+
+    /**
+     * One ore block. {@code x}/{@code z} are chunk-local, {@code y} is absolute;
+     * {@code block} is the registry ID without the {@code minecraft:} namespace.
+     */
+    public record OreBlock(int x, int y, int z, String block) {
+
+        /** Scan order of {@link #capture}: Y, then Z, then X. */
+        static final Comparator<OreBlock> ORDER = Comparator.comparingInt(OreBlock::y)
+                .thenComparingInt(OreBlock::z)
+                .thenComparingInt(OreBlock::x);
+
+        @Override
+        public String toString() {
+            return block + " at " + x + " " + y + " " + z;
+        }
+    }
+
+    public record Section(int sectionY, long hash, List<OreBlock> blocks) {
+
+        static Section of(int sectionY, List<OreBlock> blocks) {
+            return new Section(sectionY, OreLayout.hash(blocks), blocks);
+        }
+    }
+
+    /**
+     * Captures the ore layout of a stand-in chunk whose column is
+     * {@code voxels}. Sections without ore are omitted.
+     */
+    public static OreLayout capture(FlatVoxels<BlockState> voxels, int chunkX, int chunkZ) {
+        int minX = chunkX << 4;
+        int minZ = chunkZ << 4;
+        List<Section> sections = new ArrayList<>();
+
+        for (int sectionY = voxels.bottomY() >> 4; sectionY << 4 < voxels.topY(); sectionY++) {
+            int baseY = sectionY << 4;
+            List<OreBlock> blocks = new ArrayList<>();
+            for (int y = Math.max(baseY, voxels.bottomY()); y < Math.min(baseY + 16, voxels.topY()); y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        String block = Registries.BLOCK.getId(voxels.getState(minX + x, y, minZ + z).getBlock()).getPath();
+                        if (isOre(block)) {
+                            blocks.add(new OreBlock(x, y, z, block));
+                        }
+                    }
+                }
+            }
+            if (!blocks.isEmpty()) {
+                sections.add(Section.of(sectionY, blocks));
+            }
+        }
+        return new OreLayout(chunkX, chunkZ, sections);
+    }
+
+    private static boolean isOre(String block) {
+        return block.endsWith("_ore");
+    }
+
+    /** FNV-1a over the blocks in scan order; independent of registry raw IDs. */
+    static long hash(List<OreBlock> blocks) {
+        long h = 0xcbf29ce484222325L;
+        for (OreBlock block : blocks) {
+            h = mix(h, block.x() | (block.z() << 4) | (block.y() << 8));
+            h = mix(h, block.block().hashCode());
+        }
+        return h;
+    }
+
+    private static long mix(long h, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            h ^= (value >>> shift) & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,150 @@
+package de.kin.mountainores.golden;
+
+import de.kin.mountainores.HeightScaler;
+import de.kin.mountainores.engine.FlatVoxels;
+import de.kin.mountainores.engine.GrowthStats;
+import de.kin.mountainores.feature.EngineSettings;
+import de.kin.mountainores.worldgen.FeatureSeeding;
+import de.kin.mountainores.worldgen.ShippedFeatures;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.random.ChunkRandom;
+import net.minecraft.world.gen.feature.ConfiguredFeature;
+import net.minecraft.world.gen.feature.FeaturePlacementContext;
+import net.minecraft.world.gen.feature.PlacedFeature;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stand-in chunk model for the golden layouts: the shipped placed features
+ * run into a {@link FlatVoxels} column per chunk, without a world or server.
+ *
+ * <p>Terrain is deepslate below 0 and stone up to three quarters of the
+ * world height, air above, with scattered air and water pockets so that
+ * exposure checks and shrinking take effect. The features are those an
+ * Overworld biome gets with the default config (vanilla override on, no
+ * banded placement), apart from the biome-restricted dripstone copper and
+ * badlands gold. Each runs as {@code ChunkGenerator#generateFeatures} runs
+ * it: a {@link ChunkRandom} with the decorator seed of its index in
+ * {@link #FEATURES}, its decoded placement modifiers and the feature's
+ * {@code growDetached} (see {@link ShippedFeatures}). In game the index
+ * depends on the biome's feature list; here it only has to stay fixed.
+ */
+final class StandInChunks {
+
+    static final int BOTTOM_Y = -64;
+
+    private static final List<String> FEATURES = List.of(
+            "coal__underground__deep__placed",
+            "coal__underground__upper__placed",
+            "iron__underground__deep__placed",
+            "iron__underground__main__placed",
+            "iron__underground__low__placed",
+            "iron__underground__tail__placed",
+            "iron__underground_small__deep__placed",
+            "iron__underground_small__upper__placed",
+            "copper__underground__deep__placed",
+            "copper__underground__low__placed",
+            "copper__underground__peak__placed",
+            "gold__underground__main__placed",
+            "gold__underground__deep__placed",
+            "redstone__underground__best__placed",
+            "redstone__underground__tail__placed",
+            "lapis__underground__open__placed",
+            "lapis__underground__buried__placed",
+            "diamond__underground__best__placed",
+            "diamond__underground__tail__placed",
+            "diamond__underground_large__placed",
+            "coal__main__placed",
+            "coal__mid_altitude__placed",
+            "coal__high__placed",
+            "coal__high_tail__placed",
+            "iron__main__placed",
+            "iron__mid_altitude__placed",
+            "iron__high__placed",
+            "iron__mountain_tail__placed",
+            "iron__high_tail__placed",
+            "copper__main__placed",
+            "copper__mid_altitude__placed",
+            "copper__high__placed",
+            "copper__mountain_tail__placed",
+            "gold__mountain_main__placed",
+            "emerald__mountain_main__placed",
+            "gold__mountain_tail__placed",
+            "emerald__mountain_tail__placed",
+            "lode__selector__placed");
+
+    private static final BlockState STONE = Blocks.STONE.getDefaultState();
+    private static final BlockState DEEPSLATE = Blocks.DEEPSLATE.getDefaultState();
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+    private static final BlockState WATER = Blocks.WATER.getDefaultState();
+
+    private record Shipped(Identifier id, PlacedFeature placed) {
+    }
+
+    private final List<Shipped> features = new ArrayList<>();
+    private final GrowthStats stats = new GrowthStats();
+
+    /** Call {@link ShippedFeatures#bootstrap()} first. */
+    StandInChunks() {
+        for (String name : FEATURES) {
+            features.add(new Shipped(Identifier.of("mountainores", name), ShippedFeatures.load(name)));
+        }
+    }
+
+    /** Generates chunk {@code (chunkX, chunkZ)} of a world with {@code seed} and top Y {@code height}. */
+    OreLayout generate(long seed, int height, int chunkX, int chunkZ) {
+        ChunkPos chunk = new ChunkPos(chunkX, chunkZ);
+        int minX = chunk.getStartX();
+        int minZ = chunk.getStartZ();
+        FlatVoxels<BlockState> voxels = new FlatVoxels<>(minX, BOTTOM_Y, minZ, 16, height - BOTTOM_Y, 16, STONE,
+                BlockState::isAir, state -> !state.getFluidState().isEmpty());
+        int surface = HeightScaler.SCALE_THRESHOLD + (height - HeightScaler.SCALE_THRESHOLD) * 3 / 4;
+        for (int y = BOTTOM_Y; y < height; y++) {
+            for (int z = minZ; z < minZ + 16; z++) {
+                for (int x = minX; x < minX + 16; x++) {
+                    voxels.setState(x, y, z, terrain(x, y, z, surface));
+                }
+            }
+        }
+
+        ChunkRandom random = FeatureSeeding.newChunkRandom();
+        long populationSeed = FeatureSeeding.populationSeed(random, seed, chunk);
+        BlockPos origin = ShippedFeatures.origin(chunk, BOTTOM_Y);
+        EngineSettings settings = EngineSettings.current();
+        for (int index = 0; index < features.size(); index++) {
+            Shipped feature = features.get(index);
+            FeaturePlacementContext context = ShippedFeatures.context(seed, BOTTOM_Y, height - BOTTOM_Y,
+                    feature.id(), feature.placed());
+            ConfiguredFeature<?, ?> configured = feature.placed().feature().value();
+            random.setDecoratorSeed(populationSeed, index, FeatureSeeding.ORE_STEP);
+            ShippedFeatures.positions(feature.placed(), context, random, origin)
+                    .forEach(pos -> ShippedFeatures.grow(configured, voxels, random, pos, settings, stats));
+        }
+        return OreLayout.capture(voxels, chunkX, chunkZ);
+    }
+
+    private static BlockState terrain(int x, int y, int z, int surface) {
+        if (y >= surface) {
+            return AIR;
+        }
+        long h = mix(((long) x * 0x9E3779B97F4A7C15L) ^ ((long) y * 0xC2B2AE3D27D4EB4FL) ^ ((long) z * 0x165667B19E3779F9L));
+        if ((h & 63) == 0) {
+            return AIR;
+        }
+        if ((h & 255) == 1) {
+            return WATER;
+        }
+        return y < 0 ? DEEPSLATE : STONE;
+    }
+
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,200 @@
+package de.kin.mountainores.locate;
+
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.MountainOresConfig;
+import de.kin.mountainores.engine.FlatVoxels;
+import de.kin.mountainores.engine.GrowthStats;
+import de.kin.mountainores.feature.EngineSettings;
+import de.kin.mountainores.feature.LodeSelectorFeature;
+import de.kin.mountainores.worldgen.FeatureSeeding;
+import de.kin.mountainores.worldgen.ShippedFeatures;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.random.ChunkRandom;
+import net.minecraft.world.gen.feature.FeaturePlacementContext;
+import net.minecraft.world.gen.feature.PlacedFeature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lode predictions ({@code /mountainores locate lode}) against generation.
+ *
+ * <p>For a few seeds and world heights, a {@link LodeLocator} over the shipped
+ * lode placed feature predicts every chunk of an area, and every chunk is
+ * generated as well: a {@link ChunkRandom} seeded as
+ * {@code ChunkGenerator#generateFeatures} seeds it ({@link FeatureSeeding}),
+ * the placed feature's modifiers, and {@link LodeSelectorFeature#growDetached}
+ * into a stone and deepslate column. A chunk must get ore exactly when a lode
+ * is predicted for it, at the predicted X and Z, of the predicted ore, around
+ * the predicted centre and not more than the predicted size. Chunks without
+ * a prediction must stay free of ore. Both the rarity roll and the lode grid
+ * ({@code lodeGrid}) are checked.
+ */
+class LodePredictionTest {
+
+    private static final long[] SEEDS = {12345L, 0L, -4172144997902289642L};
+    /** Top Y of the worlds; the bottom is always {@link #BOTTOM_Y}. */
+    private static final int[] TOP_YS = {2032, 320};
+    private static final int BOTTOM_Y = -64;
+    /** Chunks scanned around 0, 0: about 8 lodes per world at the shipped rarity of 850. */
+    private static final int RADIUS = 40;
+    /** The feature's index in the ore step; depends on the biome in game, any value works for both sides. */
+    private static final int FEATURE_INDEX = 7;
+
+    private static final BlockState STONE = Blocks.STONE.getDefaultState();
+    private static final BlockState DEEPSLATE = Blocks.DEEPSLATE.getDefaultState();
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+
+    private static PlacedFeature placed;
+    private static LodeSelectorFeature.Config config;
+
+    private record Generated(BlockPos pos, List<BlockPos> blocks, List<String> ores) {
+    }
+
+    @BeforeAll
+    static void loadFeature() {
+        ShippedFeatures.bootstrap();
+        placed = ShippedFeatures.load(LodeLocator.LODE_PLACED_FEATURE.getPath());
+        config = (LodeSelectorFeature.Config) placed.feature().value().config();
+    }
+
+    @AfterEach
+    void resetConfig() {
+        MountainOres.CONFIG = null;
+    }
+
+    @Test
+    void predictionsMatchGeneration() {
+        MountainOres.CONFIG = new MountainOresConfig();
+        checkWorlds("rarity");
+    }
+
+    @Test
+    void gridPredictionsMatchGeneration() {
+        MountainOresConfig cfg = new MountainOresConfig();
+        cfg.lodeGrid = true;
+        MountainOres.CONFIG = cfg;
+        checkWorlds("lode grid");
+    }
+
+    private void checkWorlds(String mode) {
+        for (long seed : SEEDS) {
+            for (int topY : TOP_YS) {
+                String world = mode + ", seed " + seed + ", top Y " + topY;
+                int height = topY - BOTTOM_Y;
+                LodeLocator locator = LodeLocator.of(seed, BOTTOM_Y, height, FEATURE_INDEX,
+                        placed.placementModifiers(), config);
+                FeaturePlacementContext context = ShippedFeatures.context(seed, BOTTOM_Y, height,
+                        LodeLocator.LODE_PLACED_FEATURE, placed);
+
+                int lodes = 0;
+                for (int chunkZ = -RADIUS; chunkZ <= RADIUS; chunkZ++) {
+                    for (int chunkX = -RADIUS; chunkX <= RADIUS; chunkX++) {
+                        ChunkPos chunk = new ChunkPos(chunkX, chunkZ);
+                        List<LodeLocator.Prediction> predicted = locator.predict(chunkX, chunkZ, null);
+                        List<Generated> generated = generate(seed, topY, chunk, context);
+                        String where = world + ", chunk [" + chunkX + ", " + chunkZ + "]";
+
+                        assertEquals(predicted.size(), generated.size(), where + ": predicted and generated lodes");
+                        for (int i = 0; i < predicted.size(); i++) {
+                            check(where, predicted.get(i), generated.get(i));
+                        }
+                        lodes += predicted.size();
+                    }
+                }
+                assertTrue(lodes > 0, world + ": no lodes predicted, the check would be vacuous");
+            }
+        }
+    }
+
+    private static void check(String where, LodeLocator.Prediction predicted, Generated generated) {
+        assertEquals(predicted.pos().getX(), generated.pos().getX(), where + ": lode X");
+        assertEquals(predicted.pos().getZ(), generated.pos().getZ(), where + ": lode Z");
+        assertTrue(!generated.blocks().isEmpty(), where + ": " + predicted.ore() + " lode predicted, no ore generated");
+        assertTrue(generated.blocks().size() <= predicted.targetBlocks(),
+                where + ": " + generated.blocks().size() + " blocks placed, " + predicted.targetBlocks() + " predicted");
+
+        // The cluster grower samples points in a cube of half-width 2 * cbrt(target), rounded to blocks
+        double reach = 2.0 * Math.cbrt(predicted.targetBlocks()) + 0.5;
+        BlockPos center = predicted.pos();
+        for (int i = 0; i < generated.blocks().size(); i++) {
+            BlockPos block = generated.blocks().get(i);
+            assertEquals(predicted.ore(), generated.ores().get(i), where + ": ore at " + block.toShortString());
+            boolean inside = Math.abs(block.getX() - center.getX()) <= reach
+                    && Math.abs(block.getY() - center.getY()) <= reach
+                    && Math.abs(block.getZ() - center.getZ()) <= reach;
+            assertTrue(inside, where + ": ore at " + block.toShortString()
+                    + " is outside the lode predicted at " + center.toShortString());
+        }
+    }
+
+    /** Runs the lode placed feature in the chunk as the chunk generator would. */
+    private static List<Generated> generate(long seed, int topY, ChunkPos chunk, FeaturePlacementContext context) {
+        ChunkRandom random = FeatureSeeding.newChunkRandom();
+        long populationSeed = FeatureSeeding.populationSeed(random, seed, chunk);
+        random.setDecoratorSeed(populationSeed, FEATURE_INDEX, FeatureSeeding.ORE_STEP);
+
+        List<Generated> generated = new ArrayList<>(1);
+        ShippedFeatures.positions(placed, context, random, ShippedFeatures.origin(chunk, BOTTOM_Y)).forEach(pos -> {
+            FlatVoxels<BlockState> voxels = column(chunk, topY);
+            LodeSelectorFeature.growDetached(voxels, config, random, pos, EngineSettings.current(), new GrowthStats());
+            generated.add(ores(voxels, chunk, pos));
+        });
+        return generated;
+    }
+
+    /** Deepslate below 0 and stone above, with about 1.5% air so exposure shrinking takes effect. */
+    private static FlatVoxels<BlockState> column(ChunkPos chunk, int topY) {
+        FlatVoxels<BlockState> voxels = new FlatVoxels<>(chunk.getStartX(), BOTTOM_Y, chunk.getStartZ(),
+                16, topY - BOTTOM_Y, 16, STONE, BlockState::isAir, state -> !state.getFluidState().isEmpty());
+        for (int y = BOTTOM_Y; y < topY; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    BlockState rock = y < 0 ? DEEPSLATE : STONE;
+                    voxels.setState(chunk.getStartX() + x, y, chunk.getStartZ() + z,
+                            ((x * 31 + y * 17 + z * 7) & 63) == 0 ? AIR : rock);
+                }
+            }
+        }
+        return voxels;
+    }
+
+    private static Generated ores(FlatVoxels<BlockState> voxels, ChunkPos chunk, BlockPos pos) {
+        List<BlockPos> blocks = new ArrayList<>();
+        List<String> ores = new ArrayList<>();
+        for (int y = voxels.bottomY(); y < voxels.topY(); y++) {
+            for (int z = chunk.getStartZ(); z <= chunk.getEndZ(); z++) {
+                for (int x = chunk.getStartX(); x <= chunk.getEndX(); x++) {
+                    BlockState state = voxels.getState(x, y, z);
+                    if (!state.isOf(Blocks.STONE) && !state.isOf(Blocks.DEEPSLATE) && !state.isAir()) {
+                        blocks.add(new BlockPos(x, y, z));
+                        ores.add(oreName(state));
+                    }
+                }
+            }
+        }
+        return new Generated(pos, blocks, ores);
+    }
+
+    /** As {@link LodeSelectorFeature.Entry#oreName()} names the ore of an entry. */
+    private static String oreName(BlockState state) {
+        String path = Registries.BLOCK.getId(state.getBlock()).getPath();
+        if (path.startsWith("deepslate_")) {
+            path = path.substring("deepslate_".length());
+        }
+        if (path.endsWith("_ore")) {
+            path = path.substring(0, path.length() - "_ore".length());
+        }
+        return path;
+    }
+}
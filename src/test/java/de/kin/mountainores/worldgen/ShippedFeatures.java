@@ -0,0 +1,260 @@
+package de.kin.mountainores.worldgen;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.MapCodec;
+import de.kin.mountainores.FeatureRegistrar;
+import de.kin.mountainores.MountainOres;
+import de.kin.mountainores.engine.GrowthStats;
+import de.kin.mountainores.engine.VoxelAccess;
+import de.kin.mountainores.feature.EngineSettings;
+import de.kin.mountainores.feature.LodeSelectorFeature;
+import de.kin.mountainores.feature.VariableOreFeature;
+import de.kin.mountainores.placement.BandedHeightPlacementModifier;
+import de.kin.mountainores.placement.BiomePresencePlacementModifier;
+import de.kin.mountainores.placement.LodeGridPlacementModifier;
+import de.kin.mountainores.placement.ProvinceDensityPlacementModifier;
+import de.kin.mountainores.placement.ScaledCountPlacementModifier;
+import de.kin.mountainores.placement.ScaledHeightRangePlacementModifier;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.block.BlockState;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
+import net.minecraft.world.gen.feature.ConfiguredFeature;
+import net.minecraft.world.gen.feature.Feature;
+import net.minecraft.world.gen.feature.FeaturePlacementContext;
+import net.minecraft.world.gen.feature.OreFeatureConfig;
+import net.minecraft.world.gen.feature.PlacedFeature;
+import net.minecraft.world.gen.placementmodifier.BiomePlacementModifier;
+import net.minecraft.world.gen.placementmodifier.PlacementModifier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The placed features of {@code data/mountainores/worldgen} as shipped, run
+ * outside a server for tests.
+ *
+ * <p>Mod entrypoints do not run under the JUnit launcher, so the mod's
+ * features and placement modifier types are never registered. The JSONs are
+ * decoded here instead: {@code mountainores:} modifiers with the class's
+ * {@code MODIFIER_CODEC}, vanilla ones with {@link PlacementModifier#CODEC},
+ * configured features with the codec of the feature from
+ * {@link FeatureRegistrar#features()}. Block tags are not bound either, so
+ * the {@code stone_ore_replaceables} and {@code deepslate_ore_replaceables}
+ * rule tests are decoded as block matches on stone and deepslate. In the
+ * stone and deepslate the tests generate into, they accept the same blocks
+ * and, like the tag match, draw nothing from the random.
+ */
+public final class ShippedFeatures {
+
+    private static final String ROOT = "/data/mountainores/worldgen/";
+
+    private static final Map<String, MapCodec<? extends PlacementModifier>> MODIFIERS = Map.of(
+            "scaled_count", ScaledCountPlacementModifier.MODIFIER_CODEC,
+            "scaled_height_range", ScaledHeightRangePlacementModifier.MODIFIER_CODEC,
+            "province_density", ProvinceDensityPlacementModifier.MODIFIER_CODEC,
+            "banded_height", BandedHeightPlacementModifier.MODIFIER_CODEC,
+            "biome_presence", BiomePresencePlacementModifier.MODIFIER_CODEC,
+            "lode_grid", LodeGridPlacementModifier.MODIFIER_CODEC);
+
+    private static final Map<String, String> UNTAGGED = Map.of(
+            "minecraft:stone_ore_replaceables", "minecraft:stone",
+            "minecraft:deepslate_ore_replaceables", "minecraft:deepslate");
+
+    private static boolean bootstrapped;
+
+    private ShippedFeatures() {}
+
+    /** Loads the vanilla registries; call before anything else here. */
+    public static synchronized void bootstrap() {
+        if (!bootstrapped) {
+            SharedConstants.createGameVersion();
+            Bootstrap.initialize();
+            bootstrapped = true;
+        }
+    }
+
+    /** The placed feature {@code mountainores:<name>} with its configured feature. */
+    public static PlacedFeature load(String name) {
+        JsonObject placed = read("placed_feature/" + name + ".json");
+        JsonObject configured = read("configured_feature/"
+                + Identifier.of(placed.get("feature").getAsString()).getPath() + ".json");
+        untag(configured);
+
+        Identifier type = Identifier.of(configured.get("type").getAsString());
+        Feature<?> feature = FeatureRegistrar.features().get(type);
+        if (feature == null) {
+            throw new IllegalArgumentException(name + ": unknown feature type " + type);
+        }
+        ConfiguredFeature<?, ?> configuredFeature =
+                feature.getCodec().codec().parse(JsonOps.INSTANCE, configured).getOrThrow();
+
+        List<PlacementModifier> modifiers = new ArrayList<>();
+        for (JsonElement modifier : placed.getAsJsonArray("placement")) {
+            modifiers.add(modifier(modifier.getAsJsonObject()));
+        }
+        return new PlacedFeature(RegistryEntry.of(configuredFeature), modifiers);
+    }
+
+    /**
+     * A placement context for {@code placed}, registered as {@code id}, in a
+     * world with the given seed, bottom Y and height. The world answers only
+     * what the modifiers read (seed, bottom Y, height, the placed feature's
+     * ID), without allocating, so allocation tests can measure through it;
+     * the chunk generator only its minimum Y and height.
+     */
+    public static FeaturePlacementContext context(long seed, int bottomY, int height, Identifier id, PlacedFeature placed) {
+        Registry<?> registry = stub(Registry.class, Map.of(
+                "getId", (Function<Object[], Object>) args -> args[0] == placed ? id : null));
+        DynamicRegistryManager registries = stub(DynamicRegistryManager.class, Map.of(
+                "getOrThrow", (Function<Object[], Object>) args -> {
+                    if (args[0] != RegistryKeys.PLACED_FEATURE) {
+                        throw new UnsupportedOperationException("Test world has no registry " + args[0]);
+                    }
+                    return registry;
+                }));
+        StructureWorldAccess world = stub(StructureWorldAccess.class, Map.of(
+                "getSeed", seed,
+                "getBottomY", bottomY,
+                "getHeight", height,
+                "getRegistryManager", registries));
+
+        ChunkGenerator generator = mock();
+        when(generator.getMinimumY()).thenReturn(bottomY);
+        when(generator.getWorldHeight()).thenReturn(height);
+        return new FeaturePlacementContext(world, generator, Optional.of(placed));
+    }
+
+    /**
+     * The feature origin of a chunk as {@code ChunkGenerator#generateFeatures}
+     * passes it: the chunk's corner at the bottom section.
+     */
+    public static BlockPos origin(ChunkPos chunk, int bottomY) {
+        return new BlockPos(chunk.getStartX(), bottomY >> 4 << 4, chunk.getStartZ());
+    }
+
+    /**
+     * The positions the modifiers of {@code placed} produce from
+     * {@code origin}, chained as in {@code PlacedFeature#generate}. The stream
+     * is lazy like the original: consume it while growing, so that modifiers
+     * and features draw from {@code random} in the same order. The biome
+     * filters ({@code minecraft:biome}, {@code mountainores:biome_presence})
+     * are taken to pass, as in a biome the feature is added to.
+     */
+    public static Stream<BlockPos> positions(PlacedFeature placed, FeaturePlacementContext context, Random random,
+                                             BlockPos origin) {
+        Stream<BlockPos> positions = Stream.of(origin);
+        for (PlacementModifier modifier : placed.placementModifiers()) {
+            if (modifier instanceof BiomePlacementModifier || modifier instanceof BiomePresencePlacementModifier) {
+                continue;
+            }
+            positions = positions.flatMap(pos -> modifier.getPositions(context, random, pos));
+        }
+        return positions;
+    }
+
+    /**
+     * Grows the configured feature at {@code pos} into {@code voxels}, through
+     * the feature's {@code growDetached}.
+     */
+    public static boolean grow(ConfiguredFeature<?, ?> configured, VoxelAccess<BlockState> voxels, Random random,
+                               BlockPos pos, EngineSettings settings, GrowthStats stats) {
+        if (configured.feature() instanceof VariableOreFeature vein && configured.config() instanceof OreFeatureConfig ore) {
+            return vein.growDetached(voxels, ore, random, pos, settings, stats);
+        }
+        if (configured.config() instanceof LodeSelectorFeature.Config lode) {
+            return LodeSelectorFeature.growDetached(voxels, lode, random, pos, settings, stats);
+        }
+        throw new IllegalArgumentException("No detached growth for " + configured.feature());
+    }
+
+    /**
+     * An implementation of {@code type} that answers the named no-argument
+     * methods with the given values and the others through the given
+     * {@code Function<Object[], Object>}. Any other call fails, so a modifier
+     * that starts reading more of the world shows up here.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<?> type, Map<String, Object> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Object answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException("Test stand-in " + type.getSimpleName() + " has no " + method.getName());
+            }
+            return answer instanceof Function<?, ?> function ? ((Function<Object[], Object>) function).apply(args) : answer;
+        });
+    }
+
+    private static PlacementModifier modifier(JsonObject json) {
+        Identifier type = Identifier.of(json.get("type").getAsString());
+        if (!type.getNamespace().equals(MountainOres.MOD_ID)) {
+            return PlacementModifier.CODEC.parse(JsonOps.INSTANCE, json).getOrThrow();
+        }
+        MapCodec<? extends PlacementModifier> codec = MODIFIERS.get(type.getPath());
+        if (codec == null) {
+            throw new IllegalArgumentException("Unknown placement modifier " + type);
+        }
+        return codec.codec().parse(JsonOps.INSTANCE, json).getOrThrow();
+    }
+
+    /** Replaces the ore replaceable tag matches in {@code json} by block matches. */
+    private static void untag(JsonElement json) {
+        if (json.isJsonArray()) {
+            json.getAsJsonArray().forEach(ShippedFeatures::untag);
+            return;
+        }
+        if (!json.isJsonObject()) {
+            return;
+        }
+        JsonObject object = json.getAsJsonObject();
+        JsonElement predicate = object.get("predicate_type");
+        if (predicate != null && predicate.getAsString().equals("minecraft:tag_match")) {
+            String tag = object.get("tag").getAsString();
+            String block = UNTAGGED.get(tag);
+            if (block == null) {
+                throw new IllegalArgumentException("No block match for tag " + tag);
+            }
+            object.remove("tag");
+            object.addProperty("predicate_type", "minecraft:block_match");
+            object.addProperty("block", block);
+            return;
+        }
+        object.entrySet().forEach(entry -> untag(entry.getValue()));
+    }
+
+    private static JsonObject read(String path) {
+        try (InputStream in = ShippedFeatures.class.getResourceAsStream(ROOT + path)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No " + ROOT + path);
+            }
+            return JsonParser.parseReader(new InputStreamReader(in, StandardCharsets.UTF_8)).getAsJsonObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}